@@ -0,0 +1,13 @@
+package com.chef.william.config.cache;
+
+/**
+ * Published by {@link SecondLevelCacheInvalidator} when the version stamp of a group moved because of
+ * writes this instance did not make itself, typically on another instance. Those writes never reached
+ * the local change events, so listeners holding in-memory state derived from the group reload it.
+ */
+public record CacheRegionVersionChangedEvent(String group) {
+
+    public static final String INGREDIENT = "ingredient";
+    public static final String FOOD = "food";
+    public static final String RECIPE = "recipe";
+}
@@ -0,0 +1,138 @@
+package com.chef.william.config.cache;
+
+import com.chef.william.model.CacheRegionVersion;
+import com.chef.william.repository.CacheRegionVersionRepository;
+import com.chef.william.service.food.FoodChangedEvent;
+import com.chef.william.service.ingredient.IngredientChangedEvent;
+import com.chef.william.service.recipe.RecipeChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the second-level cache of several app instances consistent. Hibernate updates the local
+ * regions on every write it performs, but other instances never hear about it, so each write also
+ * bumps a version stamp in cache_region_version. Every instance polls the stamps and evicts a group
+ * of regions when its stamp moved, and publishes a {@link CacheRegionVersionChangedEvent} so that
+ * in-memory indexes and caches built from the same rows reload as well.
+ * <p>
+ * The bump runs after the writing transaction committed, in a short transaction of its own: the
+ * stamp row is a single hot row per group, and updating it inside the business transaction would
+ * hold its lock until commit and serialize every catalog write in the cluster. Bumping afterwards
+ * also means a poller never sees the new stamp before the data it stands for.
+ * <p>
+ * Writes that bypass Hibernate (the JDBC ingredient import) are not reflected in the local query
+ * cache either, so the query regions of a group are also evicted locally after each commit.
+ */
+@Slf4j
+@Component
+public class SecondLevelCacheInvalidator implements SmartInitializingSingleton {
+
+    static final String INGREDIENT_GROUP = CacheRegionVersionChangedEvent.INGREDIENT;
+    static final String FOOD_GROUP = CacheRegionVersionChangedEvent.FOOD;
+    static final String RECIPE_GROUP = CacheRegionVersionChangedEvent.RECIPE;
+
+    // version stamp -> entity and collection regions, query regions; recipes are not second-level
+    // cached, their stamp only drives the in-memory recipe indexes
+    static final Map<String, List<String>> ENTITY_REGIONS = Map.of(
+            INGREDIENT_GROUP, List.of("ingredient", "ingredient.nutritionList", "nutrition"),
+            FOOD_GROUP, List.of("food"),
+            RECIPE_GROUP, List.of());
+    static final Map<String, List<String>> QUERY_REGIONS = Map.of(
+            INGREDIENT_GROUP, List.of("ingredient-queries"),
+            FOOD_GROUP, List.of("food-queries"),
+            RECIPE_GROUP, List.of());
+
+    private final CacheRegionVersionRepository versionRepository;
+    private final Cache cache;
+    private final TransactionTemplate bumpTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, Long> seenVersions = new ConcurrentHashMap<>();
+
+    public SecondLevelCacheInvalidator(CacheRegionVersionRepository versionRepository,
+                                       EntityManagerFactory entityManagerFactory,
+                                       PlatformTransactionManager transactionManager,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.versionRepository = versionRepository;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.bumpTransaction = new TransactionTemplate(transactionManager);
+        this.bumpTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String group : ENTITY_REGIONS.keySet()) {
+            if (!versionRepository.existsById(group)) {
+                try {
+                    versionRepository.save(new CacheRegionVersion(group));
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance created it first
+                }
+            }
+        }
+        versionRepository.findAll().forEach(version -> seenVersions.put(version.getRegion(), version.getVersion()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        bump(INGREDIENT_GROUP);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        bump(FOOD_GROUP);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        bump(RECIPE_GROUP);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.hibernate.invalidation-poll-interval-ms:5000}")
+    public void evictChangedRegions() {
+        for (CacheRegionVersion version : versionRepository.findAll()) {
+            Long seen = seenVersions.put(version.getRegion(), version.getVersion());
+            if (seen != null && seen != version.getVersion() && ENTITY_REGIONS.containsKey(version.getRegion())) {
+                log.debug("Cache region group {} moved from version {} to {}, evicting", version.getRegion(),
+                        seen, version.getVersion());
+                ENTITY_REGIONS.get(version.getRegion()).forEach(cache::evictRegion);
+                QUERY_REGIONS.get(version.getRegion()).forEach(cache::evictQueryRegion);
+                eventPublisher.publishEvent(new CacheRegionVersionChangedEvent(version.getRegion()));
+            }
+        }
+    }
+
+    private void bump(String group) {
+        QUERY_REGIONS.get(group).forEach(cache::evictQueryRegion);
+        Long version;
+        try {
+            version = bumpTransaction.execute(status ->
+                    versionRepository.increment(group) == 0 ? null : versionRepository.findVersion(group));
+        } catch (DataAccessException e) {
+            // The write itself is committed; other instances then catch up when their regions expire
+            log.warn("Could not bump cache region version for group {}", group, e);
+            return;
+        }
+        if (version != null) {
+            // The local regions already reflect this write; skip the poll's eviction unless
+            // another instance also wrote since the last poll
+            seenVersions.computeIfPresent(group, (key, seen) -> seen == version - 1 ? version : seen);
+        }
+    }
+}
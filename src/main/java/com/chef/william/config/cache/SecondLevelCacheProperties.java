@@ -0,0 +1,54 @@
+package com.chef.william.config.cache;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache.hibernate")
+public class SecondLevelCacheProperties {
+
+    /**
+     * Size and TTL per Hibernate cache region. Hibernate refuses to start if it needs a region that
+     * is not listed here, so no region is ever created unbounded.
+     */
+    private Map<String, Region> regions = defaultRegions();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Region {
+
+        private long maxSize = 10_000;
+
+        /**
+         * Entries never expire when unset.
+         */
+        private Duration ttl;
+
+        public Region(long maxSize, Duration ttl) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+    }
+
+    private static Map<String, Region> defaultRegions() {
+        Map<String, Region> regions = new LinkedHashMap<>();
+        regions.put("ingredient", new Region(10_000, Duration.ofMinutes(30)));
+        regions.put("ingredient.nutritionList", new Region(10_000, Duration.ofMinutes(30)));
+        regions.put("nutrition", new Region(100_000, Duration.ofMinutes(30)));
+        regions.put("food", new Region(5_000, Duration.ofMinutes(30)));
+        regions.put("ingredient-queries", new Region(5_000, Duration.ofMinutes(10)));
+        regions.put("food-queries", new Region(5_000, Duration.ofMinutes(10)));
+        regions.put("default-query-results-region", new Region(1_000, Duration.ofMinutes(10)));
+        // Last-update time per table, which query cache entries are checked against; must not expire
+        regions.put("default-update-timestamps-region", new Region(1_000, null));
+        return regions;
+    }
+}
@@ -0,0 +1,81 @@
+package com.chef.william.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to the configured read replicas. Only active when
+ * app.datasource.replica.urls is set; otherwise Boot's single pooled data source is used as before.
+ * The lazy proxy matters: which pool to use is only known once the transaction has declared itself
+ * read-only, after the transaction manager asked for a connection.
+ * <p>
+ * Reads that must see a commit made moments ago by another thread, such as the in-memory index
+ * reloads triggered by change events, have no user to pin to the primary and therefore run in
+ * read-write transactions.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("!'${app.datasource.replica.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties replicaProperties) {
+        return new ReadYourWritesTracker(replicaProperties.getStickiness());
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ReplicaProperties replicaProperties,
+                                                             ReadYourWritesTracker readYourWritesTracker) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaProperties.getUrls()) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(StringUtils.hasText(replicaProperties.getUsername())
+                    ? replicaProperties.getUsername() : properties.determineUsername());
+            replica.setPassword(StringUtils.hasText(replicaProperties.getPassword())
+                    ? replicaProperties.getPassword() : properties.determinePassword());
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            replica.setConnectionTimeout(replicaProperties.getConnectionTimeout().toMillis());
+            // Don't fail startup on a replica that is down; the health check keeps it out of rotation
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                readYourWritesTracker, replicaProperties.getMaxLag(), replicaProperties.getLagQuery());
+        router.checkHealth();
+        return router;
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                    ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                    ReadYourWritesTracker readYourWritesTracker) {
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primaryDataSource, readYourWritesTracker));
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
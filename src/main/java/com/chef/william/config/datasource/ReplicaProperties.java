@@ -0,0 +1,53 @@
+package com.chef.william.config.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * Seconds the replica is behind the primary; zero when it has replayed everything it received.
+     */
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    /**
+     * JDBC URLs of the read replicas. Read-only transactions stay on the primary when empty.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Replica credentials; default to spring.datasource.username and password.
+     */
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Replicas further behind than this are skipped until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * How long a user's reads stay on the primary after one of their transactions commits a write.
+     */
+    private Duration stickiness = Duration.ofSeconds(5);
+
+    /**
+     * Must return the replica's lag in seconds as the first column of a single row.
+     */
+    private String lagQuery = POSTGRES_LAG_QUERY;
+}
@@ -0,0 +1,119 @@
+package com.chef.william.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections for read-only transactions. Replicas are used round-robin while their last
+ * health check succeeded within {@code maxLag}; otherwise, and for users who wrote within the
+ * stickiness window, connections come from the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWritesTracker tracker,
+                                    Duration maxLag, String lagQuery) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.tracker = tracker;
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (tracker.isPinnedToPrimary(ReadYourWritesTracker.currentUser())) {
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.update(false, -1, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing only hands out pooled connections");
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(lagQuery)) {
+                long lagMillis = result.next() ? Math.round(result.getDouble(1) * 1000) : Long.MAX_VALUE;
+                replica.update(lagMillis <= maxLagMillis, lagMillis, null);
+            } catch (SQLException e) {
+                replica.update(false, -1, e);
+            }
+        }
+    }
+
+    public long healthyReplicaCount() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        synchronized void update(boolean healthy, long lagMillis, SQLException failure) {
+            boolean changed = this.healthy != healthy;
+            this.healthy = healthy;
+            if (!changed) {
+                return;
+            }
+            if (healthy) {
+                log.info("Read replica {} is back in rotation (lag {} ms)", dataSource, lagMillis);
+            } else if (failure != null) {
+                log.warn("Read replica {} taken out of rotation: {}", dataSource, failure.getMessage());
+            } else {
+                log.warn("Read replica {} taken out of rotation: lag {} ms", dataSource, lagMillis);
+            }
+        }
+    }
+}
@@ -1,17 +1,43 @@
 package com.chef.william.config.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClientBuilder;
+
+import java.net.URI;
 
 @Configuration
 public class CognitoClientConfig {
 
+    /**
+     * Non-blocking client on a Netty event loop. Callers on virtual threads only park on the
+     * returned future, and a slow Cognito ties up neither a platform thread nor a pinned carrier.
+     */
     @Bean
-    public CognitoIdentityProviderClient cognitoIdentityProviderClient(CognitoProperties cognitoProperties) {
-        return CognitoIdentityProviderClient.builder()
+    public CognitoIdentityProviderAsyncClient cognitoIdentityProviderAsyncClient(CognitoProperties cognitoProperties,
+                                                                                 MeterRegistry meterRegistry) {
+        CognitoProperties.Client client = cognitoProperties.getClient();
+        CognitoIdentityProviderAsyncClientBuilder builder = CognitoIdentityProviderAsyncClient.builder()
                 .region(Region.of(cognitoProperties.getRegion()))
-                .build();
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(client.getMaxConnections())
+                        .connectionAcquisitionTimeout(client.getConnectionAcquisitionTimeout())
+                        .connectionTimeout(client.getConnectionTimeout()))
+                .overrideConfiguration(override -> override
+                        .apiCallAttemptTimeout(client.getCallAttemptTimeout())
+                        .apiCallTimeout(client.getCallTimeout())
+                        .retryStrategy(AwsRetryStrategy.adaptiveRetryStrategy().toBuilder()
+                                .maxAttempts(client.getMaxAttempts())
+                                .build())
+                        .addMetricPublisher(new CognitoMetricPublisher(meterRegistry)));
+        if (cognitoProperties.getEndpoint() != null && !cognitoProperties.getEndpoint().isBlank()) {
+            builder.endpointOverride(URI.create(cognitoProperties.getEndpoint().trim()));
+        }
+        return builder.build();
     }
 }
@@ -0,0 +1,56 @@
+package com.chef.william.config.security;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Publishes the SDK's per-call metrics to Micrometer: {@code cognito.client.calls}, the duration
+ * of each call with retries included, and {@code cognito.client.retries}. Both are tagged with the
+ * Cognito operation ({@code SignUp}, {@code ConfirmSignUp}, {@code AdminDeleteUser}) and the
+ * timer also with the outcome.
+ */
+public class CognitoMetricPublisher implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+
+    public CognitoMetricPublisher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void publish(MetricCollection metrics) {
+        String operation = first(metrics.metricValues(CoreMetric.OPERATION_NAME), "unknown");
+        Duration duration = first(metrics.metricValues(CoreMetric.API_CALL_DURATION), null);
+        boolean successful = first(metrics.metricValues(CoreMetric.API_CALL_SUCCESSFUL), false);
+        int retries = first(metrics.metricValues(CoreMetric.RETRY_COUNT), 0);
+
+        if (duration != null) {
+            Timer.builder("cognito.client.calls")
+                    .description("Cognito API calls, retries and backoff included")
+                    .tag("operation", operation)
+                    .tag("outcome", successful ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(duration);
+        }
+        DistributionSummary.builder("cognito.client.retries")
+                .description("Retries per Cognito API call")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(retries);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static <T> T first(List<T> values, T fallback) {
+        return values.isEmpty() ? fallback : values.get(0);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -31,12 +32,33 @@ public class CognitoProperties {
     private String appClientIds;
 
     /**
-     * Optional explicit JWKS URI. When absent, it is derived from region and userPoolId.
+     * Optional explicit JWKS URI. When absent, it is derived from region and userPoolId. A
+     * {@code file:} or {@code classpath:} location is read once and never refreshed, for tests and
+     * local runs without Cognito.
      */
     private String jwkSetUri;
 
+    /**
+     * How long fetched signing keys are used before the JWKS is fetched again.
+     */
+    private Duration jwksTtl = Duration.ofMinutes(15);
+
+    /**
+     * How long before {@link #jwksTtl} runs out the JWKS is refreshed in the background, so requests
+     * never wait for the fetch. A token signed with an unknown key still triggers an immediate,
+     * rate-limited refetch.
+     */
+    private Duration jwksRefreshAhead = Duration.ofMinutes(1);
+
     private String appClientSecret;
 
+    /**
+     * Optional endpoint override for the Cognito API client, e.g. a local stand-in for load tests.
+     */
+    private String endpoint;
+
+    private Client client = new Client();
+
     public String issuerUri() {
         return "https://cognito-idp." + region + ".amazonaws.com/" + userPoolId;
     }
@@ -65,4 +87,37 @@ public class CognitoProperties {
         }
         return allowed;
     }
+
+    /**
+     * HTTP pool, timeouts and retries of the Cognito API client.
+     */
+    @Getter
+    @Setter
+    public static class Client {
+
+        private int maxConnections = 50;
+
+        /**
+         * How long a call may wait for a free pooled connection before failing.
+         */
+        private Duration connectionAcquisitionTimeout = Duration.ofSeconds(2);
+
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Limit for a single HTTP attempt.
+         */
+        private Duration callAttemptTimeout = Duration.ofSeconds(3);
+
+        /**
+         * Limit for the whole call, retries and backoff included.
+         */
+        private Duration callTimeout = Duration.ofSeconds(8);
+
+        /**
+         * Attempts per call, the first one included. Retries use the adaptive strategy, which also
+         * slows down sending when Cognito starts throttling. SignUp is always sent once.
+         */
+        private int maxAttempts = 3;
+    }
 }
@@ -0,0 +1,36 @@
+package com.chef.william.config.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fetches the signing keys before requests arrive, so the first authenticated request does not wait
+ * for the JWKS round trip. A failed fetch only logs; the keys are then fetched on first use.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwksPrefetcher implements SmartInitializingSingleton {
+
+    private final JWKSource<SecurityContext> jwkSource;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<JWK> keys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+            log.info("Prefetched {} JWT signing key(s)", keys.size());
+        } catch (KeySourceException ex) {
+            log.warn("Could not prefetch JWT signing keys, they will be fetched on first use: {}", ex.getMessage());
+        }
+    }
+}
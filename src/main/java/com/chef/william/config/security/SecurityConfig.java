@@ -1,7 +1,15 @@
 package com.chef.william.config.security;
 
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,6 +20,14 @@ import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.ResourceUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
 
 @Configuration
 public class SecurityConfig {
@@ -28,7 +44,9 @@ public class SecurityConfig {
     private static final String[] PUBLIC_GET_ALL_ENDPOINTS = {
             "/api/foods",
             "/api/ingredients",
-            "/api/recipes"
+            "/api/recipes",
+            "/api/recipes/search",
+            "/api/autocomplete"
     };
 
     @Bean
@@ -45,16 +63,44 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Signing keys are cached and refreshed in the background ahead of expiry; {@link JwksPrefetcher}
+     * does the first fetch at startup.
+     */
+    @Bean
+    public JWKSource<SecurityContext> jwkSource(CognitoProperties cognitoProperties) {
+        String location = cognitoProperties.resolvedJwkSetUri();
+        if (location.startsWith(ResourceUtils.FILE_URL_PREFIX) || location.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
+            try (InputStream in = new DefaultResourceLoader().getResource(location).getInputStream()) {
+                return new ImmutableJWKSet<>(JWKSet.load(in));
+            } catch (IOException | ParseException ex) {
+                throw new IllegalStateException("Cannot read JWKS from " + location, ex);
+            }
+        }
+        try {
+            return JWKSourceBuilder.<SecurityContext>create(URI.create(location).toURL())
+                    .cache(cognitoProperties.getJwksTtl().toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                    .refreshAheadCache(cognitoProperties.getJwksRefreshAhead().toMillis(), true)
+                    .build();
+        } catch (MalformedURLException | IllegalArgumentException ex) {
+            throw new IllegalStateException("Invalid JWKS URI " + location, ex);
+        }
+    }
+
     @Bean
-    public JwtDecoder jwtDecoder(CognitoProperties cognitoProperties) {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withJwkSetUri(cognitoProperties.resolvedJwkSetUri()).build();
+    public JwtDecoder jwtDecoder(CognitoProperties cognitoProperties,
+                                 JWKSource<SecurityContext> jwkSource,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.cache.verified-tokens.max-size:10000}") long verifiedTokensMaxSize,
+                                 @Value("${app.cache.verified-tokens.ttl:PT5M}") Duration verifiedTokensTtl) {
+        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withJwkSource(jwkSource).build();
 
         OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(cognitoProperties.issuerUri());
         OAuth2TokenValidator<Jwt> accessTokenValidator = CognitoJwtClaimValidators.accessTokenUse();
         OAuth2TokenValidator<Jwt> clientIdValidator = CognitoJwtClaimValidators.clientIdMatches(cognitoProperties.getAllowedAppClientIds());
 
         jwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(withIssuer, accessTokenValidator, clientIdValidator));
-        return jwtDecoder;
+        return new CachingJwtDecoder(jwtDecoder, meterRegistry, verifiedTokensMaxSize, verifiedTokensTtl);
     }
 
 }
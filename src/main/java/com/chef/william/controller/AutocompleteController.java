@@ -0,0 +1,31 @@
+package com.chef.william.controller;
+
+import com.chef.william.dto.AutocompleteSuggestionDTO;
+import com.chef.william.service.autocomplete.AutocompleteService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@RequiredArgsConstructor
+public class AutocompleteController {
+
+    private final AutocompleteService autocompleteService;
+
+    @Operation(summary = "Autocomplete ingredient and food names",
+            description = "Prefix match on names and name words, served from an in-memory trie. type is INGREDIENT or FOOD; omit for both")
+    @GetMapping
+    public ResponseEntity<List<AutocompleteSuggestionDTO>> suggest(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "type", required = false) String type) {
+        return ResponseEntity.ok(autocompleteService.suggest(query, limit, type));
+    }
+}
@@ -0,0 +1,33 @@
+package com.chef.william.controller;
+
+import org.springframework.http.ETag;
+
+import java.util.List;
+
+/**
+ * If-Match handling shared by the PUT endpoints. If-None-Match on GET goes through
+ * {@link org.springframework.web.context.request.WebRequest#checkNotModified(String)}.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * The tags a conditional update may proceed on, or null when the update is unconditional (no
+     * header, or {@code *}, which only requires the resource to exist). Weak tags never match If-Match.
+     */
+    static List<String> expectedTags(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.stream().anyMatch(ETag::isWildcard)) {
+            return null;
+        }
+        return tags.stream()
+                .filter(tag -> !tag.weak())
+                .map(ETag::tag)
+                .toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.chef.william.controller;
+
+import com.chef.william.service.export.CatalogExportService;
+import com.chef.william.service.export.ExportType;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final CatalogExportService catalogExportService;
+
+    // EXPORT: GET /api/export/{foods|recipes|ingredients}
+    @Operation(summary = "Stream a catalog export",
+            description = "Streams every food, recipe or ingredient as one JSON object per line, in id order. "
+                    + "Pass gzip=true for a gzip-compressed download.")
+    @GetMapping("/{type}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String type,
+                                                        @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        ExportType exportType = ExportType.fromPath(type);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                catalogExportService.export(exportType, compressed);
+                compressed.finish();
+            } else {
+                catalogExportService.export(exportType, out);
+            }
+        };
+        String filename = exportType.path() + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -2,14 +2,18 @@ package com.chef.william.controller;
 
 import com.chef.william.dto.FoodDTO;
 import com.chef.william.dto.FoodRecipeStatusDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.service.FoodService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import tools.jackson.databind.JsonNode;
 
 
 @RestController
@@ -24,9 +28,16 @@ public class FoodController {
         return ResponseEntity.status(HttpStatus.CREATED).body(foodService.createFood(dto));
     }
 
+    // The tag is read before the body, so a concurrent write can only make the tag older than the body
     @GetMapping("/{id}")
-    public ResponseEntity<FoodDTO> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(foodService.getFoodById(id));
+    public ResponseEntity<FoodDTO> getById(@PathVariable Long id,
+                                           @RequestParam(value = "excludeMyAllergies", defaultValue = "false") boolean excludeMyAllergies,
+                                           WebRequest request) {
+        String tag = foodService.getFoodTag(id, excludeMyAllergies);
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(tag).body(foodService.getFoodById(id, excludeMyAllergies));
     }
 
     @GetMapping
@@ -35,8 +46,20 @@ public class FoodController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<FoodDTO> update(@PathVariable Long id, @Valid @RequestBody FoodDTO dto) {
-        return ResponseEntity.ok(foodService.updateFood(id, dto));
+    public ResponseEntity<FoodDTO> update(@PathVariable Long id, @Valid @RequestBody FoodDTO dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Tagged<FoodDTO> updated = foodService.updateFood(id, dto, ConditionalRequests.expectedTags(ifMatch));
+        return ResponseEntity.ok().eTag(updated.tag()).body(updated.body());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = PatchResponses.MERGE_PATCH_JSON)
+    public ResponseEntity<FoodDTO> patch(@PathVariable Long id,
+                                         @RequestBody JsonNode patch,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @RequestHeader(value = PatchResponses.PREFER, required = false) String prefer) {
+        boolean minimal = PatchResponses.prefersMinimal(prefer);
+        Tagged<FoodDTO> patched = foodService.patchFood(id, patch, ConditionalRequests.expectedTags(ifMatch), !minimal);
+        return PatchResponses.respond(patched, minimal);
     }
 
     @DeleteMapping("/{id}")
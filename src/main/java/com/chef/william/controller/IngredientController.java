@@ -1,7 +1,10 @@
 package com.chef.william.controller;
 
 import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.IngredientImportResultDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.service.IngredientService;
+import com.chef.william.service.ingredient.IngredientImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -10,10 +13,15 @@ import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import tools.jackson.databind.JsonNode;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -22,6 +30,7 @@ import java.util.List;
 public class IngredientController {
 
     private final IngredientService ingredientService;
+    private final IngredientImportService ingredientImportService;
 
     // CREATE: POST /api/ingredients
     @Operation(summary = "Create one ingredient", description = "Accepts a single IngredientDTO JSON object")
@@ -48,11 +57,31 @@ public class IngredientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // IMPORT: POST /api/ingredients/import
+    @Operation(summary = "Stream an ingredient import",
+            description = "Accepts NDJSON (one IngredientDTO per line) or CSV with a header row. Rows are committed "
+                    + "in chunks; invalid or duplicate rows are reported by line and skipped.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished; see the per-row errors"),
+            @ApiResponse(responseCode = "400", description = "Unsupported content type or malformed CSV header")
+    })
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "application/jsonl", "text/csv"})
+    public ResponseEntity<IngredientImportResultDTO> importIngredients(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        try (body) {
+            return ResponseEntity.ok(ingredientImportService.importIngredients(body, contentType));
+        }
+    }
+
     // READ: GET /api/ingredients/{id}
     @GetMapping("/{id:\\d+}")
-    public ResponseEntity<IngredientDTO> getIngredientById(@PathVariable Long id) {
-        IngredientDTO dto = ingredientService.getIngredientById(id);
-        return ResponseEntity.ok(dto);
+    public ResponseEntity<IngredientDTO> getIngredientById(@PathVariable Long id, WebRequest request) {
+        String tag = ingredientService.getIngredientTag(id);
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        Tagged<IngredientDTO> ingredient = ingredientService.getIngredientById(id, tag);
+        return ResponseEntity.ok().eTag(ingredient.tag()).body(ingredient.body());
     }
 
     // READ: GET /api/ingredients (all)
@@ -65,9 +94,22 @@ public class IngredientController {
     @PutMapping("/{id:\\d+}")
     public ResponseEntity<IngredientDTO> updateIngredient(
             @PathVariable Long id,
-            @Valid @RequestBody IngredientDTO dto) {
-        IngredientDTO updated = ingredientService.updateIngredient(id, dto);
-        return ResponseEntity.ok(updated);
+            @Valid @RequestBody IngredientDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Tagged<IngredientDTO> updated = ingredientService.updateIngredient(id, dto, ConditionalRequests.expectedTags(ifMatch));
+        return ResponseEntity.ok().eTag(updated.tag()).body(updated.body());
+    }
+
+    @PatchMapping(value = "/{id:\\d+}", consumes = PatchResponses.MERGE_PATCH_JSON)
+    public ResponseEntity<IngredientDTO> patchIngredient(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = PatchResponses.PREFER, required = false) String prefer) {
+        boolean minimal = PatchResponses.prefersMinimal(prefer);
+        Tagged<IngredientDTO> patched = ingredientService.patchIngredient(id, patch,
+                ConditionalRequests.expectedTags(ifMatch), !minimal);
+        return PatchResponses.respond(patched, minimal);
     }
 
     // DELETE: DELETE /api/ingredients/{id}
@@ -80,19 +122,27 @@ public class IngredientController {
 
 
 
+    @Operation(summary = "Search ingredients by name", description = "Substring match served from the in-memory name index, best matches first")
     @GetMapping("/search")
     public ResponseEntity<List<IngredientDTO>> searchIngredients(
-            @RequestParam(name = "name", required = false) String name) {
-        List<IngredientDTO> results = ingredientService.searchIngredientsByName(name);
+            @RequestParam(name = "name", required = false) String name,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        List<IngredientDTO> results = ingredientService.searchIngredientsByName(name, limit);
         return ResponseEntity.ok(results);
     }
 
+    @Operation(summary = "Search ingredients by nutrient range",
+            description = "Value above minValue (default 0) and at most maxValue, highest first. "
+                    + "Repeat 'and' as NUTRIENT:min:max to require further ranges")
     @GetMapping("/search/by-nutrition")
     public ResponseEntity<List<IngredientDTO>> searchIngredientByNutrient(
             @RequestParam("nutrient") String nutrient,
-            @RequestParam(value = "minValue", required = false) Double minValue) {
+            @RequestParam(value = "minValue", required = false) Double minValue,
+            @RequestParam(value = "maxValue", required = false) Double maxValue,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "and", required = false) List<String> filters) {
 
-        List<IngredientDTO> results = ingredientService.searchIngredientByNutrient(nutrient, minValue);
+        List<IngredientDTO> results = ingredientService.searchIngredientByNutrient(nutrient, minValue, maxValue, limit, filters);
         return ResponseEntity.ok(results);
     }
 
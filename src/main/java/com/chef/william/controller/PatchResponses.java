@@ -0,0 +1,46 @@
+package com.chef.william.controller;
+
+import com.chef.william.dto.Tagged;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Locale;
+
+/**
+ * Shared by the JSON Merge Patch endpoints. A client that sends {@code Prefer: return=minimal} gets
+ * 204 with the new tag and no body, so the server skips reading the resource back.
+ */
+final class PatchResponses {
+
+    static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    private PatchResponses() {
+    }
+
+    static boolean prefersMinimal(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            // Parameters after ';' do not change the preference itself; the value may be quoted
+            String token = preference.split(";", 2)[0].replaceAll("[\\s\"]", "").toLowerCase(Locale.ROOT);
+            if (token.equals(RETURN_MINIMAL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> respond(Tagged<T> patched, boolean minimal) {
+        if (minimal) {
+            return ResponseEntity.noContent()
+                    .eTag(patched.tag())
+                    .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+                    .build();
+        }
+        return ResponseEntity.ok().eTag(patched.tag()).body(patched.body());
+    }
+}
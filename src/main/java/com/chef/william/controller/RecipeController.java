@@ -1,14 +1,24 @@
 package com.chef.william.controller;
 
+import com.chef.william.dto.PantryMatchDTO;
 import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.RecipeNutritionDTO;
+import com.chef.william.dto.RecipeSearchHitDTO;
+import com.chef.william.dto.RecipeSliceDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.service.RecipeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import tools.jackson.databind.JsonNode;
+
+import java.util.List;
 
 
 @RestController
@@ -33,16 +43,53 @@ public class RecipeController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeDTO> getById(@PathVariable Long id) {
-        RecipeDTO dto = recipeService.getRecipeById(id);
-        return ResponseEntity.ok(dto);
+    public ResponseEntity<RecipeDTO> getById(@PathVariable Long id,
+                                             @RequestParam(value = "includeNutrition", defaultValue = "false") boolean includeNutrition,
+                                             WebRequest request) {
+        // Nutrition is derived from the ingredients, which the tag already covers
+        String tag = recipeService.getRecipeTag(id);
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        RecipeDTO dto = recipeService.getRecipeById(id, includeNutrition);
+        return ResponseEntity.ok().eTag(tag).body(dto);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<RecipeSearchHitDTO>> search(@RequestParam("q") String query, Pageable pageable) {
+        return ResponseEntity.ok(recipeService.searchRecipes(query, pageable));
+    }
+
+    // GET /api/recipes/pantry?ingredientIds=1,2,3&maxMissing=2&limit=20
+    @GetMapping("/pantry")
+    public ResponseEntity<List<PantryMatchDTO>> findForPantry(
+            @RequestParam("ingredientIds") List<Long> ingredientIds,
+            @RequestParam(value = "maxMissing", defaultValue = "2") int maxMissing,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recipeService.findRecipesForPantry(ingredientIds, maxMissing, limit));
+    }
+
+    @GetMapping("/{id}/nutrition")
+    public ResponseEntity<RecipeNutritionDTO> getNutrition(@PathVariable Long id) {
+        return ResponseEntity.ok(recipeService.getRecipeNutrition(id));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<RecipeDTO> update(@PathVariable Long id,
-                                            @Valid @RequestBody RecipeDTO recipeDTO) {
-        RecipeDTO updated = recipeService.updateRecipe(id, recipeDTO);
-        return ResponseEntity.ok(updated);
+                                            @Valid @RequestBody RecipeDTO recipeDTO,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Tagged<RecipeDTO> updated = recipeService.updateRecipe(id, recipeDTO, ConditionalRequests.expectedTags(ifMatch));
+        return ResponseEntity.ok().eTag(updated.tag()).body(updated.body());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = PatchResponses.MERGE_PATCH_JSON)
+    public ResponseEntity<RecipeDTO> patch(@PathVariable Long id,
+                                           @RequestBody JsonNode patch,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = PatchResponses.PREFER, required = false) String prefer) {
+        boolean minimal = PatchResponses.prefersMinimal(prefer);
+        Tagged<RecipeDTO> patched = recipeService.patchRecipe(id, patch, ConditionalRequests.expectedTags(ifMatch), !minimal);
+        return PatchResponses.respond(patched, minimal);
     }
 
     @DeleteMapping("/{id}")
@@ -52,7 +99,21 @@ public class RecipeController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<RecipeDTO>> getAll(Pageable pageable) {
-        return ResponseEntity.ok(recipeService.getAllRecipes(pageable));
+    public ResponseEntity<Page<RecipeDTO>> getAll(Pageable pageable,
+                                                  @RequestParam(value = "includeNutrition", defaultValue = "false") boolean includeNutrition,
+                                                  @RequestParam(value = "excludeMyAllergies", defaultValue = "false") boolean excludeMyAllergies,
+                                                  @RequestParam(value = "summary", defaultValue = "false") boolean summary) {
+        return ResponseEntity.ok(recipeService.getAllRecipes(pageable, includeNutrition, excludeMyAllergies, summary));
+    }
+
+    // Keyset mode: GET /api/recipes?after=&size=20&sort=updatedAt (empty "after" starts from the first slice)
+    @GetMapping(params = "after")
+    public ResponseEntity<RecipeSliceDTO> getAllAfter(
+            @RequestParam("after") String after,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "includeNutrition", defaultValue = "false") boolean includeNutrition,
+            @RequestParam(value = "excludeMyAllergies", defaultValue = "false") boolean excludeMyAllergies) {
+        return ResponseEntity.ok(recipeService.getRecipesAfter(after, sort, size, includeNutrition, excludeMyAllergies));
     }
 }
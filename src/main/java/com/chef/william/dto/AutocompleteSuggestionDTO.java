@@ -0,0 +1,6 @@
+package com.chef.william.dto;
+
+import com.chef.william.service.autocomplete.SuggestionType;
+
+public record AutocompleteSuggestionDTO(Long id, String name, SuggestionType type) {
+}
@@ -0,0 +1,7 @@
+package com.chef.william.dto;
+
+// line is 1-based and counts the CSV header
+public record ImportRowErrorDTO(long line,
+                                String name,
+                                String message) {
+}
@@ -1,5 +1,6 @@
 package com.chef.william.dto;
 
+import com.chef.william.model.enums.Allergen;
 import com.chef.william.model.enums.Unit;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,6 +13,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
@@ -43,6 +45,12 @@ public class IngredientDTO {
     @NotNull(message = "Serving unit is required")
     private Unit servingUnit = Unit.G;
 
+    @Positive(message = "Density must be positive")
+    private Double density;
+
+    // Leave empty on write to have allergens derived from the name and category
+    private Set<Allergen> allergens;
+
     private List<NutritionDTO> nutritionList = new ArrayList<>();
 
 }
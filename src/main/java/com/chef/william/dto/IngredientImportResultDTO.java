@@ -0,0 +1,11 @@
+package com.chef.william.dto;
+
+import java.util.List;
+
+// errors holds at most the first IngredientImportService.MAX_REPORTED_ERRORS failures; failed counts all of them
+public record IngredientImportResultDTO(long received,
+                                        long imported,
+                                        long failed,
+                                        List<ImportRowErrorDTO> errors,
+                                        boolean errorsTruncated) {
+}
@@ -0,0 +1,6 @@
+package com.chef.william.dto;
+
+import com.chef.william.model.enums.Nutrients;
+
+public record NutrientAmountDTO(Nutrients nutrient, double value, String unit) {
+}
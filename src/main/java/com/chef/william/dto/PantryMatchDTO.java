@@ -0,0 +1,9 @@
+package com.chef.william.dto;
+
+import java.util.List;
+
+public record PantryMatchDTO(RecipeDTO recipe,
+                             int matchedIngredients,
+                             int totalIngredients,
+                             List<Long> missingIngredientIds) {
+}
@@ -1,8 +1,12 @@
 package com.chef.william.dto;
 
+import com.chef.william.model.enums.Allergen;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,6 +16,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
@@ -35,6 +40,22 @@ public class RecipeDTO {
     private String updatedBy;
     private LocalDateTime updatedAt;
 
+    @Positive(message = "Servings must be positive")
+    private Integer servings;
+
+    // Only filled when requested with includeNutrition=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private RecipeNutritionDTO nutrition;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Set<Allergen> allergens;
+
+    // Materialized totals, filled on list pages
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private RecipeMacrosDTO macros;
+
     @NotEmpty(message = "At least one ingredient is required")
     @Valid
     @Builder.Default
@@ -0,0 +1,14 @@
+package com.chef.william.dto;
+
+import java.time.LocalDateTime;
+
+// Whole-recipe totals; macros in grams
+public record RecipeMacrosDTO(Double calories,
+                              Double protein,
+                              Double carbohydrates,
+                              Double fat,
+                              Double dietaryFiber,
+                              Double sugars,
+                              boolean complete,
+                              LocalDateTime computedAt) {
+}
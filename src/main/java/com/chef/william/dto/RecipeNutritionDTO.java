@@ -0,0 +1,23 @@
+package com.chef.william.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeNutritionDTO {
+    private Long recipeId;
+    private Integer servings;
+    private List<NutrientAmountDTO> total = new ArrayList<>();
+
+    // Null when the recipe does not declare servings
+    private List<NutrientAmountDTO> perServing;
+
+    // Ingredients left out of (some of) the totals because their quantity or nutrient unit could not be converted
+    private List<Long> unresolvedIngredientIds = new ArrayList<>();
+}
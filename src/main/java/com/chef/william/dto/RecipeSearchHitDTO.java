@@ -0,0 +1,7 @@
+package com.chef.william.dto;
+
+// snippet is HTML-escaped with matched words wrapped in <mark>
+public record RecipeSearchHitDTO(RecipeDTO recipe,
+                                 double score,
+                                 String snippet) {
+}
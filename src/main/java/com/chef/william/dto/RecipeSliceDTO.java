@@ -0,0 +1,20 @@
+package com.chef.william.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSliceDTO {
+    private List<RecipeDTO> content = new ArrayList<>();
+    private int size;
+    private boolean hasNext;
+
+    // Pass back as ?after= to fetch the following slice; null on the last slice
+    private String nextCursor;
+}
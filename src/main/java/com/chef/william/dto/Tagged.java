@@ -0,0 +1,7 @@
+package com.chef.william.dto;
+
+/**
+ * A response body with the entity tag of the state it was read from, computed in the same transaction.
+ */
+public record Tagged<T>(T body, String tag) {
+}
@@ -0,0 +1,10 @@
+package com.chef.william.exception;
+
+/**
+ * The client's If-Match tag no longer matches the resource: someone else changed it first.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String resource, Long id) {
+        super(String.format("%s with id %s was changed by someone else. Reload it and retry.", resource, id));
+    }
+}
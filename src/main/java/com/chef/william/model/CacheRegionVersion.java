@@ -0,0 +1,30 @@
+package com.chef.william.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Version stamp for a group of second-level cache regions. Writers bump it in the writing transaction;
+ * every instance polls the table and evicts its local regions when a stamp moved. See
+ * {@code SecondLevelCacheInvalidator}.
+ */
+@Entity
+@Table(name = "cache_region_version")
+@Getter
+@Setter
+@NoArgsConstructor
+public class CacheRegionVersion {
+
+    @Id
+    @Column(length = 60)
+    private String region;
+
+    @Column(nullable = false)
+    private long version;
+
+    public CacheRegionVersion(String region) {
+        this.region = region;
+    }
+}
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,6 +15,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "food")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "food")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,7 +24,8 @@ import java.util.List;
 public class Food {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "food_seq")
+    @SequenceGenerator(name = "food_seq", sequenceName = "food_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 180)
@@ -43,6 +49,11 @@ public class Food {
 
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "row_version", nullable = false)
+    @ColumnDefault("0")
+    private Long rowVersion;
+
     @OneToMany(mappedBy = "food", fetch = FetchType.LAZY)
     private List<Recipe> recipes = new ArrayList<>();
 }
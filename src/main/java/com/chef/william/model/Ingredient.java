@@ -6,6 +6,9 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +17,8 @@ import java.util.List;
 @Entity
 @Table(name = "ingredients")
 @BatchSize(size = 100)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ingredient")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +26,8 @@ import java.util.List;
 public class Ingredient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", sequenceName = "ingredients_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -46,6 +52,11 @@ public class Ingredient {
 
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "row_version", nullable = false)
+    @ColumnDefault("0")
+    private Long rowVersion;
+
     // Base serving: All nutrition values are defined per this amount/unit
     @Column(nullable = false)
     private Double servingAmount = 100.0;  // e.g., 100.0
@@ -53,7 +64,15 @@ public class Ingredient {
     @Column(nullable = false, length = 20)
     private String servingUnit = "g";      // e.g., "g", "ml", "piece" (can change to Unit enum later if needed)
 
+    // Grams per millilitre; lets volume quantities be converted to a mass serving unit and back
+    private Double density;
+
+    // Allergen bits (see Allergen); null until derived for rows that predate the column
+    @Column(name = "allergen_mask")
+    private Long allergenMask;
+
     @OneToMany(mappedBy = "ingredient", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ingredient.nutritionList")
     private List<Nutrition> nutritionList = new ArrayList<>();
 
     @OneToMany(mappedBy = "ingredient", fetch = FetchType.LAZY)
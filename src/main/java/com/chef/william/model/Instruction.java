@@ -21,7 +21,8 @@ import lombok.NoArgsConstructor;
 public class Instruction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "instructions_seq")
+    @SequenceGenerator(name = "instructions_seq", sequenceName = "instructions_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
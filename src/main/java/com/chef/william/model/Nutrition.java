@@ -5,19 +5,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "nutrition",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = {"ingredient_id", "nutrient"})
         })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "nutrition")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Nutrition {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nutrition_seq")
+    @SequenceGenerator(name = "nutrition_seq", sequenceName = "nutrition_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
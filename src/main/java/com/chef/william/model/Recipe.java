@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
 
@@ -21,7 +22,8 @@ import java.util.List;
 public class Recipe {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_seq")
+    @SequenceGenerator(name = "recipe_seq", sequenceName = "recipe_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200, unique = true)
@@ -46,6 +48,17 @@ public class Recipe {
 
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "row_version", nullable = false)
+    @ColumnDefault("0")
+    private Long rowVersion;
+
+    private Integer servings;
+
+    // OR of the allergen masks of its ingredients
+    @Column(name = "allergen_mask")
+    private Long allergenMask;
+
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
     @Fetch(FetchMode.SUBSELECT)
     private List<RecipeIngredient> recipeIngredients = new ArrayList<>();
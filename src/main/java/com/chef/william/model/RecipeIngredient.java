@@ -19,7 +19,8 @@ import lombok.NoArgsConstructor;
 public class RecipeIngredient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_ingredients_seq")
+    @SequenceGenerator(name = "recipe_ingredients_seq", sequenceName = "recipe_ingredients_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
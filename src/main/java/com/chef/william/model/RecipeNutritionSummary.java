@@ -0,0 +1,43 @@
+package com.chef.william.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized nutrition totals for one recipe, kept current by {@code RecipeNutritionSummaryService}
+ * so list pages can show calories and macros without touching ingredients. Macros are in grams.
+ */
+@Entity
+@Table(name = "recipe_nutrition_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RecipeNutritionSummary {
+
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    private Double calories;
+
+    private Double protein;
+
+    private Double carbohydrates;
+
+    private Double fat;
+
+    private Double dietaryFiber;
+
+    private Double sugars;
+
+    // Recipe ingredients that could not be converted and are missing from the totals
+    @Column(nullable = false)
+    private int unresolvedIngredients;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,137 @@
+package com.chef.william.model.enums;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The 14 allergens that EU food labelling requires, each backed by one bit of an allergen mask.
+ * <p>
+ * {@code keywords} are matched as whole words against ingredient names and categories, while
+ * {@code aliases} additionally recognise the free-text wording users enter for their allergies.
+ */
+public enum Allergen {
+    GLUTEN(List.of("wheat", "flour", "barley", "rye", "oat", "oats", "spelt", "kamut", "semolina", "durum",
+            "couscous", "bulgur", "bread", "breadcrumbs", "pasta", "noodle", "noodles", "seitan", "malt"),
+            List.of("gluten", "celiac", "coeliac")),
+    CRUSTACEANS(List.of("shrimp", "prawn", "prawns", "crab", "lobster", "crayfish", "langoustine", "scampi"),
+            List.of("crustacean", "crustaceans", "shellfish")),
+    EGGS(List.of("egg", "eggs", "mayonnaise", "meringue", "albumin"), List.of()),
+    FISH(List.of("fish", "salmon", "tuna", "cod", "anchovy", "anchovies", "sardine", "sardines", "mackerel",
+            "trout", "haddock", "tilapia", "fish sauce"), List.of()),
+    PEANUTS(List.of("peanut", "peanuts", "groundnut", "groundnuts"), List.of()),
+    SOYBEANS(List.of("soy", "soya", "soybean", "soybeans", "tofu", "tempeh", "edamame", "miso"), List.of()),
+    MILK(List.of("milk", "butter", "cheese", "cream", "yogurt", "yoghurt", "whey", "casein", "ghee",
+            "mozzarella", "parmesan", "cheddar", "ricotta"),
+            List.of("dairy", "lactose")),
+    TREE_NUTS(List.of("almond", "almonds", "hazelnut", "hazelnuts", "walnut", "walnuts", "cashew", "cashews",
+            "pecan", "pecans", "pistachio", "pistachios", "macadamia", "brazil nut", "brazil nuts"),
+            List.of("nut", "nuts", "tree nut", "tree nuts")),
+    CELERY(List.of("celery", "celeriac"), List.of()),
+    MUSTARD(List.of("mustard"), List.of()),
+    SESAME(List.of("sesame", "tahini"), List.of()),
+    SULPHITES(List.of("sulphite", "sulphites", "sulfite", "sulfites", "wine"), List.of("sulphur dioxide", "sulfur dioxide")),
+    LUPIN(List.of("lupin", "lupine"), List.of()),
+    MOLLUSCS(List.of("mussel", "mussels", "oyster", "oysters", "clam", "clams", "scallop", "scallops", "squid",
+            "octopus", "snail", "snails", "calamari"),
+            List.of("mollusc", "molluscs", "mollusk", "mollusks", "shellfish"));
+
+    // Dairy-sounding names of plant products; rewritten to their plant word before keyword matching
+    private static final Map<String, String> NON_DAIRY = Map.of(
+            " peanut butter ", " peanut ",
+            " cocoa butter ", " cocoa ",
+            " coconut milk ", " coconut ",
+            " coconut cream ", " coconut ",
+            " almond milk ", " almond ",
+            " oat milk ", " oat ",
+            " soy milk ", " soy ",
+            " rice milk ", " rice ",
+            " cream of tartar ", " tartar ");
+
+    private final List<String> keywords;
+    private final List<String> aliases;
+
+    Allergen(List<String> keywords, List<String> aliases) {
+        this.keywords = keywords;
+        this.aliases = aliases;
+    }
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Allergens an ingredient contains, guessed from its name and category.
+     */
+    public static long detect(String name, String category) {
+        String text = words(name) + words(category);
+        for (Map.Entry<String, String> rewrite : NON_DAIRY.entrySet()) {
+            text = text.replace(rewrite.getKey(), rewrite.getValue());
+        }
+        long mask = 0L;
+        for (Allergen allergen : values()) {
+            if (containsAny(text, allergen.keywords)) {
+                mask |= allergen.bit();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Mask for free-text allergy entries such as "Peanuts" or "dairy"; unrecognised entries are ignored.
+     */
+    public static long maskOfAllergies(Collection<String> allergies) {
+        if (allergies == null) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (String allergy : allergies) {
+            String text = words(allergy);
+            for (Allergen allergen : values()) {
+                if (containsAny(text, allergen.aliases) || containsAny(text, allergen.keywords)
+                        || containsAny(text, List.of(allergen.name().toLowerCase(Locale.ROOT).replace('_', ' ')))) {
+                    mask |= allergen.bit();
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static long maskOf(Collection<Allergen> allergens) {
+        long mask = 0L;
+        for (Allergen allergen : allergens) {
+            mask |= allergen.bit();
+        }
+        return mask;
+    }
+
+    public static Set<Allergen> fromMask(long mask) {
+        Set<Allergen> allergens = EnumSet.noneOf(Allergen.class);
+        for (Allergen allergen : values()) {
+            if ((mask & allergen.bit()) != 0) {
+                allergens.add(allergen);
+            }
+        }
+        return allergens;
+    }
+
+    // Lower-cased words separated by single spaces, with a leading and trailing space for whole-word matching
+    private static String words(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        return " " + String.join(" ", text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")).trim() + " ";
+    }
+
+    private static boolean containsAny(String text, List<String> phrases) {
+        for (String phrase : phrases) {
+            if (text.contains(" " + phrase + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
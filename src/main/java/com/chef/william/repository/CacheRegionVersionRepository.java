@@ -0,0 +1,19 @@
+package com.chef.william.repository;
+
+import com.chef.william.model.CacheRegionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CacheRegionVersionRepository extends JpaRepository<CacheRegionVersion, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CacheRegionVersion v SET v.version = v.version + 1 WHERE v.region = :region")
+    int increment(@Param("region") String region);
+
+    @Query("SELECT v.version FROM CacheRegionVersion v WHERE v.region = :region")
+    Long findVersion(@Param("region") String region);
+}
@@ -1,12 +1,41 @@
 package com.chef.william.repository;
 
 import com.chef.william.model.Food;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface FoodRepository extends JpaRepository<Food, Long> {
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "food-queries")})
     boolean existsByNameIgnoreCase(String name);
+
     boolean existsByNameIgnoreCaseAndIdNot(String name, Long id);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "food-queries")})
     Optional<Food> findByNameIgnoreCase(String name);
+
+    @Query("SELECT f.id AS id, f.name AS name FROM Food f")
+    List<IdNameProjection> findAllNames();
+
+    @Query(value = "SELECT new com.chef.william.repository.FoodSummaryView(f.id, f.name, f.category, f.imageUrl, " +
+            "f.createdBy, f.updatedBy, f.updatedAt) FROM Food f",
+            countQuery = "SELECT COUNT(f) FROM Food f")
+    Page<FoodSummaryView> findSummaries(Pageable pageable);
+
+    @Query("SELECT new com.chef.william.repository.FoodVersionView(f.rowVersion, COUNT(r), COALESCE(SUM(r.id), 0), " +
+            "COALESCE(SUM(r.rowVersion), 0), " +
+            "(SELECT COALESCE(SUM(i.rowVersion), 0) FROM RecipeIngredient ri JOIN ri.ingredient i WHERE ri.recipe.food = f)) " +
+            "FROM Food f LEFT JOIN Recipe r ON r.food = f WHERE f.id = :id GROUP BY f.id, f.rowVersion")
+    Optional<FoodVersionView> findVersionById(@Param("id") Long id);
 }
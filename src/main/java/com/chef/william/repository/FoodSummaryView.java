@@ -0,0 +1,7 @@
+package com.chef.william.repository;
+
+import java.time.LocalDateTime;
+
+public record FoodSummaryView(Long id, String name, String category, String imageUrl, String createdBy,
+                              String updatedBy, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,13 @@
+package com.chef.william.repository;
+
+/**
+ * Everything a food's detail representation depends on: its own row, which recipes it has, and the
+ * rows of those recipes and their ingredients. Row versions only grow, so the sums move on every change.
+ */
+public record FoodVersionView(long version, long recipeCount, long recipeIdSum, long recipeVersionSum,
+                              long ingredientVersionSum) {
+
+    public String tag() {
+        return version + "." + recipeCount + "." + recipeIdSum + "." + recipeVersionSum + "." + ingredientVersionSum;
+    }
+}
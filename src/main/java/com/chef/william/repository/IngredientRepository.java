@@ -1,9 +1,13 @@
 package com.chef.william.repository;
 
 import com.chef.william.model.Ingredient;
-import com.chef.william.model.enums.Nutrients;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,21 +20,49 @@ import java.util.Set;
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
 
     // Check if name already exists (case-insensitive) - useful for unique validation
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "ingredient-queries")})
     boolean existsByNameIgnoreCase(String name);
 
     // Find by exact name (case-insensitive) - for search/autocomplete
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "ingredient-queries")})
     Optional<Ingredient> findByNameIgnoreCase(String name);
 
+    @Query("SELECT i.rowVersion FROM Ingredient i WHERE i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
     List<Ingredient> findByNameContainingIgnoreCase(String name);
 
-    @Query("SELECT DISTINCT i FROM Ingredient i JOIN i.nutritionList n " +
-            "WHERE n.nutrient = :nutrient AND n.value > :minValue " +
-            "ORDER BY n.value DESC")
-    List<Ingredient> findByNutrientAndMinValue(
-            @Param("nutrient") Nutrients nutrient,
-            @Param("minValue") double minValue);
+    @Query("SELECT n.ingredient.id AS ingredientId, n.nutrient AS nutrient, n.value AS value FROM Nutrition n")
+    List<NutrientValueProjection> findAllNutrientValues();
+
+    @Query("SELECT n.ingredient.id AS ingredientId, n.nutrient AS nutrient, n.value AS value FROM Nutrition n " +
+            "WHERE n.ingredient.id IN :ids")
+    List<NutrientValueProjection> findNutrientValuesByIngredientIdIn(@Param("ids") Collection<Long> ids);
+
+    List<Ingredient> findByAllergenMaskIsNull(Pageable pageable);
+
+    @Query("SELECT i.allergenMask FROM Ingredient i WHERE i.id IN :ids")
+    List<Long> findAllergenMasksByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i.id AS id, i.name AS name FROM Ingredient i")
+    List<IdNameProjection> findAllNames();
+
+    @Query("SELECT i.id AS id, i.name AS name FROM Ingredient i WHERE i.id IN :ids")
+    List<IdNameProjection> findNamesByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT LOWER(i.name) FROM Ingredient i WHERE LOWER(i.name) IN :names")
     Set<String> findExistingNormalizedNames(@Param("names") Collection<String> names);
 
+    @Query(value = "SELECT new com.chef.william.repository.IngredientSummaryView(i.id, i.name, i.category, " +
+            "i.description, i.imageUrl, i.createdBy, i.updatedBy, i.updatedAt, i.servingAmount, i.servingUnit, " +
+            "i.density, i.allergenMask) FROM Ingredient i",
+            countQuery = "SELECT COUNT(i) FROM Ingredient i")
+    Page<IngredientSummaryView> findSummaries(Pageable pageable);
+
+    @Query("SELECT new com.chef.william.repository.NutritionRowView(n.ingredient.id, n.id, n.nutrient, n.value, n.unit) " +
+            "FROM Nutrition n WHERE n.ingredient.id IN :ids ORDER BY n.ingredient.id, n.id")
+    List<NutritionRowView> findNutritionRowsByIngredientIdIn(@Param("ids") Collection<Long> ids);
+
 }
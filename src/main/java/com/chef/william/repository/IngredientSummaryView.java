@@ -0,0 +1,8 @@
+package com.chef.william.repository;
+
+import java.time.LocalDateTime;
+
+public record IngredientSummaryView(Long id, String name, String category, String description, String imageUrl,
+                                    String createdBy, String updatedBy, LocalDateTime updatedAt,
+                                    Double servingAmount, String servingUnit, Double density, Long allergenMask) {
+}
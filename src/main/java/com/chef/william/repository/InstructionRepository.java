@@ -0,0 +1,21 @@
+package com.chef.william.repository;
+
+import com.chef.william.model.Instruction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InstructionRepository extends JpaRepository<Instruction, Long> {
+
+    // Only the steps a patch names, through the (recipe_id, step) unique index
+    @Query("SELECT i FROM Instruction i WHERE i.recipe.id = :recipeId AND i.step IN :steps")
+    List<Instruction> findByRecipeIdAndStepIn(@Param("recipeId") Long recipeId, @Param("steps") Collection<Integer> steps);
+
+    @Query("SELECT COUNT(i) FROM Instruction i WHERE i.recipe.id = :recipeId")
+    long countByRecipeId(@Param("recipeId") Long recipeId);
+}
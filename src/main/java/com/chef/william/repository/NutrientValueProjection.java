@@ -0,0 +1,9 @@
+package com.chef.william.repository;
+
+import com.chef.william.model.enums.Nutrients;
+
+public interface NutrientValueProjection {
+    Long getIngredientId();
+    Nutrients getNutrient();
+    Double getValue();
+}
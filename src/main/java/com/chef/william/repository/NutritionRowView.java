@@ -0,0 +1,6 @@
+package com.chef.william.repository;
+
+import com.chef.william.model.enums.Nutrients;
+
+public record NutritionRowView(Long ingredientId, Long id, Nutrients nutrient, Double value, String unit) {
+}
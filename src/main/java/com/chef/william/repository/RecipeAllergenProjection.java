@@ -0,0 +1,6 @@
+package com.chef.william.repository;
+
+public interface RecipeAllergenProjection {
+    Long getRecipeId();
+    Long getAllergenMask();
+}
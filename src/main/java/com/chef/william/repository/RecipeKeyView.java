@@ -0,0 +1,10 @@
+package com.chef.william.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position of a recipe as read by a seek query, so the next cursor comes from the same
+ * snapshot as the ordering.
+ */
+public record RecipeKeyView(Long id, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,9 @@
+package com.chef.william.repository;
+
+import com.chef.william.model.RecipeNutritionSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RecipeNutritionSummaryRepository extends JpaRepository<RecipeNutritionSummary, Long> {
+}
@@ -2,18 +2,24 @@ package com.chef.william.repository;
 
 import com.chef.william.model.Recipe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+
+    String SAFE_FOR_MASK = "(cast(:mask as Long) = 0 OR (r.allergenMask IS NOT NULL "
+            + "AND bitand(r.allergenMask, cast(:mask as Long)) = 0))";
+
     int countByFoodId(Long foodId);
 
     boolean existsByFoodId(Long foodId);
@@ -25,15 +31,96 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     @Query("SELECT r.id FROM Recipe r")
     Page<Long> findAllIds(Pageable pageable);
 
+    // Recipes sharing no allergen bit with the mask; null masks (not derived yet) are unknown and left out
+    @Query("SELECT r.id FROM Recipe r WHERE r.allergenMask IS NOT NULL " +
+            "AND bitand(r.allergenMask, cast(:mask as Long)) = 0")
+    Page<Long> findAllIdsWithoutAllergens(@Param("mask") long mask, Pageable pageable);
+
+    // Keyset (seek) variants: callers pass an unsorted Pageable only to cap the row count, so no COUNT query runs.
+    // A non-zero mask leaves out recipes sharing an allergen bit with it, and those whose mask is not derived yet.
+    @Query("SELECT new com.chef.william.repository.RecipeKeyView(r.id, r.updatedAt) FROM Recipe r " +
+            "WHERE " + SAFE_FOR_MASK + " ORDER BY r.id ASC")
+    List<RecipeKeyView> findFirstKeysOrderById(@Param("mask") long mask, Pageable limit);
+
+    @Query("SELECT new com.chef.william.repository.RecipeKeyView(r.id, r.updatedAt) FROM Recipe r " +
+            "WHERE r.id > :afterId AND " + SAFE_FOR_MASK + " ORDER BY r.id ASC")
+    List<RecipeKeyView> findKeysAfterId(@Param("afterId") Long afterId, @Param("mask") long mask, Pageable limit);
+
+    @Query("SELECT new com.chef.william.repository.RecipeKeyView(r.id, r.updatedAt) FROM Recipe r " +
+            "WHERE " + SAFE_FOR_MASK + " ORDER BY r.updatedAt DESC NULLS LAST, r.id DESC")
+    List<RecipeKeyView> findFirstKeysOrderByUpdatedAtDesc(@Param("mask") long mask, Pageable limit);
+
+    @Query("SELECT new com.chef.william.repository.RecipeKeyView(r.id, r.updatedAt) FROM Recipe r " +
+            "WHERE (r.updatedAt < :updatedAt " +
+            "OR (r.updatedAt = :updatedAt AND r.id < :afterId) " +
+            "OR r.updatedAt IS NULL) " +
+            "AND " + SAFE_FOR_MASK + " " +
+            "ORDER BY r.updatedAt DESC NULLS LAST, r.id DESC")
+    List<RecipeKeyView> findKeysAfterUpdatedAt(@Param("updatedAt") LocalDateTime updatedAt,
+                                               @Param("afterId") Long afterId,
+                                               @Param("mask") long mask,
+                                               Pageable limit);
+
+    @Query("SELECT new com.chef.william.repository.RecipeKeyView(r.id, r.updatedAt) FROM Recipe r " +
+            "WHERE r.updatedAt IS NULL AND r.id < :afterId AND " + SAFE_FOR_MASK + " ORDER BY r.id DESC")
+    List<RecipeKeyView> findKeysAfterNullUpdatedAt(@Param("afterId") Long afterId, @Param("mask") long mask,
+                                                   Pageable limit);
+
     @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.food WHERE r.id = :id")
     Optional<Recipe> findDetailedById(@Param("id") Long id);
 
+    @Query("SELECT new com.chef.william.repository.RecipeVersionView(r.rowVersion, f.rowVersion, " +
+            "(SELECT COALESCE(SUM(i.rowVersion), 0) FROM RecipeIngredient ri JOIN ri.ingredient i WHERE ri.recipe = r)) " +
+            "FROM Recipe r LEFT JOIN r.food f WHERE r.id = :id")
+    Optional<RecipeVersionView> findVersionById(@Param("id") Long id);
+
     @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.food WHERE r.id IN :ids")
     List<Recipe> findDetailedByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.food WHERE r.food.id = :foodId")
-    List<Recipe> findDetailedByFoodId(@Param("foodId") Long foodId);
+    @Query("SELECT DISTINCT ri.recipe.id FROM RecipeIngredient ri WHERE ri.ingredient.id IN :ingredientIds")
+    List<Long> findIdsByIngredientIdIn(@Param("ingredientIds") Collection<Long> ingredientIds);
+
+    @Query("SELECT ri.recipe.id AS recipeId, ri.ingredient.id AS ingredientId FROM RecipeIngredient ri " +
+            "ORDER BY ri.recipe.id")
+    List<RecipeIngredientPairProjection> findAllIngredientPairs();
+
+    @Query("SELECT ri.recipe.id AS recipeId, ri.ingredient.id AS ingredientId FROM RecipeIngredient ri " +
+            "WHERE ri.recipe.id IN :recipeIds")
+    List<RecipeIngredientPairProjection> findIngredientPairsByRecipeIdIn(@Param("recipeIds") Collection<Long> recipeIds);
+
+    @Query("SELECT r.id AS recipeId, r.description AS text FROM Recipe r")
+    List<RecipeTextProjection> findAllDescriptions();
+
+    @Query("SELECT r.id AS recipeId, r.description AS text FROM Recipe r WHERE r.id IN :recipeIds")
+    List<RecipeTextProjection> findDescriptionsByIdIn(@Param("recipeIds") Collection<Long> recipeIds);
+
+    @Query("SELECT i.recipe.id AS recipeId, i.description AS text FROM Instruction i ORDER BY i.recipe.id, i.step")
+    List<RecipeTextProjection> findAllInstructionTexts();
+
+    @Query("SELECT i.recipe.id AS recipeId, i.description AS text FROM Instruction i " +
+            "WHERE i.recipe.id IN :recipeIds ORDER BY i.recipe.id, i.step")
+    List<RecipeTextProjection> findInstructionTextsByRecipeIdIn(@Param("recipeIds") Collection<Long> recipeIds);
+
+    @Query("SELECT r.id FROM Recipe r WHERE NOT EXISTS " +
+            "(SELECT s.recipeId FROM RecipeNutritionSummary s WHERE s.recipeId = r.id)")
+    List<Long> findIdsWithoutNutritionSummary();
+
+    @Query("SELECT ri.recipe.id AS recipeId, i.allergenMask AS allergenMask FROM RecipeIngredient ri " +
+            "JOIN ri.ingredient i WHERE ri.recipe.id IN :recipeIds")
+    List<RecipeAllergenProjection> findIngredientAllergenMasks(@Param("recipeIds") Collection<Long> recipeIds);
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.allergenMask IS NULL")
+    List<Long> findIdsWithoutAllergenMask();
+
+    @Modifying
+    @Query("UPDATE Recipe r SET r.allergenMask = :mask WHERE r.id IN :ids")
+    int updateAllergenMask(@Param("mask") long mask, @Param("ids") Collection<Long> ids);
 
     @Query("SELECT r.food.id as foodId, COUNT(r) as recipeCount FROM Recipe r WHERE r.food.id IN :foodIds GROUP BY r.food.id")
     List<FoodRecipeCountProjection> countByFoodIds(@Param("foodIds") Collection<Long> foodIds);
+
+    @Query("SELECT new com.chef.william.repository.RecipeSummaryView(r.id, r.version, r.description, f.id, f.name, " +
+            "r.createdBy, r.updatedBy, r.updatedAt, r.servings, r.allergenMask) " +
+            "FROM Recipe r LEFT JOIN r.food f WHERE r.id IN :ids")
+    List<RecipeSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
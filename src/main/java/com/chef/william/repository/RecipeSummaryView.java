@@ -0,0 +1,8 @@
+package com.chef.william.repository;
+
+import java.time.LocalDateTime;
+
+public record RecipeSummaryView(Long id, String version, String description, Long foodId, String foodName,
+                                String createdBy, String updatedBy, LocalDateTime updatedAt, Integer servings,
+                                Long allergenMask) {
+}
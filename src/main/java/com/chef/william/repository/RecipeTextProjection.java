@@ -0,0 +1,6 @@
+package com.chef.william.repository;
+
+public interface RecipeTextProjection {
+    Long getRecipeId();
+    String getText();
+}
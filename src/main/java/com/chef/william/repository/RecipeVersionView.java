@@ -0,0 +1,12 @@
+package com.chef.william.repository;
+
+/**
+ * Everything a recipe's representation depends on: its own row, its food (for the food name) and
+ * its ingredients (names, allergens and nutrition).
+ */
+public record RecipeVersionView(long version, Long foodVersion, long ingredientVersionSum) {
+
+    public String tag() {
+        return version + "." + (foodVersion != null ? foodVersion : "-") + "." + ingredientVersionSum;
+    }
+}
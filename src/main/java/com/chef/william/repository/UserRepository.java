@@ -1,11 +1,14 @@
 package com.chef.william.repository;
 
 import com.chef.william.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+    // Allergies come along so the resolved user can be copied outside a transaction
+    @EntityGraph(attributePaths = "allergies")
     Optional<User> findByCognitoSub(String cognitoSub);
 }
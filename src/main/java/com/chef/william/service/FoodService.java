@@ -3,26 +3,38 @@ package com.chef.william.service;
 import com.chef.william.dto.FoodDTO;
 import com.chef.william.dto.FoodRecipeStatusDTO;
 import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.exception.BusinessException;
 import com.chef.william.exception.DuplicateResourceException;
+import com.chef.william.exception.PreconditionFailedException;
 import com.chef.william.exception.ResourceNotFoundException;
 import com.chef.william.model.Food;
 import com.chef.william.model.User;
 import com.chef.william.repository.FoodRepository;
+import com.chef.william.repository.FoodSummaryView;
+import com.chef.william.repository.FoodVersionView;
 import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.allergen.AllergenService;
 import com.chef.william.service.auth.CurrentUserService;
-import com.chef.william.service.mapper.RecipeMapper;
+import com.chef.william.service.food.FoodChangedEvent;
+import com.chef.william.service.food.FoodDetailReader;
+import com.chef.william.service.patch.JsonMergePatch;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -31,8 +43,11 @@ public class FoodService {
     private final FoodRepository foodRepository;
     private final RecipeService recipeService;
     private final RecipeRepository recipeRepository;
-    private final RecipeMapper recipeMapper;
+    private final FoodDetailReader foodDetailReader;
     private final CurrentUserService currentUserService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AllergenService allergenService;
+    private final JsonMergePatch jsonMergePatch;
 
     @Transactional
     public FoodDTO createFood(FoodDTO dto) {
@@ -45,15 +60,72 @@ public class FoodService {
         Food food = new Food();
         mapToEntity(dto, food, currentUser);
         Food savedFood = foodRepository.save(food);
-        createRecipeVersions(savedFood.getId(), dto.getRecipes());
-        return mapToDto(savedFood);
+        // A new food has no recipes but the ones created here, so the response needs no read back
+        List<RecipeDTO> recipes = createRecipeVersions(savedFood.getId(), dto.getRecipes());
+        eventPublisher.publishEvent(new FoodChangedEvent(Set.of(savedFood.getId())));
+        return mapToDto(savedFood, recipes);
     }
 
     @Transactional
     public FoodDTO updateFood(Long id, FoodDTO dto) {
+        return update(id, dto, null);
+    }
+
+    /**
+     * Conditional update: {@code expectedTags} (from If-Match) must contain the food's current tag,
+     * null skips the check. The returned tag is read after the update, in the same transaction.
+     */
+    @Transactional
+    public Tagged<FoodDTO> updateFood(Long id, FoodDTO dto, Collection<String> expectedTags) {
+        FoodDTO updated = update(id, dto, expectedTags);
+        return new Tagged<>(updated, findTag(id));
+    }
+
+    @Transactional(readOnly = true)
+    public String getFoodTag(Long id, boolean excludeMyAllergies) {
+        String tag = findTag(id);
+        // The filtered view differs per user allergy profile
+        return excludeMyAllergies ? tag + "-a" + allergenService.currentUserMask() : tag;
+    }
+
+    /**
+     * JSON Merge Patch of the food's own fields; recipes are patched through the recipe endpoint.
+     * With {@code returnRepresentation} false the body is not read back and is null.
+     */
+    @Transactional
+    public Tagged<FoodDTO> patchFood(Long id, JsonNode patch, Collection<String> expectedTags,
+                                     boolean returnRepresentation) {
+        JsonMergePatch.requireObject(patch);
+        if (patch.has("recipes")) {
+            throw new BusinessException("Recipes cannot be patched through a food; patch /api/recipes/{id} instead");
+        }
+        Food food = foodRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Food not found with id: " + id));
+        if (expectedTags != null && !expectedTags.contains(findTag(id))) {
+            throw new PreconditionFailedException("Food", id);
+        }
+
+        FoodDTO patched = jsonMergePatch.apply(mapToDto(food, List.of()), patch, FoodDTO.class);
+        write(id, patched, null);
+        foodRepository.flush();
+        String tag = findTag(id);
+        return new Tagged<>(returnRepresentation ? findDetail(id, 0L) : null, tag);
+    }
+
+    private FoodDTO update(Long id, FoodDTO dto, Collection<String> expectedTags) {
+        Food savedFood = write(id, dto, expectedTags);
+        // The detail reader goes through JDBC and only sees flushed rows
+        foodRepository.flush();
+        return findDetail(savedFood.getId(), 0L);
+    }
+
+    private Food write(Long id, FoodDTO dto, Collection<String> expectedTags) {
         User currentUser = currentUserService.getRequiredCurrentUser();
         Food food = foodRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Food not found with id: " + id));
+        if (expectedTags != null && !expectedTags.contains(findTag(id))) {
+            throw new PreconditionFailedException("Food", id);
+        }
 
         String normalizedName = normalizeName(dto.getName());
         if (foodRepository.existsByNameIgnoreCaseAndIdNot(normalizedName, id)) {
@@ -63,26 +135,31 @@ public class FoodService {
         mapToEntity(dto, food, currentUser);
         Food savedFood = foodRepository.save(food);
         createRecipeVersions(savedFood.getId(), dto.getRecipes());
-        return mapToDto(savedFood);
+        eventPublisher.publishEvent(new FoodChangedEvent(Set.of(savedFood.getId())));
+        return savedFood;
     }
 
     @Transactional(readOnly = true)
     public FoodDTO getFoodById(Long id) {
-        Food food = foodRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Food not found with id: " + id));
-        return mapToDto(food);
+        return getFoodById(id, false);
+    }
+
+    @Transactional(readOnly = true)
+    public FoodDTO getFoodById(Long id, boolean excludeMyAllergies) {
+        long excludedMask = excludeMyAllergies ? allergenService.currentUserMask() : 0L;
+        return findDetail(id, excludedMask);
     }
 
     @Transactional(readOnly = true)
     public Page<FoodDTO> getAllFoods(Pageable pageable) {
-        Page<Food> foods = foodRepository.findAll(pageable);
+        Page<FoodSummaryView> foods = foodRepository.findSummaries(pageable);
         if (foods.isEmpty()) {
-            return foods.map(this::mapToDto);
+            return foods.map(food -> mapToSummaryDto(food, 0));
         }
 
-        Map<Long, Integer> recipeCountByFoodId = getRecipeCountByFoodIds(foods.stream().map(Food::getId).toList());
+        Map<Long, Integer> recipeCountByFoodId = getRecipeCountByFoodIds(foods.map(FoodSummaryView::id).getContent());
 
-        return foods.map(food -> mapToSummaryDto(food, recipeCountByFoodId.getOrDefault(food.getId(), 0)));
+        return foods.map(food -> mapToSummaryDto(food, recipeCountByFoodId.getOrDefault(food.id(), 0)));
     }
 
     @Transactional
@@ -91,6 +168,7 @@ public class FoodService {
             throw new ResourceNotFoundException("Food not found with id: " + id);
         }
         foodRepository.deleteById(id);
+        eventPublisher.publishEvent(new FoodChangedEvent(Set.of(id)));
     }
 
     @Transactional(readOnly = true)
@@ -136,10 +214,18 @@ public class FoodService {
         throw new BusinessException("Authenticated user has no usable identifier for audit fields");
     }
 
-    private FoodDTO mapToDto(Food food) {
-        List<RecipeDTO> recipes = recipeRepository.findDetailedByFoodId(food.getId()).stream()
-                .map(recipeMapper::toDto)
-                .toList();
+    private String findTag(Long id) {
+        return foodRepository.findVersionById(id)
+                .map(FoodVersionView::tag)
+                .orElseThrow(() -> new ResourceNotFoundException("Food not found with id: " + id));
+    }
+
+    private FoodDTO findDetail(Long id, long excludedAllergenMask) {
+        return foodDetailReader.findById(id, excludedAllergenMask)
+                .orElseThrow(() -> new ResourceNotFoundException("Food not found with id: " + id));
+    }
+
+    private FoodDTO mapToDto(Food food, List<RecipeDTO> recipes) {
         return new FoodDTO(
                 food.getId(),
                 food.getName(),
@@ -153,15 +239,15 @@ public class FoodService {
         );
     }
 
-    private FoodDTO mapToSummaryDto(Food food, int recipeCount) {
+    private FoodDTO mapToSummaryDto(FoodSummaryView food, int recipeCount) {
         return new FoodDTO(
-                food.getId(),
-                food.getName(),
-                food.getCategory(),
-                food.getImageUrl(),
-                food.getCreatedBy(),
-                food.getUpdatedBy(),
-                food.getUpdatedAt(),
+                food.id(),
+                food.name(),
+                food.category(),
+                food.imageUrl(),
+                food.createdBy(),
+                food.updatedBy(),
+                food.updatedAt(),
                 recipeCount,
                 List.of()
         );
@@ -175,11 +261,13 @@ public class FoodService {
         return countByFoodId;
     }
 
-    private void createRecipeVersions(Long foodId, List<RecipeDTO> recipes) {
+    private List<RecipeDTO> createRecipeVersions(Long foodId, List<RecipeDTO> recipes) {
         if (recipes == null || recipes.isEmpty()) {
-            return;
+            return List.of();
         }
 
+        List<RecipeDTO> created = new ArrayList<>(recipes.size());
+
         for (RecipeDTO recipe : recipes) {
             if (recipe == null) {
                 throw new BusinessException("Recipe payload in food request must not be null");
@@ -187,11 +275,13 @@ public class FoodService {
             RecipeDTO recipePayload = RecipeDTO.builder()
                     .version(recipe.getVersion())
                     .description(recipe.getDescription())
+                    .servings(recipe.getServings())
                     .ingredients(recipe.getIngredients())
                     .instructions(recipe.getInstructions())
                     .foodId(foodId)
                     .build();
-            recipeService.createRecipe(recipePayload);
+            created.add(recipeService.createRecipe(recipePayload));
         }
+        return created;
     }
 }
@@ -1,24 +1,41 @@
 package com.chef.william.service;
 
 import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.NutritionDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.exception.BusinessException;
+import com.chef.william.exception.PreconditionFailedException;
 import com.chef.william.exception.ResourceNotFoundException;
 import com.chef.william.model.Ingredient;
 import com.chef.william.model.User;
 import com.chef.william.repository.IngredientRepository;
+import com.chef.william.repository.IngredientSummaryView;
+import com.chef.william.service.allergen.AllergenService;
 import com.chef.william.service.auth.CurrentUserService;
+import com.chef.william.service.ingredient.IngredientCatalogCache;
+import com.chef.william.service.ingredient.IngredientChangedEvent;
 import com.chef.william.service.ingredient.IngredientSearchService;
 import com.chef.william.service.mapper.IngredientMapper;
+import com.chef.william.service.patch.JsonMergePatch;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +45,10 @@ public class IngredientService {
     private final IngredientMapper ingredientMapper;
     private final IngredientSearchService ingredientSearchService;
     private final CurrentUserService currentUserService;
+    private final IngredientCatalogCache ingredientCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AllergenService allergenService;
+    private final JsonMergePatch jsonMergePatch;
 
     @Transactional
     public IngredientDTO createIngredient(IngredientDTO dto) {
@@ -40,6 +61,7 @@ public class IngredientService {
         ingredient.setUpdatedBy(auditActor);
         ingredient.setUpdatedAt(LocalDateTime.now());
         ingredient = ingredientRepository.save(ingredient);
+        publishChange(IngredientChangedEvent.ChangeType.CREATED, List.of(ingredient), null, false);
         return ingredientMapper.toDto(ingredient);
     }
 
@@ -63,19 +85,66 @@ public class IngredientService {
                 })
                 .toList();
 
-        return ingredientRepository.saveAll(ingredients).stream()
+        List<Ingredient> saved = ingredientRepository.saveAll(ingredients);
+        publishChange(IngredientChangedEvent.ChangeType.CREATED, saved, null, false);
+        return saved.stream()
                 .map(ingredientMapper::toDto)
                 .toList();
     }
 
     @Transactional
     public IngredientDTO updateIngredient(Long id, IngredientDTO dto) {
+        return update(id, dto, null);
+    }
+
+    /**
+     * Conditional update: {@code expectedTags} (from If-Match) must contain the ingredient's current
+     * tag, null skips the check. The returned tag is the version written by this update.
+     */
+    @Transactional
+    public Tagged<IngredientDTO> updateIngredient(Long id, IngredientDTO dto, Collection<String> expectedTags) {
+        IngredientDTO updated = update(id, dto, expectedTags);
+        return new Tagged<>(updated, findTag(id));
+    }
+
+    /**
+     * JSON Merge Patch of an ingredient. {@code nutritionList} and {@code allergens} are arrays and
+     * replace the current values whole; current allergens are kept through a rename unless the patch
+     * sets {@code allergens} to null, which derives them again. With {@code returnRepresentation}
+     * false the body is null.
+     */
+    @Transactional
+    public Tagged<IngredientDTO> patchIngredient(Long id, JsonNode patch, Collection<String> expectedTags,
+                                                 boolean returnRepresentation) {
+        JsonMergePatch.requireObject(patch);
+        Ingredient ingredient = ingredientRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Ingredient not found with id: " + id));
+        if (expectedTags != null && !expectedTags.contains(String.valueOf(ingredient.getRowVersion()))) {
+            throw new PreconditionFailedException("Ingredient", id);
+        }
+
+        IngredientDTO patched = jsonMergePatch.apply(ingredientMapper.toDto(ingredient), patch, IngredientDTO.class);
+        IngredientDTO updated = update(id, patched, null);
+        return new Tagged<>(returnRepresentation ? updated : null, findTag(id));
+    }
+
+    @Transactional(readOnly = true)
+    public String getIngredientTag(Long id) {
+        return findTag(id);
+    }
+
+    private IngredientDTO update(Long id, IngredientDTO dto, Collection<String> expectedTags) {
         User currentUser = currentUserService.getRequiredCurrentUser();
         String auditActor = resolveAuditActor(currentUser);
         Ingredient ingredient = ingredientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ingredient not found with id: " + id));
+        if (expectedTags != null && !expectedTags.contains(String.valueOf(ingredient.getRowVersion()))) {
+            throw new PreconditionFailedException("Ingredient", id);
+        }
+        String previousName = ingredient.getName();
+        Long previousAllergenMask = ingredient.getAllergenMask();
 
-        ingredientMapper.updateEntityFromDto(dto, ingredient);
+        boolean nutritionChanged = ingredientMapper.updateEntityFromDto(dto, ingredient);
         ingredient.setUser(currentUser);
         if (ingredient.getCreatedBy() == null || ingredient.getCreatedBy().isBlank()) {
             ingredient.setCreatedBy(auditActor);
@@ -83,20 +152,37 @@ public class IngredientService {
         ingredient.setUpdatedBy(auditActor);
         ingredient.setUpdatedAt(LocalDateTime.now());
         ingredient = ingredientRepository.save(ingredient);
+        if (!Objects.equals(previousAllergenMask, ingredient.getAllergenMask())) {
+            allergenService.refreshRecipesUsing(List.of(id));
+        }
+        publishChange(IngredientChangedEvent.ChangeType.UPDATED, List.of(ingredient), previousName, nutritionChanged);
         return ingredientMapper.toDto(ingredient);
     }
 
+    /**
+     * The ingredient as of {@code currentTag} (from {@link #getIngredientTag}). A cached copy read at a
+     * different version is replaced, and the returned tag is the version the body was read at.
+     */
     @Transactional(readOnly = true)
-    public IngredientDTO getIngredientById(Long id) {
-        Ingredient ingredient = ingredientRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Ingredient not found with id: " + id));
-        return ingredientMapper.toDto(ingredient);
+    public Tagged<IngredientDTO> getIngredientById(Long id, String currentTag) {
+        return ingredientCatalogCache.getTagged(id, currentTag, ingredientId -> {
+            Ingredient ingredient = ingredientRepository.findById(ingredientId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Ingredient not found with id: " + ingredientId));
+            return new Tagged<>(ingredientMapper.toDto(ingredient), String.valueOf(ingredient.getRowVersion()));
+        });
     }
 
     @Transactional(readOnly = true)
     public Page<IngredientDTO> getAllIngredients(Pageable pageable) {
-        return ingredientRepository.findAll(pageable)
-                .map(ingredientMapper::toDto);
+        // Projections rather than entities: nothing enters the persistence context for a list page
+        Page<IngredientSummaryView> page = ingredientRepository.findSummaries(pageable);
+        Map<Long, List<NutritionDTO>> nutritionById = new HashMap<>();
+        if (!page.isEmpty()) {
+            ingredientRepository.findNutritionRowsByIngredientIdIn(page.map(IngredientSummaryView::id).getContent())
+                    .forEach(row -> nutritionById.computeIfAbsent(row.ingredientId(), id -> new ArrayList<>())
+                            .add(new NutritionDTO(row.id(), row.nutrient(), row.value(), row.unit())));
+        }
+        return page.map(view -> ingredientMapper.toDto(view, nutritionById.getOrDefault(view.id(), List.of())));
     }
 
     @Transactional
@@ -110,18 +196,39 @@ public class IngredientService {
         }
 
         ingredientRepository.delete(ingredient);
+        publishChange(IngredientChangedEvent.ChangeType.DELETED, List.of(ingredient), null, false);
     }
 
 
 
     @Transactional(readOnly = true)
-    public List<IngredientDTO> searchIngredientsByName(String name) {
-        return ingredientSearchService.searchByName(name);
+    public List<IngredientDTO> searchIngredientsByName(String name, Integer limit) {
+        return ingredientSearchService.searchByName(name, limit);
     }
 
     @Transactional(readOnly = true)
-    public List<IngredientDTO> searchIngredientByNutrient(String nutrientStr, Double minValue) {
-        return ingredientSearchService.searchByNutrient(nutrientStr, minValue);
+    public List<IngredientDTO> searchIngredientByNutrient(String nutrientStr, Double minValue, Double maxValue,
+                                                          Integer limit, List<String> filters) {
+        return ingredientSearchService.searchByNutrient(nutrientStr, minValue, maxValue, limit, filters);
+    }
+
+    private String findTag(Long id) {
+        return ingredientRepository.findVersionById(id)
+                .map(String::valueOf)
+                .orElseThrow(() -> new ResourceNotFoundException("Ingredient not found with id: " + id));
+    }
+
+    private void publishChange(IngredientChangedEvent.ChangeType type, List<Ingredient> ingredients, String previousName,
+                               boolean nutritionChanged) {
+        Set<Long> ids = ingredients.stream()
+                .map(Ingredient::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> names = Stream.concat(ingredients.stream().map(Ingredient::getName), Stream.ofNullable(previousName))
+                .filter(Objects::nonNull)
+                .map(IngredientCatalogCache::normalizeName)
+                .collect(Collectors.toSet());
+        eventPublisher.publishEvent(new IngredientChangedEvent(type, ids, names, nutritionChanged));
     }
 
     private void validateBulkCreatePayload(List<IngredientDTO> dtos) {
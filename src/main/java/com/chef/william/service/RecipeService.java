@@ -1,39 +1,78 @@
 package com.chef.william.service;
 
+import com.chef.william.dto.PantryMatchDTO;
 import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.RecipeMacrosDTO;
+import com.chef.william.dto.RecipeNutritionDTO;
+import com.chef.william.dto.RecipeSearchHitDTO;
+import com.chef.william.dto.RecipeSliceDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.exception.BusinessException;
 import com.chef.william.exception.DuplicateResourceException;
+import com.chef.william.exception.PreconditionFailedException;
 import com.chef.william.exception.ResourceNotFoundException;
 import com.chef.william.model.Food;
 import com.chef.william.model.Recipe;
 import com.chef.william.model.User;
 import com.chef.william.repository.FoodRepository;
+import com.chef.william.repository.RecipeKeyView;
 import com.chef.william.repository.RecipeRepository;
+import com.chef.william.repository.RecipeSummaryView;
+import com.chef.william.repository.RecipeVersionView;
+import com.chef.william.service.allergen.AllergenService;
 import com.chef.william.service.auth.CurrentUserService;
 import com.chef.william.service.mapper.RecipeMapper;
+import com.chef.william.service.nutrition.RecipeNutritionCalculator;
+import com.chef.william.service.nutrition.RecipeNutritionSummaryService;
+import com.chef.william.service.patch.JsonMergePatch;
+import com.chef.william.service.recipe.PantryIndex;
+import com.chef.william.service.recipe.RecipeChangedEvent;
+import com.chef.william.service.recipe.RecipeChildPatcher;
+import com.chef.william.service.recipe.RecipeCursor;
 import com.chef.william.service.recipe.RecipeMergeService;
+import com.chef.william.service.search.RecipeSearchIndex;
+import com.chef.william.service.search.SnippetHighlighter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 @Service
 @RequiredArgsConstructor
 public class RecipeService {
 
+    private static final int MAX_SLICE_SIZE = 100;
+    private static final int MAX_PANTRY_MISSING = 5;
+
     private final RecipeRepository recipeRepository;
     private final FoodRepository foodRepository;
     private final RecipeMergeService recipeMergeService;
+    private final RecipeChildPatcher recipeChildPatcher;
+    private final JsonMergePatch jsonMergePatch;
     private final RecipeMapper recipeMapper;
     private final CurrentUserService currentUserService;
+    private final RecipeNutritionCalculator recipeNutritionCalculator;
+    private final RecipeNutritionSummaryService recipeNutritionSummaryService;
+    private final AllergenService allergenService;
+    private final PantryIndex pantryIndex;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public RecipeDTO createRecipe(RecipeDTO recipeDTO) {
@@ -44,58 +83,356 @@ public class RecipeService {
         populateScalars(recipe, recipeDTO, currentUser);
         recipeMergeService.mergeIngredients(recipe, recipeDTO);
         recipeMergeService.mergeInstructions(recipe, recipeDTO);
+        recipe.setAllergenMask(allergenService.recipeMask(recipe));
         recipe = recipeRepository.save(recipe);
+        recipeNutritionSummaryService.recompute(recipe);
+        eventPublisher.publishEvent(new RecipeChangedEvent(Set.of(recipe.getId())));
         return recipeMapper.toDto(recipe);
     }
 
     @Transactional
     public RecipeDTO updateRecipe(Long id, RecipeDTO recipeDTO) {
+        return update(id, recipeDTO, null);
+    }
+
+    /**
+     * Conditional update: {@code expectedTags} (from If-Match) must contain the recipe's current tag,
+     * null skips the check. The returned tag is read after the update, in the same transaction.
+     */
+    @Transactional
+    public Tagged<RecipeDTO> updateRecipe(Long id, RecipeDTO recipeDTO, Collection<String> expectedTags) {
+        RecipeDTO updated = update(id, recipeDTO, expectedTags);
+        return new Tagged<>(updated, findTag(id));
+    }
+
+    /**
+     * JSON Merge Patch of a recipe; see {@link RecipeChildPatcher} for the ingredient and instruction
+     * members. With {@code returnRepresentation} false the body is not read back and is null.
+     */
+    @Transactional
+    public Tagged<RecipeDTO> patchRecipe(Long id, JsonNode patch, Collection<String> expectedTags,
+                                         boolean returnRepresentation) {
+        JsonMergePatch.requireObject(patch);
+        User currentUser = currentUserService.getRequiredCurrentUser();
+        Recipe recipe = recipeRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
+        if (expectedTags != null && !expectedTags.contains(findTag(id))) {
+            throw new PreconditionFailedException("Recipe", id);
+        }
+
+        ObjectNode scalarPatch = (ObjectNode) patch.deepCopy();
+        scalarPatch.remove(List.of("ingredients", "instructions"));
+        RecipeDTO scalars = jsonMergePatch.apply(RecipeDTO.builder()
+                .version(recipe.getVersion())
+                .description(recipe.getDescription())
+                .servings(recipe.getServings())
+                .foodId(recipe.getFood() != null ? recipe.getFood().getId() : null)
+                .build(), scalarPatch, RecipeDTO.class);
+        validateUniqueVersionForUpdate(recipe, scalars.getVersion());
+        populateScalars(recipe, scalars, currentUser);
+
+        boolean ingredientsChanged = recipeChildPatcher.patchIngredients(recipe, patch);
+        recipeChildPatcher.patchInstructions(recipe, patch);
+        if (ingredientsChanged) {
+            recipe.setAllergenMask(allergenService.recipeMask(recipe));
+        }
+        recipe = recipeRepository.save(recipe);
+        if (ingredientsChanged) {
+            recipeNutritionSummaryService.recompute(recipe);
+        }
+        eventPublisher.publishEvent(new RecipeChangedEvent(Set.of(recipe.getId())));
+        // Instructions written through their repository reach the recipe's list only once flushed
+        recipeRepository.flush();
+        return new Tagged<>(returnRepresentation ? recipeMapper.toDto(recipe) : null, findTag(id));
+    }
+
+    @Transactional(readOnly = true)
+    public String getRecipeTag(Long id) {
+        return findTag(id);
+    }
+
+    private RecipeDTO update(Long id, RecipeDTO recipeDTO, Collection<String> expectedTags) {
         User currentUser = currentUserService.getRequiredCurrentUser();
         Recipe recipe = recipeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
+        if (expectedTags != null && !expectedTags.contains(findTag(id))) {
+            throw new PreconditionFailedException("Recipe", id);
+        }
 
         validateUniqueVersionForUpdate(recipe, recipeDTO.getVersion());
         populateScalars(recipe, recipeDTO, currentUser);
         recipeMergeService.mergeIngredients(recipe, recipeDTO);
         recipeMergeService.mergeInstructions(recipe, recipeDTO);
+        recipe.setAllergenMask(allergenService.recipeMask(recipe));
         recipe = recipeRepository.save(recipe);
+        recipeNutritionSummaryService.recompute(recipe);
+        eventPublisher.publishEvent(new RecipeChangedEvent(Set.of(recipe.getId())));
         return recipeMapper.toDto(recipe);
     }
 
     @Transactional(readOnly = true)
     public RecipeDTO getRecipeById(Long id) {
+        return getRecipeById(id, false);
+    }
+
+    @Transactional(readOnly = true)
+    public RecipeDTO getRecipeById(Long id, boolean includeNutrition) {
         Recipe recipe = recipeRepository.findDetailedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
-        return recipeMapper.toDto(recipe);
+        RecipeDTO dto = recipeMapper.toDto(recipe);
+        if (includeNutrition) {
+            dto.setNutrition(recipeNutritionCalculator.calculate(recipe));
+        }
+        return dto;
+    }
+
+    @Transactional(readOnly = true)
+    public RecipeNutritionDTO getRecipeNutrition(Long id) {
+        Recipe recipe = recipeRepository.findDetailedById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
+        return recipeNutritionCalculator.calculate(recipe);
     }
 
     @Transactional(readOnly = true)
     public Page<RecipeDTO> getAllRecipes(Pageable pageable) {
-        Page<Long> idPage = recipeRepository.findAllIds(pageable);
+        return getAllRecipes(pageable, false);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<RecipeDTO> getAllRecipes(Pageable pageable, boolean includeNutrition) {
+        return getAllRecipes(pageable, includeNutrition, false);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<RecipeDTO> getAllRecipes(Pageable pageable, boolean includeNutrition, boolean excludeMyAllergies) {
+        return getAllRecipes(pageable, includeNutrition, excludeMyAllergies, false);
+    }
+
+    /**
+     * {@code summary} returns recipe scalars and macros only, read through a projection so no
+     * entities are loaded; ingredients and instructions are left empty.
+     */
+    @Transactional(readOnly = true)
+    public Page<RecipeDTO> getAllRecipes(Pageable pageable, boolean includeNutrition, boolean excludeMyAllergies,
+                                         boolean summary) {
+        if (summary && includeNutrition) {
+            throw new BusinessException("includeNutrition is not available in summary mode; macros are always included");
+        }
+        long excludedMask = excludeMyAllergies ? allergenService.currentUserMask() : 0L;
+        Page<Long> idPage = excludedMask == 0L
+                ? recipeRepository.findAllIds(pageable)
+                : recipeRepository.findAllIdsWithoutAllergens(excludedMask, pageable);
         List<Long> ids = idPage.getContent();
 
         if (ids.isEmpty()) {
             return Page.empty(pageable);
         }
 
+        if (summary) {
+            Map<Long, RecipeSummaryView> viewsById = new HashMap<>();
+            recipeRepository.findSummariesByIdIn(ids).forEach(view -> viewsById.put(view.id(), view));
+            // A recipe deleted between the two queries is skipped
+            List<Long> loadedIds = ids.stream().filter(viewsById::containsKey).toList();
+            List<RecipeDTO> ordered = loadedIds.stream()
+                    .map(viewsById::get)
+                    .map(recipeMapper::toSummaryDto)
+                    .toList();
+            attachMacros(loadedIds, ordered);
+            return new PageImpl<>(ordered, pageable, idPage.getTotalElements());
+        }
+
         Map<Long, Recipe> recipesById = new LinkedHashMap<>();
         recipeRepository.findDetailedByIdIn(ids)
                 .forEach(recipe -> recipesById.put(recipe.getId(), recipe));
 
-        List<RecipeDTO> ordered = ids.stream()
+        List<Long> loadedIds = ids.stream().filter(recipesById::containsKey).toList();
+        List<RecipeDTO> ordered = loadedIds.stream()
                 .map(recipesById::get)
                 .map(recipeMapper::toDto)
                 .toList();
+        attachMacros(loadedIds, ordered);
+        if (includeNutrition) {
+            attachNutrition(recipesById.values(), ordered);
+        }
 
         return new PageImpl<>(ordered, pageable, idPage.getTotalElements());
     }
 
+    @Transactional(readOnly = true)
+    public RecipeSliceDTO getRecipesAfter(String after, String sort, int size) {
+        return getRecipesAfter(after, sort, size, false);
+    }
+
+    @Transactional(readOnly = true)
+    public RecipeSliceDTO getRecipesAfter(String after, String sort, int size, boolean includeNutrition) {
+        return getRecipesAfter(after, sort, size, includeNutrition, false);
+    }
+
+    @Transactional(readOnly = true)
+    public RecipeSliceDTO getRecipesAfter(String after, String sort, int size, boolean includeNutrition,
+                                          boolean excludeMyAllergies) {
+        if (size < 1) {
+            throw new BusinessException("Slice size must be at least 1");
+        }
+        int limit = Math.min(size, MAX_SLICE_SIZE);
+
+        RecipeCursor.SortKey requestedKey = RecipeCursor.SortKey.fromParam(sort);
+        RecipeCursor cursor = (after == null || after.isBlank()) ? null : RecipeCursor.decode(after);
+        if (cursor != null && sort != null && !sort.isBlank() && cursor.sortKey() != requestedKey) {
+            throw new BusinessException("Cursor was issued for sort '" + cursor.sortKey().getParam()
+                    + "' and cannot be used with sort '" + requestedKey.getParam() + "'");
+        }
+        RecipeCursor.SortKey sortKey = cursor != null ? cursor.sortKey() : requestedKey;
+
+        // Fetch one extra key to learn whether another slice exists without running a COUNT
+        long excludedMask = excludeMyAllergies ? allergenService.currentUserMask() : 0L;
+        List<RecipeKeyView> keys = findKeysAfter(sortKey, cursor, excludedMask, PageRequest.of(0, limit + 1));
+        boolean hasNext = keys.size() > limit;
+        if (hasNext) {
+            keys = keys.subList(0, limit);
+        }
+
+        if (keys.isEmpty()) {
+            return new RecipeSliceDTO(List.of(), 0, false, null);
+        }
+
+        List<Long> ids = keys.stream().map(RecipeKeyView::id).toList();
+        Map<Long, Recipe> recipesById = new LinkedHashMap<>();
+        recipeRepository.findDetailedByIdIn(ids)
+                .forEach(recipe -> recipesById.put(recipe.getId(), recipe));
+
+        // A recipe deleted between the two queries is skipped; the cursor still comes from the seek row
+        List<Long> loadedIds = ids.stream().filter(recipesById::containsKey).toList();
+        List<RecipeDTO> ordered = loadedIds.stream()
+                .map(recipesById::get)
+                .map(recipeMapper::toDto)
+                .toList();
+        attachMacros(loadedIds, ordered);
+        if (includeNutrition) {
+            attachNutrition(recipesById.values(), ordered);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            RecipeKeyView last = keys.getLast();
+            nextCursor = new RecipeCursor(sortKey, last.updatedAt(), last.id()).encode();
+        }
+        return new RecipeSliceDTO(ordered, ordered.size(), hasNext, nextCursor);
+    }
+
     @Transactional
     public void deleteRecipe(Long id) {
         if (!recipeRepository.existsById(id)) {
             throw new ResourceNotFoundException("Recipe not found with id: " + id);
         }
+        recipeNutritionSummaryService.delete(id);
         recipeRepository.deleteById(id);
+        eventPublisher.publishEvent(new RecipeChangedEvent(Set.of(id)));
+    }
+
+    /**
+     * Recipes that can be cooked from {@code ingredientIds}, or nearly: full matches first, then
+     * recipes missing up to {@code maxMissing} ingredients.
+     */
+    @Transactional(readOnly = true)
+    public List<PantryMatchDTO> findRecipesForPantry(Collection<Long> ingredientIds, int maxMissing, int limit) {
+        if (ingredientIds == null || ingredientIds.isEmpty()) {
+            throw new BusinessException("At least one ingredient id is required");
+        }
+        if (maxMissing < 0 || maxMissing > MAX_PANTRY_MISSING) {
+            throw new BusinessException("maxMissing must be between 0 and " + MAX_PANTRY_MISSING);
+        }
+        if (limit < 1) {
+            throw new BusinessException("Limit must be at least 1");
+        }
+        if (!pantryIndex.isReady()) {
+            pantryIndex.build();
+        }
+
+        List<PantryIndex.Match> matches = pantryIndex.match(ingredientIds, maxMissing, Math.min(limit, MAX_SLICE_SIZE));
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Recipe> recipesById = new LinkedHashMap<>();
+        recipeRepository.findDetailedByIdIn(matches.stream().map(PantryIndex.Match::recipeId).toList())
+                .forEach(recipe -> recipesById.put(recipe.getId(), recipe));
+
+        // A recipe deleted since the index was read is skipped rather than failing the request
+        return matches.stream()
+                .filter(match -> recipesById.containsKey(match.recipeId()))
+                .map(match -> new PantryMatchDTO(recipeMapper.toDto(recipesById.get(match.recipeId())),
+                        match.matchedIngredients(), match.totalIngredients(), match.missingIngredientIds()))
+                .toList();
+    }
+
+    /**
+     * Full-text search over descriptions and instruction steps, best BM25 score first.
+     */
+    @Transactional(readOnly = true)
+    public Page<RecipeSearchHitDTO> searchRecipes(String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new BusinessException("Search query must not be blank");
+        }
+        if (!recipeSearchIndex.isReady()) {
+            recipeSearchIndex.build();
+        }
+        int size = Math.min(pageable.getPageSize(), MAX_SLICE_SIZE);
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+        RecipeSearchIndex.Result result = recipeSearchIndex.search(query, offset, size);
+        if (result.hits().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.totalHits());
+        }
+
+        Map<Long, Recipe> recipesById = new LinkedHashMap<>();
+        recipeRepository.findDetailedByIdIn(result.hits().stream().map(RecipeSearchIndex.Hit::recipeId).toList())
+                .forEach(recipe -> recipesById.put(recipe.getId(), recipe));
+
+        List<RecipeSearchHitDTO> hits = result.hits().stream()
+                .filter(hit -> recipesById.containsKey(hit.recipeId()))
+                .map(hit -> {
+                    RecipeDTO dto = recipeMapper.toDto(recipesById.get(hit.recipeId()));
+                    return new RecipeSearchHitDTO(dto, hit.score(), SnippetHighlighter.snippet(result.terms(), searchableText(dto)));
+                })
+                .toList();
+        return new PageImpl<>(hits, pageable, result.totalHits());
+    }
+
+    private static List<String> searchableText(RecipeDTO dto) {
+        List<String> segments = new ArrayList<>();
+        if (dto.getDescription() != null) {
+            segments.add(dto.getDescription());
+        }
+        if (dto.getInstructions() != null) {
+            dto.getInstructions().forEach(step -> segments.add(step.getDescription()));
+        }
+        return segments;
+    }
+
+    private List<RecipeKeyView> findKeysAfter(RecipeCursor.SortKey sortKey, RecipeCursor cursor, long excludedMask,
+                                              Pageable limit) {
+        return switch (sortKey) {
+            case ID -> cursor == null
+                    ? recipeRepository.findFirstKeysOrderById(excludedMask, limit)
+                    : recipeRepository.findKeysAfterId(cursor.id(), excludedMask, limit);
+            case UPDATED_AT -> {
+                if (cursor == null) {
+                    yield recipeRepository.findFirstKeysOrderByUpdatedAtDesc(excludedMask, limit);
+                }
+                yield cursor.updatedAt() == null
+                        ? recipeRepository.findKeysAfterNullUpdatedAt(cursor.id(), excludedMask, limit)
+                        : recipeRepository.findKeysAfterUpdatedAt(cursor.updatedAt(), cursor.id(), excludedMask, limit);
+            }
+        };
+    }
+
+    private void attachMacros(List<Long> ids, List<RecipeDTO> dtos) {
+        Map<Long, RecipeMacrosDTO> macrosByRecipeId = recipeNutritionSummaryService.findMacros(ids);
+        dtos.forEach(dto -> dto.setMacros(macrosByRecipeId.get(dto.getId())));
+    }
+
+    private void attachNutrition(Collection<Recipe> recipes, List<RecipeDTO> dtos) {
+        Map<Long, RecipeNutritionDTO> nutritionByRecipeId = recipeNutritionCalculator.calculateAll(recipes);
+        dtos.forEach(dto -> dto.setNutrition(nutritionByRecipeId.get(dto.getId())));
     }
 
     private void validateUniqueVersionForCreate(String version) {
@@ -112,10 +449,17 @@ public class RecipeService {
         }
     }
 
+    private String findTag(Long id) {
+        return recipeRepository.findVersionById(id)
+                .map(RecipeVersionView::tag)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
+    }
+
     private void populateScalars(Recipe recipe, RecipeDTO dto, User currentUser) {
         String auditActor = resolveAuditActor(currentUser);
         recipe.setVersion(dto.getVersion());
         recipe.setDescription(dto.getDescription());
+        recipe.setServings(dto.getServings());
         recipe.setUser(currentUser);
         if (recipe.getCreatedBy() == null || recipe.getCreatedBy().isBlank()) {
             recipe.setCreatedBy(auditActor);
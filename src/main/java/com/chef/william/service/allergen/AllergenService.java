@@ -0,0 +1,133 @@
+package com.chef.william.service.allergen;
+
+import com.chef.william.model.Ingredient;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.User;
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.repository.RecipeAllergenProjection;
+import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.auth.CurrentUserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains allergen masks: per ingredient (from {@link Allergen}'s dictionary unless set explicitly)
+ * and per recipe (the OR of its ingredients), so that filtering is one bitwise AND per recipe.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AllergenService {
+
+    static final int BATCH_SIZE = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final CurrentUserService currentUserService;
+    private final TransactionTemplate transactionTemplate;
+
+    public long currentUserMask() {
+        return userMask(currentUserService.getRequiredCurrentUser());
+    }
+
+    public long userMask(User user) {
+        return Allergen.maskOfAllergies(user.getAllergies());
+    }
+
+    /**
+     * A recipe whose mask is not derived yet is unknown, so it only passes when nothing is excluded.
+     */
+    public static boolean isSafe(Long recipeMask, long excludedMask) {
+        return excludedMask == 0L || (recipeMask != null && (recipeMask & excludedMask) == 0);
+    }
+
+    /**
+     * Mask of a recipe being written. The ingredient masks are read in the caller's transaction with
+     * one query, never from a cache, since the result is persisted.
+     */
+    public long recipeMask(Recipe recipe) {
+        Set<Long> ingredientIds = new HashSet<>();
+        recipe.getRecipeIngredients().forEach(ri -> ingredientIds.add(ri.getIngredient().getId()));
+        if (ingredientIds.isEmpty()) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (Long ingredientMask : ingredientRepository.findAllergenMasksByIdIn(ingredientIds)) {
+            if (ingredientMask != null) {
+                mask |= ingredientMask;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Re-derives the masks of every recipe that uses one of {@code ingredientIds}. Runs in the
+     * caller's transaction.
+     */
+    public void refreshRecipesUsing(Collection<Long> ingredientIds) {
+        refreshRecipes(recipeRepository.findIdsByIngredientIdIn(ingredientIds));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int ingredients = 0;
+        List<Ingredient> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Ingredient> pending = ingredientRepository.findByAllergenMaskIsNull(PageRequest.of(0, BATCH_SIZE));
+                pending.forEach(ingredient ->
+                        ingredient.setAllergenMask(Allergen.detect(ingredient.getName(), ingredient.getCategory())));
+                return pending;
+            });
+            ingredients += batch == null ? 0 : batch.size();
+        } while (batch != null && batch.size() == BATCH_SIZE);
+
+        List<Long> recipeIds = transactionTemplate.execute(status -> recipeRepository.findIdsWithoutAllergenMask());
+        if (recipeIds != null) {
+            for (int from = 0; from < recipeIds.size(); from += BATCH_SIZE) {
+                List<Long> slice = recipeIds.subList(from, Math.min(from + BATCH_SIZE, recipeIds.size()));
+                transactionTemplate.executeWithoutResult(status -> refreshRecipeSlice(slice));
+            }
+        }
+        if (ingredients > 0 || (recipeIds != null && !recipeIds.isEmpty())) {
+            log.info("Derived allergen masks for {} ingredients and {} recipes", ingredients,
+                    recipeIds == null ? 0 : recipeIds.size());
+        }
+    }
+
+    private void refreshRecipes(List<Long> recipeIds) {
+        for (int from = 0; from < recipeIds.size(); from += BATCH_SIZE) {
+            refreshRecipeSlice(recipeIds.subList(from, Math.min(from + BATCH_SIZE, recipeIds.size())));
+        }
+    }
+
+    private void refreshRecipeSlice(List<Long> recipeIds) {
+        Map<Long, Long> maskByRecipe = new HashMap<>();
+        recipeIds.forEach(id -> maskByRecipe.put(id, 0L));
+        for (RecipeAllergenProjection row : recipeRepository.findIngredientAllergenMasks(recipeIds)) {
+            if (row.getAllergenMask() != null) {
+                maskByRecipe.merge(row.getRecipeId(), row.getAllergenMask(), (a, b) -> a | b);
+            }
+        }
+        // Few distinct masks exist in practice, so one UPDATE per mask value covers many recipes
+        Map<Long, List<Long>> recipesByMask = new HashMap<>();
+        maskByRecipe.forEach((recipeId, mask) -> recipesByMask.computeIfAbsent(mask, key -> new ArrayList<>()).add(recipeId));
+        recipesByMask.forEach((mask, ids) -> recipeRepository.updateAllergenMask(mask, ids));
+    }
+}
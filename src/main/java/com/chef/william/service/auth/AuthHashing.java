@@ -0,0 +1,111 @@
+package com.chef.william.service.auth;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * SHA-256 and HMAC-SHA256 for the registration path. Provider lookup and HMAC key setup cost more
+ * than hashing the few bytes involved, so instances are kept in small shared pools and reused.
+ * The pools are not tied to a thread: a {@code ThreadLocal} would build a fresh instance for every
+ * virtual thread and never reuse it.
+ */
+public final class AuthHashing {
+
+    private static final String SHA_256 = "SHA-256";
+    private static final String HMAC_SHA_256 = "HmacSHA256";
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final Pool<MessageDigest> SHA_256_POOL = new Pool<>(AuthHashing::newSha256);
+    // One pool per key; callers only ever pass the configured app client secret
+    private static final Map<String, Pool<Mac>> HMAC_POOLS = new ConcurrentHashMap<>();
+
+    private AuthHashing() {
+    }
+
+    public static String sha256Hex(String value) {
+        MessageDigest digest = SHA_256_POOL.borrow();
+        byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+        SHA_256_POOL.release(digest);
+        return HEX.formatHex(hash);
+    }
+
+    /**
+     * Base64 HMAC-SHA256 of the concatenated parts.
+     */
+    public static String hmacSha256Base64(String key, String... parts) {
+        Pool<Mac> pool = HMAC_POOLS.computeIfAbsent(key, k -> new Pool<>(clonesOf(newHmacSha256(k))));
+        Mac mac = pool.borrow();
+        for (String part : parts) {
+            mac.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+        // doFinal leaves the Mac keyed and reset for the next caller
+        byte[] raw = mac.doFinal();
+        pool.release(mac);
+        return Base64.getEncoder().encodeToString(raw);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance(SHA_256);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Failed to set up " + SHA_256, ex);
+        }
+    }
+
+    private static Mac newHmacSha256(String key) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA_256);
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_SHA_256));
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Failed to set up " + HMAC_SHA_256, ex);
+        }
+    }
+
+    // Cloning keeps the key schedule, so a pool miss skips provider lookup and key setup
+    private static Supplier<Mac> clonesOf(Mac prototype) {
+        return () -> {
+            synchronized (prototype) {
+                try {
+                    return (Mac) prototype.clone();
+                } catch (CloneNotSupportedException ex) {
+                    throw new IllegalStateException("Provider cannot clone " + HMAC_SHA_256, ex);
+                }
+            }
+        };
+    }
+
+    /**
+     * Idle instances, created on demand when none is free. An instance is only returned after a
+     * completed hash, so a failure mid-way simply drops it.
+     */
+    private static final class Pool<T> {
+
+        private final Supplier<T> factory;
+        private final Queue<T> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+
+        Pool(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        T borrow() {
+            T instance = idle.poll();
+            return instance != null ? instance : factory.get();
+        }
+
+        void release(T instance) {
+            idle.offer(instance);
+        }
+    }
+}
@@ -18,10 +18,15 @@ import com.chef.william.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.SdkPlugin;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminDeleteUserRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
@@ -35,29 +40,44 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpReque
 import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.UsernameExistsException;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
-    private final CognitoIdentityProviderClient cognitoClient;
+    private static final Duration IN_PROGRESS_LEASE_MARGIN = Duration.ofSeconds(10);
+
+    // SignUp is not idempotent: an attempt that timed out may still have created the user, and
+    // retrying it would fail with UsernameExists and leave that user behind without a local row
+    private static final SdkPlugin SINGLE_ATTEMPT = config -> config.overrideConfiguration(
+            override -> override.retryStrategy(AwsRetryStrategy.doNotRetry()));
+
+    private final CognitoIdentityProviderAsyncClient cognitoClient;
     private final CognitoProperties cognitoProperties;
     private final UserRepository userRepository;
     private final RegistrationIdempotencyRepository idempotencyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final CognitoCallLimiter cognitoCallLimiter;
 
     @Value("${app.idempotency.registration.ttl-minutes}")
     private long idempotencyTtlMinutes;
 
 
-    @Transactional
     public VerifyEmailResponse verifyEmail(VerifyEmailRequest request) {
+        // Checked first, so Cognito never confirms an email this service has no user for
+        userRepository.findByEmail(request.getEmail())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", request.getEmail()));
+        confirmSignUp(request);
+        return transactionTemplate.execute(status -> markEmailVerified(request.getEmail()));
+    }
+
+    private void confirmSignUp(VerifyEmailRequest request) {
         try {
             ConfirmSignUpRequest.Builder confirmBuilder = ConfirmSignUpRequest.builder()
                     .clientId(cognitoProperties.getAppClientId())
@@ -72,7 +92,7 @@ public class AuthService {
                 ));
             }
 
-            cognitoClient.confirmSignUp(confirmBuilder.build());
+            cognitoCallLimiter.call(() -> await(cognitoClient.confirmSignUp(confirmBuilder.build())));
         } catch (CodeMismatchException | ExpiredCodeException ex) {
             throw new BusinessException(ex.getMessage());
         } catch (NotAuthorizedException ex) {
@@ -80,14 +100,19 @@ public class AuthService {
         } catch (CognitoIdentityProviderException ex) {
             String detail = ex.awsErrorDetails() != null ? ex.awsErrorDetails().errorMessage() : ex.getMessage();
             throw new BusinessException("Failed to verify email in Cognito: " + detail);
+        } catch (SdkClientException ex) {
+            throw new CognitoRegistrationException("Cognito did not respond while verifying email: " + ex.getMessage(), ex);
         }
+    }
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", request.getEmail()));
+    private VerifyEmailResponse markEmailVerified(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
 
         user.setEmailVerified(true);
         user.setAccountStatus(AccountStatus.ACTIVE);
         User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getCognitoSub()));
 
         return VerifyEmailResponse.builder()
                 .email(saved.getEmail())
@@ -97,7 +122,11 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
+    /**
+     * Claims the idempotency key in one short transaction, calls Cognito with no transaction open,
+     * then stores the user and the response in a second one. The JDBC connection is never held while
+     * Cognito is working.
+     */
     public RegisterUserResponse register(RegisterUserRequest request, String idempotencyKey) {
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
             throw new BusinessException("Idempotency-Key header is required for registration requests");
@@ -105,25 +134,47 @@ public class AuthService {
 
         String normalizedKey = idempotencyKey.trim();
         String requestHash = calculateRequestHash(request);
-        LocalDateTime now = LocalDateTime.now();
-
-        RegistrationIdempotencyRecord record = idempotencyRepository.findByIdempotencyKey(normalizedKey)
-                .map(existing -> handleExistingRecord(existing, requestHash, now))
-                .orElseGet(() -> createInProgressRecord(normalizedKey, requestHash, now));
 
+        RegistrationIdempotencyRecord record = transactionTemplate.execute(
+                status -> claimRegistration(request, normalizedKey, requestHash));
         if (record.getStatus() == RegistrationIdempotencyStatus.COMPLETED) {
             return toResponse(record);
         }
 
+        SignUpResponse signUpResponse;
         try {
-            RegisterUserResponse response = performRegistration(request);
-            markCompleted(record, response);
-            return response;
+            signUpResponse = signUp(request);
         } catch (RuntimeException ex) {
-            record.setStatus(RegistrationIdempotencyStatus.FAILED);
-            idempotencyRepository.save(record);
+            markFailed(record);
             throw ex;
         }
+
+        try {
+            return transactionTemplate.execute(status -> persistRegistration(record, request, signUpResponse));
+        } catch (RuntimeException ex) {
+            rollbackCognitoRegistration(request.getEmail());
+            markFailed(record);
+            throw new CognitoRegistrationException(
+                    "User was created in Cognito but failed to persist in local database", ex);
+        }
+    }
+
+    private RegistrationIdempotencyRecord claimRegistration(RegisterUserRequest request,
+                                                            String idempotencyKey,
+                                                            String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        RegistrationIdempotencyRecord record = idempotencyRepository.findByIdempotencyKey(idempotencyKey)
+                .map(existing -> handleExistingRecord(existing, requestHash, now))
+                .orElseGet(() -> createInProgressRecord(idempotencyKey, requestHash, now));
+
+        if (record.getStatus() != RegistrationIdempotencyStatus.COMPLETED) {
+            // Rolls the claim back with it, so the key stays free for a corrected request
+            userRepository.findByEmail(request.getEmail())
+                    .ifPresent(existing -> {
+                        throw new DuplicateResourceException("User", "email", request.getEmail());
+                    });
+        }
+        return record;
     }
 
     private RegistrationIdempotencyRecord handleExistingRecord(RegistrationIdempotencyRecord existing,
@@ -138,13 +189,28 @@ public class AuthService {
             throw new BusinessException("Idempotency key was already used with a different registration payload");
         }
 
-        if (existing.getStatus() == RegistrationIdempotencyStatus.IN_PROGRESS) {
+        if (existing.getStatus() == RegistrationIdempotencyStatus.IN_PROGRESS
+                && !existing.getUpdatedAt().plus(inProgressLease()).isBefore(now)) {
             throw new BusinessException("Registration request is already being processed for this idempotency key");
         }
 
+        // A failed attempt, or one whose lease ran out because the instance died before marking it
+        if (existing.getStatus() != RegistrationIdempotencyStatus.COMPLETED) {
+            existing.setStatus(RegistrationIdempotencyStatus.IN_PROGRESS);
+            existing.setUpdatedAt(now);
+            return idempotencyRepository.save(existing);
+        }
+
         return existing;
     }
 
+    // The longest a live attempt can spend between claiming the key and marking it, Cognito limits included
+    private Duration inProgressLease() {
+        return cognitoCallLimiter.getAcquireTimeout()
+                .plus(cognitoProperties.getClient().getCallTimeout())
+                .plus(IN_PROGRESS_LEASE_MARGIN);
+    }
+
     private RegistrationIdempotencyRecord createInProgressRecord(String idempotencyKey,
                                                                   String requestHash,
                                                                   LocalDateTime now) {
@@ -161,18 +227,13 @@ public class AuthService {
         }
     }
 
-    private RegisterUserResponse performRegistration(RegisterUserRequest request) {
-        userRepository.findByEmail(request.getEmail())
-                .ifPresent(existing -> {
-                    throw new DuplicateResourceException("User", "email", request.getEmail());
-                });
-
-        SignUpResponse signUpResponse;
+    private SignUpResponse signUp(RegisterUserRequest request) {
         try {
             SignUpRequest.Builder signUpBuilder = SignUpRequest.builder()
                     .clientId(cognitoProperties.getAppClientId())
                     .username(request.getEmail())
                     .password(request.getPassword())
+                    .overrideConfiguration(override -> override.addPlugin(SINGLE_ATTEMPT))
                     .userAttributes(
                             AttributeType.builder()
                                     .name("email")
@@ -192,7 +253,7 @@ public class AuthService {
                 ));
             }
 
-            signUpResponse = cognitoClient.signUp(signUpBuilder.build());
+            return cognitoCallLimiter.call(() -> await(cognitoClient.signUp(signUpBuilder.build())));
         } catch (UsernameExistsException ex) {
             throw new DuplicateResourceException("User", "email", request.getEmail());
         } catch (InvalidPasswordException | InvalidParameterException ex) {
@@ -202,8 +263,14 @@ public class AuthService {
         } catch (CognitoIdentityProviderException ex) {
             String detail = ex.awsErrorDetails() != null ? ex.awsErrorDetails().errorMessage() : ex.getMessage();
             throw new CognitoRegistrationException("Failed to register user with Cognito: " + detail, ex);
+        } catch (SdkClientException ex) {
+            throw new CognitoRegistrationException("Cognito did not respond while registering user: " + ex.getMessage(), ex);
         }
+    }
 
+    private RegisterUserResponse persistRegistration(RegistrationIdempotencyRecord record,
+                                                     RegisterUserRequest request,
+                                                     SignUpResponse signUpResponse) {
         User user = new User();
         user.setEmail(request.getEmail());
         user.setUserName(request.getUserName());
@@ -212,17 +279,9 @@ public class AuthService {
         boolean userConfirmed = signUpResponse.userConfirmed();
         user.setEmailVerified(userConfirmed);
         user.setAccountStatus(userConfirmed ? AccountStatus.ACTIVE : AccountStatus.PENDING_EMAIL_VERIFICATION);
+        User saved = userRepository.save(user);
 
-        User saved;
-        try {
-            saved = userRepository.save(user);
-        } catch (RuntimeException ex) {
-            rollbackCognitoRegistration(request.getEmail());
-            throw new CognitoRegistrationException(
-                    "User was created in Cognito but failed to persist in local database", ex);
-        }
-
-        return RegisterUserResponse.builder()
+        RegisterUserResponse response = RegisterUserResponse.builder()
                 .id(saved.getId())
                 .email(saved.getEmail())
                 .userName(saved.getUserName())
@@ -230,6 +289,20 @@ public class AuthService {
                 .cognitoSub(saved.getCognitoSub())
                 .status(userConfirmed ? "CONFIRMED" : "PENDING_EMAIL_VERIFICATION")
                 .build();
+        markCompleted(record, response);
+        return response;
+    }
+
+    private void markFailed(RegistrationIdempotencyRecord record) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                record.setStatus(RegistrationIdempotencyStatus.FAILED);
+                idempotencyRepository.save(record);
+            });
+        } catch (RuntimeException ex) {
+            // The key then stays in progress until it expires; the original failure is what the caller needs
+            log.error("Failed to mark registration idempotency key {} as failed", record.getIdempotencyKey(), ex);
+        }
     }
 
     private void markCompleted(RegistrationIdempotencyRecord record, RegisterUserResponse response) {
@@ -254,45 +327,39 @@ public class AuthService {
                 .build();
     }
 
+    // Not limited: the compensation must run even when the limiter is full
     private void rollbackCognitoRegistration(String email) {
         try {
-            cognitoClient.adminDeleteUser(AdminDeleteUserRequest.builder()
+            await(cognitoClient.adminDeleteUser(AdminDeleteUserRequest.builder()
                     .userPoolId(cognitoProperties.getUserPoolId())
                     .username(email)
-                    .build());
+                    .build()));
             log.warn("Rolled back Cognito user after local persistence failure for email={}", email);
-        } catch (CognitoIdentityProviderException rollbackEx) {
+        } catch (SdkException rollbackEx) {
             log.error("Failed to rollback Cognito user for email={}", email, rollbackEx);
         }
     }
 
-    private String calculateRequestHash(RegisterUserRequest request) {
-        String raw = request.getEmail() + "|" + request.getUserName() + "|" + request.getPassword() + "|"
-                + (request.getProfileImageUrl() == null ? "" : request.getProfileImageUrl());
+    // Parks the (virtual) request thread while the Netty event loop does the I/O
+    private static <T> T await(CompletableFuture<T> call) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(raw.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b));
+            return call.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            return sb.toString();
-        } catch (Exception ex) {
-            throw new IllegalStateException("Failed to calculate request hash", ex);
+            throw ex;
         }
     }
 
+    private String calculateRequestHash(RegisterUserRequest request) {
+        String raw = request.getEmail() + "|" + request.getUserName() + "|" + request.getPassword() + "|"
+                + (request.getProfileImageUrl() == null ? "" : request.getProfileImageUrl());
+        return AuthHashing.sha256Hex(raw);
+    }
+
     private String calculateSecretHash(String username, String clientId, String clientSecret) {
-        try {
-            Mac hmacSha256 = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKeySpec = new SecretKeySpec(clientSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            hmacSha256.init(secretKeySpec);
-            hmacSha256.update(username.getBytes(StandardCharsets.UTF_8));
-            byte[] raw = hmacSha256.doFinal(clientId.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(raw);
-        } catch (Exception ex) {
-            throw new IllegalStateException("Failed to calculate Cognito secret hash", ex);
-        }
+        return AuthHashing.hmacSha256Base64(clientSecret, username, clientId);
     }
 
     private String buildAuthorizationFailureMessage(NotAuthorizedException ex) {
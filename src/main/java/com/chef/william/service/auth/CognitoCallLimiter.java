@@ -0,0 +1,70 @@
+package com.chef.william.service.auth;
+
+import com.chef.william.exception.auth.CognitoRegistrationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of Cognito calls in flight. Requests run on virtual threads, so nothing else
+ * caps how many can block on Cognito at once. Past the limit a caller waits up to the acquire
+ * timeout and then gets a 503, rather than queueing on the SDK's connection pool or running into
+ * Cognito's rate limits.
+ */
+@Component
+public class CognitoCallLimiter {
+
+    private final int maxConcurrentCalls;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public CognitoCallLimiter(@Value("${app.cognito.max-concurrent-calls:50}") int maxConcurrentCalls,
+                              @Value("${app.cognito.acquire-timeout:PT2S}") Duration acquireTimeout,
+                              MeterRegistry meterRegistry) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.rejected = Counter.builder("cognito.calls.rejected")
+                .description("Cognito calls refused because the concurrency limit stayed full")
+                .register(meterRegistry);
+        Gauge.builder("cognito.calls.active", permits, p -> maxConcurrentCalls - p.availablePermits())
+                .description("Cognito calls in flight")
+                .register(meterRegistry);
+    }
+
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CognitoRegistrationException("Interrupted while waiting to call Cognito", ex);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new CognitoRegistrationException(
+                    "Too many concurrent requests to Cognito (limit " + maxConcurrentCalls + "), please retry");
+        }
+    }
+}
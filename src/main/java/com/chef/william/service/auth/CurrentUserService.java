@@ -4,20 +4,60 @@ import com.chef.william.exception.UnauthorizedException;
 import com.chef.william.model.AccountStatus;
 import com.chef.william.model.User;
 import com.chef.william.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.time.Duration;
+import java.util.ArrayList;
+
+/**
+ * Resolves the application user behind the access token. Resolved users are memoized for the rest
+ * of the request and cached by {@code sub} across requests (size- and TTL-bounded, dropped after
+ * commit on {@link UserChangedEvent}), so most calls do not touch the database. Callers receive a
+ * detached copy: reading it and linking it as an owner work as before, changes must be saved.
+ */
 @Service
-@RequiredArgsConstructor
 public class CurrentUserService {
 
+    private static final String REQUEST_ATTRIBUTE = CurrentUserService.class.getName() + ".user";
+
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, User> usersBySub;
+    private final TransactionTemplate syncTransaction;
+
+    public CurrentUserService(UserRepository userRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.current-user.max-size:10000}") long maxSize,
+                              @Value("${app.cache.current-user.ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.usersBySub = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersBySub, "currentUser.bySub");
+        this.syncTransaction = new TransactionTemplate(transactionManager);
+        this.syncTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
-    @Transactional
     public User getRequiredCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
@@ -29,38 +69,97 @@ public class CurrentUserService {
             throw new UnauthorizedException("Access token is missing 'sub' claim");
         }
 
-        User user = userRepository.findByCognitoSub(sub)
-                .orElseThrow(() -> new UnauthorizedException("No application user found for the authenticated token"));
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User memo
+                && sub.equals(memo.getCognitoSub())) {
+            return memo;
+        }
 
-        syncVerificationStateFromToken(user, jwt);
+        User user = resolve(sub, jwt);
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
         return user;
     }
 
-    private void syncVerificationStateFromToken(User user, Jwt jwt) {
-        Object rawEmailVerified = jwt.getClaim("email_verified");
-        if (rawEmailVerified == null) {
-            return;
+    // After commit, so a request racing the write cannot cache the old state again
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.cognitoSub() != null) {
+            usersBySub.invalidate(event.cognitoSub());
+        }
+    }
+
+    private User resolve(String sub, Jwt jwt) {
+        Boolean tokenEmailVerified = emailVerifiedClaim(jwt);
+        User cached = usersBySub.getIfPresent(sub);
+        if (cached != null && !needsSync(cached, tokenEmailVerified)) {
+            return copy(cached);
+        }
+
+        User user = userRepository.findByCognitoSub(sub)
+                .orElseThrow(() -> new UnauthorizedException("No application user found for the authenticated token"));
+        if (needsSync(user, tokenEmailVerified)) {
+            user = syncVerificationState(sub, tokenEmailVerified);
         }
+        // Committed state only: the sync above has committed by now
+        usersBySub.put(sub, copy(user));
+        return copy(user);
+    }
 
-        boolean tokenEmailVerified = user.isEmailVerified();
+    // Own read-write transaction: the caller's may be read-only (and routed to a replica) or roll back
+    private User syncVerificationState(String sub, boolean tokenEmailVerified) {
+        return syncTransaction.execute(status -> {
+            User user = userRepository.findByCognitoSub(sub)
+                    .orElseThrow(() -> new UnauthorizedException("No application user found for the authenticated token"));
+            if (!needsSync(user, tokenEmailVerified)) {
+                return user;
+            }
+            syncVerificationStateFromToken(user, tokenEmailVerified);
+            user = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(sub));
+            return user;
+        });
+    }
+
+    private static Boolean emailVerifiedClaim(Jwt jwt) {
+        Object rawEmailVerified = jwt.getClaim("email_verified");
         if (rawEmailVerified instanceof Boolean value) {
-            tokenEmailVerified = value;
-        } else if (rawEmailVerified instanceof String value) {
-            tokenEmailVerified = Boolean.parseBoolean(value);
+            return value;
         }
+        if (rawEmailVerified instanceof String value) {
+            return Boolean.parseBoolean(value);
+        }
+        return null;
+    }
 
-        boolean changed = user.isEmailVerified() != tokenEmailVerified;
-        if (changed) {
-            user.setEmailVerified(tokenEmailVerified);
+    private static boolean needsSync(User user, Boolean tokenEmailVerified) {
+        if (tokenEmailVerified == null) {
+            return false;
         }
+        return user.isEmailVerified() != tokenEmailVerified
+                || (tokenEmailVerified && user.getAccountStatus() == AccountStatus.PENDING_EMAIL_VERIFICATION);
+    }
 
+    private static void syncVerificationStateFromToken(User user, boolean tokenEmailVerified) {
+        user.setEmailVerified(tokenEmailVerified);
         if (tokenEmailVerified && user.getAccountStatus() == AccountStatus.PENDING_EMAIL_VERIFICATION) {
             user.setAccountStatus(AccountStatus.ACTIVE);
-            changed = true;
         }
+    }
 
-        if (changed) {
-            userRepository.save(user);
-        }
+    // Scalars and allergies only; the owned foods, ingredients and recipes are never read through it
+    private static User copy(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setUserName(source.getUserName());
+        user.setEmail(source.getEmail());
+        user.setCognitoSub(source.getCognitoSub());
+        user.setRole(source.getRole());
+        user.setAccountStatus(source.getAccountStatus());
+        user.setEmailVerified(source.isEmailVerified());
+        user.setAllergies(new ArrayList<>(source.getAllergies()));
+        user.setProfileImageUrl(source.getProfileImageUrl());
+        return user;
     }
 }
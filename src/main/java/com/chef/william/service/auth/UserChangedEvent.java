@@ -0,0 +1,8 @@
+package com.chef.william.service.auth;
+
+/**
+ * Published inside the transaction that changes a user; {@link CurrentUserService} drops its cached
+ * copy after commit.
+ */
+public record UserChangedEvent(String cognitoSub) {
+}
@@ -2,9 +2,11 @@ package com.chef.william.service.auth;
 
 import com.chef.william.dto.auth.UpdateProfileRequest;
 import com.chef.william.dto.auth.UserProfileResponse;
+import com.chef.william.exception.UnauthorizedException;
 import com.chef.william.model.User;
 import com.chef.william.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ public class UserProfileService {
 
     private final CurrentUserService currentUserService;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public UserProfileResponse getMyProfile() {
@@ -23,13 +26,17 @@ public class UserProfileService {
 
     @Transactional
     public UserProfileResponse updateMyProfile(UpdateProfileRequest request) {
-        User currentUser = currentUserService.getRequiredCurrentUser();
+        // The resolved user is a cached copy; change the managed row
+        Long userId = currentUserService.getRequiredCurrentUser().getId();
+        User currentUser = userRepository.findById(userId)
+                .orElseThrow(() -> new UnauthorizedException("No application user found for the authenticated token"));
         currentUser.setUserName(request.getUserName());
         currentUser.setProfileImageUrl(request.getProfileImageUrl());
         if (request.getAllergies() != null) {
             currentUser.setAllergies(request.getAllergies());
         }
         User saved = userRepository.save(currentUser);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getCognitoSub()));
         return toResponse(saved);
     }
 
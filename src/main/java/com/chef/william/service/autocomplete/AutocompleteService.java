@@ -0,0 +1,191 @@
+package com.chef.william.service.autocomplete;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.dto.AutocompleteSuggestionDTO;
+import com.chef.william.exception.BusinessException;
+import com.chef.william.repository.FoodRepository;
+import com.chef.william.repository.IdNameProjection;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.food.FoodChangedEvent;
+import com.chef.william.service.ingredient.IngredientCatalogCache;
+import com.chef.william.service.ingredient.IngredientChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keystroke autocomplete over ingredient and food names.
+ * <p>
+ * Suggestions are served from an immutable {@link Snapshot} of two {@link PrefixTrie}s that is
+ * rebuilt off the request path whenever the catalog changes and swapped in atomically. Changes that
+ * arrive while a rebuild is running are coalesced into a single follow-up rebuild.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+
+    public static final int DEFAULT_LIMIT = 8;
+
+    private static final Comparator<Entry> RANK = Comparator.comparingInt((Entry entry) -> entry.key().length())
+            .thenComparing(Entry::key)
+            .thenComparing(Entry::type)
+            .thenComparingLong(Entry::id);
+
+    private final IngredientRepository ingredientRepository;
+    private final FoodRepository foodRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public List<AutocompleteSuggestionDTO> suggest(String query, Integer limit, String type) {
+        String prefix = IngredientCatalogCache.normalizeName(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > PrefixTrie.MAX_SUGGESTIONS) {
+            throw new BusinessException("limit must be between 1 and " + PrefixTrie.MAX_SUGGESTIONS);
+        }
+        return snapshot.get().suggest(prefix, size, parseType(type));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        dirty.set(true);
+        rebuildIfDirty();
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        dirty.set(true);
+        rebuildIfDirty();
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        dirty.set(true);
+        rebuildIfDirty();
+    }
+
+    @Async
+    @EventListener
+    public void onCacheRegionVersionChanged(CacheRegionVersionChangedEvent event) {
+        if (CacheRegionVersionChangedEvent.INGREDIENT.equals(event.group())
+                || CacheRegionVersionChangedEvent.FOOD.equals(event.group())) {
+            dirty.set(true);
+            rebuildIfDirty();
+        }
+    }
+
+    void rebuildIfDirty() {
+        // Whoever holds the lock picks up changes flagged while it was building
+        while (dirty.get() && rebuildLock.tryLock()) {
+            try {
+                while (dirty.getAndSet(false)) {
+                    // A read-write transaction keeps both reads on the primary; a replica may not have the change yet
+                    Snapshot next = transactionTemplate.execute(status ->
+                            Snapshot.build(ingredientRepository.findAllNames(), foodRepository.findAllNames()));
+                    snapshot.set(next);
+                    log.debug("Autocomplete snapshot rebuilt with {} entries", next.entries().length);
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private static SuggestionType parseType(String type) {
+        if (type == null || type.isBlank()) {
+            return null;
+        }
+        try {
+            return SuggestionType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Unsupported suggestion type: " + type);
+        }
+    }
+
+    private record Entry(SuggestionType type, long id, String name, String key) {
+    }
+
+    /**
+     * Entries are stored once in rank order; both tries refer to them by position, so merging the
+     * two per-type results is a merge of ascending ordinals.
+     */
+    record Snapshot(Entry[] entries, PrefixTrie ingredients, PrefixTrie foods) {
+
+        static final Snapshot EMPTY = new Snapshot(new Entry[0],
+                PrefixTrie.builder().build(), PrefixTrie.builder().build());
+
+        static Snapshot build(List<IdNameProjection> ingredientNames, List<IdNameProjection> foodNames) {
+            List<Entry> all = new ArrayList<>(ingredientNames.size() + foodNames.size());
+            addEntries(all, SuggestionType.INGREDIENT, ingredientNames);
+            addEntries(all, SuggestionType.FOOD, foodNames);
+            all.sort(RANK);
+
+            Entry[] entries = all.toArray(Entry[]::new);
+            PrefixTrie.Builder ingredients = PrefixTrie.builder();
+            PrefixTrie.Builder foods = PrefixTrie.builder();
+            for (int ordinal = 0; ordinal < entries.length; ordinal++) {
+                Entry entry = entries[ordinal];
+                PrefixTrie.Builder target = entry.type() == SuggestionType.INGREDIENT ? ingredients : foods;
+                addKeys(target, ordinal, entry.key());
+            }
+            return new Snapshot(entries, ingredients.build(), foods.build());
+        }
+
+        List<AutocompleteSuggestionDTO> suggest(String prefix, int limit, SuggestionType type) {
+            int[] fromIngredients = type == SuggestionType.FOOD ? new int[0] : ingredients.topEntries(prefix);
+            int[] fromFoods = type == SuggestionType.INGREDIENT ? new int[0] : foods.topEntries(prefix);
+
+            List<AutocompleteSuggestionDTO> result = new ArrayList<>(limit);
+            int i = 0;
+            int j = 0;
+            while (result.size() < limit && (i < fromIngredients.length || j < fromFoods.length)) {
+                int ordinal = j >= fromFoods.length || (i < fromIngredients.length && fromIngredients[i] < fromFoods[j])
+                        ? fromIngredients[i++]
+                        : fromFoods[j++];
+                Entry entry = entries[ordinal];
+                result.add(new AutocompleteSuggestionDTO(entry.id(), entry.name(), entry.type()));
+            }
+            return result;
+        }
+
+        private static void addEntries(List<Entry> target, SuggestionType type, List<IdNameProjection> rows) {
+            for (IdNameProjection row : rows) {
+                String key = IngredientCatalogCache.normalizeName(row.getName());
+                if (!key.isEmpty()) {
+                    target.add(new Entry(type, row.getId(), row.getName(), key));
+                }
+            }
+        }
+
+        // The full name plus every word-start suffix, so "tom" also finds "cherry tomato"
+        private static void addKeys(PrefixTrie.Builder builder, int ordinal, String key) {
+            builder.add(ordinal, key);
+            for (int i = 1; i < key.length(); i++) {
+                if (!Character.isLetterOrDigit(key.charAt(i - 1)) && Character.isLetterOrDigit(key.charAt(i))) {
+                    builder.add(ordinal, key.substring(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.chef.william.service.autocomplete;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, array-backed prefix trie that answers "best k entries under this prefix" without
+ * walking the subtree.
+ * <p>
+ * Entries are identified by ordinals, and a lower ordinal means a better rank. Each node stores the
+ * first {@link #MAX_SUGGESTIONS} ordinals reachable through it, precomputed at build time. Nodes are
+ * laid out breadth-first so a node's children are contiguous and sorted by label, which allows a
+ * binary search per character.
+ */
+public final class PrefixTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int[] NONE = new int[0];
+
+    private final char[] labels;
+    private final int[] childStart;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] top;
+
+    private PrefixTrie(char[] labels, int[] childStart, int[] childCount,
+                       int[] topStart, int[] topCount, int[] top) {
+        this.labels = labels;
+        this.childStart = childStart;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.topCount = topCount;
+        this.top = top;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the best-ranked entry ordinals whose keys start with {@code prefix}, in rank order.
+     */
+    public int[] topEntries(String prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = child(node, prefix.charAt(i));
+            if (node < 0) {
+                return NONE;
+            }
+        }
+        return Arrays.copyOfRange(top, topStart[node], topStart[node] + topCount[node]);
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    private int child(int node, char label) {
+        int low = childStart[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midLabel = labels[mid];
+            if (midLabel < label) {
+                low = mid + 1;
+            } else if (midLabel > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mutable staging trie. Keys must be added in rank order (ascending ordinal) so that the first
+     * ordinals recorded at each node are also its best ones.
+     */
+    public static final class Builder {
+
+        private final BuildNode root = new BuildNode('\0');
+        private int nodeCount = 1;
+
+        private Builder() {
+        }
+
+        public Builder add(int ordinal, String key) {
+            BuildNode node = root;
+            node.offer(ordinal);
+            for (int i = 0; i < key.length(); i++) {
+                char label = key.charAt(i);
+                BuildNode next = node.children.get(label);
+                if (next == null) {
+                    next = new BuildNode(label);
+                    node.children.put(label, next);
+                    nodeCount++;
+                }
+                next.offer(ordinal);
+                node = next;
+            }
+            return this;
+        }
+
+        public PrefixTrie build() {
+            char[] labels = new char[nodeCount];
+            int[] childStart = new int[nodeCount];
+            int[] childCount = new int[nodeCount];
+            int[] topStart = new int[nodeCount];
+            int[] topCount = new int[nodeCount];
+            int[] top = new int[countTop(root)];
+
+            Deque<BuildNode> queue = new ArrayDeque<>();
+            queue.add(root);
+            int index = 0;
+            int nextFree = 1;
+            int topFill = 0;
+            while (!queue.isEmpty()) {
+                BuildNode node = queue.poll();
+                labels[index] = node.label;
+                topStart[index] = topFill;
+                topCount[index] = node.topSize;
+                System.arraycopy(node.top, 0, top, topFill, node.topSize);
+                topFill += node.topSize;
+
+                char[] childLabels = new char[node.children.size()];
+                int c = 0;
+                for (char label : node.children.keySet()) {
+                    childLabels[c++] = label;
+                }
+                Arrays.sort(childLabels);
+                childStart[index] = nextFree;
+                childCount[index] = childLabels.length;
+                nextFree += childLabels.length;
+                for (char label : childLabels) {
+                    queue.add(node.children.get(label));
+                }
+                index++;
+            }
+            return new PrefixTrie(labels, childStart, childCount, topStart, topCount, top);
+        }
+
+        private static int countTop(BuildNode root) {
+            int total = 0;
+            Deque<BuildNode> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                BuildNode node = stack.pop();
+                total += node.topSize;
+                node.children.values().forEach(stack::push);
+            }
+            return total;
+        }
+    }
+
+    private static final class BuildNode {
+        private final char label;
+        private final Map<Character, BuildNode> children = new HashMap<>(4);
+        private final int[] top = new int[MAX_SUGGESTIONS];
+        private int topSize;
+
+        private BuildNode(char label) {
+            this.label = label;
+        }
+
+        // An entry may reach the same node through several of its keys; keep it once
+        private void offer(int ordinal) {
+            if (topSize == MAX_SUGGESTIONS) {
+                return;
+            }
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == ordinal) {
+                    return;
+                }
+            }
+            top[topSize++] = ordinal;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.chef.william.service.autocomplete;
+
+public enum SuggestionType {
+    INGREDIENT,
+    FOOD
+}
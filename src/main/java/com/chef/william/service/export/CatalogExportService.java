@@ -0,0 +1,266 @@
+package com.chef.william.service.export;
+
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.model.enums.Unit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes the catalog as NDJSON straight from forward-only JDBC cursors, one object per line in id
+ * order, in the same shape the regular endpoints return. Child rows (recipe ingredients and steps,
+ * ingredient nutrition) come from a second cursor sorted by parent id and are merged in as the
+ * parent cursor advances, so heap use does not depend on the size of the catalog.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogExportService {
+
+    static final int FETCH_SIZE = 500;
+
+    private static final String FOODS_SQL = "SELECT id, name, category, image_url, created_by, updated_by, updated_at "
+            + "FROM food ORDER BY id";
+    private static final String INGREDIENTS_SQL = "SELECT id, name, category, description, image_url, created_by, "
+            + "updated_by, updated_at, serving_amount, serving_unit, density, allergen_mask FROM ingredients ORDER BY id";
+    private static final String NUTRITION_SQL = "SELECT ingredient_id, id, nutrient, value, unit FROM nutrition "
+            + "ORDER BY ingredient_id, id";
+    private static final String RECIPES_SQL = "SELECT r.id, r.version, r.description, r.food_id, f.name AS food_name, "
+            + "r.created_by, r.updated_by, r.updated_at, r.servings, r.allergen_mask "
+            + "FROM recipe r LEFT JOIN food f ON f.id = r.food_id ORDER BY r.id";
+    private static final String RECIPE_INGREDIENTS_SQL = "SELECT ri.recipe_id, ri.id, ri.ingredient_id, "
+            + "i.name AS ingredient_name, ri.quantity, ri.unit, ri.note FROM recipe_ingredients ri "
+            + "JOIN ingredients i ON i.id = ri.ingredient_id ORDER BY ri.recipe_id, ri.id";
+    private static final String INSTRUCTIONS_SQL = "SELECT recipe_id, id, step, description, tutorial_video_url "
+            + "FROM instructions ORDER BY recipe_id, step";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Streams every row of {@code type} to {@code out} and returns the number of rows written.
+     * {@code out} is flushed but left open. Repeatable read keeps parent and child cursors on the
+     * same snapshot.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long export(ExportType type, OutputStream out) {
+        long started = System.nanoTime();
+        ObjectWriter writer = jsonMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator((String) null);
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (JsonGenerator json = writer.createGenerator(out)) {
+                return switch (type) {
+                    case FOODS -> exportFoods(connection, json);
+                    case INGREDIENTS -> exportIngredients(connection, json);
+                    case RECIPES -> exportRecipes(connection, json);
+                };
+            }
+        });
+        log.info("Exported {} {} in {} ms", rows, type.path(), (System.nanoTime() - started) / 1_000_000);
+        return rows == null ? 0 : rows;
+    }
+
+    private long exportFoods(Connection connection, JsonGenerator json) throws SQLException {
+        long count = 0;
+        try (PreparedStatement statement = cursor(connection, FOODS_SQL);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                json.writeStartObject();
+                json.writeNumberProperty("id", rows.getLong("id"));
+                json.writeStringProperty("name", rows.getString("name"));
+                json.writeStringProperty("category", rows.getString("category"));
+                json.writeStringProperty("imageUrl", rows.getString("image_url"));
+                writeAudit(json, rows);
+                json.writeEndObject();
+                json.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long exportIngredients(Connection connection, JsonGenerator json) throws SQLException {
+        long count = 0;
+        try (PreparedStatement statement = cursor(connection, INGREDIENTS_SQL);
+             PreparedStatement nutritionStatement = cursor(connection, NUTRITION_SQL);
+             ResultSet rows = statement.executeQuery();
+             ResultSet nutritionRows = nutritionStatement.executeQuery()) {
+            ChildCursor nutrition = new ChildCursor(nutritionRows);
+            while (rows.next()) {
+                long id = rows.getLong("id");
+                json.writeStartObject();
+                json.writeNumberProperty("id", id);
+                json.writeStringProperty("name", rows.getString("name"));
+                json.writeStringProperty("category", rows.getString("category"));
+                json.writeStringProperty("description", rows.getString("description"));
+                json.writeStringProperty("imageUrl", rows.getString("image_url"));
+                writeAudit(json, rows);
+                writeDouble(json, "servingAmount", rows, "serving_amount");
+                json.writeStringProperty("servingUnit", servingUnit(rows.getString("serving_unit")));
+                writeDouble(json, "density", rows, "density");
+                writeAllergens(json, rows);
+                json.writeName("nutritionList");
+                json.writeStartArray();
+                nutrition.writeChildren(id, row -> {
+                    json.writeStartObject();
+                    json.writeNumberProperty("id", row.getLong("id"));
+                    json.writeStringProperty("nutrient", row.getString("nutrient"));
+                    writeDouble(json, "value", row, "value");
+                    json.writeStringProperty("unit", row.getString("unit"));
+                    json.writeEndObject();
+                });
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long exportRecipes(Connection connection, JsonGenerator json) throws SQLException {
+        long count = 0;
+        try (PreparedStatement statement = cursor(connection, RECIPES_SQL);
+             PreparedStatement ingredientStatement = cursor(connection, RECIPE_INGREDIENTS_SQL);
+             PreparedStatement instructionStatement = cursor(connection, INSTRUCTIONS_SQL);
+             ResultSet rows = statement.executeQuery();
+             ResultSet ingredientRows = ingredientStatement.executeQuery();
+             ResultSet instructionRows = instructionStatement.executeQuery()) {
+            ChildCursor ingredients = new ChildCursor(ingredientRows);
+            ChildCursor instructions = new ChildCursor(instructionRows);
+            while (rows.next()) {
+                long id = rows.getLong("id");
+                json.writeStartObject();
+                json.writeNumberProperty("id", id);
+                json.writeStringProperty("version", rows.getString("version"));
+                json.writeStringProperty("description", rows.getString("description"));
+                writeLong(json, "foodId", rows, "food_id");
+                json.writeStringProperty("foodName", rows.getString("food_name"));
+                writeAudit(json, rows);
+                writeLong(json, "servings", rows, "servings");
+                writeAllergens(json, rows);
+                json.writeName("ingredients");
+                json.writeStartArray();
+                ingredients.writeChildren(id, row -> {
+                    json.writeStartObject();
+                    json.writeNumberProperty("id", row.getLong("id"));
+                    json.writeNumberProperty("ingredientId", row.getLong("ingredient_id"));
+                    json.writeStringProperty("ingredientName", row.getString("ingredient_name"));
+                    writeDouble(json, "quantity", row, "quantity");
+                    json.writeStringProperty("unit", row.getString("unit"));
+                    json.writeStringProperty("note", row.getString("note"));
+                    json.writeEndObject();
+                });
+                json.writeEndArray();
+                json.writeName("instructions");
+                json.writeStartArray();
+                instructions.writeChildren(id, row -> {
+                    json.writeStartObject();
+                    json.writeNumberProperty("id", row.getLong("id"));
+                    writeLong(json, "step", row, "step");
+                    json.writeStringProperty("description", row.getString("description"));
+                    json.writeStringProperty("tutorialVideoUrl", row.getString("tutorial_video_url"));
+                    json.writeEndObject();
+                });
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Postgres only streams with a fetch size inside a transaction; otherwise it reads the whole result
+    private static PreparedStatement cursor(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(FETCH_SIZE);
+        return statement;
+    }
+
+    private static void writeAudit(JsonGenerator json, ResultSet rows) throws SQLException {
+        json.writeStringProperty("createdBy", rows.getString("created_by"));
+        json.writeStringProperty("updatedBy", rows.getString("updated_by"));
+        json.writePOJOProperty("updatedAt", rows.getObject("updated_at", LocalDateTime.class));
+    }
+
+    private static void writeAllergens(JsonGenerator json, ResultSet rows) throws SQLException {
+        long mask = rows.getLong("allergen_mask");
+        if (rows.wasNull()) {
+            json.writeNullProperty("allergens");
+            return;
+        }
+        json.writeName("allergens");
+        json.writeStartArray();
+        for (Allergen allergen : Allergen.fromMask(mask)) {
+            json.writeString(allergen.name());
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeLong(JsonGenerator json, String name, ResultSet rows, String column) throws SQLException {
+        long value = rows.getLong(column);
+        if (rows.wasNull()) {
+            json.writeNullProperty(name);
+        } else {
+            json.writeNumberProperty(name, value);
+        }
+    }
+
+    private static void writeDouble(JsonGenerator json, String name, ResultSet rows, String column) throws SQLException {
+        double value = rows.getDouble(column);
+        if (rows.wasNull()) {
+            json.writeNullProperty(name);
+        } else {
+            json.writeNumberProperty(name, value);
+        }
+    }
+
+    // Serving units are stored as abbreviations but exposed as enum names, like IngredientDTO
+    private static String servingUnit(String abbreviation) {
+        Unit unit = Unit.fromAbbreviation(abbreviation);
+        return unit == null ? abbreviation : unit.name();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet row) throws SQLException;
+    }
+
+    private static final class ChildCursor {
+
+        private final ResultSet rows;
+        private boolean hasRow;
+
+        ChildCursor(ResultSet rows) throws SQLException {
+            this.rows = rows;
+            this.hasRow = rows.next();
+        }
+
+        // Column 1 is the parent id; children of parents the outer cursor never saw are skipped
+        void writeChildren(long parentId, RowWriter writer) throws SQLException {
+            while (hasRow && rows.getLong(1) < parentId) {
+                hasRow = rows.next();
+            }
+            while (hasRow && rows.getLong(1) == parentId) {
+                writer.write(rows);
+                hasRow = rows.next();
+            }
+        }
+    }
+}
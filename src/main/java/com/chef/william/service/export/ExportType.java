@@ -0,0 +1,25 @@
+package com.chef.william.service.export;
+
+import com.chef.william.exception.BusinessException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public enum ExportType {
+    FOODS,
+    RECIPES,
+    INGREDIENTS;
+
+    public String path() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ExportType fromPath(String value) {
+        return Arrays.stream(values())
+                .filter(type -> type.path().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("Unknown export type: " + value + " (expected one of "
+                        + Arrays.stream(values()).map(ExportType::path).collect(Collectors.joining(", ")) + ")"));
+    }
+}
@@ -0,0 +1,9 @@
+package com.chef.william.service.food;
+
+import java.util.Set;
+
+/**
+ * Published by {@code FoodService} inside the writing transaction; listeners react after commit.
+ */
+public record FoodChangedEvent(Set<Long> foodIds) {
+}
@@ -0,0 +1,135 @@
+package com.chef.william.service.food;
+
+import com.chef.william.dto.FoodDTO;
+import com.chef.william.dto.InstructionDTO;
+import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.RecipeIngredientDTO;
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.model.enums.Unit;
+import com.chef.william.service.allergen.AllergenService;
+import com.chef.william.service.mapper.RecipeMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Food detail read path: one statement for the food and its recipes, one for every recipe's
+ * ingredients and instructions, decoded straight into {@link FoodDTO} without loading entities.
+ * Reads committed or flushed state only; callers inside a writing transaction must flush first.
+ */
+@Component
+@RequiredArgsConstructor
+public class FoodDetailReader {
+
+    private static final String FOOD_SQL = "SELECT f.id, f.name, f.category, f.image_url, f.created_by, f.updated_by, "
+            + "f.updated_at, r.id AS recipe_id, r.version, r.description, r.created_by AS recipe_created_by, "
+            + "r.updated_by AS recipe_updated_by, r.updated_at AS recipe_updated_at, r.servings, r.allergen_mask "
+            + "FROM food f LEFT JOIN recipe r ON r.food_id = f.id WHERE f.id = ? ORDER BY r.id";
+
+    // Ingredients and instructions in one pass; columns the other kind does not have are null
+    private static final String CHILDREN_SQL = "SELECT ri.recipe_id, ri.id, ri.ingredient_id, i.name AS ingredient_name, "
+            + "ri.quantity, ri.unit, ri.note, CAST(NULL AS INTEGER) AS step, CAST(NULL AS TEXT) AS description, "
+            + "CAST(NULL AS VARCHAR(500)) AS tutorial_video_url "
+            + "FROM recipe_ingredients ri JOIN ingredients i ON i.id = ri.ingredient_id "
+            + "JOIN recipe r ON r.id = ri.recipe_id WHERE r.food_id = ? "
+            + "UNION ALL "
+            + "SELECT ins.recipe_id, ins.id, CAST(NULL AS BIGINT), CAST(NULL AS VARCHAR(255)), CAST(NULL AS DOUBLE PRECISION), "
+            + "CAST(NULL AS VARCHAR(255)), CAST(NULL AS VARCHAR(255)), ins.step, ins.description, ins.tutorial_video_url "
+            + "FROM instructions ins JOIN recipe r ON r.id = ins.recipe_id WHERE r.food_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recipes whose allergens intersect {@code excludedAllergenMask} are left out, as is their count.
+     */
+    public Optional<FoodDTO> findById(Long foodId, long excludedAllergenMask) {
+        Map<Long, RecipeDTO> recipes = new LinkedHashMap<>();
+        FoodDTO food = jdbcTemplate.query(FOOD_SQL, foodExtractor(recipes, excludedAllergenMask), foodId);
+        if (food == null) {
+            return Optional.empty();
+        }
+        if (!recipes.isEmpty()) {
+            jdbcTemplate.query(CHILDREN_SQL, (RowCallbackHandler) row -> addChild(recipes.get(row.getLong("recipe_id")), row),
+                    foodId, foodId);
+            for (RecipeDTO recipe : recipes.values()) {
+                recipe.getIngredients().sort(RecipeMapper.INGREDIENT_ORDER);
+                recipe.getInstructions().sort(RecipeMapper.INSTRUCTION_ORDER);
+            }
+        }
+        food.setRecipes(List.copyOf(recipes.values()));
+        food.setRecipeCount(recipes.size());
+        return Optional.of(food);
+    }
+
+    private static ResultSetExtractor<FoodDTO> foodExtractor(Map<Long, RecipeDTO> recipes, long excludedAllergenMask) {
+        return rows -> {
+            FoodDTO food = null;
+            while (rows.next()) {
+                if (food == null) {
+                    food = new FoodDTO();
+                    food.setId(rows.getLong("id"));
+                    food.setName(rows.getString("name"));
+                    food.setCategory(rows.getString("category"));
+                    food.setImageUrl(rows.getString("image_url"));
+                    food.setCreatedBy(rows.getString("created_by"));
+                    food.setUpdatedBy(rows.getString("updated_by"));
+                    food.setUpdatedAt(rows.getObject("updated_at", LocalDateTime.class));
+                }
+                long recipeId = rows.getLong("recipe_id");
+                if (rows.wasNull()) {
+                    continue;
+                }
+                Long allergenMask = rows.getObject("allergen_mask", Long.class);
+                if (AllergenService.isSafe(allergenMask, excludedAllergenMask)) {
+                    recipes.put(recipeId, RecipeDTO.builder()
+                            .id(recipeId)
+                            .version(rows.getString("version"))
+                            .description(rows.getString("description"))
+                            .foodId(food.getId())
+                            .foodName(food.getName())
+                            .createdBy(rows.getString("recipe_created_by"))
+                            .updatedBy(rows.getString("recipe_updated_by"))
+                            .updatedAt(rows.getObject("recipe_updated_at", LocalDateTime.class))
+                            .servings(rows.getObject("servings", Integer.class))
+                            .allergens(allergenMask != null ? Allergen.fromMask(allergenMask) : null)
+                            .build());
+                }
+            }
+            return food;
+        };
+    }
+
+    // Children of recipes filtered out by allergen have no entry in the map and are skipped
+    private static void addChild(RecipeDTO recipe, ResultSet row) throws SQLException {
+        if (recipe == null) {
+            return;
+        }
+        long ingredientId = row.getLong("ingredient_id");
+        if (!row.wasNull()) {
+            recipe.getIngredients().add(new RecipeIngredientDTO(
+                    row.getLong("id"),
+                    ingredientId,
+                    row.getString("ingredient_name"),
+                    row.getObject("quantity", Double.class),
+                    Unit.valueOf(row.getString("unit")),
+                    row.getString("note")));
+        } else {
+            recipe.getInstructions().add(InstructionDTO.builder()
+                    .id(row.getLong("id"))
+                    .step(row.getObject("step", Integer.class))
+                    .description(row.getString("description"))
+                    .tutorialVideoUrl(row.getString("tutorial_video_url"))
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.NutritionDTO;
+import com.chef.william.dto.Tagged;
+import com.chef.william.model.enums.Allergen;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of mapped ingredients (including their nutrition rows).
+ * <p>
+ * Two views are kept: DTOs by id, and name-search results (normalized query -> ids). Entries are
+ * evicted by size and TTL, invalidated after commit from {@link IngredientChangedEvent}, and dropped
+ * whole when another instance changed ingredients ({@link CacheRegionVersionChangedEvent}).
+ * Callers always receive copies, so cached DTOs are never mutated in place.
+ */
+@Component
+public class IngredientCatalogCache {
+
+    // tag is the row version the DTO was read at, null when the loader did not provide it
+    private record Entry(IngredientDTO dto, String tag) {
+    }
+
+    private final Cache<Long, Entry> byId;
+    private final Cache<String, List<Long>> idsByName;
+
+    public IngredientCatalogCache(MeterRegistry meterRegistry,
+                                  @Value("${app.cache.ingredients.max-size:10000}") long maxSize,
+                                  @Value("${app.cache.ingredients.ttl:PT10M}") Duration ttl,
+                                  @Value("${app.cache.ingredients.name-max-size:2000}") long nameMaxSize) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(nameMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "ingredientCatalog.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByName, "ingredientCatalog.byName");
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public IngredientDTO getById(Long id, Function<Long, IngredientDTO> loader) {
+        Entry entry = byId.get(id, key -> {
+            IngredientDTO dto = loader.apply(key);
+            return dto == null ? null : new Entry(dto, null);
+        });
+        return entry == null ? null : copy(entry.dto());
+    }
+
+    /**
+     * The DTO cached at {@code currentTag}, or else a fresh one from {@code loader}, which replaces the
+     * cached entry. The returned tag is always the one the returned body was read at.
+     */
+    public Tagged<IngredientDTO> getTagged(Long id, String currentTag, Function<Long, Tagged<IngredientDTO>> loader) {
+        Entry entry = byId.getIfPresent(id);
+        if (entry == null || !Objects.equals(entry.tag(), currentTag)) {
+            Tagged<IngredientDTO> loaded = loader.apply(id);
+            entry = new Entry(copy(loaded.body()), loaded.tag());
+            byId.put(id, entry);
+        }
+        return new Tagged<>(copy(entry.dto()), entry.tag());
+    }
+
+    /**
+     * Returns DTOs in the order of {@code ids}; ids the loader cannot resolve are skipped.
+     */
+    public List<IngredientDTO> getAllById(Collection<Long> ids,
+                                          Function<Set<Long>, Map<Long, IngredientDTO>> loader) {
+        Map<Long, Entry> found = byId.getAll(new LinkedHashSet<>(ids), missing -> {
+            Map<Long, Entry> loaded = new HashMap<>();
+            loader.apply(Set.copyOf(missing)).forEach((id, dto) -> loaded.put(id, new Entry(dto, null)));
+            return loaded;
+        });
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(entry -> copy(entry.dto()))
+                .toList();
+    }
+
+    public List<Long> getIdsByName(String normalizedQuery, Function<String, List<Long>> loader) {
+        return idsByName.get(normalizedQuery, query -> List.copyOf(loader.apply(query)));
+    }
+
+    public void putAll(Collection<IngredientDTO> dtos) {
+        dtos.forEach(dto -> byId.put(dto.getId(), new Entry(copy(dto), null)));
+    }
+
+    public boolean contains(Long id) {
+        return byId.getIfPresent(id) != null;
+    }
+
+    // Runs before other listeners so anything they recompute reads fresh ingredients
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        if (event.type() != IngredientChangedEvent.ChangeType.CREATED) {
+            byId.invalidateAll(event.ingredientIds());
+        }
+        // A cached search result can only change if an old or new name contains its query
+        Set<String> names = event.affectedNames();
+        idsByName.asMap().keySet().removeIf(query -> names.stream().anyMatch(name -> name.contains(query)));
+    }
+
+    @EventListener
+    public void onCacheRegionVersionChanged(CacheRegionVersionChangedEvent event) {
+        if (CacheRegionVersionChangedEvent.INGREDIENT.equals(event.group())) {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        idsByName.invalidateAll();
+    }
+
+    private static IngredientDTO copy(IngredientDTO source) {
+        if (source == null) {
+            return null;
+        }
+        IngredientDTO dto = new IngredientDTO();
+        dto.setId(source.getId());
+        dto.setName(source.getName());
+        dto.setCategory(source.getCategory());
+        dto.setDescription(source.getDescription());
+        dto.setImageUrl(source.getImageUrl());
+        dto.setCreatedBy(source.getCreatedBy());
+        dto.setUpdatedBy(source.getUpdatedBy());
+        dto.setUpdatedAt(source.getUpdatedAt());
+        dto.setServingAmount(source.getServingAmount());
+        dto.setServingUnit(source.getServingUnit());
+        dto.setDensity(source.getDensity());
+        if (source.getAllergens() != null) {
+            Set<Allergen> allergens = EnumSet.noneOf(Allergen.class);
+            allergens.addAll(source.getAllergens());
+            dto.setAllergens(allergens);
+        }
+        List<NutritionDTO> nutrition = new ArrayList<>();
+        if (source.getNutritionList() != null) {
+            source.getNutritionList().forEach(n ->
+                    nutrition.add(new NutritionDTO(n.getId(), n.getNutrient(), n.getValue(), n.getUnit())));
+        }
+        dto.setNutritionList(nutrition);
+        return dto;
+    }
+}
@@ -0,0 +1,23 @@
+package com.chef.william.service.ingredient;
+
+import java.util.Set;
+
+/**
+ * Published by {@code IngredientService} inside the writing transaction; listeners react after commit.
+ * {@code affectedNames} holds the normalized names before and after the change so name-keyed
+ * structures can be invalidated without a reload. {@code nutritionChanged} is set when serving size,
+ * density or nutrient values changed, which is what derived recipe totals depend on.
+ */
+public record IngredientChangedEvent(ChangeType type, Set<Long> ingredientIds, Set<String> affectedNames,
+                                     boolean nutritionChanged) {
+
+    public IngredientChangedEvent(ChangeType type, Set<Long> ingredientIds, Set<String> affectedNames) {
+        this(type, ingredientIds, affectedNames, false);
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,318 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.NutritionDTO;
+import com.chef.william.exception.BusinessException;
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.model.enums.Unit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads ingredient rows from an NDJSON or CSV body one line at a time, so memory use does not grow
+ * with the size of the import. A line that cannot be parsed becomes a row carrying an error rather
+ * than aborting the import.
+ * <p>
+ * CSV needs a header row. Recognised columns are {@code name, category, description, imageUrl,
+ * servingAmount, servingUnit, density, allergens} (allergens separated by {@code ;}), plus one column
+ * per nutrient named {@code <nutrient>_<unit>}, e.g. {@code protein_g} or {@code sodium_mg}.
+ * Quoted fields may contain commas and doubled quotes but not line breaks.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngredientImportParser {
+
+    private final JsonMapper jsonMapper;
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        public static Format fromContentType(String contentType) {
+            String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                return NDJSON;
+            }
+            if (type.startsWith("text/csv")) {
+                return CSV;
+            }
+            throw new BusinessException("Unsupported import content type: " + contentType
+                    + " (use application/x-ndjson or text/csv)");
+        }
+    }
+
+    public record Row(long line, IngredientDTO ingredient, String error) {
+
+        static Row failed(long line, String error) {
+            return new Row(line, null, error);
+        }
+    }
+
+    /**
+     * Lazily parses {@code body}; the caller owns the stream.
+     */
+    public Iterator<Row> parse(InputStream body, Format format) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return format == Format.NDJSON ? new RowIterator(reader, this::parseJson) : new CsvRowIterator(reader);
+    }
+
+    private Row parseJson(long line, String text) {
+        try {
+            return new Row(line, jsonMapper.readValue(text, IngredientDTO.class), null);
+        } catch (JacksonException e) {
+            return Row.failed(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private interface LineParser {
+        Row parse(long line, String text);
+    }
+
+    private static class RowIterator implements Iterator<Row> {
+
+        private final BufferedReader reader;
+        private LineParser lineParser;
+        private long lineNumber;
+        private Row next;
+
+        RowIterator(BufferedReader reader, LineParser lineParser) {
+            this.reader = reader;
+            this.lineParser = lineParser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                String text = readLine();
+                if (text == null) {
+                    return false;
+                }
+                lineNumber++;
+                if (!text.isBlank()) {
+                    next = lineParser.parse(lineNumber, text);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Row row = next;
+            next = null;
+            return row;
+        }
+
+        // Reads lines up to the first non-blank one, for header rows
+        String readHeader() {
+            String text;
+            do {
+                text = readLine();
+                lineNumber++;
+            } while (text != null && text.isBlank());
+            return text;
+        }
+
+        void setLineParser(LineParser lineParser) {
+            this.lineParser = lineParser;
+        }
+
+        private String readLine() {
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read import body", e);
+            }
+        }
+    }
+
+    private static final class CsvRowIterator extends RowIterator {
+
+        private List<Column> columns;
+
+        CsvRowIterator(BufferedReader reader) {
+            super(reader, null);
+            setLineParser(this::parseCsv);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (columns == null) {
+                String header = readHeader();
+                if (header == null) {
+                    return false;
+                }
+                columns = parseHeader(header);
+            }
+            return super.hasNext();
+        }
+
+        private Row parseCsv(long line, String text) {
+            List<String> cells = splitCsvLine(text);
+            if (cells == null) {
+                return Row.failed(line, "Unterminated quoted field");
+            }
+            if (cells.size() > columns.size()) {
+                return Row.failed(line, "Expected at most " + columns.size() + " fields but found " + cells.size());
+            }
+            IngredientDTO dto = new IngredientDTO();
+            try {
+                for (int i = 0; i < cells.size(); i++) {
+                    String cell = cells.get(i).trim();
+                    if (!cell.isEmpty()) {
+                        columns.get(i).apply(dto, cell);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                return Row.failed(line, e.getMessage());
+            }
+            return new Row(line, dto, null);
+        }
+    }
+
+    private static List<Column> parseHeader(String header) {
+        List<String> names = splitCsvLine(header);
+        if (names == null) {
+            throw new BusinessException("CSV header has an unterminated quoted field");
+        }
+        List<Column> columns = new ArrayList<>(names.size());
+        for (String name : names) {
+            columns.add(Column.of(name.trim()));
+        }
+        if (columns.stream().noneMatch(column -> column.field() == Field.NAME)) {
+            throw new BusinessException("CSV header must contain a 'name' column");
+        }
+        return columns;
+    }
+
+    // Splits one CSV record; returns null when a quoted field is not closed on this line
+    static List<String> splitCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private enum Field {
+        NAME, CATEGORY, DESCRIPTION, IMAGE_URL, SERVING_AMOUNT, SERVING_UNIT, DENSITY, ALLERGENS, NUTRIENT
+    }
+
+    private record Column(Field field, Nutrients nutrient, String unit) {
+
+        static Column of(String header) {
+            String key = header.toLowerCase(Locale.ROOT);
+            Field field = switch (key) {
+                case "name" -> Field.NAME;
+                case "category" -> Field.CATEGORY;
+                case "description" -> Field.DESCRIPTION;
+                case "imageurl", "image_url" -> Field.IMAGE_URL;
+                case "servingamount", "serving_amount" -> Field.SERVING_AMOUNT;
+                case "servingunit", "serving_unit" -> Field.SERVING_UNIT;
+                case "density" -> Field.DENSITY;
+                case "allergens" -> Field.ALLERGENS;
+                default -> null;
+            };
+            if (field != null) {
+                return new Column(field, null, null);
+            }
+            int separator = key.lastIndexOf('_');
+            if (separator > 0 && separator < key.length() - 1) {
+                try {
+                    Nutrients nutrient = Nutrients.valueOf(key.substring(0, separator).toUpperCase(Locale.ROOT));
+                    return new Column(Field.NUTRIENT, nutrient, header.substring(separator + 1));
+                } catch (IllegalArgumentException ignored) {
+                    // fall through to the error below
+                }
+            }
+            throw new BusinessException("Unknown CSV column: " + header);
+        }
+
+        void apply(IngredientDTO dto, String value) {
+            switch (field) {
+                case NAME -> dto.setName(value);
+                case CATEGORY -> dto.setCategory(value);
+                case DESCRIPTION -> dto.setDescription(value);
+                case IMAGE_URL -> dto.setImageUrl(value);
+                case SERVING_AMOUNT -> dto.setServingAmount(number("servingAmount", value));
+                case SERVING_UNIT -> dto.setServingUnit(unit(value));
+                case DENSITY -> dto.setDensity(number("density", value));
+                case ALLERGENS -> dto.setAllergens(allergens(value));
+                case NUTRIENT -> dto.getNutritionList().add(
+                        new NutritionDTO(null, nutrient, number(nutrient.name().toLowerCase(Locale.ROOT), value), unit));
+            }
+        }
+
+        private static Double number(String column, String value) {
+            try {
+                return Double.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number for " + column + ": " + value);
+            }
+        }
+
+        private static Unit unit(String value) {
+            Unit unit = Unit.fromAbbreviation(value);
+            if (unit == null) {
+                throw new IllegalArgumentException("Unsupported serving unit: " + value);
+            }
+            return unit;
+        }
+
+        private static Set<Allergen> allergens(String value) {
+            Set<Allergen> allergens = EnumSet.noneOf(Allergen.class);
+            for (String name : value.split(";")) {
+                if (!name.isBlank()) {
+                    try {
+                        allergens.add(Allergen.valueOf(name.trim().toUpperCase(Locale.ROOT).replace(' ', '_')));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown allergen: " + name.trim());
+                    }
+                }
+            }
+            return allergens;
+        }
+    }
+}
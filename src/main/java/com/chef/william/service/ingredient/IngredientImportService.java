@@ -0,0 +1,225 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.dto.ImportRowErrorDTO;
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.IngredientImportResultDTO;
+import com.chef.william.dto.NutritionDTO;
+import com.chef.william.exception.BusinessException;
+import com.chef.william.model.User;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.auth.CurrentUserService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming ingredient import. Rows are parsed one at a time and written in chunks of
+ * {@link #CHUNK_SIZE}, each in its own transaction, so memory stays flat however large the body is.
+ * A chunk the database rejects is retried row by row, so a bad row only costs that row. Chunks that
+ * were written stay written if a later one fails.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IngredientImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    // Width of ingredients.description and nutrition.unit
+    static final int TEXT_COLUMN_LENGTH = 255;
+
+    private final IngredientImportParser ingredientImportParser;
+    private final IngredientImportWriter ingredientImportWriter;
+    private final IngredientRepository ingredientRepository;
+    private final CurrentUserService currentUserService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public IngredientImportResultDTO importIngredients(InputStream body, String contentType) {
+        IngredientImportParser.Format format = IngredientImportParser.Format.fromContentType(contentType);
+        User currentUser = currentUserService.getRequiredCurrentUser();
+        Progress progress = new Progress(resolveAuditActor(currentUser), currentUser.getId());
+
+        List<IngredientImportParser.Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        Set<String> chunkNames = new HashSet<>();
+        Iterator<IngredientImportParser.Row> rows = ingredientImportParser.parse(body, format);
+        while (rows.hasNext()) {
+            IngredientImportParser.Row row = rows.next();
+            progress.received++;
+            String error = row.error() != null ? row.error() : validate(row.ingredient());
+            if (error == null && !chunkNames.add(IngredientCatalogCache.normalizeName(row.ingredient().getName()))) {
+                // The name reappears in this chunk; flush so the later row is checked against the earlier one
+                writeChunk(chunk, progress);
+                chunk.clear();
+                chunkNames.clear();
+                chunkNames.add(IngredientCatalogCache.normalizeName(row.ingredient().getName()));
+            }
+            if (error != null) {
+                progress.fail(row, error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, progress);
+                chunk.clear();
+                chunkNames.clear();
+            }
+        }
+        writeChunk(chunk, progress);
+
+        log.info("Ingredient import by {}: {} received, {} imported, {} failed", progress.auditActor,
+                progress.received, progress.imported, progress.failed);
+        return new IngredientImportResultDTO(progress.received, progress.imported, progress.failed,
+                progress.errors, progress.failed > progress.errors.size());
+    }
+
+    private void writeChunk(List<IngredientImportParser.Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        ChunkOutcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> writeInTransaction(chunk, progress));
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                progress.fail(chunk.getFirst(), "Could not be written: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            // One bad row rolls back the whole chunk; retry the rows alone so only that row is lost
+            log.warn("Ingredient import chunk of {} rows failed, retrying row by row", chunk.size(), e);
+            chunk.forEach(row -> writeChunk(List.of(row), progress));
+            return;
+        }
+        // Applied only after commit, so a rolled-back chunk is neither counted nor reported twice
+        outcome.rejected().forEach(rejection -> progress.fail(rejection.row(), rejection.message()));
+        progress.imported += outcome.imported();
+    }
+
+    private ChunkOutcome writeInTransaction(List<IngredientImportParser.Row> chunk, Progress progress) {
+        Set<String> existing = ingredientRepository.findExistingNormalizedNames(chunk.stream()
+                .map(row -> IngredientCatalogCache.normalizeName(row.ingredient().getName()))
+                .collect(Collectors.toSet()));
+        List<Rejection> rejected = new ArrayList<>();
+        List<IngredientImportParser.Row> fresh = new ArrayList<>(chunk.size());
+        for (IngredientImportParser.Row row : chunk) {
+            if (existing.contains(IngredientCatalogCache.normalizeName(row.ingredient().getName()))) {
+                rejected.add(Rejection.alreadyExists(row));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return new ChunkOutcome(rejected, 0);
+        }
+
+        IngredientImportWriter.Result result = ingredientImportWriter.write(fresh, progress.auditActor, progress.userId);
+        Set<Long> conflicts = new HashSet<>(result.conflictingLines());
+        fresh.stream()
+                .filter(row -> conflicts.contains(row.line()))
+                .forEach(row -> rejected.add(Rejection.alreadyExists(row)));
+        if (!result.inserted().isEmpty()) {
+            eventPublisher.publishEvent(new IngredientChangedEvent(IngredientChangedEvent.ChangeType.CREATED,
+                    result.inserted().keySet(),
+                    result.inserted().values().stream().map(IngredientCatalogCache::normalizeName).collect(Collectors.toSet())));
+        }
+        return new ChunkOutcome(rejected, result.inserted().size());
+    }
+
+    private String validate(IngredientDTO dto) {
+        if (dto == null) {
+            return "Ingredient payload item must not be null";
+        }
+        List<String> problems = new ArrayList<>();
+        validator.validate(dto).stream().map(IngredientImportService::describe).forEach(problems::add);
+        // The DTO allows longer descriptions than the column holds; caught here rather than failing the chunk
+        if (dto.getDescription() != null && dto.getDescription().length() > TEXT_COLUMN_LENGTH) {
+            problems.add("description: must not exceed " + TEXT_COLUMN_LENGTH + " characters");
+        }
+        if (dto.getNutritionList() != null) {
+            Set<Nutrients> seen = EnumSet.noneOf(Nutrients.class);
+            for (NutritionDTO nutrition : dto.getNutritionList()) {
+                if (nutrition == null) {
+                    problems.add("nutritionList: entries must not be null");
+                    continue;
+                }
+                validator.validate(nutrition).stream().map(v -> "nutritionList." + describe(v)).forEach(problems::add);
+                if (nutrition.getUnit() != null && nutrition.getUnit().length() > TEXT_COLUMN_LENGTH) {
+                    problems.add("nutritionList.unit: must not exceed " + TEXT_COLUMN_LENGTH + " characters");
+                }
+                if (nutrition.getNutrient() != null && !seen.add(nutrition.getNutrient())) {
+                    problems.add("nutritionList: duplicate nutrient " + nutrition.getNutrient());
+                }
+            }
+        }
+        if (problems.isEmpty()) {
+            return null;
+        }
+        problems.sort(null);
+        return String.join("; ", problems);
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private String resolveAuditActor(User currentUser) {
+        if (currentUser.getUserName() != null && !currentUser.getUserName().isBlank()) {
+            return currentUser.getUserName();
+        }
+        if (currentUser.getEmail() != null && !currentUser.getEmail().isBlank()) {
+            return currentUser.getEmail();
+        }
+        if (currentUser.getCognitoSub() != null && !currentUser.getCognitoSub().isBlank()) {
+            return currentUser.getCognitoSub();
+        }
+        throw new BusinessException("Authenticated user has no usable identifier for audit fields");
+    }
+
+    private record Rejection(IngredientImportParser.Row row, String message) {
+
+        static Rejection alreadyExists(IngredientImportParser.Row row) {
+            return new Rejection(row, "Ingredient already exists: " + row.ingredient().getName().trim());
+        }
+    }
+
+    private record ChunkOutcome(List<Rejection> rejected, int imported) {
+    }
+
+    private static final class Progress {
+        private final String auditActor;
+        private final Long userId;
+        private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long failed;
+
+        Progress(String auditActor, Long userId) {
+            this.auditActor = auditActor;
+            this.userId = userId;
+        }
+
+        void fail(IngredientImportParser.Row row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                String name = row.ingredient() == null ? null : row.ingredient().getName();
+                errors.add(new ImportRowErrorDTO(row.line(), name, message));
+            }
+        }
+    }
+}
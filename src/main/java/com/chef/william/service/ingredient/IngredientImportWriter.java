@@ -0,0 +1,185 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.NutritionDTO;
+import com.chef.william.model.enums.Allergen;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes one chunk of parsed import rows with set-based SQL: rows are staged in transaction-scoped
+ * temporary tables (through {@code COPY} on Postgres, JDBC batches elsewhere) and merged into
+ * {@code ingredients} and {@code nutrition} with one {@code INSERT ... SELECT} each. Must run
+ * inside a transaction.
+ * <p>
+ * Ids are drawn from the entity sequences in pooled-lo blocks, exactly as Hibernate does, so rows
+ * written here and rows written through JPA never collide.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngredientImportWriter {
+
+    // Must match allocationSize on Ingredient and Nutrition
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INGREDIENT_STAGE_COLUMNS =
+            "line bigint, id bigint, name varchar(255), category varchar(255), description varchar(255), "
+                    + "image_url varchar(1000), serving_amount double precision, serving_unit varchar(20), "
+                    + "density double precision, allergen_mask bigint";
+    private static final String NUTRITION_STAGE_COLUMNS =
+            "id bigint, ingredient_id bigint, nutrient varchar(50), nutrient_value double precision, unit varchar(255)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Dialect dialect;
+
+    /**
+     * Names that were inserted keyed by their new id, and the lines that lost a race with a
+     * concurrent writer for the same name.
+     */
+    public record Result(Map<Long, String> inserted, List<Long> conflictingLines) {
+    }
+
+    public Result write(List<IngredientImportParser.Row> rows, String auditActor, Long userId) {
+        boolean postgres = dialect() instanceof PostgreSQLDialect;
+        List<Object[]> ingredientRows = new ArrayList<>(rows.size());
+        List<Object[]> nutritionRows = new ArrayList<>();
+        long[] ingredientIds = allocateIds("ingredients_seq", rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            IngredientDTO dto = rows.get(i).ingredient();
+            long id = ingredientIds[i];
+            // Trimmed like the duplicate checks, so the stored name is the one they compared
+            String name = dto.getName().trim();
+            long allergenMask = dto.getAllergens() == null || dto.getAllergens().isEmpty()
+                    ? Allergen.detect(name, dto.getCategory())
+                    : Allergen.maskOf(dto.getAllergens());
+            ingredientRows.add(new Object[]{rows.get(i).line(), id, name, dto.getCategory(), dto.getDescription(),
+                    dto.getImageUrl(), dto.getServingAmount(), dto.getServingUnit().getAbbreviation(), dto.getDensity(),
+                    allergenMask});
+            if (dto.getNutritionList() != null) {
+                for (NutritionDTO nutrition : dto.getNutritionList()) {
+                    nutritionRows.add(new Object[]{null, id, nutrition.getNutrient().name(), nutrition.getValue(),
+                            nutrition.getUnit()});
+                }
+            }
+        }
+        long[] nutritionIds = allocateIds("nutrition_seq", nutritionRows.size());
+        for (int i = 0; i < nutritionRows.size(); i++) {
+            nutritionRows.get(i)[0] = nutritionIds[i];
+        }
+
+        createStage("ingredient_import_stage", INGREDIENT_STAGE_COLUMNS, postgres);
+        createStage("nutrition_import_stage", NUTRITION_STAGE_COLUMNS, postgres);
+        load("ingredient_import_stage", "line, id, name, category, description, image_url, serving_amount, "
+                + "serving_unit, density, allergen_mask", ingredientRows, postgres);
+        load("nutrition_import_stage", "id, ingredient_id, nutrient, nutrient_value, unit", nutritionRows, postgres);
+
+        // Names were checked before staging; NOT EXISTS only guards against a concurrent writer
+        jdbcTemplate.update("INSERT INTO ingredients (id, name, category, description, image_url, serving_amount, "
+                        + "serving_unit, density, allergen_mask, created_by, updated_by, updated_at, user_id, row_version) "
+                        + "SELECT s.id, s.name, s.category, s.description, s.image_url, s.serving_amount, s.serving_unit, "
+                        + "s.density, s.allergen_mask, ?, ?, ?, ?, 0 FROM ingredient_import_stage s "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM ingredients i WHERE LOWER(i.name) = LOWER(s.name))",
+                auditActor, auditActor, Timestamp.valueOf(LocalDateTime.now()), userId);
+        jdbcTemplate.update("INSERT INTO nutrition (id, ingredient_id, nutrient, value, unit) "
+                + "SELECT n.id, n.ingredient_id, n.nutrient, n.nutrient_value, n.unit FROM nutrition_import_stage n "
+                + "WHERE EXISTS (SELECT 1 FROM ingredients i WHERE i.id = n.ingredient_id)");
+
+        List<Long> conflictingLines = jdbcTemplate.queryForList("SELECT s.line FROM ingredient_import_stage s "
+                + "WHERE NOT EXISTS (SELECT 1 FROM ingredients i WHERE i.id = s.id)", Long.class);
+        Set<Long> conflicts = new HashSet<>(conflictingLines);
+        Map<Long, String> inserted = new LinkedHashMap<>();
+        for (Object[] row : ingredientRows) {
+            if (!conflicts.contains((Long) row[0])) {
+                inserted.put((Long) row[1], (String) row[2]);
+            }
+        }
+        return new Result(inserted, conflictingLines);
+    }
+
+    private long[] allocateIds(String sequence, int count) {
+        long[] ids = new long[count];
+        String nextValue = dialect().getSequenceSupport().getSequenceNextValString(sequence);
+        for (int i = 0; i < count; i += ID_BLOCK_SIZE) {
+            Long blockStart = jdbcTemplate.queryForObject(nextValue, Long.class);
+            for (int j = i; j < Math.min(count, i + ID_BLOCK_SIZE); j++) {
+                ids[j] = blockStart + (j - i);
+            }
+        }
+        return ids;
+    }
+
+    private void createStage(String table, String columns, boolean postgres) {
+        jdbcTemplate.execute(postgres
+                ? "CREATE TEMPORARY TABLE IF NOT EXISTS " + table + " (" + columns + ") ON COMMIT DROP"
+                : "CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS " + table + " (" + columns + ") ON COMMIT DROP TRANSACTIONAL");
+    }
+
+    private void load(String table, String columns, List<Object[]> rows, boolean postgres) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (postgres) {
+            String csv = toCsv(rows);
+            jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try {
+                    return connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyIn("COPY " + table + " (" + columns + ") FROM STDIN (FORMAT csv)", new StringReader(csv));
+                } catch (IOException e) {
+                    throw new SQLException("COPY into " + table + " failed", e);
+                }
+            });
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(rows.getFirst().length, "?"));
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")", rows);
+    }
+
+    // COPY's CSV format: unquoted empty means NULL, everything else is quoted with doubled quotes
+    static String toCsv(List<Object[]> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 96);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                Object value = row[i];
+                if (value instanceof String text) {
+                    csv.append('"').append(text.replace("\"", "\"\"")).append('"');
+                } else if (value != null) {
+                    csv.append(value);
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private Dialect dialect() {
+        if (dialect == null) {
+            dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        }
+        return dialect;
+    }
+}
@@ -0,0 +1,300 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.repository.IdNameProjection;
+import com.chef.william.repository.IngredientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over ingredient names, used for substring (typeahead) search.
+ * <p>
+ * Each name gets a document ordinal; every trigram maps to an ascending {@code int[]} posting list of
+ * ordinals. A query of three or more characters intersects the postings of its trigrams and verifies
+ * the survivors with {@code contains}; shorter queries scan the names directly. Updates append a new
+ * ordinal and tombstone the old one, and the structure is compacted once tombstones pile up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngredientNameIndex {
+
+    private static final int GRAM = 3;
+    private static final int COMPACTION_MIN_DELETED = 1024;
+
+    private final IngredientRepository ingredientRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] ids = new long[64];
+    private String[] names = new String[64];
+    private int docCount;
+    private int deletedCount;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        Map<Long, String> all = new LinkedHashMap<>();
+        for (IdNameProjection row : ingredientRepository.findAllNames()) {
+            all.put(row.getId(), row.getName());
+        }
+        rebuild(all);
+        log.info("Ingredient name index built with {} entries", all.size());
+    }
+
+    // Read-write on purpose: read-only transactions may go to a replica that has not replayed the triggering commit
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        if (!ready || event.ingredientIds().isEmpty()) {
+            return;
+        }
+        Map<Long, String> current = new HashMap<>();
+        if (event.type() != IngredientChangedEvent.ChangeType.DELETED) {
+            for (IdNameProjection row : ingredientRepository.findNamesByIdIn(event.ingredientIds())) {
+                current.put(row.getId(), row.getName());
+            }
+        }
+        apply(event.ingredientIds(), current);
+    }
+
+    // Writes on another instance arrive only as a moved version stamp without ids, so reload from the primary
+    @Async
+    @EventListener
+    @Transactional
+    public void onCacheRegionVersionChanged(CacheRegionVersionChangedEvent event) {
+        if (ready && CacheRegionVersionChangedEvent.INGREDIENT.equals(event.group())) {
+            build();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Map<Long, String> namesById) {
+        lock.writeLock().lock();
+        try {
+            reset(namesById.size());
+            namesById.forEach(this::addDocument);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every id in {@code changedIds} and re-adds the ones present in {@code currentNames}.
+     */
+    public void apply(Collection<Long> changedIds, Map<Long, String> currentNames) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : changedIds) {
+                Integer ordinal = ordinalById.remove(id);
+                if (ordinal != null && !deleted.get(ordinal)) {
+                    deleted.set(ordinal);
+                    deletedCount++;
+                }
+                String name = currentNames.get(id);
+                if (name != null) {
+                    addDocument(id, name);
+                }
+            }
+            if (deletedCount >= COMPACTION_MIN_DELETED && deletedCount > docCount / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ingredient ids whose name contains {@code query}, best match first:
+     * exact name, then prefix, then word start, then any substring; shorter names win ties.
+     */
+    public List<Long> search(String query, int limit) {
+        String normalized = IngredientCatalogCache.normalizeName(query);
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Hit> worstFirst = new PriorityQueue<>(limit + 1, Hit.BEST_FIRST.reversed());
+            if (normalized.length() < GRAM) {
+                for (int doc = 0; doc < docCount; doc++) {
+                    if (!deleted.get(doc)) {
+                        offer(worstFirst, doc, normalized, limit);
+                    }
+                }
+            } else {
+                int[] candidates = candidates(normalized);
+                for (int doc : candidates) {
+                    if (!deleted.get(doc)) {
+                        offer(worstFirst, doc, normalized, limit);
+                    }
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(worstFirst);
+            hits.sort(Hit.BEST_FIRST);
+            return hits.stream().map(hit -> ids[hit.doc()]).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void offer(PriorityQueue<Hit> worstFirst, int doc, String query, int limit) {
+        String name = names[doc];
+        int position = name.indexOf(query);
+        if (position < 0) {
+            return;
+        }
+        Hit hit = new Hit(doc, tier(name, query, position), name);
+        if (worstFirst.size() < limit) {
+            worstFirst.add(hit);
+        } else if (Hit.BEST_FIRST.compare(hit, worstFirst.peek()) < 0) {
+            worstFirst.poll();
+            worstFirst.add(hit);
+        }
+    }
+
+    private int[] candidates(String query) {
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Postings list = postings.get(gram(query, i));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        int[] result = Arrays.copyOf(lists.getFirst().docs, lists.getFirst().size);
+        int resultSize = result.length;
+        for (int i = 1; i < lists.size() && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, lists.get(i));
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    // Intersects in place; both sides are ascending
+    private static int intersect(int[] result, int resultSize, Postings other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < resultSize && j < other.size; i++) {
+            int doc = result[i];
+            while (j < other.size && other.docs[j] < doc) {
+                j++;
+            }
+            if (j < other.size && other.docs[j] == doc) {
+                result[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    private static int tier(String name, String query, int position) {
+        if (name.length() == query.length()) {
+            return 0;
+        }
+        if (position == 0) {
+            return 1;
+        }
+        if (wordStartIndex(name, query) > 0) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private static int wordStartIndex(String name, String query) {
+        int from = name.indexOf(query);
+        while (from > 0) {
+            if (!Character.isLetterOrDigit(name.charAt(from - 1))) {
+                return from;
+            }
+            from = name.indexOf(query, from + 1);
+        }
+        return from;
+    }
+
+    private void addDocument(Long id, String rawName) {
+        String name = IngredientCatalogCache.normalizeName(rawName);
+        int doc = docCount++;
+        if (doc == ids.length) {
+            ids = Arrays.copyOf(ids, doc * 2);
+            names = Arrays.copyOf(names, doc * 2);
+        }
+        ids[doc] = id;
+        names[doc] = name;
+        ordinalById.put(id, doc);
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            postings.computeIfAbsent(gram(name, i), key -> new Postings()).add(doc);
+        }
+    }
+
+    private void compact() {
+        Map<Long, String> live = new LinkedHashMap<>();
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                live.put(ids[doc], names[doc]);
+            }
+        }
+        reset(live.size());
+        live.forEach(this::addDocument);
+    }
+
+    private void reset(int expectedSize) {
+        postings.clear();
+        ordinalById.clear();
+        deleted.clear();
+        deletedCount = 0;
+        docCount = 0;
+        ids = new long[Math.max(64, expectedSize)];
+        names = new String[Math.max(64, expectedSize)];
+    }
+
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            // A name can repeat a trigram; ordinals arrive in ascending order so the last entry is enough
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    private record Hit(int doc, int tier, String name) {
+        static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt(Hit::tier)
+                .thenComparingInt(hit -> hit.name().length())
+                .thenComparing(Hit::name)
+                .thenComparingInt(Hit::doc);
+    }
+}
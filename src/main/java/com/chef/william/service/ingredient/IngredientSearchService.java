@@ -2,6 +2,7 @@ package com.chef.william.service.ingredient;
 
 import com.chef.william.dto.IngredientDTO;
 import com.chef.william.exception.BusinessException;
+import com.chef.william.model.Ingredient;
 import com.chef.william.model.enums.Nutrients;
 import com.chef.william.repository.IngredientRepository;
 import com.chef.william.service.mapper.IngredientMapper;
@@ -9,46 +10,142 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class IngredientSearchService {
 
+    private static final int DEFAULT_NAME_SEARCH_LIMIT = 20;
+    private static final int MAX_NAME_SEARCH_LIMIT = 200;
+
     private final IngredientRepository ingredientRepository;
     private final IngredientMapper ingredientMapper;
+    private final IngredientCatalogCache ingredientCatalogCache;
+    private final IngredientNameIndex ingredientNameIndex;
+    private final NutrientIndex nutrientIndex;
 
     @Transactional(readOnly = true)
-    public List<IngredientDTO> searchByName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            return ingredientRepository.findAll().stream().map(ingredientMapper::toDto).toList();
+    public List<IngredientDTO> searchByName(String name, Integer limit) {
+        int max = resolveLimit(limit);
+        String query = IngredientCatalogCache.normalizeName(name);
+
+        List<Long> ids;
+        if (ingredientNameIndex.isReady()) {
+            ids = ingredientNameIndex.search(query, max);
+        } else {
+            // Index is still loading at startup: fall back to the database-backed result cache
+            List<Long> matches = ingredientCatalogCache.getIdsByName(query, this::loadMatchingIds);
+            ids = matches.subList(0, Math.min(max, matches.size()));
         }
-        return ingredientRepository.findByNameContainingIgnoreCase(name.trim())
-                .stream()
-                .map(ingredientMapper::toDto)
-                .toList();
+        return ingredientCatalogCache.getAllById(ids, this::loadByIds);
     }
 
+    /**
+     * Ingredients whose {@code nutrient} value is above {@code minValue} (default 0) and at most
+     * {@code maxValue}, highest value first. Each entry of {@code filters} ({@code NUTRIENT:min:max},
+     * either bound may be empty) must also hold.
+     */
     @Transactional(readOnly = true)
-    public List<IngredientDTO> searchByNutrient(String nutrientStr, Double minValue) {
+    public List<IngredientDTO> searchByNutrient(String nutrientStr, Double minValue, Double maxValue,
+                                                Integer limit, List<String> filters) {
         if (nutrientStr == null || nutrientStr.trim().isEmpty()) {
             throw new BusinessException("Nutrient parameter is required");
         }
+        if (limit != null && limit < 1) {
+            throw new BusinessException("Limit must be at least 1");
+        }
+        Nutrients nutrient = parseNutrient(nutrientStr);
+        double min = (minValue != null) ? minValue : 0.0;
+        List<NutrientFilter> extraFilters = filters == null ? List.of() : filters.stream().map(this::parseFilter).toList();
+
+        if (!nutrientIndex.isReady()) {
+            nutrientIndex.build();
+        }
+        long[] ranked = nutrientIndex.range(nutrient, min, maxValue);
+        Set<Long> allowed = null;
+        for (NutrientFilter filter : extraFilters) {
+            Set<Long> matching = new HashSet<>();
+            for (long id : nutrientIndex.range(filter.nutrient(), filter.min(), filter.max())) {
+                if (allowed == null || allowed.contains(id)) {
+                    matching.add(id);
+                }
+            }
+            allowed = matching;
+        }
+
+        int max = limit == null ? Integer.MAX_VALUE : limit;
+        List<Long> ids = new ArrayList<>(Math.min(ranked.length, max));
+        for (int i = 0; i < ranked.length && ids.size() < max; i++) {
+            if (allowed == null || allowed.contains(ranked[i])) {
+                ids.add(ranked[i]);
+            }
+        }
+        return ingredientCatalogCache.getAllById(ids, this::loadByIds);
+    }
+
+    // Cache miss path: one query loads the matches, and their DTOs are cached alongside the id list
+    private List<Long> loadMatchingIds(String query) {
+        List<Ingredient> matches = query.isEmpty()
+                ? ingredientRepository.findAll()
+                : ingredientRepository.findByNameContainingIgnoreCase(query);
+        List<IngredientDTO> dtos = matches.stream().map(ingredientMapper::toDto).toList();
+        ingredientCatalogCache.putAll(dtos);
+        return dtos.stream().map(IngredientDTO::getId).toList();
+    }
+
+    private NutrientFilter parseFilter(String filter) {
+        String[] parts = filter.split(":", -1);
+        if (parts.length < 2 || parts.length > 3) {
+            throw new BusinessException("Invalid nutrient filter: " + filter + ". Expected NUTRIENT:min:max");
+        }
+        return new NutrientFilter(parseNutrient(parts[0]), parseBound(parts[1], filter),
+                parts.length == 3 ? parseBound(parts[2], filter) : null);
+    }
+
+    private Double parseBound(String value, String filter) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid nutrient filter: " + filter + ". Expected NUTRIENT:min:max");
+        }
+    }
 
-        Nutrients nutrient;
+    private Nutrients parseNutrient(String nutrientStr) {
         try {
-            nutrient = Nutrients.valueOf(nutrientStr.toUpperCase().trim());
+            return Nutrients.valueOf(nutrientStr.toUpperCase().trim());
         } catch (IllegalArgumentException e) {
             throw new BusinessException("Invalid nutrient: " + nutrientStr +
                     ". Valid values: " + Arrays.toString(Nutrients.values()));
         }
+    }
 
-        double min = (minValue != null) ? minValue : 0.0;
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_NAME_SEARCH_LIMIT;
+        }
+        if (limit < 1) {
+            throw new BusinessException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_NAME_SEARCH_LIMIT);
+    }
 
-        return ingredientRepository.findByNutrientAndMinValue(nutrient, min)
-                .stream()
+    private Map<Long, IngredientDTO> loadByIds(Set<Long> ids) {
+        return ingredientRepository.findAllById(ids).stream()
                 .map(ingredientMapper::toDto)
-                .toList();
+                .collect(Collectors.toMap(IngredientDTO::getId, Function.identity()));
+    }
+
+    private record NutrientFilter(Nutrients nutrient, Double min, Double max) {
     }
 }
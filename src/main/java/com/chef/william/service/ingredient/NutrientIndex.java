@@ -0,0 +1,185 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.repository.NutrientValueProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory columnar index of nutrient values, used for range filters over ingredients.
+ * <p>
+ * For every {@link Nutrients} constant there is one column: a {@code double[]} of values sorted
+ * ascending and a parallel {@code long[]} of ingredient ids. A range query is two binary searches
+ * and a slice. Columns are immutable and replaced copy-on-write, so readers never lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NutrientIndex {
+
+    private static final Column EMPTY = new Column(new double[0], new long[0]);
+
+    private final IngredientRepository ingredientRepository;
+
+    private volatile Column[] columns;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild(ingredientRepository.findAllNutrientValues());
+        log.info("Nutrient index built");
+    }
+
+    // Not read-only, so the reload is served by the primary rather than a possibly lagging replica
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        if (columns == null || event.ingredientIds().isEmpty()) {
+            return;
+        }
+        List<NutrientValueProjection> current = event.type() == IngredientChangedEvent.ChangeType.DELETED
+                ? List.of()
+                : ingredientRepository.findNutrientValuesByIngredientIdIn(event.ingredientIds());
+        apply(event.ingredientIds(), current);
+    }
+
+    @Async
+    @EventListener
+    @Transactional
+    public void onCacheRegionVersionChanged(CacheRegionVersionChangedEvent event) {
+        if (columns != null && CacheRegionVersionChangedEvent.INGREDIENT.equals(event.group())) {
+            build();
+        }
+    }
+
+    public boolean isReady() {
+        return columns != null;
+    }
+
+    public synchronized void rebuild(Collection<NutrientValueProjection> rows) {
+        List<List<Entry>> byNutrient = group(rows);
+        Column[] next = new Column[Nutrients.values().length];
+        for (int i = 0; i < next.length; i++) {
+            next[i] = Column.of(byNutrient.get(i));
+        }
+        columns = next;
+    }
+
+    /**
+     * Drops every value of {@code changedIds} and adds {@code currentRows} in their place.
+     */
+    public synchronized void apply(Collection<Long> changedIds, Collection<NutrientValueProjection> currentRows) {
+        Set<Long> changed = new HashSet<>(changedIds);
+        List<List<Entry>> added = group(currentRows);
+        Column[] next = columns.clone();
+        for (int i = 0; i < next.length; i++) {
+            next[i] = next[i].replace(changed, added.get(i));
+        }
+        columns = next;
+    }
+
+    /**
+     * Returns ids of ingredients whose value for {@code nutrient} lies in ({@code min}, {@code max}],
+     * highest value first. Either bound may be null.
+     */
+    public long[] range(Nutrients nutrient, Double min, Double max) {
+        Column column = columns[nutrient.ordinal()];
+        int from = min == null ? 0 : column.upperBound(min);
+        int to = max == null ? column.values.length : column.upperBound(max);
+        if (from >= to) {
+            return new long[0];
+        }
+        long[] result = new long[to - from];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = column.ids[to - 1 - i];
+        }
+        return result;
+    }
+
+    private static List<List<Entry>> group(Collection<NutrientValueProjection> rows) {
+        List<List<Entry>> byNutrient = new ArrayList<>(Nutrients.values().length);
+        for (int i = 0; i < Nutrients.values().length; i++) {
+            byNutrient.add(new ArrayList<>());
+        }
+        for (NutrientValueProjection row : rows) {
+            if (row.getNutrient() != null && row.getValue() != null && row.getIngredientId() != null) {
+                byNutrient.get(row.getNutrient().ordinal()).add(new Entry(row.getValue(), row.getIngredientId()));
+            }
+        }
+        return byNutrient;
+    }
+
+    private record Entry(double value, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byValue = Double.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+    }
+
+    private record Column(double[] values, long[] ids) {
+
+        static Column of(List<Entry> entries) {
+            if (entries.isEmpty()) {
+                return EMPTY;
+            }
+            Entry[] sorted = entries.toArray(Entry[]::new);
+            Arrays.sort(sorted);
+            double[] values = new double[sorted.length];
+            long[] ids = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                values[i] = sorted[i].value();
+                ids[i] = sorted[i].id();
+            }
+            return new Column(values, ids);
+        }
+
+        Column replace(Set<Long> removed, List<Entry> added) {
+            boolean touched = !added.isEmpty();
+            for (int i = 0; i < ids.length && !touched; i++) {
+                touched = removed.contains(ids[i]);
+            }
+            if (!touched) {
+                return this;
+            }
+            List<Entry> entries = new ArrayList<>(ids.length + added.size());
+            for (int i = 0; i < ids.length; i++) {
+                if (!removed.contains(ids[i])) {
+                    entries.add(new Entry(values[i], ids[i]));
+                }
+            }
+            entries.addAll(added);
+            return of(entries);
+        }
+
+        // First position whose value is strictly greater than the bound
+        int upperBound(double bound) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= bound) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -5,12 +5,16 @@ import com.chef.william.dto.NutritionDTO;
 import com.chef.william.exception.BusinessException;
 import com.chef.william.model.Ingredient;
 import com.chef.william.model.Nutrition;
+import com.chef.william.model.enums.Allergen;
 import com.chef.william.model.enums.Nutrients;
 import com.chef.william.model.enums.Unit;
+import com.chef.william.repository.IngredientSummaryView;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -19,12 +23,26 @@ import java.util.stream.Collectors;
 @Component
 public class IngredientMapper {
 
-    public void updateEntityFromDto(IngredientDTO dto, Ingredient entity) {
+    /**
+     * Copies the DTO onto the entity and reports whether anything that feeds nutrition totals
+     * (serving size, density or nutrient rows) changed.
+     */
+    public boolean updateEntityFromDto(IngredientDTO dto, Ingredient entity) {
+        List<Object> nutritionBefore = nutritionState(entity);
+        applyDto(dto, entity);
+        return !nutritionBefore.equals(nutritionState(entity));
+    }
+
+    private void applyDto(IngredientDTO dto, Ingredient entity) {
         entity.setName(dto.getName());
         entity.setCategory(dto.getCategory());
         entity.setDescription(dto.getDescription());
         entity.setImageUrl(dto.getImageUrl());
         entity.setServingAmount(dto.getServingAmount());
+        entity.setDensity(dto.getDensity());
+        entity.setAllergenMask(dto.getAllergens() == null || dto.getAllergens().isEmpty()
+                ? Allergen.detect(dto.getName(), dto.getCategory())
+                : Allergen.maskOf(dto.getAllergens()));
 
         Unit servingUnit = dto.getServingUnit();
         if (servingUnit == null) {
@@ -80,6 +98,14 @@ public class IngredientMapper {
         }
     }
 
+    private static List<Object> nutritionState(Ingredient entity) {
+        List<String> rows = entity.getNutritionList() == null ? List.of() : entity.getNutritionList().stream()
+                .map(n -> n.getNutrient() + ":" + n.getValue() + ":" + n.getUnit())
+                .sorted()
+                .toList();
+        return Arrays.asList(entity.getServingAmount(), entity.getServingUnit(), entity.getDensity(), rows);
+    }
+
     public IngredientDTO toDto(Ingredient entity) {
         IngredientDTO dto = new IngredientDTO();
         dto.setId(entity.getId());
@@ -91,6 +117,10 @@ public class IngredientMapper {
         dto.setUpdatedBy(entity.getUpdatedBy());
         dto.setUpdatedAt(entity.getUpdatedAt());
         dto.setServingAmount(entity.getServingAmount());
+        dto.setDensity(entity.getDensity());
+        dto.setAllergens(Allergen.fromMask(entity.getAllergenMask() != null
+                ? entity.getAllergenMask()
+                : Allergen.detect(entity.getName(), entity.getCategory())));
 
         Unit servingUnit = Unit.fromAbbreviation(entity.getServingUnit());
         if (servingUnit == null) {
@@ -109,4 +139,29 @@ public class IngredientMapper {
         return dto;
     }
 
+    public IngredientDTO toDto(IngredientSummaryView view, List<NutritionDTO> nutritionList) {
+        IngredientDTO dto = new IngredientDTO();
+        dto.setId(view.id());
+        dto.setName(view.name());
+        dto.setCategory(view.category());
+        dto.setDescription(view.description());
+        dto.setImageUrl(view.imageUrl());
+        dto.setCreatedBy(view.createdBy());
+        dto.setUpdatedBy(view.updatedBy());
+        dto.setUpdatedAt(view.updatedAt());
+        dto.setServingAmount(view.servingAmount());
+        dto.setDensity(view.density());
+        dto.setAllergens(Allergen.fromMask(view.allergenMask() != null
+                ? view.allergenMask()
+                : Allergen.detect(view.name(), view.category())));
+
+        Unit servingUnit = Unit.fromAbbreviation(view.servingUnit());
+        if (servingUnit == null) {
+            throw new BusinessException("Unsupported serving unit found in database: " + view.servingUnit());
+        }
+        dto.setServingUnit(servingUnit);
+        dto.setNutritionList(new ArrayList<>(nutritionList));
+        return dto;
+    }
+
 }
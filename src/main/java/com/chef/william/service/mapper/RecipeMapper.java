@@ -4,6 +4,8 @@ import com.chef.william.dto.InstructionDTO;
 import com.chef.william.dto.RecipeDTO;
 import com.chef.william.dto.RecipeIngredientDTO;
 import com.chef.william.model.Recipe;
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.repository.RecipeSummaryView;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -13,6 +15,11 @@ import java.util.List;
 @Component
 public class RecipeMapper {
 
+    public static final Comparator<RecipeIngredientDTO> INGREDIENT_ORDER = Comparator.comparing(
+            RecipeIngredientDTO::getIngredientName, Comparator.nullsLast(String::compareTo));
+    public static final Comparator<InstructionDTO> INSTRUCTION_ORDER = Comparator.comparing(
+            InstructionDTO::getStep, Comparator.nullsLast(Integer::compareTo));
+
     public RecipeDTO toDto(Recipe recipe) {
         RecipeDTO dto = RecipeDTO.builder()
                 .id(recipe.getId())
@@ -23,6 +30,8 @@ public class RecipeMapper {
                 .createdBy(recipe.getCreatedBy())
                 .updatedBy(recipe.getUpdatedBy())
                 .updatedAt(recipe.getUpdatedAt())
+                .servings(recipe.getServings())
+                .allergens(recipe.getAllergenMask() != null ? Allergen.fromMask(recipe.getAllergenMask()) : null)
                 .build();
 
         List<RecipeIngredientDTO> ingredientDTOs = recipe.getRecipeIngredients().stream()
@@ -34,8 +43,7 @@ public class RecipeMapper {
                         ri.getUnit(),
                         ri.getNote()
                 ))
-                .sorted(Comparator.comparing(RecipeIngredientDTO::getIngredientName,
-                        Comparator.nullsLast(String::compareTo)))
+                .sorted(INGREDIENT_ORDER)
                 .toList();
 
         dto.setIngredients(new ArrayList<>(ingredientDTOs));
@@ -47,12 +55,29 @@ public class RecipeMapper {
                         .description(ins.getDescription())
                         .tutorialVideoUrl(ins.getTutorialVideoUrl())
                         .build())
-                .sorted(Comparator.comparing(InstructionDTO::getStep,
-                        Comparator.nullsLast(Integer::compareTo)))
+                .sorted(INSTRUCTION_ORDER)
                 .toList();
 
         dto.setInstructions(new ArrayList<>(instructionDTOs));
 
         return dto;
     }
+
+    /**
+     * Scalars only: ingredients and instructions are left empty.
+     */
+    public RecipeDTO toSummaryDto(RecipeSummaryView view) {
+        return RecipeDTO.builder()
+                .id(view.id())
+                .version(view.version())
+                .description(view.description())
+                .foodId(view.foodId())
+                .foodName(view.foodName())
+                .createdBy(view.createdBy())
+                .updatedBy(view.updatedBy())
+                .updatedAt(view.updatedAt())
+                .servings(view.servings())
+                .allergens(view.allergenMask() != null ? Allergen.fromMask(view.allergenMask()) : null)
+                .build();
+    }
 }
@@ -0,0 +1,145 @@
+package com.chef.william.service.nutrition;
+
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.NutrientAmountDTO;
+import com.chef.william.dto.NutritionDTO;
+import com.chef.william.dto.RecipeNutritionDTO;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.RecipeIngredient;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.model.enums.Unit;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.ingredient.IngredientCatalogCache;
+import com.chef.william.service.mapper.IngredientMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Totals recipe nutrition from ingredient quantities and the per-serving nutrition of each ingredient.
+ * <p>
+ * Every recipe ingredient is converted into its ingredient's serving unit with
+ * {@link UnitConversionMatrix}, scaled against the serving amount, and its nutrients are summed into
+ * a dense array indexed by {@link Nutrients} ordinal. Ingredient data comes from the catalog cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeNutritionCalculator {
+
+    private static final Nutrients[] NUTRIENTS = Nutrients.values();
+
+    private final IngredientCatalogCache ingredientCatalogCache;
+    private final IngredientRepository ingredientRepository;
+    private final IngredientMapper ingredientMapper;
+
+    public RecipeNutritionDTO calculate(Recipe recipe) {
+        return calculateAll(List.of(recipe)).get(recipe.getId());
+    }
+
+    /**
+     * Calculates several recipes with a single catalog lookup; the result is keyed by recipe id.
+     */
+    public Map<Long, RecipeNutritionDTO> calculateAll(Collection<Recipe> recipes) {
+        Set<Long> ingredientIds = new LinkedHashSet<>();
+        recipes.forEach(recipe -> recipe.getRecipeIngredients()
+                .forEach(ri -> ingredientIds.add(ri.getIngredient().getId())));
+        Map<Long, IngredientDTO> ingredients = ingredientCatalogCache.getAllById(ingredientIds, this::loadByIds)
+                .stream()
+                .collect(Collectors.toMap(IngredientDTO::getId, Function.identity()));
+
+        Map<Long, RecipeNutritionDTO> result = new LinkedHashMap<>();
+        for (Recipe recipe : recipes) {
+            result.put(recipe.getId(), calculate(recipe, ingredients));
+        }
+        return result;
+    }
+
+    private RecipeNutritionDTO calculate(Recipe recipe, Map<Long, IngredientDTO> ingredients) {
+        double[] totals = new double[NUTRIENTS.length];
+        String[] units = new String[NUTRIENTS.length];
+        Set<Long> unresolved = new LinkedHashSet<>();
+
+        for (RecipeIngredient recipeIngredient : recipe.getRecipeIngredients()) {
+            Long ingredientId = recipeIngredient.getIngredient().getId();
+            IngredientDTO ingredient = ingredients.get(ingredientId);
+            double scale = scale(recipeIngredient, ingredient);
+            if (Double.isNaN(scale)) {
+                unresolved.add(ingredientId);
+                continue;
+            }
+            for (NutritionDTO nutrition : ingredient.getNutritionList()) {
+                if (nutrition.getNutrient() == null || nutrition.getValue() == null) {
+                    continue;
+                }
+                int slot = nutrition.getNutrient().ordinal();
+                if (units[slot] == null) {
+                    units[slot] = nutrition.getUnit();
+                }
+                double toTotalUnit = nutrientUnitFactor(nutrition.getUnit(), units[slot]);
+                if (Double.isNaN(toTotalUnit)) {
+                    unresolved.add(ingredientId);
+                    continue;
+                }
+                totals[slot] += nutrition.getValue() * scale * toTotalUnit;
+            }
+        }
+
+        Integer servings = recipe.getServings();
+        RecipeNutritionDTO dto = new RecipeNutritionDTO();
+        dto.setRecipeId(recipe.getId());
+        dto.setServings(servings);
+        dto.setTotal(amounts(totals, units, 1));
+        dto.setPerServing(servings == null ? null : amounts(totals, units, servings));
+        dto.setUnresolvedIngredientIds(new ArrayList<>(unresolved));
+        return dto;
+    }
+
+    // Multiplier from the ingredient's nutrition-per-serving to the quantity used, NaN when not convertible
+    private static double scale(RecipeIngredient recipeIngredient, IngredientDTO ingredient) {
+        if (ingredient == null || recipeIngredient.getUnit() == null || ingredient.getServingUnit() == null
+                || ingredient.getServingAmount() == null || ingredient.getServingAmount() <= 0) {
+            return Double.NaN;
+        }
+        double amount = UnitConversionMatrix.convert(recipeIngredient.getQuantity(), recipeIngredient.getUnit(),
+                ingredient.getServingUnit(), ingredient.getDensity());
+        return amount / ingredient.getServingAmount();
+    }
+
+    private static double nutrientUnitFactor(String unit, String totalUnit) {
+        if (unit == null ? totalUnit == null : unit.equalsIgnoreCase(totalUnit)) {
+            return 1.0;
+        }
+        Unit from = Unit.fromAbbreviation(unit);
+        Unit to = Unit.fromAbbreviation(totalUnit);
+        return from == null || to == null ? Double.NaN : UnitConversionMatrix.factor(from, to);
+    }
+
+    private static List<NutrientAmountDTO> amounts(double[] totals, String[] units, int divisor) {
+        List<NutrientAmountDTO> amounts = new ArrayList<>();
+        for (int i = 0; i < totals.length; i++) {
+            if (units[i] != null) {
+                amounts.add(new NutrientAmountDTO(NUTRIENTS[i], round(totals[i] / divisor), units[i]));
+            }
+        }
+        return amounts;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    private Map<Long, IngredientDTO> loadByIds(Set<Long> ids) {
+        return ingredientRepository.findAllById(ids).stream()
+                .map(ingredientMapper::toDto)
+                .collect(Collectors.toMap(IngredientDTO::getId, Function.identity()));
+    }
+}
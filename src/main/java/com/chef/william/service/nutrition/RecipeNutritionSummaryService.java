@@ -0,0 +1,131 @@
+package com.chef.william.service.nutrition;
+
+import com.chef.william.dto.NutrientAmountDTO;
+import com.chef.william.dto.RecipeMacrosDTO;
+import com.chef.william.dto.RecipeNutritionDTO;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.RecipeNutritionSummary;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.model.enums.Unit;
+import com.chef.william.repository.RecipeNutritionSummaryRepository;
+import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.ingredient.IngredientChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link RecipeNutritionSummary} rows current.
+ * <p>
+ * A recipe write recomputes its own row inside the writing transaction. A nutrition change on an
+ * ingredient recomputes, in the background and in batches, only the recipes that use it. Recipes
+ * without a row (e.g. created before this table existed) are backfilled at startup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecipeNutritionSummaryService {
+
+    static final int BATCH_SIZE = 100;
+
+    private final RecipeNutritionSummaryRepository summaryRepository;
+    private final RecipeRepository recipeRepository;
+    private final RecipeNutritionCalculator recipeNutritionCalculator;
+    private final TransactionTemplate transactionTemplate;
+
+    public void recompute(Recipe recipe) {
+        summaryRepository.save(toSummary(recipeNutritionCalculator.calculate(recipe)));
+    }
+
+    public void delete(Long recipeId) {
+        summaryRepository.deleteById(recipeId);
+    }
+
+    public Map<Long, RecipeMacrosDTO> findMacros(Collection<Long> recipeIds) {
+        return summaryRepository.findAllById(recipeIds).stream()
+                .collect(Collectors.toMap(RecipeNutritionSummary::getRecipeId, RecipeNutritionSummaryService::toMacros));
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        if (!event.nutritionChanged() || event.ingredientIds().isEmpty()) {
+            return;
+        }
+        List<Long> recipeIds = transactionTemplate.execute(status ->
+                recipeRepository.findIdsByIngredientIdIn(event.ingredientIds()));
+        recomputeInBatches(recipeIds);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> recipeIds = transactionTemplate.execute(status -> recipeRepository.findIdsWithoutNutritionSummary());
+        if (recipeIds != null && !recipeIds.isEmpty()) {
+            log.info("Backfilling nutrition summaries for {} recipes", recipeIds.size());
+            recomputeInBatches(recipeIds);
+        }
+    }
+
+    void recomputeInBatches(List<Long> recipeIds) {
+        if (recipeIds == null) {
+            return;
+        }
+        for (int from = 0; from < recipeIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = recipeIds.subList(from, Math.min(from + BATCH_SIZE, recipeIds.size()));
+            // One short transaction per batch keeps locks and the persistence context small
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Recipe> recipes = recipeRepository.findDetailedByIdIn(batch);
+                Map<Long, RecipeNutritionDTO> totals = recipeNutritionCalculator.calculateAll(recipes);
+                summaryRepository.saveAll(totals.values().stream().map(RecipeNutritionSummaryService::toSummary).toList());
+            });
+        }
+    }
+
+    private static RecipeNutritionSummary toSummary(RecipeNutritionDTO nutrition) {
+        Map<Nutrients, NutrientAmountDTO> totals = nutrition.getTotal().stream()
+                .collect(Collectors.toMap(NutrientAmountDTO::nutrient, Function.identity()));
+        RecipeNutritionSummary summary = new RecipeNutritionSummary();
+        summary.setRecipeId(nutrition.getRecipeId());
+        summary.setCalories(value(totals.get(Nutrients.CALORIES)));
+        summary.setProtein(grams(totals.get(Nutrients.PROTEIN)));
+        summary.setCarbohydrates(grams(totals.get(Nutrients.CARBOHYDRATES)));
+        summary.setFat(grams(totals.get(Nutrients.FAT)));
+        summary.setDietaryFiber(grams(totals.get(Nutrients.DIETARY_FIBER)));
+        summary.setSugars(grams(totals.get(Nutrients.SUGARS)));
+        summary.setUnresolvedIngredients(nutrition.getUnresolvedIngredientIds().size());
+        summary.setComputedAt(LocalDateTime.now());
+        return summary;
+    }
+
+    private static RecipeMacrosDTO toMacros(RecipeNutritionSummary summary) {
+        return new RecipeMacrosDTO(summary.getCalories(), summary.getProtein(), summary.getCarbohydrates(),
+                summary.getFat(), summary.getDietaryFiber(), summary.getSugars(),
+                summary.getUnresolvedIngredients() == 0, summary.getComputedAt());
+    }
+
+    private static Double value(NutrientAmountDTO amount) {
+        return amount == null ? null : amount.value();
+    }
+
+    private static Double grams(NutrientAmountDTO amount) {
+        if (amount == null) {
+            return null;
+        }
+        Unit unit = Unit.fromAbbreviation(amount.unit());
+        double factor = unit == null ? Double.NaN : UnitConversionMatrix.factor(unit, Unit.G);
+        return Double.isNaN(factor) ? amount.value() : amount.value() * factor;
+    }
+}
@@ -0,0 +1,97 @@
+package com.chef.william.service.nutrition;
+
+import com.chef.william.model.enums.Unit;
+
+/**
+ * Precomputed {@link Unit}-to-{@link Unit} conversion factors.
+ * <p>
+ * Mass units convert through grams and volume units through millilitres (US customary measures).
+ * Count units (piece, clove, slice) only convert to themselves. Mass and volume are bridged by an
+ * ingredient density in g/ml when one is known.
+ */
+public final class UnitConversionMatrix {
+
+    private static final int UNITS = Unit.values().length;
+    private static final double[][] FACTORS = new double[UNITS][UNITS];
+    private static final Dimension[] DIMENSIONS = new Dimension[UNITS];
+    private static final double[] TO_BASE = new double[UNITS];
+
+    static {
+        define(Unit.G, Dimension.MASS, 1.0);
+        define(Unit.KG, Dimension.MASS, 1000.0);
+        define(Unit.MG, Dimension.MASS, 0.001);
+        define(Unit.MCG, Dimension.MASS, 0.000001);
+        define(Unit.OZ, Dimension.MASS, 28.349523125);
+        define(Unit.LB, Dimension.MASS, 453.59237);
+        define(Unit.ML, Dimension.VOLUME, 1.0);
+        define(Unit.L, Dimension.VOLUME, 1000.0);
+        define(Unit.TSP, Dimension.VOLUME, 4.92892159375);
+        define(Unit.TBSP, Dimension.VOLUME, 14.78676478125);
+        define(Unit.CUP, Dimension.VOLUME, 236.5882365);
+        define(Unit.PINCH, Dimension.VOLUME, 4.92892159375 / 16);
+        define(Unit.PIECE, Dimension.COUNT, 1.0);
+        define(Unit.CLOVE, Dimension.COUNT, 1.0);
+        define(Unit.SLICE, Dimension.COUNT, 1.0);
+
+        for (Unit from : Unit.values()) {
+            for (Unit to : Unit.values()) {
+                FACTORS[from.ordinal()][to.ordinal()] = convertible(from, to)
+                        ? TO_BASE[from.ordinal()] / TO_BASE[to.ordinal()]
+                        : Double.NaN;
+            }
+        }
+    }
+
+    private UnitConversionMatrix() {
+    }
+
+    /**
+     * Factor that turns an amount in {@code from} into {@code to}, or NaN when the units measure
+     * different things.
+     */
+    public static double factor(Unit from, Unit to) {
+        return FACTORS[from.ordinal()][to.ordinal()];
+    }
+
+    /**
+     * Converts {@code quantity}, crossing between mass and volume with {@code densityGramsPerMl} when
+     * needed. Returns NaN when no conversion exists.
+     */
+    public static double convert(double quantity, Unit from, Unit to, Double densityGramsPerMl) {
+        double direct = factor(from, to);
+        if (!Double.isNaN(direct)) {
+            return quantity * direct;
+        }
+        if (densityGramsPerMl == null || densityGramsPerMl <= 0) {
+            return Double.NaN;
+        }
+        Dimension fromDimension = DIMENSIONS[from.ordinal()];
+        Dimension toDimension = DIMENSIONS[to.ordinal()];
+        if (fromDimension == Dimension.VOLUME && toDimension == Dimension.MASS) {
+            return quantity * factor(from, Unit.ML) * densityGramsPerMl * factor(Unit.G, to);
+        }
+        if (fromDimension == Dimension.MASS && toDimension == Dimension.VOLUME) {
+            return quantity * factor(from, Unit.G) / densityGramsPerMl * factor(Unit.ML, to);
+        }
+        return Double.NaN;
+    }
+
+    private static void define(Unit unit, Dimension dimension, double toBase) {
+        DIMENSIONS[unit.ordinal()] = dimension;
+        TO_BASE[unit.ordinal()] = toBase;
+    }
+
+    private static boolean convertible(Unit from, Unit to) {
+        if (from == to) {
+            return true;
+        }
+        Dimension dimension = DIMENSIONS[from.ordinal()];
+        return dimension != Dimension.COUNT && dimension == DIMENSIONS[to.ordinal()];
+    }
+
+    private enum Dimension {
+        MASS,
+        VOLUME,
+        COUNT
+    }
+}
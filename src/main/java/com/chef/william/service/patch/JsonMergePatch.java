@@ -0,0 +1,121 @@
+package com.chef.william.service.patch;
+
+import com.chef.william.exception.BusinessException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * JSON Merge Patch (RFC 7396) applied to a DTO: the DTO is written to a tree, the patch merged into
+ * it and the result read back. Members set to null clear the field; the DTOs have no optional
+ * members to remove, so a removed member and a null one mean the same thing here.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonMergePatch {
+
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+
+    /**
+     * Applies {@code patch} to a copy of {@code target}. Only the members the patch names are
+     * validated, so a patch is not rejected for fields it does not touch.
+     */
+    public <T> T apply(T target, JsonNode patch, Class<T> type) {
+        requireObject(patch);
+        T patched = merge(target, patch, type);
+        check(validator.validate(patched).stream()
+                .filter(violation -> patch.has(rootProperty(violation)))
+                .collect(Collectors.toSet()));
+        return patched;
+    }
+
+    /**
+     * Applies {@code patch} and validates the whole result, for child rows the patch may be creating.
+     */
+    public <T> T applyAndValidate(T target, JsonNode patch, Class<T> type) {
+        requireObject(patch);
+        T patched = merge(target, patch, type);
+        check(validator.validate(patched));
+        return patched;
+    }
+
+    public static void requireObject(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new BusinessException("A merge patch must be a JSON object");
+        }
+    }
+
+    /**
+     * Object members of a keyed child patch, e.g. instructions keyed by step. Null values (deletes)
+     * are kept as null.
+     */
+    public static <K> Map<K, JsonNode> keyed(JsonNode patch, String member, Function<String, K> keyParser) {
+        requireObject(patch);
+        Map<K, JsonNode> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> entry : patch.properties()) {
+            K key;
+            try {
+                key = keyParser.apply(entry.getKey());
+            } catch (RuntimeException e) {
+                throw new BusinessException("Invalid " + member + " key '" + entry.getKey() + "'");
+            }
+            JsonNode value = entry.getValue();
+            if (!value.isNull() && !value.isObject()) {
+                throw new BusinessException(member + " '" + entry.getKey() + "' must be an object or null");
+            }
+            entries.put(key, value.isNull() ? null : value);
+        }
+        return entries;
+    }
+
+    private <T> T merge(T target, JsonNode patch, Class<T> type) {
+        try {
+            JsonNode merged = merge((JsonNode) jsonMapper.valueToTree(target), patch);
+            return jsonMapper.treeToValue(merged, type);
+        } catch (JacksonException e) {
+            throw new BusinessException("Invalid patch: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? (ObjectNode) target.deepCopy()
+                : jsonMapper.createObjectNode();
+        for (Map.Entry<String, JsonNode> member : patch.properties()) {
+            if (member.getValue().isNull()) {
+                result.putNull(member.getKey());
+            } else {
+                result.set(member.getKey(), merge(result.get(member.getKey()), member.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private static String rootProperty(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath().iterator().next().getName();
+    }
+
+    private static void check(Set<? extends ConstraintViolation<?>> violations) {
+        if (!violations.isEmpty()) {
+            throw new BusinessException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.chef.william.service.recipe;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.repository.RecipeIngredientPairProjection;
+import com.chef.william.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index from ingredient id to the recipes that use it, for "what can I cook" queries.
+ * <p>
+ * Recipes are numbered with dense ordinals in recipe id order; each posting list is a sorted
+ * {@code int[]} of ordinals. A query walks the posting lists of the ingredients on hand and counts
+ * hits per recipe, which together with each recipe's ingredient count gives how many are missing.
+ * The index is an immutable snapshot replaced copy-on-write, so readers never lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PantryIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final RecipeRepository recipeRepository;
+
+    private volatile Snapshot snapshot;
+
+    public record Match(Long recipeId, int matchedIngredients, int totalIngredients, List<Long> missingIngredientIds) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild(recipeRepository.findAllIngredientPairs());
+        log.info("Pantry index built for {} recipes", snapshot.ordinals().size());
+    }
+
+    // Read-write so replica routing keeps this reload on the primary, which already has the change
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (snapshot == null || event.recipeIds().isEmpty()) {
+            return;
+        }
+        apply(event.recipeIds(), recipeRepository.findIngredientPairsByRecipeIdIn(event.recipeIds()));
+    }
+
+    @Async
+    @EventListener
+    @Transactional
+    public void onCacheRegionVersionChanged(CacheRegionVersionChangedEvent event) {
+        if (snapshot != null && CacheRegionVersionChangedEvent.RECIPE.equals(event.group())) {
+            build();
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    public synchronized void rebuild(Collection<RecipeIngredientPairProjection> rows) {
+        Map<Long, long[]> ingredientsByRecipe = group(rows, new TreeMap<>());
+        long[] recipeIds = new long[ingredientsByRecipe.size()];
+        long[][] ingredients = new long[recipeIds.length][];
+        Map<Long, Integer> ordinals = new HashMap<>();
+        Map<Long, Integer> postingSizes = new HashMap<>();
+        int ordinal = 0;
+        for (Map.Entry<Long, long[]> entry : ingredientsByRecipe.entrySet()) {
+            recipeIds[ordinal] = entry.getKey();
+            ingredients[ordinal] = entry.getValue();
+            ordinals.put(entry.getKey(), ordinal++);
+            for (long ingredientId : entry.getValue()) {
+                postingSizes.merge(ingredientId, 1, Integer::sum);
+            }
+        }
+
+        Map<Long, int[]> postings = new HashMap<>();
+        postingSizes.forEach((ingredientId, size) -> postings.put(ingredientId, new int[size]));
+        Map<Long, Integer> filled = new HashMap<>();
+        // Ordinals are visited in ascending order, so every posting list comes out sorted
+        for (int doc = 0; doc < ingredients.length; doc++) {
+            for (long ingredientId : ingredients[doc]) {
+                int position = filled.merge(ingredientId, 1, Integer::sum) - 1;
+                postings.get(ingredientId)[position] = doc;
+            }
+        }
+        snapshot = new Snapshot(postings, recipeIds, ingredients, ordinals);
+    }
+
+    /**
+     * Replaces the ingredients of {@code changedRecipeIds} with {@code currentRows}; a changed recipe
+     * without rows is removed.
+     */
+    public synchronized void apply(Collection<Long> changedRecipeIds, Collection<RecipeIngredientPairProjection> currentRows) {
+        Snapshot current = snapshot;
+        Map<Long, long[]> updated = group(currentRows, new HashMap<>());
+        Map<Long, int[]> postings = new HashMap<>(current.postings());
+        Map<Long, Integer> ordinals = new HashMap<>(current.ordinals());
+        int size = current.recipeIds().length;
+        long[] recipeIds = Arrays.copyOf(current.recipeIds(), size + changedRecipeIds.size());
+        long[][] ingredients = Arrays.copyOf(current.ingredients(), recipeIds.length);
+
+        for (Long recipeId : new LinkedHashSet<>(changedRecipeIds)) {
+            Integer ordinal = ordinals.get(recipeId);
+            if (ordinal != null) {
+                for (long ingredientId : ingredients[ordinal]) {
+                    int[] remaining = remove(postings.get(ingredientId), ordinal);
+                    if (remaining.length == 0) {
+                        postings.remove(ingredientId);
+                    } else {
+                        postings.put(ingredientId, remaining);
+                    }
+                }
+                ingredients[ordinal] = null;
+            }
+            long[] next = updated.get(recipeId);
+            if (next == null) {
+                ordinals.remove(recipeId);
+                continue;
+            }
+            if (ordinal == null) {
+                // New recipes carry the highest ids, so appending keeps ordinals close to recipe id order
+                ordinal = size++;
+                recipeIds[ordinal] = recipeId;
+                ordinals.put(recipeId, ordinal);
+            }
+            ingredients[ordinal] = next;
+            for (long ingredientId : next) {
+                postings.put(ingredientId, insert(postings.getOrDefault(ingredientId, NO_POSTINGS), ordinal));
+            }
+        }
+        snapshot = new Snapshot(postings, Arrays.copyOf(recipeIds, size), Arrays.copyOf(ingredients, size), ordinals);
+    }
+
+    /**
+     * Recipes that use at least one of {@code onHand} and miss at most {@code maxMissing} of their
+     * ingredients: fewest missing first, then most matched, then oldest recipe.
+     */
+    public List<Match> match(Collection<Long> onHand, int maxMissing, int limit) {
+        Snapshot current = snapshot;
+        Set<Long> pantry = new LinkedHashSet<>(onHand);
+        int[] hits = new int[current.recipeIds().length];
+        int[] touched = new int[hits.length];
+        int touchedCount = 0;
+        for (Long ingredientId : pantry) {
+            for (int doc : current.postings().getOrDefault(ingredientId, NO_POSTINGS)) {
+                if (hits[doc]++ == 0) {
+                    touched[touchedCount++] = doc;
+                }
+            }
+        }
+
+        // Sort keys pack (missing, -matched, ordinal) into one long so ranking is a primitive sort
+        long[] keys = new long[touchedCount];
+        int candidates = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            int missing = current.ingredients()[doc].length - hits[doc];
+            if (missing <= maxMissing) {
+                keys[candidates++] = ((long) missing << 52) | ((long) (0xFFFFF - hits[doc]) << 32) | doc;
+            }
+        }
+        Arrays.sort(keys, 0, candidates);
+
+        List<Match> matches = new ArrayList<>(Math.min(limit, candidates));
+        for (int i = 0; i < candidates && matches.size() < limit; i++) {
+            int doc = (int) keys[i];
+            long[] ingredients = current.ingredients()[doc];
+            List<Long> missingIds = new ArrayList<>();
+            for (long ingredientId : ingredients) {
+                if (!pantry.contains(ingredientId)) {
+                    missingIds.add(ingredientId);
+                }
+            }
+            matches.add(new Match(current.recipeIds()[doc], hits[doc], ingredients.length, missingIds));
+        }
+        return matches;
+    }
+
+    // Distinct ingredient ids per recipe, sorted
+    private static Map<Long, long[]> group(Collection<RecipeIngredientPairProjection> rows, Map<Long, long[]> target) {
+        Map<Long, Set<Long>> sets = new HashMap<>();
+        for (RecipeIngredientPairProjection row : rows) {
+            if (row.getRecipeId() != null && row.getIngredientId() != null) {
+                sets.computeIfAbsent(row.getRecipeId(), key -> new LinkedHashSet<>()).add(row.getIngredientId());
+            }
+        }
+        sets.forEach((recipeId, ids) -> {
+            long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            target.put(recipeId, sorted);
+        });
+        return target;
+    }
+
+    private static int[] insert(int[] postings, int doc) {
+        int position = Arrays.binarySearch(postings, doc);
+        if (position >= 0) {
+            return postings;
+        }
+        position = -position - 1;
+        int[] next = new int[postings.length + 1];
+        System.arraycopy(postings, 0, next, 0, position);
+        next[position] = doc;
+        System.arraycopy(postings, position, next, position + 1, postings.length - position);
+        return next;
+    }
+
+    private static int[] remove(int[] postings, int doc) {
+        int position = postings == null ? -1 : Arrays.binarySearch(postings, doc);
+        if (position < 0) {
+            return postings == null ? NO_POSTINGS : postings;
+        }
+        int[] next = new int[postings.length - 1];
+        System.arraycopy(postings, 0, next, 0, position);
+        System.arraycopy(postings, position + 1, next, position, next.length - position);
+        return next;
+    }
+
+    private record Snapshot(Map<Long, int[]> postings, long[] recipeIds, long[][] ingredients,
+                            Map<Long, Integer> ordinals) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.chef.william.service.recipe;
+
+import java.util.Set;
+
+/**
+ * Published by {@code RecipeService} inside the writing transaction; listeners react after commit
+ * and re-read the recipes, so a deleted recipe simply comes back without ingredients.
+ */
+public record RecipeChangedEvent(Set<Long> recipeIds) {
+}
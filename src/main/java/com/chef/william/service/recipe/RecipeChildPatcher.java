@@ -0,0 +1,154 @@
+package com.chef.william.service.recipe;
+
+import com.chef.william.dto.InstructionDTO;
+import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.RecipeIngredientDTO;
+import com.chef.william.exception.BusinessException;
+import com.chef.william.model.Instruction;
+import com.chef.william.model.Recipe;
+import com.chef.william.repository.InstructionRepository;
+import com.chef.william.service.patch.JsonMergePatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.JsonNodeFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the {@code ingredients} and {@code instructions} members of a recipe merge patch. Merge
+ * patch replaces arrays whole, so both lists are also accepted as objects keyed by ingredient id and
+ * by step: each member merges into that child, creates it when missing, or deletes it when null.
+ * An array still replaces the whole list, as PUT does.
+ * <p>
+ * Keyed instructions load and write only the steps the patch names. Keyed ingredients go through
+ * the recipe's full ingredient list, which the allergen mask and nutrition totals need anyway.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeChildPatcher {
+
+    static final String INGREDIENTS = "ingredients";
+    static final String INSTRUCTIONS = "instructions";
+
+    private final JsonMergePatch jsonMergePatch;
+    private final InstructionRepository instructionRepository;
+    private final RecipeMergeService recipeMergeService;
+
+    /**
+     * Returns whether the patch touched the ingredients, in which case derived values need recomputing.
+     */
+    public boolean patchIngredients(Recipe recipe, JsonNode patch) {
+        JsonNode member = patch.get(INGREDIENTS);
+        if (member == null) {
+            return false;
+        }
+        if (!member.isObject()) {
+            recipeMergeService.mergeIngredients(recipe, replacement(INGREDIENTS, member));
+            return true;
+        }
+
+        Map<Long, RecipeIngredientDTO> ingredients = new LinkedHashMap<>();
+        recipe.getRecipeIngredients().forEach(ri -> ingredients.put(ri.getIngredient().getId(),
+                new RecipeIngredientDTO(ri.getId(), ri.getIngredient().getId(), null, ri.getQuantity(), ri.getUnit(),
+                        ri.getNote())));
+        JsonMergePatch.keyed(member, INGREDIENTS, Long::valueOf).forEach((ingredientId, entry) -> {
+            if (entry == null) {
+                ingredients.remove(ingredientId);
+                return;
+            }
+            RecipeIngredientDTO current = ingredients.get(ingredientId);
+            if (current == null) {
+                current = new RecipeIngredientDTO();
+                current.setIngredientId(ingredientId);
+            }
+            RecipeIngredientDTO patched = jsonMergePatch.applyAndValidate(current, entry, RecipeIngredientDTO.class);
+            requireKey(ingredientId, patched.getIngredientId(), "ingredientId");
+            ingredients.put(ingredientId, patched);
+        });
+        if (ingredients.isEmpty()) {
+            throw new BusinessException("At least one ingredient is required");
+        }
+
+        RecipeDTO dto = new RecipeDTO();
+        dto.setIngredients(new ArrayList<>(ingredients.values()));
+        recipeMergeService.mergeIngredients(recipe, dto);
+        return true;
+    }
+
+    public void patchInstructions(Recipe recipe, JsonNode patch) {
+        JsonNode member = patch.get(INSTRUCTIONS);
+        if (member == null) {
+            return;
+        }
+        if (!member.isObject()) {
+            recipeMergeService.mergeInstructions(recipe, replacement(INSTRUCTIONS, member));
+            return;
+        }
+
+        Map<Integer, JsonNode> entries = JsonMergePatch.keyed(member, INSTRUCTIONS, Integer::valueOf);
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<Integer, Instruction> existing = instructionRepository.findByRecipeIdAndStepIn(recipe.getId(), entries.keySet())
+                .stream()
+                .collect(Collectors.toMap(Instruction::getStep, Function.identity()));
+
+        boolean deleted = false;
+        for (Map.Entry<Integer, JsonNode> entry : entries.entrySet()) {
+            Integer step = entry.getKey();
+            Instruction instruction = existing.get(step);
+            if (entry.getValue() == null) {
+                if (instruction != null) {
+                    instructionRepository.delete(instruction);
+                    deleted = true;
+                }
+                continue;
+            }
+
+            InstructionDTO current = instruction == null
+                    ? InstructionDTO.builder().step(step).build()
+                    : InstructionDTO.builder()
+                            .id(instruction.getId())
+                            .step(step)
+                            .description(instruction.getDescription())
+                            .tutorialVideoUrl(instruction.getTutorialVideoUrl())
+                            .build();
+            InstructionDTO patched = jsonMergePatch.applyAndValidate(current, entry.getValue(), InstructionDTO.class);
+            requireKey(step, patched.getStep(), "step");
+
+            if (instruction != null) {
+                instruction.setDescription(patched.getDescription());
+                instruction.setTutorialVideoUrl(patched.getTutorialVideoUrl());
+                continue;
+            }
+            // Saved directly rather than added to the recipe's list, which would load every step
+            instruction = new Instruction();
+            instruction.setRecipe(recipe);
+            instruction.setStep(step);
+            instruction.setDescription(patched.getDescription());
+            instruction.setTutorialVideoUrl(patched.getTutorialVideoUrl());
+            instructionRepository.save(instruction);
+        }
+
+        if (deleted && instructionRepository.countByRecipeId(recipe.getId()) == 0) {
+            throw new BusinessException("At least one instruction is required");
+        }
+    }
+
+    // Array (or null) member: validated like the same list in a PUT body
+    private RecipeDTO replacement(String name, JsonNode member) {
+        return jsonMergePatch.apply(new RecipeDTO(), JsonNodeFactory.instance.objectNode().set(name, member),
+                RecipeDTO.class);
+    }
+
+    private static void requireKey(Object key, Object value, String field) {
+        if (!key.equals(value)) {
+            throw new BusinessException(field + " " + value + " does not match its key " + key);
+        }
+    }
+}
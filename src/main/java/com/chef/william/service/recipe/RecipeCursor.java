@@ -0,0 +1,68 @@
+package com.chef.william.service.recipe;
+
+import com.chef.william.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Opaque keyset position for recipe scrolling: the sort key of the last returned row plus its id.
+ * Clients only ever see the Base64 token produced by {@link #encode()}.
+ */
+public record RecipeCursor(SortKey sortKey, LocalDateTime updatedAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE = "-";
+
+    public enum SortKey {
+        ID("id"),
+        UPDATED_AT("updatedAt");
+
+        private final String param;
+
+        SortKey(String param) {
+            this.param = param;
+        }
+
+        public String getParam() {
+            return param;
+        }
+
+        public static SortKey fromParam(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            String normalized = value.trim();
+            for (SortKey key : values()) {
+                if (key.param.equalsIgnoreCase(normalized) || key.name().equalsIgnoreCase(normalized)) {
+                    return key;
+                }
+            }
+            throw new BusinessException("Unsupported recipe sort key: " + value + ". Valid values: id, updatedAt");
+        }
+    }
+
+    public String encode() {
+        String value = updatedAt == null ? NULL_VALUE : updatedAt.toString();
+        String raw = sortKey.name() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecipeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new BusinessException("Invalid recipe cursor");
+            }
+            SortKey sortKey = SortKey.valueOf(parts[0].toUpperCase(Locale.ROOT));
+            LocalDateTime updatedAt = NULL_VALUE.equals(parts[1]) ? null : LocalDateTime.parse(parts[1]);
+            return new RecipeCursor(sortKey, updatedAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Invalid recipe cursor", e);
+        }
+    }
+}
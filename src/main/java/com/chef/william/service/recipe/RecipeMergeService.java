@@ -10,13 +10,14 @@ import com.chef.william.model.Instruction;
 import com.chef.william.model.Recipe;
 import com.chef.william.model.RecipeIngredient;
 import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.ingredient.IngredientCatalogCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,6 +26,7 @@ import java.util.stream.Collectors;
 public class RecipeMergeService {
 
     private final IngredientRepository ingredientRepository;
+    private final IngredientCatalogCache ingredientCatalogCache;
 
     public void mergeIngredients(Recipe recipe, RecipeDTO dto) {
         Set<Long> incomingIngIds = new HashSet<>();
@@ -44,8 +46,20 @@ public class RecipeMergeService {
                 .filter(id -> !existingMap.containsKey(id))
                 .collect(Collectors.toSet());
 
-        Map<Long, Ingredient> ingredientsById = ingredientRepository.findAllById(idsToFetch).stream()
-                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        // Ingredients present in the catalog cache are known to exist, so a reference is enough to link them
+        Map<Long, Ingredient> ingredientsById = new HashMap<>();
+        Set<Long> idsToLoad = new HashSet<>();
+        for (Long id : idsToFetch) {
+            if (ingredientCatalogCache.contains(id)) {
+                ingredientsById.put(id, ingredientRepository.getReferenceById(id));
+            } else {
+                idsToLoad.add(id);
+            }
+        }
+        if (!idsToLoad.isEmpty()) {
+            ingredientRepository.findAllById(idsToLoad)
+                    .forEach(ingredient -> ingredientsById.put(ingredient.getId(), ingredient));
+        }
 
         if (ingredientsById.size() != idsToFetch.size()) {
             List<Long> missingIds = idsToFetch.stream()
@@ -0,0 +1,274 @@
+package com.chef.william.service.search;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.repository.RecipeRepository;
+import com.chef.william.repository.RecipeTextProjection;
+import com.chef.william.service.recipe.RecipeChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory BM25 index over recipe descriptions and instruction steps.
+ * <p>
+ * Each recipe is one document whose description terms count {@link #DESCRIPTION_WEIGHT} times.
+ * Every term maps to ascending {@code int[]} postings of document ordinals with parallel term
+ * frequencies. Updates append a new ordinal and tombstone the old one; tombstoned postings still
+ * count towards document frequency until the index is compacted, which only nudges idf.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipeSearchIndex {
+
+    static final int DESCRIPTION_WEIGHT = 2;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int COMPACTION_MIN_DELETED = 1024;
+
+    private final RecipeRepository recipeRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] ids = new long[64];
+    private int[] lengths = new int[64];
+    private Map<String, Integer>[] frequencies = newFrequencies(64);
+    private int docCount;
+    private int deletedCount;
+    private long liveLength;
+    private volatile boolean ready;
+
+    public record RecipeText(String description, List<String> steps) {
+    }
+
+    public record Hit(Long recipeId, double score) {
+    }
+
+    public record Result(List<Hit> hits, int totalHits, Set<String> terms) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        Map<Long, RecipeText> texts = load(recipeRepository.findAllDescriptions(), recipeRepository.findAllInstructionTexts());
+        rebuild(texts);
+        log.info("Recipe search index built with {} recipes", texts.size());
+    }
+
+    // Not read-only: the changed rows must be read from the primary, a replica may still lack them
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!ready || event.recipeIds().isEmpty()) {
+            return;
+        }
+        apply(event.recipeIds(), load(recipeRepository.findDescriptionsByIdIn(event.recipeIds()),
+                recipeRepository.findInstructionTextsByRecipeIdIn(event.recipeIds())));
+    }
+
+    @Async
+    @EventListener
+    @Transactional
+    public void onCacheRegionVersionChanged(CacheRegionVersionChangedEvent event) {
+        if (ready && CacheRegionVersionChangedEvent.RECIPE.equals(event.group())) {
+            build();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Map<Long, RecipeText> textsById) {
+        lock.writeLock().lock();
+        try {
+            reset(textsById.size());
+            textsById.forEach((id, text) -> addDocument(id, termFrequencies(text)));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every id in {@code changedIds} and re-adds the ones present in {@code currentTexts}.
+     */
+    public void apply(Collection<Long> changedIds, Map<Long, RecipeText> currentTexts) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : changedIds) {
+                Integer ordinal = ordinalById.remove(id);
+                if (ordinal != null && !deleted.get(ordinal)) {
+                    deleted.set(ordinal);
+                    deletedCount++;
+                    liveLength -= lengths[ordinal];
+                }
+                RecipeText text = currentTexts.get(id);
+                if (text != null) {
+                    addDocument(id, termFrequencies(text));
+                }
+            }
+            if (deletedCount >= COMPACTION_MIN_DELETED && deletedCount > docCount / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks recipes containing any query term by BM25 and returns {@code limit} hits from {@code offset}.
+     */
+    public Result search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.terms(query));
+        lock.readLock().lock();
+        try {
+            int liveDocs = docCount - deletedCount;
+            if (terms.isEmpty() || liveDocs == 0) {
+                return new Result(List.of(), 0, terms);
+            }
+            float averageLength = (float) liveLength / liveDocs;
+            float[] scores = new float[docCount];
+            int[] touched = new int[docCount];
+            int touchedCount = 0;
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    int tf = list.freqs[i];
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    if (scores[doc] == 0) {
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += Math.max(idf, 0.01f) * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // Positive float bits order like the floats, so (score, -ordinal) packs into one sortable long
+            long[] keys = new long[touchedCount];
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                keys[i] = ((long) Float.floatToIntBits(scores[doc]) << 32) | (Integer.MAX_VALUE - doc);
+            }
+            Arrays.sort(keys);
+
+            List<Hit> hits = new ArrayList<>(Math.max(0, Math.min(limit, touchedCount - offset)));
+            for (int i = touchedCount - 1 - offset; i >= 0 && hits.size() < limit; i--) {
+                int doc = Integer.MAX_VALUE - (int) keys[i];
+                hits.add(new Hit(ids[doc], scores[doc]));
+            }
+            return new Result(hits, touchedCount, terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<Long, RecipeText> load(List<RecipeTextProjection> descriptions, List<RecipeTextProjection> steps) {
+        Map<Long, String> descriptionById = new HashMap<>();
+        descriptions.forEach(row -> descriptionById.put(row.getRecipeId(), row.getText()));
+        Map<Long, List<String>> stepsById = new HashMap<>();
+        steps.forEach(row -> stepsById.computeIfAbsent(row.getRecipeId(), key -> new ArrayList<>()).add(row.getText()));
+
+        Map<Long, RecipeText> texts = new LinkedHashMap<>();
+        descriptionById.keySet().stream().sorted().forEach(id ->
+                texts.put(id, new RecipeText(descriptionById.get(id), stepsById.getOrDefault(id, List.of()))));
+        return texts;
+    }
+
+    private static Map<String, Integer> termFrequencies(RecipeText text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        SearchTokenizer.terms(text.description()).forEach(term -> frequencies.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        for (String step : text.steps()) {
+            SearchTokenizer.terms(step).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        }
+        return frequencies;
+    }
+
+    private void addDocument(Long id, Map<String, Integer> termFrequencies) {
+        int doc = docCount++;
+        if (doc == ids.length) {
+            ids = Arrays.copyOf(ids, doc * 2);
+            lengths = Arrays.copyOf(lengths, doc * 2);
+            frequencies = Arrays.copyOf(frequencies, doc * 2);
+        }
+        int length = 0;
+        for (int tf : termFrequencies.values()) {
+            length += tf;
+        }
+        ids[doc] = id;
+        lengths[doc] = length;
+        frequencies[doc] = termFrequencies;
+        liveLength += length;
+        ordinalById.put(id, doc);
+        termFrequencies.forEach((term, tf) -> postings.computeIfAbsent(term, key -> new Postings()).add(doc, tf));
+    }
+
+    private void compact() {
+        Map<Long, Map<String, Integer>> live = new LinkedHashMap<>();
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                live.put(ids[doc], frequencies[doc]);
+            }
+        }
+        reset(live.size());
+        live.forEach(this::addDocument);
+    }
+
+    private void reset(int expectedSize) {
+        postings.clear();
+        ordinalById.clear();
+        deleted.clear();
+        deletedCount = 0;
+        docCount = 0;
+        liveLength = 0;
+        ids = new long[Math.max(64, expectedSize)];
+        lengths = new int[ids.length];
+        frequencies = newFrequencies(ids.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer>[] newFrequencies(int size) {
+        return new Map[size];
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size++] = freq;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.chef.william.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits free text into index terms: lower-cased runs of letters and digits, English stop words
+ * dropped, and plurals folded with a light "S" stemmer so that "onions" finds "onion".
+ */
+public final class SearchTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "if", "in", "into",
+            "is", "it", "its", "of", "on", "or", "so", "that", "the", "then", "there", "these", "this",
+            "to", "until", "was", "while", "will", "with", "you", "your");
+
+    public record Token(String term, int start, int end) {
+    }
+
+    private SearchTokenizer() {
+    }
+
+    public static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(word)) {
+                    tokens.add(new Token(stem(word), start, i));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    public static List<String> terms(String text) {
+        return tokenize(text).stream().map(Token::term).toList();
+    }
+
+    // Harman's S-stemmer, plus "oes" -> "o" for the tomatoes/potatoes family
+    static String stem(String word) {
+        int length = word.length();
+        if (length > 3 && word.endsWith("ies") && !word.endsWith("eies") && !word.endsWith("aies")) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (length > 3 && word.endsWith("oes")) {
+            return word.substring(0, length - 2);
+        }
+        if (length > 3 && word.endsWith("es") && !word.endsWith("aes") && !word.endsWith("ees")) {
+            return word.substring(0, length - 1);
+        }
+        if (length > 2 && word.endsWith("s") && !word.endsWith("us") && !word.endsWith("ss")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,77 @@
+package com.chef.william.service.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds a short, HTML-escaped excerpt around the query terms with each hit wrapped in {@code <mark>}.
+ */
+public final class SnippetHighlighter {
+
+    static final int MAX_LENGTH = 160;
+    private static final int LEAD = 40;
+
+    private SnippetHighlighter() {
+    }
+
+    /**
+     * Picks the segment (description or instruction step) containing the most distinct query terms
+     * and returns a window of it starting just before the first hit; null when nothing matches.
+     */
+    public static String snippet(Set<String> terms, List<String> segments) {
+        String best = null;
+        List<SearchTokenizer.Token> bestTokens = null;
+        int bestMatched = 0;
+        for (String segment : segments) {
+            List<SearchTokenizer.Token> tokens = SearchTokenizer.tokenize(segment);
+            Set<String> matched = new HashSet<>();
+            tokens.stream().map(SearchTokenizer.Token::term).filter(terms::contains).forEach(matched::add);
+            if (matched.size() > bestMatched) {
+                best = segment;
+                bestTokens = tokens;
+                bestMatched = matched.size();
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        SearchTokenizer.Token first = bestTokens.stream().filter(token -> terms.contains(token.term())).findFirst().orElseThrow();
+        int start = Math.max(0, first.start() - LEAD);
+        if (start > 0) {
+            int space = best.indexOf(' ', start);
+            start = space >= 0 && space < first.start() ? space + 1 : first.start();
+        }
+        int end = Math.min(best.length(), start + MAX_LENGTH);
+        if (end < best.length()) {
+            int space = best.lastIndexOf(' ', end);
+            if (space > first.end()) {
+                end = space;
+            }
+        }
+
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append('…');
+        }
+        int cursor = start;
+        for (SearchTokenizer.Token token : bestTokens) {
+            if (token.start() < start || token.end() > end || !terms.contains(token.term())) {
+                continue;
+            }
+            snippet.append(HtmlUtils.htmlEscape(best.substring(cursor, token.start())))
+                    .append("<mark>")
+                    .append(HtmlUtils.htmlEscape(best.substring(token.start(), token.end())))
+                    .append("</mark>");
+            cursor = token.end();
+        }
+        snippet.append(HtmlUtils.htmlEscape(best.substring(cursor, end)));
+        if (end < best.length()) {
+            snippet.append('…');
+        }
+        return snippet.toString();
+    }
+}
@@ -0,0 +1,129 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update. Databases that already have it
+-- are baselined at this version (spring.flyway.baseline-on-migrate) and start from V2, so this file
+-- must stay exactly that schema; later changes go into new versions.
+
+CREATE TABLE users (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    cognito_sub       VARCHAR(255) NOT NULL UNIQUE,
+    email             VARCHAR(255) NOT NULL UNIQUE,
+    email_verified    BOOLEAN      NOT NULL,
+    user_name         VARCHAR(255),
+    profile_image_url VARCHAR(255),
+    role              VARCHAR(20)  NOT NULL CHECK (role IN ('ADMIN', 'USER')),
+    account_status    VARCHAR(40)  NOT NULL CHECK (account_status IN
+                                                   ('PENDING_EMAIL_VERIFICATION', 'ACTIVE', 'SUSPENDED', 'DISABLED')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_allergies (
+    user_id BIGINT       NOT NULL,
+    allergy VARCHAR(120) NOT NULL
+);
+
+CREATE TABLE food (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name       VARCHAR(180) NOT NULL UNIQUE,
+    category   VARCHAR(100),
+    image_url  VARCHAR(1000),
+    user_id    BIGINT,
+    created_by VARCHAR(120) NOT NULL,
+    updated_by VARCHAR(120),
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE ingredients (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name           VARCHAR(255)     NOT NULL UNIQUE,
+    category       VARCHAR(255),
+    description    VARCHAR(255),
+    image_url      VARCHAR(1000),
+    user_id        BIGINT,
+    created_by     VARCHAR(120)     NOT NULL,
+    updated_by     VARCHAR(120),
+    updated_at     TIMESTAMP(6),
+    serving_amount DOUBLE PRECISION NOT NULL,
+    serving_unit   VARCHAR(20)      NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE nutrition (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    ingredient_id BIGINT           NOT NULL,
+    nutrient      VARCHAR(255)     NOT NULL CHECK (nutrient IN
+        ('CALORIES', 'PROTEIN', 'CARBOHYDRATES', 'FAT', 'DIETARY_FIBER', 'SUGARS', 'ADDED_SUGARS', 'CHOLESTEROL',
+         'SATURATED_FAT', 'MONOUNSATURATED_FAT', 'POLYUNSATURATED_FAT', 'TRANS_FAT', 'OMEGA_3', 'OMEGA_6',
+         'VITAMIN_A', 'VITAMIN_B1', 'VITAMIN_B2', 'VITAMIN_B3', 'VITAMIN_B5', 'VITAMIN_B6', 'VITAMIN_B7',
+         'VITAMIN_B9', 'VITAMIN_B12', 'VITAMIN_C', 'VITAMIN_D', 'VITAMIN_E', 'VITAMIN_K', 'CHOLINE', 'CALCIUM',
+         'CHROMIUM', 'COPPER', 'IODINE', 'IRON', 'MAGNESIUM', 'MANGANESE', 'MOLYBDENUM', 'PHOSPHORUS',
+         'POTASSIUM', 'SELENIUM', 'SODIUM', 'ZINC')),
+    value         DOUBLE PRECISION NOT NULL,
+    unit          VARCHAR(255)     NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (ingredient_id, nutrient)
+);
+
+CREATE TABLE recipe (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    version       VARCHAR(200) NOT NULL UNIQUE,
+    description   TEXT,
+    food_id       BIGINT,
+    user_id       BIGINT,
+    created_by    VARCHAR(120) NOT NULL,
+    updated_by    VARCHAR(120),
+    updated_at    TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE recipe_ingredients (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    recipe_id     BIGINT           NOT NULL,
+    ingredient_id BIGINT           NOT NULL,
+    quantity      DOUBLE PRECISION NOT NULL,
+    unit          VARCHAR(255)     NOT NULL CHECK (unit IN
+        ('G', 'KG', 'MG', 'MCG', 'ML', 'L', 'TSP', 'TBSP', 'CUP', 'OZ', 'LB', 'PIECE', 'PINCH', 'CLOVE', 'SLICE')),
+    note          VARCHAR(255),
+    PRIMARY KEY (id),
+    UNIQUE (recipe_id, ingredient_id)
+);
+
+CREATE TABLE instructions (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    recipe_id          BIGINT  NOT NULL,
+    step               INTEGER NOT NULL,
+    description        TEXT    NOT NULL,
+    tutorial_video_url VARCHAR(500),
+    PRIMARY KEY (id),
+    UNIQUE (recipe_id, step)
+);
+
+CREATE INDEX idx_recipe_step ON instructions (recipe_id, step);
+
+CREATE TABLE registration_idempotency (
+    id                         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    idempotency_key            VARCHAR(120)  NOT NULL,
+    request_hash               VARCHAR(64)   NOT NULL,
+    status                     VARCHAR(20)   NOT NULL CHECK (status IN ('IN_PROGRESS', 'COMPLETED', 'FAILED')),
+    response_status            VARCHAR(80),
+    response_user_id           BIGINT,
+    response_cognito_sub       VARCHAR(255),
+    response_email             VARCHAR(255),
+    response_user_name         VARCHAR(255),
+    response_profile_image_url VARCHAR(1000),
+    created_at                 TIMESTAMP(6)  NOT NULL,
+    updated_at                 TIMESTAMP(6)  NOT NULL,
+    expires_at                 TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_registration_idempotency_key UNIQUE (idempotency_key)
+);
+
+-- Foreign keys keep the names Hibernate generated, so baselined and fresh databases match
+ALTER TABLE food ADD CONSTRAINT FKonuv85jhrw21c6y3c9cg0ep6o FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE ingredients ADD CONSTRAINT FK3c7wmxbd9aqoh9hluau9wvwy1 FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE instructions ADD CONSTRAINT FKo4sfkc8l50mgye4a46719qki5 FOREIGN KEY (recipe_id) REFERENCES recipe;
+ALTER TABLE nutrition ADD CONSTRAINT FKomcb39yh96l1uufwf8egikilq FOREIGN KEY (ingredient_id) REFERENCES ingredients;
+ALTER TABLE recipe ADD CONSTRAINT FKdjlos63vbmjt9n9u1lk7e22sh FOREIGN KEY (food_id) REFERENCES food;
+ALTER TABLE recipe ADD CONSTRAINT FK5mx01yw4j003wisa2aqmwir6l FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE recipe_ingredients ADD CONSTRAINT FKgukrw6na9f61kb8djkkuvyxy8 FOREIGN KEY (ingredient_id) REFERENCES ingredients;
+ALTER TABLE recipe_ingredients ADD CONSTRAINT FKhnsmvxdlwxqq6x2wbgnoef5gr FOREIGN KEY (recipe_id) REFERENCES recipe;
+ALTER TABLE user_allergies ADD CONSTRAINT FK4mclrynvl1em11jh8sxt5s74k FOREIGN KEY (user_id) REFERENCES users;
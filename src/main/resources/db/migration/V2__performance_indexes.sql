@@ -0,0 +1,28 @@
+-- Indexes for the lookups the application actually issues. Spring Data derives *IgnoreCase finders
+-- as upper(name) = upper(?) and *ContainingIgnoreCase as upper(name) LIKE upper(?), so the case-folded
+-- indexes are on upper(name); the ingredient import's existing-name check uses lower(name).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- IngredientRepository.findByNameIgnoreCase / existsByNameIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_ingredients_name_upper ON ingredients (upper(name));
+-- IngredientRepository.findExistingNormalizedNames
+CREATE INDEX IF NOT EXISTS idx_ingredients_name_lower ON ingredients (lower(name));
+-- IngredientRepository.findByNameContainingIgnoreCase (substring search)
+CREATE INDEX IF NOT EXISTS idx_ingredients_name_trgm ON ingredients USING gin (upper(name) gin_trgm_ops);
+
+-- FoodRepository.findByNameIgnoreCase / existsByNameIgnoreCase / existsByNameIgnoreCaseAndIdNot
+CREATE INDEX IF NOT EXISTS idx_food_name_upper ON food (upper(name));
+
+-- RecipeRepository.countByFoodIds / findByFoodId / existsByFoodId, FoodDetailReader's recipe, ingredient
+-- and instruction queries (r.food_id = ?) and the food -> recipes foreign key
+CREATE INDEX IF NOT EXISTS idx_recipe_food_id ON recipe (food_id);
+-- Keyset pagination over recently updated recipes (RecipeRepository.findFirstKeysOrderByUpdatedAtDesc,
+-- findKeysAfterUpdatedAt and findKeysAfterNullUpdatedAt)
+CREATE INDEX IF NOT EXISTS idx_recipe_updated_at_id ON recipe (updated_at DESC NULLS LAST, id DESC);
+
+-- RecipeRepository.findIdsByIngredientIdIn; (recipe_id, ingredient_id) is already covered by the unique key
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_ingredient_id ON recipe_ingredients (ingredient_id);
+
+-- RegistrationIdempotencyRepository.deleteByExpiresAtBefore
+CREATE INDEX IF NOT EXISTS idx_registration_idempotency_expires_at ON registration_idempotency (expires_at);
@@ -0,0 +1,6 @@
+-- Optimistic locking version for the entities clients edit and poll (Food, Recipe and Ingredient
+-- @Version rowVersion). Existing rows and rows inserted outside Hibernate start at 0.
+
+ALTER TABLE food ADD COLUMN IF NOT EXISTS row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE ingredients ADD COLUMN IF NOT EXISTS row_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,25 @@
+-- The catalog entities take ids from pooled sequences (allocationSize 50, pooled-lo) instead of IDENTITY
+-- columns, so inserts can be batched. Each sequence starts past the highest existing id; is_called = false
+-- makes that value the next nextval. The IDENTITY property is dropped so nothing else hands out ids that
+-- the sequences will also hand out.
+
+CREATE SEQUENCE IF NOT EXISTS food_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS ingredients_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS instructions_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS nutrition_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS recipe_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS recipe_ingredients_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('food_seq', COALESCE(MAX(id), 0) + 1, false) FROM food;
+SELECT setval('ingredients_seq', COALESCE(MAX(id), 0) + 1, false) FROM ingredients;
+SELECT setval('instructions_seq', COALESCE(MAX(id), 0) + 1, false) FROM instructions;
+SELECT setval('nutrition_seq', COALESCE(MAX(id), 0) + 1, false) FROM nutrition;
+SELECT setval('recipe_seq', COALESCE(MAX(id), 0) + 1, false) FROM recipe;
+SELECT setval('recipe_ingredients_seq', COALESCE(MAX(id), 0) + 1, false) FROM recipe_ingredients;
+
+ALTER TABLE food ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE ingredients ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE instructions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE nutrition ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE recipe ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE recipe_ingredients ALTER COLUMN id DROP IDENTITY IF EXISTS;
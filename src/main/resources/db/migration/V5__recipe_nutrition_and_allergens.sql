@@ -0,0 +1,21 @@
+-- Server-side nutrition (Ingredient.density, Recipe.servings, the materialized recipe_nutrition_summary)
+-- and allergen filtering (allergen_mask on ingredients and recipes). Existing rows start without masks or
+-- summaries; AllergenService and RecipeNutritionSummaryService derive them at startup.
+
+ALTER TABLE ingredients ADD COLUMN IF NOT EXISTS density DOUBLE PRECISION;
+ALTER TABLE ingredients ADD COLUMN IF NOT EXISTS allergen_mask BIGINT;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS servings INTEGER;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS allergen_mask BIGINT;
+
+CREATE TABLE IF NOT EXISTS recipe_nutrition_summary (
+    recipe_id              BIGINT       NOT NULL,
+    calories               DOUBLE PRECISION,
+    protein                DOUBLE PRECISION,
+    carbohydrates          DOUBLE PRECISION,
+    fat                    DOUBLE PRECISION,
+    dietary_fiber          DOUBLE PRECISION,
+    sugars                 DOUBLE PRECISION,
+    unresolved_ingredients INTEGER      NOT NULL,
+    computed_at            TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (recipe_id)
+);
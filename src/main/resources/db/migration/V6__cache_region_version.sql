@@ -0,0 +1,8 @@
+-- Version stamps that keep the second-level cache of several instances consistent
+-- (SecondLevelCacheInvalidator). Rows are created by the application at startup.
+
+CREATE TABLE IF NOT EXISTS cache_region_version (
+    region  VARCHAR(60) NOT NULL,
+    version BIGINT      NOT NULL,
+    PRIMARY KEY (region)
+);
@@ -0,0 +1,115 @@
+package com.chef.william;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.Entity;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.tool.schema.spi.SchemaManagementException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Flyway migrations on a real Postgres, both from an empty database and from one that
+ * {@code ddl-auto=update} created before Flyway took over, and checks the result against the entities
+ * the way {@code ddl-auto=validate} does at startup.
+ */
+class SchemaMigrationTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void migratesAnEmptyDatabaseToTheEntitySchema() {
+        DataSource dataSource = newDatabase();
+
+        migrate(dataSource);
+
+        assertDoesNotThrow(() -> validateEntities(dataSource));
+    }
+
+    @Test
+    void migratesADatabaseBaselinedFromTheFormerDdlAutoUpdateSchema() {
+        DataSource dataSource = newDatabase();
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO ingredients (name, created_by, serving_amount, serving_unit) VALUES ('Flour', 'chef', 100, 'g')");
+        jdbc.update("INSERT INTO ingredients (id, name, created_by, serving_amount, serving_unit) "
+                + "VALUES (120, 'Sugar', 'chef', 100, 'g')");
+        jdbc.update("INSERT INTO food (name, created_by) VALUES ('Cake', 'chef')");
+
+        MigrateResult result = migrate(dataSource);
+
+        assertEquals("1", jdbc.queryForObject(
+                "SELECT version FROM flyway_schema_history WHERE type = 'BASELINE'", String.class));
+        assertTrue(result.migrationsExecuted > 0);
+        assertEquals(121L, jdbc.queryForObject("SELECT nextval('ingredients_seq')", Long.class));
+        assertEquals(2L, jdbc.queryForObject("SELECT nextval('food_seq')", Long.class));
+        assertEquals(1L, jdbc.queryForObject("SELECT nextval('recipe_seq')", Long.class));
+        assertEquals("NO", jdbc.queryForObject("SELECT is_identity FROM information_schema.columns "
+                + "WHERE table_name = 'ingredients' AND column_name = 'id'", String.class));
+        assertEquals(0L, jdbc.queryForObject("SELECT row_version FROM ingredients WHERE id = 120", Long.class));
+        assertDoesNotThrow(() -> validateEntities(dataSource));
+    }
+
+    private static DataSource newDatabase() {
+        String name = "db_" + UUID.randomUUID().toString().replace("-", "");
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + name);
+        return postgres.getDatabase("postgres", name);
+    }
+
+    // Same settings as spring.flyway.* in application.properties
+    private static MigrateResult migrate(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private static void validateEntities(DataSource dataSource) throws ClassNotFoundException, SchemaManagementException {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.connection.datasource", dataSource)
+                .applySetting("hibernate.hbm2ddl.auto", "validate")
+                .applySetting("hibernate.cache.use_second_level_cache", "false")
+                .applySetting("hibernate.physical_naming_strategy",
+                        "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy")
+                .applySetting("hibernate.implicit_naming_strategy",
+                        "org.springframework.boot.hibernate.SpringImplicitNamingStrategy")
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entity : scanner.findCandidateComponents("com.chef.william.model")) {
+            sources.addAnnotatedClass(Class.forName(entity.getBeanClassName()));
+        }
+        sources.buildMetadata().buildSessionFactory().close();
+    }
+}
@@ -0,0 +1,106 @@
+package com.chef.william.benchmark;
+
+import com.chef.william.service.auth.AuthHashing;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Time and heap per call of the registration request hash and the Cognito secret hash, set up per
+ * call as AuthService used to do versus through the pooled {@link AuthHashing} instances. Also runs
+ * each on virtual threads, one task per call, as a sign-up burst would. Not part of the regular test
+ * run; use {@code mvn test -Pbenchmark}.
+ */
+class AuthHashingBenchmark {
+
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 500_000;
+    private static final int VIRTUAL_THREAD_CALLS = 200_000;
+    private static final String CLIENT_ID = "2v36scmicr5rqoqio57g4hnqcv";
+    private static final String CLIENT_SECRET = "1example23456789secretvalue0abcdefghijklmnopqrstuv";
+
+    @Test
+    void requestAndSecretHashes() throws Exception {
+        report("request hash, per call", i -> requestHashPerCall(raw(i)));
+        report("request hash, pooled", i -> AuthHashing.sha256Hex(raw(i)));
+        report("secret hash, per call", i -> secretHashPerCall(email(i), CLIENT_ID, CLIENT_SECRET));
+        report("secret hash, pooled", i -> AuthHashing.hmacSha256Base64(CLIENT_SECRET, email(i), CLIENT_ID));
+
+        reportVirtualThreads("secret hash, per call", i -> secretHashPerCall(email(i), CLIENT_ID, CLIENT_SECRET));
+        reportVirtualThreads("secret hash, pooled", i -> AuthHashing.hmacSha256Base64(CLIENT_SECRET, email(i), CLIENT_ID));
+    }
+
+    private static void report(String label, IntFunction<String> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.apply(i);
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.apply(i);
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-24s %6.0f bytes allocated, %6.0f ns per call (mean of %d calls)%n",
+                label, (double) bytes / MEASURED_CALLS, (double) nanos / MEASURED_CALLS, MEASURED_CALLS);
+    }
+
+    private static void reportVirtualThreads(String label, IntFunction<String> call) throws InterruptedException {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < VIRTUAL_THREAD_CALLS; i++) {
+                int n = i;
+                executor.execute(() -> call.apply(n));
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-24s %6.2f ms for %d calls on virtual threads%n", label, nanos / 1e6, VIRTUAL_THREAD_CALLS);
+    }
+
+    private static String email(int i) {
+        return "chef" + i + "@example.com";
+    }
+
+    private static String raw(int i) {
+        return email(i) + "|chef" + i + "|Str0ngPassw0rd!|";
+    }
+
+    // What AuthService did before the pooled helper
+    private static String requestHashPerCall(String raw) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(raw.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String secretHashPerCall(String username, String clientId, String clientSecret) {
+        try {
+            Mac hmacSha256 = Mac.getInstance("HmacSHA256");
+            hmacSha256.init(new SecretKeySpec(clientSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            hmacSha256.update(username.getBytes(StandardCharsets.UTF_8));
+            byte[] raw = hmacSha256.doFinal(clientId.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(raw);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.chef.william.benchmark;
+
+import com.chef.william.CookingAppApplication;
+import com.chef.william.model.Ingredient;
+import com.chef.william.model.Nutrition;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.repository.IngredientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statements and latency of persisting a 1,000-ingredient bulk payload (four nutrition rows each)
+ * through {@code saveAll}. Not part of the regular test run; use {@code mvn test -Pbenchmark}.
+ * Runs on in-memory H2 by default, where statement counts are meaningful but latency has no network
+ * round trips; set {@code BENCHMARK_DATASOURCE_URL} (plus user/password/driver/dialect) to measure
+ * against Postgres.
+ */
+@SpringBootTest(classes = CookingAppApplication.class, properties = {
+        "spring.datasource.url=${BENCHMARK_DATASOURCE_URL:jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=VALUE}",
+        "spring.datasource.driver-class-name=${BENCHMARK_DATASOURCE_DRIVER:org.h2.Driver}",
+        "spring.datasource.username=${BENCHMARK_DATASOURCE_USERNAME:sa}",
+        "spring.datasource.password=${BENCHMARK_DATASOURCE_PASSWORD:}",
+        "spring.jpa.database-platform=${BENCHMARK_DATABASE_PLATFORM:org.hibernate.dialect.H2Dialect}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "security.cognito.region=ap-southeast-1",
+        "security.cognito.user-pool-id=ap-southeast-1_benchmark",
+        "security.cognito.app-client-id=benchmark"
+})
+class IngredientBulkInsertBenchmark {
+
+    private static final int PAYLOAD_SIZE = 1_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final Nutrients[] NUTRIENTS = {Nutrients.CALORIES, Nutrients.PROTEIN, Nutrients.FAT, Nutrients.CARBOHYDRATES};
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bulkInsertThousandIngredients() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            insertPayload("warmup-" + round);
+        }
+
+        long statements = 0;
+        long inserts = 0;
+        long nanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            statistics.clear();
+            long start = System.nanoTime();
+            insertPayload("round-" + round);
+            nanos += System.nanoTime() - start;
+            statements += statistics.getPrepareStatementCount();
+            inserts += statistics.getEntityInsertCount();
+        }
+
+        System.out.printf("Bulk insert of %d ingredients: %d rows, %d JDBC statements, %.1f ms (mean of %d rounds)%n",
+                PAYLOAD_SIZE, inserts / MEASURED_ROUNDS, statements / MEASURED_ROUNDS,
+                nanos / 1e6 / MEASURED_ROUNDS, MEASURED_ROUNDS);
+    }
+
+    private void insertPayload(String prefix) {
+        List<Ingredient> ingredients = new ArrayList<>(PAYLOAD_SIZE);
+        for (int i = 0; i < PAYLOAD_SIZE; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(prefix + "-ingredient-" + i);
+            ingredient.setCategory("benchmark");
+            ingredient.setCreatedBy("benchmark");
+            ingredient.setUpdatedAt(LocalDateTime.now());
+            for (Nutrients nutrient : NUTRIENTS) {
+                Nutrition nutrition = new Nutrition();
+                nutrition.setIngredient(ingredient);
+                nutrition.setNutrient(nutrient);
+                nutrition.setValue(i % 100 + 0.5);
+                nutrition.setUnit(nutrient == Nutrients.CALORIES ? "kcal" : "g");
+                ingredient.getNutritionList().add(nutrition);
+            }
+            ingredients.add(ingredient);
+        }
+        transactionTemplate.executeWithoutResult(status -> ingredientRepository.saveAll(ingredients));
+    }
+}
@@ -0,0 +1,195 @@
+package com.chef.william.benchmark;
+
+import com.chef.william.CookingAppApplication;
+import com.chef.william.dto.FoodDTO;
+import com.chef.william.model.Food;
+import com.chef.william.model.Ingredient;
+import com.chef.william.model.Instruction;
+import com.chef.william.model.Nutrition;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.RecipeIngredient;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.model.enums.Unit;
+import com.chef.william.repository.FoodRecipeCountProjection;
+import com.chef.william.repository.FoodRepository;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.FoodService;
+import com.chef.william.service.IngredientService;
+import com.chef.william.service.RecipeService;
+import com.chef.william.service.mapper.IngredientMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Heap allocated per list-endpoint page (100 rows) when reading through managed entities versus
+ * through DTO projections. Not part of the regular test run; use {@code mvn test -Pbenchmark}.
+ * Allocation is measured on the calling thread, which is where the query results are materialized.
+ */
+@SpringBootTest(classes = CookingAppApplication.class, properties = {
+        "spring.datasource.url=${BENCHMARK_DATASOURCE_URL:jdbc:h2:mem:listbenchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=VALUE}",
+        "spring.datasource.driver-class-name=${BENCHMARK_DATASOURCE_DRIVER:org.h2.Driver}",
+        "spring.datasource.username=${BENCHMARK_DATASOURCE_USERNAME:sa}",
+        "spring.datasource.password=${BENCHMARK_DATASOURCE_PASSWORD:}",
+        "spring.jpa.database-platform=${BENCHMARK_DATABASE_PLATFORM:org.hibernate.dialect.H2Dialect}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false",
+        "security.cognito.region=ap-southeast-1",
+        "security.cognito.user-pool-id=ap-southeast-1_benchmark",
+        "security.cognito.app-client-id=benchmark"
+})
+class ListEndpointAllocationBenchmark {
+
+    private static final int INGREDIENTS = 1_000;
+    private static final int FOODS = 200;
+    private static final int RECIPES = 300;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final Pageable PAGE = PageRequest.of(0, 100);
+    private static final Nutrients[] NUTRIENTS = {Nutrients.CALORIES, Nutrients.PROTEIN, Nutrients.FAT, Nutrients.CARBOHYDRATES};
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private FoodRepository foodRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private FoodService foodService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientMapper ingredientMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void listPagesThroughEntitiesVersusProjections() {
+        seed();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        report("ingredients, entities", () -> readOnly.execute(status ->
+                ingredientRepository.findAll(PAGE).map(ingredientMapper::toDto)));
+        report("ingredients, projections", () -> ingredientService.getAllIngredients(PAGE));
+        report("foods, entities", () -> readOnly.execute(status -> foodsThroughEntities()));
+        report("foods, projections", () -> foodService.getAllFoods(PAGE));
+        report("recipes, full", () -> recipeService.getAllRecipes(PAGE, false, false, false));
+        report("recipes, summary", () -> recipeService.getAllRecipes(PAGE, false, false, true));
+    }
+
+    // What getAllFoods did before it read through a projection
+    private Page<FoodDTO> foodsThroughEntities() {
+        Page<Food> foods = foodRepository.findAll(PAGE);
+        Map<Long, Long> counts = recipeRepository.countByFoodIds(foods.map(Food::getId).getContent()).stream()
+                .collect(Collectors.toMap(FoodRecipeCountProjection::getFoodId, FoodRecipeCountProjection::getRecipeCount));
+        return foods.map(food -> new FoodDTO(food.getId(), food.getName(), food.getCategory(), food.getImageUrl(),
+                food.getCreatedBy(), food.getUpdatedBy(), food.getUpdatedAt(),
+                counts.getOrDefault(food.getId(), 0L).intValue(), List.of()));
+    }
+
+    private static void report(String label, Supplier<Page<?>> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            call.get();
+        }
+        long bytes = 0;
+        long nanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            call.get();
+            nanos += System.nanoTime() - start;
+            bytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        System.out.printf("%-26s %8.1f KiB allocated, %6.2f ms per page (mean of %d rounds)%n",
+                label, bytes / 1024.0 / MEASURED_ROUNDS, nanos / 1e6 / MEASURED_ROUNDS, MEASURED_ROUNDS);
+    }
+
+    private void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Ingredient> ingredients = new ArrayList<>(INGREDIENTS);
+            for (int i = 0; i < INGREDIENTS; i++) {
+                Ingredient ingredient = new Ingredient();
+                ingredient.setName("ingredient-" + i);
+                ingredient.setCategory("benchmark");
+                ingredient.setCreatedBy("benchmark");
+                ingredient.setAllergenMask(0L);
+                for (Nutrients nutrient : NUTRIENTS) {
+                    Nutrition nutrition = new Nutrition();
+                    nutrition.setIngredient(ingredient);
+                    nutrition.setNutrient(nutrient);
+                    nutrition.setValue(i % 100 + 0.5);
+                    nutrition.setUnit(nutrient == Nutrients.CALORIES ? "kcal" : "g");
+                    ingredient.getNutritionList().add(nutrition);
+                }
+                ingredients.add(ingredient);
+            }
+            ingredientRepository.saveAll(ingredients);
+
+            List<Food> foods = new ArrayList<>(FOODS);
+            for (int i = 0; i < FOODS; i++) {
+                Food food = new Food();
+                food.setName("food-" + i);
+                food.setCategory("benchmark");
+                food.setCreatedBy("benchmark");
+                foods.add(food);
+            }
+            foodRepository.saveAll(foods);
+
+            List<Recipe> recipes = new ArrayList<>(RECIPES);
+            for (int i = 0; i < RECIPES; i++) {
+                Recipe recipe = new Recipe();
+                recipe.setVersion("recipe-" + i);
+                recipe.setDescription("Benchmark recipe " + i);
+                recipe.setFood(foods.get(i % FOODS));
+                recipe.setCreatedBy("benchmark");
+                recipe.setServings(2);
+                recipe.setAllergenMask(0L);
+                for (int j = 0; j < 8; j++) {
+                    RecipeIngredient line = new RecipeIngredient();
+                    line.setRecipe(recipe);
+                    line.setIngredient(ingredients.get((i * 8 + j) % INGREDIENTS));
+                    line.setQuantity(10 + j);
+                    line.setUnit(Unit.G);
+                    recipe.getRecipeIngredients().add(line);
+                }
+                for (int step = 1; step <= 5; step++) {
+                    Instruction instruction = new Instruction();
+                    instruction.setRecipe(recipe);
+                    instruction.setStep(step);
+                    instruction.setDescription("Step " + step + " of recipe " + i);
+                    recipe.getInstructions().add(instruction);
+                }
+                recipes.add(recipe);
+            }
+            recipeRepository.saveAll(recipes);
+        });
+    }
+}
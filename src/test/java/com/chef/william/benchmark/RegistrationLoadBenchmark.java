@@ -0,0 +1,176 @@
+package com.chef.william.benchmark;
+
+import com.chef.william.CookingAppApplication;
+import com.chef.william.dto.auth.RegisterUserRequest;
+import com.chef.william.dto.auth.VerifyEmailRequest;
+import com.chef.william.service.auth.AuthService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Registration and email verification under a sign-up spike, against a local Cognito stand-in (a
+ * stub HTTP server that answers SignUp and ConfirmSignUp after {@link #COGNITO_LATENCY_MS}).
+ * Reports throughput and the peak of active and waiting Hikari connections: with the Cognito call
+ * outside the transactions, far more sign-ups are in flight than the pool has connections. Not
+ * part of the regular test run; use {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(classes = CookingAppApplication.class, properties = {
+        "spring.datasource.url=${BENCHMARK_DATASOURCE_URL:jdbc:h2:mem:registrationbenchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=VALUE}",
+        "spring.datasource.driver-class-name=${BENCHMARK_DATASOURCE_DRIVER:org.h2.Driver}",
+        "spring.datasource.username=${BENCHMARK_DATASOURCE_USERNAME:sa}",
+        "spring.datasource.password=${BENCHMARK_DATASOURCE_PASSWORD:}",
+        "spring.jpa.database-platform=${BENCHMARK_DATABASE_PLATFORM:org.hibernate.dialect.H2Dialect}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "security.cognito.region=ap-southeast-1",
+        "security.cognito.user-pool-id=ap-southeast-1_benchmark",
+        "security.cognito.app-client-id=benchmark",
+        "app.cognito.max-concurrent-calls=200"
+})
+class RegistrationLoadBenchmark {
+
+    private static final int SIGN_UPS = 2_000;
+    private static final int CONCURRENT_CLIENTS = 200;
+    private static final int COGNITO_LATENCY_MS = 100;
+
+    private static final HttpServer COGNITO = startCognitoStandIn();
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void cognitoEndpoint(DynamicPropertyRegistry registry) {
+        String endpoint = "http://localhost:" + COGNITO.getAddress().getPort();
+        registry.add("security.cognito.endpoint", () -> endpoint);
+        registry.add("security.cognito.jwk-set-uri", () -> endpoint + "/jwks.json");
+    }
+
+    @AfterAll
+    static void stopCognitoStandIn() {
+        COGNITO.stop(0);
+    }
+
+    @Test
+    void signUpSpike() throws Exception {
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        run("warmup", pool, 200, i -> register("warmup-" + i));
+        run("register", pool, SIGN_UPS, i -> register("chef-" + i));
+        run("verify-email", pool, SIGN_UPS, i -> {
+            VerifyEmailRequest request = new VerifyEmailRequest();
+            request.setEmail("chef-" + i + "@example.com");
+            request.setCode("123456");
+            authService.verifyEmail(request);
+        });
+    }
+
+    private void register(String name) {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail(name + "@example.com");
+        request.setUserName(name);
+        request.setPassword("MyPassword123!");
+        authService.register(request, "idem-" + name);
+    }
+
+    private static void run(String label, HikariPoolMXBean pool, int calls, IntConsumer call) throws Exception {
+        AtomicInteger peakActive = new AtomicInteger();
+        AtomicInteger peakPending = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                peakActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                peakPending.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                sleep(1);
+            }
+        });
+
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENT_CLIENTS; c++) {
+                clients.execute(() -> {
+                    for (int i = next.getAndIncrement(); i < calls; i = next.getAndIncrement()) {
+                        try {
+                            call.accept(i);
+                        } catch (RuntimeException ex) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        running.set(false);
+        sampler.join();
+
+        System.out.printf("%-13s %5d calls, %4d failed, %7.0f calls/s, peak %d active / %d waiting of %d connections "
+                        + "(%d clients, Cognito %d ms)%n",
+                label, calls, failures.get(), calls / (nanos / 1e9), peakActive.get(), peakPending.get(),
+                pool.getTotalConnections(), CONCURRENT_CLIENTS, COGNITO_LATENCY_MS);
+    }
+
+    private static HttpServer startCognitoStandIn() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/jwks.json", exchange -> respond(exchange, "application/json", "{\"keys\":[]}"));
+            server.createContext("/", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                String target = String.valueOf(exchange.getRequestHeaders().getFirst("X-Amz-Target"));
+                sleep(COGNITO_LATENCY_MS);
+                String body = target.endsWith(".SignUp")
+                        ? "{\"UserSub\":\"" + UUID.randomUUID() + "\",\"UserConfirmed\":false}"
+                        : "{}";
+                respond(exchange, "application/x-amz-json-1.1", body);
+            });
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to start the Cognito stand-in", ex);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.chef.william.config.cache;
+
+import com.chef.william.model.CacheRegionVersion;
+import com.chef.william.repository.CacheRegionVersionRepository;
+import com.chef.william.service.food.FoodChangedEvent;
+import com.chef.william.service.ingredient.IngredientChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheInvalidatorTest {
+
+    @Mock
+    private CacheRegionVersionRepository versionRepository;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SecondLevelCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        invalidator = new SecondLevelCacheInvalidator(versionRepository, entityManagerFactory, transactionManager,
+                eventPublisher);
+        when(versionRepository.existsById(any())).thenReturn(true);
+        when(versionRepository.findAll()).thenReturn(List.of(version("ingredient", 3), version("food", 1), version("recipe", 7)));
+        invalidator.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void pollEvictsOnlyGroupsWhoseVersionMoved() {
+        when(versionRepository.findAll()).thenReturn(List.of(version("ingredient", 4), version("food", 1), version("recipe", 7)));
+
+        invalidator.evictChangedRegions();
+
+        verify(cache).evictRegion("ingredient");
+        verify(cache).evictRegion("ingredient.nutritionList");
+        verify(cache).evictRegion("nutrition");
+        verify(cache).evictQueryRegion("ingredient-queries");
+        verify(cache, never()).evictRegion("food");
+        verify(cache, never()).evictQueryRegion("food-queries");
+        verify(eventPublisher).publishEvent(new CacheRegionVersionChangedEvent("ingredient"));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void localWriteBumpsTheVersionAndIsNotEvictedAgainByThePoll() {
+        when(versionRepository.increment("food")).thenReturn(1);
+        when(versionRepository.findVersion("food")).thenReturn(2L);
+
+        invalidator.onFoodChanged(new FoodChangedEvent(Set.of(5L)));
+
+        verify(cache).evictQueryRegion("food-queries");
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        when(versionRepository.findAll()).thenReturn(List.of(version("ingredient", 3), version("food", 2)));
+        invalidator.evictChangedRegions();
+        verify(cache, never()).evictRegion("food");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void localWriteStillEvictsWhenAnotherInstanceWroteInBetween() {
+        when(versionRepository.increment("ingredient")).thenReturn(1);
+        when(versionRepository.findVersion("ingredient")).thenReturn(5L);
+
+        invalidator.onIngredientChanged(new IngredientChangedEvent(
+                IngredientChangedEvent.ChangeType.CREATED, Set.of(1L), Set.of("mint")));
+
+        when(versionRepository.findAll()).thenReturn(List.of(version("ingredient", 5), version("food", 1)));
+        invalidator.evictChangedRegions();
+        verify(cache).evictRegion("ingredient");
+        verify(eventPublisher).publishEvent(new CacheRegionVersionChangedEvent("ingredient"));
+    }
+
+    @Test
+    void recipeWritesOnlyMoveTheStampThatDrivesTheRecipeIndexes() {
+        when(versionRepository.findAll()).thenReturn(List.of(version("ingredient", 3), version("food", 1), version("recipe", 8)));
+
+        invalidator.evictChangedRegions();
+
+        verify(cache, never()).evictRegion(any());
+        verify(eventPublisher).publishEvent(new CacheRegionVersionChangedEvent("recipe"));
+    }
+
+    @Test
+    void failedBumpDoesNotFailTheCommittedWrite() {
+        when(versionRepository.increment("food")).thenThrow(new QueryTimeoutException("lock timeout"));
+
+        assertDoesNotThrow(() -> invalidator.onFoodChanged(new FoodChangedEvent(Set.of(5L))));
+
+        verify(cache).evictQueryRegion("food-queries");
+    }
+
+    private static CacheRegionVersion version(String region, long version) {
+        CacheRegionVersion stamp = new CacheRegionVersion(region);
+        stamp.setVersion(version);
+        return stamp;
+    }
+}
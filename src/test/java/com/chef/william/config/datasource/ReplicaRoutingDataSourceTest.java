@@ -0,0 +1,133 @@
+package com.chef.william.config.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT lag FROM replica_lag";
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (lag DOUBLE PRECISION)");
+        new JdbcTemplate(replica).update("INSERT INTO replica_lag VALUES (0)");
+        tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+        wire(List.of(replica));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndOthersThePrimary() {
+        assertEquals("replica", readOnly.execute(status -> server()));
+        assertEquals("primary", readWrite.execute(status -> server()));
+        assertEquals("primary", server());
+    }
+
+    @Test
+    void laggingReplicaIsSkippedUntilItCatchesUp() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET lag = 30");
+        router.checkHealth();
+        assertEquals(0, router.healthyReplicaCount());
+        assertEquals("primary", readOnly.execute(status -> server()));
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET lag = 0.5");
+        router.checkHealth();
+        assertEquals("replica", readOnly.execute(status -> server()));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        JdbcDataSource unreachable = new JdbcDataSource();
+        unreachable.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+        wire(List.of(unreachable, replica));
+
+        assertEquals(1, router.healthyReplicaCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("replica", readOnly.execute(status -> server()));
+        }
+
+        wire(List.of(unreachable));
+        assertEquals("primary", readOnly.execute(status -> server()));
+    }
+
+    @Test
+    void writerReadsItsOwnWritesFromThePrimary() {
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET server = server"));
+
+        assertEquals("primary", readOnly.execute(status -> server()));
+
+        authenticate("bob");
+        assertEquals("replica", readOnly.execute(status -> server()));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheUser() {
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE marker SET server = server");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readOnly.execute(status -> server()));
+    }
+
+    private void wire(List<DataSource> replicas) {
+        router = new ReplicaRoutingDataSource(primary, replicas, tracker, Duration.ofSeconds(5), LAG_QUERY);
+        router.checkHealth();
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primary, tracker));
+        dataSource.setReadOnlyDataSource(router);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String server() {
+        return jdbcTemplate.queryForObject("SELECT server FROM marker", String.class);
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(user, "n/a", "ROLE_USER"));
+    }
+
+    private static DataSource database(String server) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + server + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (server VARCHAR(20))");
+        jdbc.update("INSERT INTO marker VALUES (?)", server);
+        return dataSource;
+    }
+}
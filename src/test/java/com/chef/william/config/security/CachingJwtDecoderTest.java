@@ -0,0 +1,74 @@
+package com.chef.william.config.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new CachingJwtDecoder(delegate, meterRegistry, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCacheUntilExpiry() {
+        Jwt jwt = jwt(Instant.now().plusSeconds(300));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("token-a"));
+        assertSame(jwt, decoder.decode("token-a"));
+
+        verify(delegate, times(1)).decode("token-a");
+        assertEquals(1, meterRegistry.get("security.jwt.verify").tag("outcome", "accepted").timer().count());
+    }
+
+    @Test
+    void expiredAndRejectedTokensAreVerifiedEveryTime() {
+        when(delegate.decode("expired")).thenReturn(jwt(Instant.now().minusSeconds(5)));
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("bad signature"));
+
+        decoder.decode("expired");
+        decoder.decode("expired");
+        assertThrows(JwtException.class, () -> decoder.decode("forged"));
+        assertThrows(JwtException.class, () -> decoder.decode("forged"));
+
+        verify(delegate, times(2)).decode("expired");
+        verify(delegate, times(2)).decode("forged");
+        assertEquals(2, meterRegistry.get("security.jwt.verify").tag("outcome", "rejected").timer().count());
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("sub-123")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.chef.william.config.security;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CognitoMetricPublisherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CognitoMetricPublisher publisher = new CognitoMetricPublisher(meterRegistry);
+
+    @Test
+    void recordsDurationAndRetriesPerOperation() {
+        publisher.publish(apiCall("SignUp", Duration.ofMillis(120), true, 0));
+        publisher.publish(apiCall("SignUp", Duration.ofMillis(900), false, 2));
+        publisher.publish(apiCall("ConfirmSignUp", Duration.ofMillis(80), true, 1));
+
+        Timer signUpSuccess = meterRegistry.get("cognito.client.calls")
+                .tags("operation", "SignUp", "outcome", "success").timer();
+        Timer signUpFailure = meterRegistry.get("cognito.client.calls")
+                .tags("operation", "SignUp", "outcome", "failure").timer();
+        assertEquals(1, signUpSuccess.count());
+        assertEquals(120.0, signUpSuccess.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(900.0, signUpFailure.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(2.0, meterRegistry.get("cognito.client.retries").tags("operation", "SignUp").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("cognito.client.calls").tags("operation", "ConfirmSignUp").timer().count());
+    }
+
+    private static MetricCollection apiCall(String operation, Duration duration, boolean successful, int retries) {
+        MetricCollector collector = MetricCollector.create("ApiCall");
+        collector.reportMetric(CoreMetric.OPERATION_NAME, operation);
+        collector.reportMetric(CoreMetric.API_CALL_DURATION, duration);
+        collector.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, successful);
+        collector.reportMetric(CoreMetric.RETRY_COUNT, retries);
+        return collector.collect();
+    }
+}
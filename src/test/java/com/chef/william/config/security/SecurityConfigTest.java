@@ -1,23 +1,91 @@
 package com.chef.william.config.security;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class SecurityConfigTest {
 
+    private final SecurityConfig securityConfig = new SecurityConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Test
     void jwtDecoderShouldBeCreatedFromCognitoProperties() {
-        SecurityConfig securityConfig = new SecurityConfig();
+        CognitoProperties properties = properties();
+
+        JwtDecoder decoder = decoder(properties);
+
+        assertNotNull(decoder);
+    }
+
+    @Test
+    void jwtDecoderShouldVerifyTokensAgainstLocalJwksFile(@TempDir Path dir) throws Exception {
+        RSAKey signingKey = new RSAKeyGenerator(2048).keyID("test-key").generate();
+        Path jwks = dir.resolve("jwks.json");
+        Files.writeString(jwks, new JWKSet(signingKey.toPublicJWK()).toString());
+
+        CognitoProperties properties = properties();
+        properties.setJwkSetUri(jwks.toUri().toString());
+        JwtDecoder decoder = decoder(properties);
 
+        String token = sign(signingKey, properties.issuerUri(), "access");
+        Jwt jwt = decoder.decode(token);
+        assertEquals("sub-123", jwt.getSubject());
+        decoder.decode(token);
+        assertEquals(1, meterRegistry.get("security.jwt.verify").tag("outcome", "accepted").timer().count());
+
+        assertThrows(JwtException.class, () -> decoder.decode(sign(signingKey, properties.issuerUri(), "id")));
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("test-key").generate();
+        assertThrows(JwtException.class, () -> decoder.decode(sign(otherKey, properties.issuerUri(), "access")));
+    }
+
+    private JwtDecoder decoder(CognitoProperties properties) {
+        return securityConfig.jwtDecoder(properties, securityConfig.jwkSource(properties), meterRegistry,
+                100, Duration.ofMinutes(5));
+    }
+
+    private static CognitoProperties properties() {
         CognitoProperties properties = new CognitoProperties();
         properties.setRegion("ap-southeast-1");
         properties.setUserPoolId("ap-southeast-1_ABC123");
         properties.setAppClientId("2v36scmicr5rqoqio57g4hnqcv");
+        return properties;
+    }
 
-        JwtDecoder decoder = securityConfig.jwtDecoder(properties);
-
-        assertNotNull(decoder);
+    private static String sign(RSAKey key, String issuer, String tokenUse) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("sub-123")
+                .issuer(issuer)
+                .claim("token_use", tokenUse)
+                .claim("client_id", "2v36scmicr5rqoqio57g4hnqcv")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(300)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
     }
 }
@@ -1,12 +1,14 @@
 package com.chef.william.controller;
 
 import com.chef.william.dto.FoodDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.service.FoodService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -14,8 +16,17 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,4 +62,58 @@ class FoodControllerTest {
                 .andExpect(jsonPath("$.recipeCount").value(0))
                 .andExpect(jsonPath("$.imageUrl").value("https://img.example/tom-yum.jpg"));
     }
+
+    @Test
+    void getFoodAnswersNotModifiedFromTheTagAlone() throws Exception {
+        when(foodService.getFoodTag(7L, false)).thenReturn("3.1.20.0.4");
+
+        mockMvc.perform(get("/api/foods/7").header(HttpHeaders.IF_NONE_MATCH, "\"3.1.20.0.4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.1.20.0.4\""));
+
+        verify(foodService, never()).getFoodById(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void getFoodReturnsTheBodyWithItsTagWhenTheTagMoved() throws Exception {
+        when(foodService.getFoodTag(7L, false)).thenReturn("4.1.20.0.4");
+        when(foodService.getFoodById(7L, false)).thenReturn(new FoodDTO(7L, "Tom Yum", "Soup", null,
+                null, null, null, 0, List.of()));
+
+        mockMvc.perform(get("/api/foods/7").header(HttpHeaders.IF_NONE_MATCH, "\"3.1.20.0.4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4.1.20.0.4\""))
+                .andExpect(jsonPath("$.name").value("Tom Yum"));
+    }
+
+    @Test
+    void updateFoodPassesIfMatchTagsAndReturnsTheNewTag() throws Exception {
+        FoodDTO updated = new FoodDTO(7L, "Tom Yum", "Soup", null, null, null, null, 0, List.of());
+        when(foodService.updateFood(eq(7L), any(FoodDTO.class), eq(List.of("3.1.20.0.4"))))
+                .thenReturn(new Tagged<>(updated, "4.1.20.0.4"));
+
+        mockMvc.perform(put("/api/foods/7")
+                        .header(HttpHeaders.IF_MATCH, "\"3.1.20.0.4\", W/\"2.1.20.0.4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "name": "Tom Yum",
+                                  "category": "Soup"
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4.1.20.0.4\""));
+    }
+
+    @Test
+    void updateFoodWithoutIfMatchIsUnconditional() throws Exception {
+        FoodDTO updated = new FoodDTO(7L, "Tom Yum", "Soup", null, null, null, null, 0, List.of());
+        when(foodService.updateFood(eq(7L), any(FoodDTO.class), isNull())).thenReturn(new Tagged<>(updated, "4.1.20.0.4"));
+
+        mockMvc.perform(put("/api/foods/7")
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Tom Yum\"}"))
+                .andExpect(status().isOk());
+    }
 }
@@ -1,8 +1,11 @@
 package com.chef.william.controller;
 
+import com.chef.william.dto.ImportRowErrorDTO;
 import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.IngredientImportResultDTO;
 import com.chef.william.model.enums.Unit;
 import com.chef.william.service.IngredientService;
+import com.chef.william.service.ingredient.IngredientImportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,7 +17,9 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -26,11 +31,14 @@ class IngredientControllerTest {
     @Mock
     private IngredientService ingredientService;
 
+    @Mock
+    private IngredientImportService ingredientImportService;
+
     private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new IngredientController(ingredientService)).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(new IngredientController(ingredientService, ingredientImportService)).build();
     }
 
     @Test
@@ -65,4 +73,19 @@ class IngredientControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$[0].name").value("Mascarpone Cheese"));
     }
+
+    @Test
+    void importEndpointShouldStreamCsvBodyToImportService() throws Exception {
+        when(ingredientImportService.importIngredients(any(), startsWith("text/csv")))
+                .thenReturn(new IngredientImportResultDTO(2, 1, 1,
+                        List.of(new ImportRowErrorDTO(3, "Basil", "Ingredient already exists: Basil")), false));
+
+        mockMvc.perform(post("/api/ingredients/import")
+                        .contentType("text/csv")
+                        .content("name,servingAmount,servingUnit\nMint,10,g\nBasil,10,g\n")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
 }
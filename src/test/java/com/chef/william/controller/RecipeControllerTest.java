@@ -3,6 +3,7 @@ package com.chef.william.controller;
 import com.chef.william.dto.InstructionDTO;
 import com.chef.william.dto.RecipeDTO;
 import com.chef.william.dto.RecipeIngredientDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.model.enums.Unit;
 import com.chef.william.service.RecipeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -20,9 +22,14 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -73,4 +80,33 @@ class RecipeControllerTest {
         verify(recipeService).createRecipe(captor.capture());
         assertEquals(5L, captor.getValue().getFoodId());
     }
+
+    @Test
+    void patchWithReturnMinimalAnswersNoContentWithTheNewTag() throws Exception {
+        when(recipeService.patchRecipe(eq(9L), any(), eq(List.of("4-3-10")), eq(false)))
+                .thenReturn(new Tagged<>(null, "5-3-10"));
+
+        mockMvc.perform(patch("/api/recipes/9")
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"4-3-10\"")
+                        .header("Prefer", "handling=strict, return=\"minimal\"")
+                        .content("{\"instructions\": {\"2\": {\"description\": \"Stir\"}}}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-3-10\""))
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void patchReturnsTheRepresentationByDefault() throws Exception {
+        when(recipeService.patchRecipe(eq(9L), any(), isNull(), eq(true)))
+                .thenReturn(new Tagged<>(RecipeDTO.builder().id(9L).servings(4).build(), "5-3-10"));
+
+        mockMvc.perform(patch("/api/recipes/9")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"servings\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-3-10\""))
+                .andExpect(jsonPath("$.servings").value(4));
+    }
 }
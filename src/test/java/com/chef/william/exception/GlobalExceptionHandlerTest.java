@@ -3,7 +3,11 @@ package com.chef.william.exception;
 import com.chef.william.exception.exceptionResponse.ErrorResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -32,4 +36,24 @@ class GlobalExceptionHandlerTest {
         assertEquals(409, response.getStatusCode().value());
         assertEquals("Data conflict detected. Please verify unique fields and constraints.", response.getBody().getMessage());
     }
+
+    @Test
+    void handlePreconditionFailedShouldReturn412() {
+        ResponseEntity<ErrorResponse> response = handler.handlePreconditionFailed(new PreconditionFailedException("Food", 7L));
+
+        assertEquals(412, response.getStatusCode().value());
+        assertEquals("Food with id 7 was changed by someone else. Reload it and retry.", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleMediaTypeNotSupportedShouldReturn415NamingTheAcceptedType() {
+        HttpMediaTypeNotSupportedException ex = new HttpMediaTypeNotSupportedException(MediaType.APPLICATION_JSON,
+                List.of(MediaType.parseMediaType("application/merge-patch+json")), null);
+
+        ResponseEntity<ErrorResponse> response = handler.handleMediaTypeNotSupported(ex);
+
+        assertEquals(415, response.getStatusCode().value());
+        assertEquals("Content-Type application/json is not supported; use application/merge-patch+json",
+                response.getBody().getMessage());
+    }
 }
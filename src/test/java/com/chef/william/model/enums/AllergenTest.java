@@ -0,0 +1,35 @@
+package com.chef.william.model.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AllergenTest {
+
+    @Test
+    void detectMatchesWholeWordsInNameAndCategory() {
+        assertEquals(Set.of(Allergen.MILK), Allergen.fromMask(Allergen.detect("Unsalted Butter", null)));
+        assertEquals(Set.of(Allergen.GLUTEN), Allergen.fromMask(Allergen.detect("Plain flour", "Baking")));
+        assertEquals(Set.of(Allergen.FISH), Allergen.fromMask(Allergen.detect("Nam pla", "Fish sauce")));
+        assertEquals(Set.of(), Allergen.fromMask(Allergen.detect("Eggplant", "Vegetable")));
+        assertEquals(Set.of(), Allergen.fromMask(Allergen.detect("Buckwheat", null)));
+    }
+
+    @Test
+    void plantMilksAndNutButtersAreNotDairy() {
+        assertEquals(Set.of(Allergen.PEANUTS), Allergen.fromMask(Allergen.detect("Peanut butter", null)));
+        assertEquals(Set.of(), Allergen.fromMask(Allergen.detect("Coconut milk", null)));
+    }
+
+    @Test
+    void userAllergyTextMapsToMaskIgnoringUnknownEntries() {
+        long mask = Allergen.maskOfAllergies(List.of("Peanuts", "dairy", "shellfish", "pollen"));
+
+        assertEquals(Set.of(Allergen.PEANUTS, Allergen.MILK, Allergen.CRUSTACEANS, Allergen.MOLLUSCS),
+                Allergen.fromMask(mask));
+        assertEquals(Allergen.TREE_NUTS.bit(), Allergen.maskOfAllergies(List.of("Tree nuts")));
+    }
+}
@@ -15,25 +15,40 @@ import com.chef.william.model.auth.RegistrationIdempotencyStatus;
 import com.chef.william.repository.RegistrationIdempotencyRepository;
 import com.chef.william.repository.UserRepository;
 import com.chef.william.service.auth.AuthService;
+import com.chef.william.service.auth.CognitoCallLimiter;
+import com.chef.william.service.auth.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderServiceClientConfiguration;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,7 +56,7 @@ import static org.mockito.Mockito.when;
 class AuthServiceTest {
 
     @Mock
-    private CognitoIdentityProviderClient cognitoClient;
+    private CognitoIdentityProviderAsyncClient cognitoClient;
 
     @Mock
     private UserRepository userRepository;
@@ -49,6 +64,12 @@ class AuthServiceTest {
     @Mock
     private RegistrationIdempotencyRepository idempotencyRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private CognitoProperties properties;
     private AuthService authService;
 
@@ -59,7 +80,8 @@ class AuthServiceTest {
         properties.setRegion("ap-southeast-2");
         properties.setUserPoolId("pool-id");
 
-        authService = new AuthService(cognitoClient, properties, userRepository, idempotencyRepository);
+        authService = new AuthService(cognitoClient, properties, userRepository, idempotencyRepository, eventPublisher,
+                new TransactionTemplate(transactionManager), new CognitoCallLimiter(5, Duration.ofSeconds(1), new SimpleMeterRegistry()));
     }
 
     @Test
@@ -74,10 +96,10 @@ class AuthServiceTest {
         when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
-        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(SignUpResponse.builder()
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
                 .userSub("sub-123")
                 .userConfirmed(false)
-                .build());
+                .build()));
         when(userRepository.save(any())).thenAnswer(invocation -> {
             com.chef.william.model.User user = invocation.getArgument(0);
             user.setId(10L);
@@ -116,10 +138,10 @@ class AuthServiceTest {
         when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findByEmail("active@example.com")).thenReturn(Optional.empty());
-        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(SignUpResponse.builder()
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
                 .userSub("sub-active")
                 .userConfirmed(true)
-                .build());
+                .build()));
         when(userRepository.save(any())).thenAnswer(invocation -> {
             com.chef.william.model.User user = invocation.getArgument(0);
             user.setId(20L);
@@ -144,12 +166,13 @@ class AuthServiceTest {
 
         com.chef.william.model.User user = new com.chef.william.model.User();
         user.setEmail("chef@example.com");
+        user.setCognitoSub("sub-123");
         user.setEmailVerified(false);
         user.setAccountStatus(AccountStatus.PENDING_EMAIL_VERIFICATION);
 
         when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.of(user));
         when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        when(cognitoClient.confirmSignUp(any(ConfirmSignUpRequest.class))).thenReturn(ConfirmSignUpResponse.builder().build());
+        when(cognitoClient.confirmSignUp(any(ConfirmSignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(ConfirmSignUpResponse.builder().build()));
 
         VerifyEmailResponse response = authService.verifyEmail(request);
 
@@ -162,6 +185,7 @@ class AuthServiceTest {
         verify(cognitoClient).confirmSignUp(captor.capture());
         assertEquals("chef@example.com", captor.getValue().username());
         assertEquals("123456", captor.getValue().confirmationCode());
+        verify(eventPublisher).publishEvent(new UserChangedEvent("sub-123"));
     }
 
     @Test
@@ -170,10 +194,10 @@ class AuthServiceTest {
         request.setEmail("unknown@example.com");
         request.setCode("123456");
 
-        when(cognitoClient.confirmSignUp(any(ConfirmSignUpRequest.class))).thenReturn(ConfirmSignUpResponse.builder().build());
         when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> authService.verifyEmail(request));
+        verify(cognitoClient, never()).confirmSignUp(any(ConfirmSignUpRequest.class));
     }
 
     @Test
@@ -234,6 +258,85 @@ class AuthServiceTest {
         assertEquals("Idempotency key was already used with a different registration payload", ex.getMessage());
     }
 
+    @Test
+    void registerShouldRejectKeyStillInProgressWithinItsLease() {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail("chef@example.com");
+        request.setUserName("chef");
+        request.setPassword("MyPassword123!");
+
+        RegistrationIdempotencyRecord record = new RegistrationIdempotencyRecord();
+        record.setIdempotencyKey("idem-1");
+        record.setRequestHash("fec1c9277104c4de50798625f474564bf381f6a1714b54e29c695569b20f3cb3");
+        record.setStatus(RegistrationIdempotencyStatus.IN_PROGRESS);
+        record.setUpdatedAt(LocalDateTime.now().minusSeconds(5));
+        record.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+
+        when(idempotencyRepository.findByIdempotencyKey("idem-1")).thenReturn(Optional.of(record));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> authService.register(request, "idem-1"));
+        assertEquals("Registration request is already being processed for this idempotency key", ex.getMessage());
+        verify(cognitoClient, never()).signUp(any(SignUpRequest.class));
+    }
+
+    @Test
+    void registerShouldReclaimKeyLeftInProgressPastItsLease() {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail("chef@example.com");
+        request.setUserName("chef");
+        request.setPassword("MyPassword123!");
+
+        RegistrationIdempotencyRecord record = new RegistrationIdempotencyRecord();
+        record.setIdempotencyKey("idem-1");
+        record.setRequestHash("fec1c9277104c4de50798625f474564bf381f6a1714b54e29c695569b20f3cb3");
+        record.setStatus(RegistrationIdempotencyStatus.IN_PROGRESS);
+        record.setUpdatedAt(LocalDateTime.now().minusMinutes(1));
+        record.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+
+        when(idempotencyRepository.findByIdempotencyKey("idem-1")).thenReturn(Optional.of(record));
+        when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
+                .userSub("sub-123")
+                .userConfirmed(false)
+                .build()));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RegisterUserResponse response = authService.register(request, "idem-1");
+
+        assertEquals("sub-123", response.getCognitoSub());
+        assertEquals(RegistrationIdempotencyStatus.COMPLETED, record.getStatus());
+    }
+
+    @Test
+    void registerShouldSendSignUpWithoutRetries() {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail("chef@example.com");
+        request.setUserName("chef");
+        request.setPassword("MyPassword123!");
+
+        when(idempotencyRepository.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+        when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
+                .userSub("sub-123")
+                .userConfirmed(false)
+                .build()));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        authService.register(request, "idem-1");
+
+        ArgumentCaptor<SignUpRequest> requestCaptor = ArgumentCaptor.forClass(SignUpRequest.class);
+        verify(cognitoClient).signUp(requestCaptor.capture());
+        CognitoIdentityProviderServiceClientConfiguration.Builder config = CognitoIdentityProviderServiceClientConfiguration.builder();
+        config.overrideConfiguration(override -> override.retryStrategy(AwsRetryStrategy.adaptiveRetryStrategy()));
+        requestCaptor.getValue().overrideConfiguration().orElseThrow().plugins()
+                .forEach(plugin -> plugin.configureClient(config));
+        assertEquals(1, config.overrideConfiguration().retryStrategy().orElseThrow().maxAttempts());
+    }
+
     @Test
     void registerShouldIncludeSecretHashWhenClientSecretConfigured() {
         properties.setAppClientSecret("super-secret");
@@ -247,10 +350,10 @@ class AuthServiceTest {
         when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
-        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(SignUpResponse.builder()
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
                 .userSub("sub-123")
                 .userConfirmed(false)
-                .build());
+                .build()));
         when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         authService.register(request, "idem-1");
@@ -272,9 +375,9 @@ class AuthServiceTest {
         when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
-        when(cognitoClient.signUp(any(SignUpRequest.class))).thenThrow(NotAuthorizedException.builder()
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.failedFuture(NotAuthorizedException.builder()
                 .message("Client secret mismatch")
-                .build());
+                .build()));
 
         BusinessException exception = assertThrows(BusinessException.class, () -> authService.register(request, "idem-1"));
 
@@ -297,9 +400,9 @@ class AuthServiceTest {
         when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
-        when(cognitoClient.signUp(any(SignUpRequest.class))).thenThrow(NotAuthorizedException.builder()
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.failedFuture(NotAuthorizedException.builder()
                 .message("Unable to verify secret hash for client")
-                .build());
+                .build()));
 
         BusinessException exception = assertThrows(BusinessException.class, () -> authService.register(request, "idem-1"));
 
@@ -335,11 +438,13 @@ class AuthServiceTest {
         when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
-        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(SignUpResponse.builder()
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
                 .userSub("sub-123")
                 .userConfirmed(false)
-                .build());
+                .build()));
         when(userRepository.save(any())).thenThrow(new RuntimeException("db down"));
+        when(cognitoClient.adminDeleteUser(any(AdminDeleteUserRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(AdminDeleteUserResponse.builder().build()));
 
         assertThrows(CognitoRegistrationException.class, () -> authService.register(request, "idem-1"));
 
@@ -360,18 +465,39 @@ class AuthServiceTest {
         when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
-        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(SignUpResponse.builder()
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
                 .userSub("sub-123")
                 .userConfirmed(false)
-                .build());
+                .build()));
         when(userRepository.save(any())).thenThrow(new RuntimeException("db down"));
         when(cognitoClient.adminDeleteUser(any(AdminDeleteUserRequest.class)))
-                .thenThrow(InternalErrorException.builder().message("rollback failed").build());
+                .thenReturn(CompletableFuture.failedFuture(InternalErrorException.builder().message("rollback failed").build()));
 
         assertThrows(CognitoRegistrationException.class, () -> authService.register(request, "idem-1"));
         verify(cognitoClient).adminDeleteUser(any(AdminDeleteUserRequest.class));
     }
 
+    @Test
+    void registerShouldReportUnavailableWhenCognitoTimesOut() {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail("chef@example.com");
+        request.setUserName("chef");
+        request.setPassword("MyPassword123!");
+
+        when(idempotencyRepository.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+        when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.failedFuture(
+                ApiCallTimeoutException.create(8_000)));
+
+        CognitoRegistrationException exception = assertThrows(CognitoRegistrationException.class,
+                () -> authService.register(request, "idem-1"));
+
+        assertTrue(exception.getMessage().startsWith("Cognito did not respond while registering user"));
+        verify(userRepository, never()).save(any());
+    }
+
     @Test
     void registerShouldNotCallCognitoWhenEmailAlreadyExistsInDb() {
         RegisterUserRequest request = new RegisterUserRequest();
@@ -388,4 +514,63 @@ class AuthServiceTest {
         verify(cognitoClient, never()).signUp(any(SignUpRequest.class));
     }
 
+    @Test
+    void registerShouldCallCognitoBetweenTwoShortTransactions() {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail("chef@example.com");
+        request.setUserName("chef");
+        request.setPassword("MyPassword123!");
+
+        when(idempotencyRepository.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+        when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
+        when(cognitoClient.signUp(any(SignUpRequest.class))).thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder()
+                .userSub("sub-123")
+                .userConfirmed(false)
+                .build()));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        authService.register(request, "idem-1");
+
+        InOrder order = inOrder(transactionManager, cognitoClient, userRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(transactionManager).commit(any());
+        order.verify(cognitoClient).signUp(any(SignUpRequest.class));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).save(any());
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void registerShouldMarkKeyFailedWhenCognitoFailsAndReclaimItOnRetry() {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail("chef@example.com");
+        request.setUserName("chef");
+        request.setPassword("MyPassword123!");
+
+        when(idempotencyRepository.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+        when(idempotencyRepository.save(any(RegistrationIdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findByEmail("chef@example.com")).thenReturn(Optional.empty());
+        when(cognitoClient.signUp(any(SignUpRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(InternalErrorException.builder().message("try later").build()))
+                .thenReturn(CompletableFuture.completedFuture(SignUpResponse.builder().userSub("sub-123").userConfirmed(false).build()));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(CognitoRegistrationException.class, () -> authService.register(request, "idem-1"));
+
+        ArgumentCaptor<RegistrationIdempotencyRecord> records = ArgumentCaptor.forClass(RegistrationIdempotencyRecord.class);
+        verify(idempotencyRepository, times(2)).save(records.capture());
+        RegistrationIdempotencyRecord record = records.getValue();
+        assertEquals(RegistrationIdempotencyStatus.FAILED, record.getStatus());
+        record.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+
+        when(idempotencyRepository.findByIdempotencyKey("idem-1")).thenReturn(Optional.of(record));
+        RegisterUserResponse response = authService.register(request, "idem-1");
+
+        assertEquals("sub-123", response.getCognitoSub());
+        assertEquals(RegistrationIdempotencyStatus.COMPLETED, record.getStatus());
+    }
+
 }
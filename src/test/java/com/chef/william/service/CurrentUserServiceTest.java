@@ -4,23 +4,35 @@ import com.chef.william.exception.UnauthorizedException;
 import com.chef.william.model.User;
 import com.chef.william.repository.UserRepository;
 import com.chef.william.service.auth.CurrentUserService;
+import com.chef.william.service.auth.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +42,12 @@ class CurrentUserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @AfterEach
     void clearContext() {
         SecurityContextHolder.clearContext();
@@ -46,7 +64,7 @@ class CurrentUserServiceTest {
         user.setCognitoSub("sub-123");
         when(userRepository.findByCognitoSub("sub-123")).thenReturn(Optional.of(user));
 
-        CurrentUserService service = new CurrentUserService(userRepository);
+        CurrentUserService service = service();
         assertEquals(5L, service.getRequiredCurrentUser().getId());
     }
 
@@ -65,13 +83,48 @@ class CurrentUserServiceTest {
         when(userRepository.findByCognitoSub("sub-123")).thenReturn(Optional.of(user));
         when(userRepository.save(user)).thenReturn(user);
 
-        CurrentUserService service = new CurrentUserService(userRepository);
+        CurrentUserService service = service();
         User resolved = service.getRequiredCurrentUser();
 
         assertEquals(5L, resolved.getId());
         assertTrue(resolved.isEmailVerified());
         assertEquals(com.chef.william.model.AccountStatus.ACTIVE, resolved.getAccountStatus());
         verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent("sub-123"));
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        assertFalse(definition.getValue().isReadOnly());
+        verify(transactionManager).commit(any());
+
+        // Cached once the sync committed; read once by the caller and once inside the sync transaction
+        assertTrue(service.getRequiredCurrentUser().isEmailVerified());
+        verify(userRepository, times(2)).findByCognitoSub("sub-123");
+    }
+
+    @Test
+    void shouldNotCacheWhenTheSyncFails() {
+        Jwt jwt = new Jwt("token", Instant.now(), Instant.now().plusSeconds(300),
+                Map.of("alg", "RS256"), Map.of("sub", "sub-123", "email_verified", true));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(jwt, null));
+
+        // A fresh row per read, as the rolled back change never reached the database
+        when(userRepository.findByCognitoSub("sub-123")).thenAnswer(invocation -> {
+            User user = new User();
+            user.setId(5L);
+            user.setCognitoSub("sub-123");
+            user.setEmailVerified(false);
+            return Optional.of(user);
+        });
+        when(userRepository.save(any(User.class))).thenThrow(new QueryTimeoutException("lock timeout"));
+
+        CurrentUserService service = service();
+        assertThrows(QueryTimeoutException.class, service::getRequiredCurrentUser);
+
+        verify(transactionManager).rollback(any());
+        verify(eventPublisher, never()).publishEvent(any());
+        assertThrows(QueryTimeoutException.class, service::getRequiredCurrentUser);
+        verify(userRepository, times(4)).findByCognitoSub("sub-123");
     }
 
     @Test
@@ -87,14 +140,45 @@ class CurrentUserServiceTest {
         user.setAccountStatus(com.chef.william.model.AccountStatus.PENDING_EMAIL_VERIFICATION);
         when(userRepository.findByCognitoSub("sub-123")).thenReturn(Optional.of(user));
 
-        CurrentUserService service = new CurrentUserService(userRepository);
+        CurrentUserService service = service();
         service.getRequiredCurrentUser();
 
         verify(userRepository, never()).save(user);
     }
     @Test
     void shouldThrowUnauthorizedWhenTokenMissing() {
-        CurrentUserService service = new CurrentUserService(userRepository);
+        CurrentUserService service = service();
         assertThrows(UnauthorizedException.class, service::getRequiredCurrentUser);
     }
+
+    @Test
+    void shouldServeRepeatCallsFromCacheUntilUserChanges() {
+        Jwt jwt = new Jwt("token", Instant.now(), Instant.now().plusSeconds(300),
+                Map.of("alg", "RS256"), Map.of("sub", "sub-123", "email_verified", true));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(jwt, null));
+
+        User user = new User();
+        user.setId(5L);
+        user.setCognitoSub("sub-123");
+        user.setEmailVerified(true);
+        user.setAccountStatus(com.chef.william.model.AccountStatus.ACTIVE);
+        when(userRepository.findByCognitoSub("sub-123")).thenReturn(Optional.of(user));
+
+        CurrentUserService service = service();
+        User first = service.getRequiredCurrentUser();
+        User second = service.getRequiredCurrentUser();
+
+        assertEquals(5L, second.getId());
+        assertNotSame(first, second);
+        verify(userRepository, times(1)).findByCognitoSub("sub-123");
+
+        service.onUserChanged(new UserChangedEvent("sub-123"));
+        service.getRequiredCurrentUser();
+        verify(userRepository, times(2)).findByCognitoSub("sub-123");
+    }
+
+    private CurrentUserService service() {
+        return new CurrentUserService(userRepository, eventPublisher, transactionManager, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(1));
+    }
 }
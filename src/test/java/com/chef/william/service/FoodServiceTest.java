@@ -5,24 +5,35 @@ import com.chef.william.dto.FoodRecipeStatusDTO;
 import com.chef.william.dto.InstructionDTO;
 import com.chef.william.dto.RecipeDTO;
 import com.chef.william.dto.RecipeIngredientDTO;
+import com.chef.william.dto.Tagged;
+import com.chef.william.exception.BusinessException;
 import com.chef.william.exception.DuplicateResourceException;
+import com.chef.william.exception.PreconditionFailedException;
+import com.chef.william.exception.ResourceNotFoundException;
 import com.chef.william.model.Food;
-import com.chef.william.model.Recipe;
 import com.chef.william.model.User;
+import com.chef.william.model.enums.Allergen;
 import com.chef.william.model.enums.Unit;
 import com.chef.william.repository.FoodRecipeCountProjection;
 import com.chef.william.repository.FoodRepository;
+import com.chef.william.repository.FoodSummaryView;
+import com.chef.william.repository.FoodVersionView;
 import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.allergen.AllergenService;
 import com.chef.william.service.auth.CurrentUserService;
-import com.chef.william.service.mapper.RecipeMapper;
+import com.chef.william.service.food.FoodDetailReader;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,6 +42,8 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -48,9 +61,14 @@ class FoodServiceTest {
     private RecipeRepository recipeRepository;
 
     @Mock
-    private RecipeMapper recipeMapper;
+    private FoodDetailReader foodDetailReader;
     @Mock
     private CurrentUserService currentUserService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AllergenService allergenService;
 
     @InjectMocks
     private FoodService foodService;
@@ -80,25 +98,22 @@ class FoodServiceTest {
         food.setName("Pad Thai");
         food.setCategory("Noodle");
         food.setImageUrl("https://img.example/pad-thai.jpg");
-        Recipe recipe = new Recipe();
-        recipe.setId(2L);
-        recipe.setVersion("v1");
-
         RecipeDTO recipeDTO = RecipeDTO.builder().id(2L).version("v1").build();
 
         when(foodRepository.save(any(Food.class))).thenReturn(food);
-        when(recipeRepository.findDetailedByFoodId(10L)).thenReturn(List.of(recipe));
-        when(recipeMapper.toDto(recipe)).thenReturn(recipeDTO);
+        when(recipeService.createRecipe(any(RecipeDTO.class))).thenReturn(recipeDTO);
         when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
 
         FoodDTO result = foodService.createFood(new FoodDTO(null, "Pad Thai", "Noodle",
-                "https://img.example/pad-thai.jpg", null, null, null, null, List.of()));
+                "https://img.example/pad-thai.jpg", null, null, null, null,
+                List.of(RecipeDTO.builder().version("v1").build())));
 
         assertEquals(10L, result.getId());
         assertEquals(1, result.getRecipeCount());
         assertEquals(1, result.getRecipes().size());
         assertEquals(2L, result.getRecipes().getFirst().getId());
         assertEquals("https://img.example/pad-thai.jpg", result.getImageUrl());
+        verify(foodDetailReader, never()).findById(any(), anyLong());
     }
 
     @Test
@@ -121,7 +136,6 @@ class FoodServiceTest {
             savedRef.set(saved);
             return saved;
         });
-        when(recipeRepository.findDetailedByFoodId(20L)).thenReturn(List.of());
 
         FoodDTO result = foodService.createFood(new FoodDTO(null, "Khao Pad", "Rice",
                 null, null, null, null, null, List.of()));
@@ -145,18 +159,21 @@ class FoodServiceTest {
         RecipeDTO recipeDTO = RecipeDTO.builder()
                 .version("v1")
                 .description("Spicy")
+                .servings(2)
                 .ingredients(List.of(new RecipeIngredientDTO(null, 1L, null, 1.0, Unit.G, null)))
                 .instructions(List.of(InstructionDTO.builder().step(1).description("Mix").build()))
                 .build();
 
         when(foodRepository.save(any(Food.class))).thenReturn(food);
-        when(recipeRepository.findDetailedByFoodId(12L)).thenReturn(List.of());
         when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
 
         foodService.createFood(new FoodDTO(null, "Som Tum", "Salad",
                 "https://img.example/som-tum.jpg", null, null, null, null, List.of(recipeDTO)));
 
-        verify(recipeService).createRecipe(any(RecipeDTO.class));
+        ArgumentCaptor<RecipeDTO> created = ArgumentCaptor.forClass(RecipeDTO.class);
+        verify(recipeService).createRecipe(created.capture());
+        assertEquals(12L, created.getValue().getFoodId());
+        assertEquals(2, created.getValue().getServings());
     }
 
     @Test
@@ -175,15 +192,10 @@ class FoodServiceTest {
 
     @Test
     void getAllFoodsShouldUseBatchCountsAndNotMapRecipes() {
-        Food food1 = new Food();
-        food1.setId(1L);
-        food1.setName("Ramen");
+        FoodSummaryView food1 = new FoodSummaryView(1L, "Ramen", null, null, "chef", null, null);
+        FoodSummaryView food2 = new FoodSummaryView(2L, "Tom Yum", null, null, "chef", null, null);
 
-        Food food2 = new Food();
-        food2.setId(2L);
-        food2.setName("Tom Yum");
-
-        when(foodRepository.findAll(PageRequest.of(0, 20)))
+        when(foodRepository.findSummaries(PageRequest.of(0, 20)))
                 .thenReturn(new PageImpl<>(List.of(food1, food2), PageRequest.of(0, 20), 2));
         when(recipeRepository.countByFoodIds(List.of(1L, 2L)))
                 .thenReturn(List.of(projection(1L, 2), projection(2L, 1)));
@@ -191,6 +203,7 @@ class FoodServiceTest {
         Page<FoodDTO> result = foodService.getAllFoods(PageRequest.of(0, 20));
 
         assertEquals(2, result.getContent().size());
+        assertEquals("Ramen", result.getContent().get(0).getName());
         assertEquals(2, result.getContent().get(0).getRecipeCount());
         assertEquals(1, result.getContent().get(1).getRecipeCount());
         assertTrue(result.getContent().get(0).getRecipes().isEmpty());
@@ -210,4 +223,107 @@ class FoodServiceTest {
             }
         };
     }
+
+    @Test
+    void getFoodByIdCanHideRecipesContainingUserAllergens() {
+        FoodDTO food = new FoodDTO(4L, "Pad Thai", null, null, "chef", null, null, 1,
+                List.of(RecipeDTO.builder().id(2L).build()));
+
+        when(allergenService.currentUserMask()).thenReturn(Allergen.PEANUTS.bit());
+        when(foodDetailReader.findById(4L, Allergen.PEANUTS.bit())).thenReturn(Optional.of(food));
+
+        FoodDTO result = foodService.getFoodById(4L, true);
+
+        assertEquals(List.of(2L), result.getRecipes().stream().map(RecipeDTO::getId).toList());
+        assertEquals(1, result.getRecipeCount());
+    }
+
+    @Test
+    void getFoodByIdShouldThrowWhenFoodIsMissing() {
+        when(foodDetailReader.findById(9L, 0L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> foodService.getFoodById(9L));
+    }
+
+    @Test
+    void updateFoodShouldFlushBeforeReadingTheDetail() {
+        User user = new User();
+        user.setUserName("tester");
+        Food food = new Food();
+        food.setId(6L);
+        food.setName("Larb");
+        FoodDTO detail = new FoodDTO(6L, "Larb Gai", null, null, "tester", "tester", null, 0, List.of());
+
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+        when(foodRepository.findById(6L)).thenReturn(Optional.of(food));
+        when(foodRepository.save(food)).thenReturn(food);
+        when(foodDetailReader.findById(6L, 0L)).thenReturn(Optional.of(detail));
+
+        FoodDTO result = foodService.updateFood(6L, new FoodDTO(null, "Larb Gai", null,
+                null, null, null, null, null, List.of()));
+
+        assertSame(detail, result);
+        InOrder inOrder = inOrder(foodRepository, foodDetailReader);
+        inOrder.verify(foodRepository).flush();
+        inOrder.verify(foodDetailReader).findById(6L, 0L);
+    }
+
+    @Test
+    void conditionalUpdateRejectsAStaleTagWithoutWriting() {
+        User user = new User();
+        user.setUserName("tester");
+        Food food = new Food();
+        food.setId(6L);
+        food.setName("Larb");
+
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+        when(foodRepository.findById(6L)).thenReturn(Optional.of(food));
+        when(foodRepository.findVersionById(6L)).thenReturn(Optional.of(new FoodVersionView(4, 1, 20, 0, 3)));
+
+        assertThrows(PreconditionFailedException.class, () -> foodService.updateFood(6L,
+                new FoodDTO(null, "Larb Gai", null, null, null, null, null, null, List.of()), List.of("3.1.20.0.3")));
+
+        verify(foodRepository, never()).save(any(Food.class));
+    }
+
+    @Test
+    void conditionalUpdateReturnsTheTagReadAfterTheWrite() {
+        User user = new User();
+        user.setUserName("tester");
+        Food food = new Food();
+        food.setId(6L);
+        food.setName("Larb");
+        FoodDTO detail = new FoodDTO(6L, "Larb Gai", null, null, "tester", "tester", null, 0, List.of());
+
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+        when(foodRepository.findById(6L)).thenReturn(Optional.of(food));
+        when(foodRepository.findVersionById(6L)).thenReturn(Optional.of(new FoodVersionView(3, 1, 20, 0, 3)))
+                .thenReturn(Optional.of(new FoodVersionView(4, 1, 20, 0, 3)));
+        when(foodRepository.save(food)).thenReturn(food);
+        when(foodDetailReader.findById(6L, 0L)).thenReturn(Optional.of(detail));
+
+        Tagged<FoodDTO> result = foodService.updateFood(6L,
+                new FoodDTO(null, "Larb Gai", null, null, null, null, null, null, List.of()), List.of("3.1.20.0.3"));
+
+        assertSame(detail, result.body());
+        assertEquals("4.1.20.0.3", result.tag());
+    }
+
+    @Test
+    void allergyFilteredTagDependsOnTheUsersAllergens() {
+        when(foodRepository.findVersionById(4L)).thenReturn(Optional.of(new FoodVersionView(2, 0, 0, 0, 0)));
+        when(allergenService.currentUserMask()).thenReturn(Allergen.PEANUTS.bit());
+
+        assertEquals("2.0.0.0.0", foodService.getFoodTag(4L, false));
+        assertEquals("2.0.0.0.0-a" + Allergen.PEANUTS.bit(), foodService.getFoodTag(4L, true));
+    }
+
+    @Test
+    void patchFoodRejectsRecipesBeforeLoadingTheFood() {
+        var patch = JsonMapper.builder().build().readTree("{\"name\": \"Pho\", \"recipes\": []}");
+
+        assertThrows(BusinessException.class, () -> foodService.patchFood(5L, patch, null, true));
+        verify(foodRepository, never()).findById(anyLong());
+        verify(foodRepository, never()).save(any());
+    }
 }
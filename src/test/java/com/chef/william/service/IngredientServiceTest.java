@@ -2,25 +2,38 @@ package com.chef.william.service;
 
 import com.chef.william.dto.IngredientDTO;
 import com.chef.william.dto.NutritionDTO;
+import com.chef.william.dto.Tagged;
 import com.chef.william.exception.BusinessException;
+import com.chef.william.exception.PreconditionFailedException;
 import com.chef.william.model.Ingredient;
 import com.chef.william.model.Nutrition;
 import com.chef.william.model.User;
 import com.chef.william.model.enums.Nutrients;
 import com.chef.william.model.enums.Unit;
 import com.chef.william.repository.IngredientRepository;
+import com.chef.william.repository.IngredientSummaryView;
+import com.chef.william.repository.NutritionRowView;
+import com.chef.william.service.allergen.AllergenService;
 import com.chef.william.service.auth.CurrentUserService;
+import com.chef.william.service.ingredient.IngredientCatalogCache;
+import com.chef.william.service.ingredient.IngredientChangedEvent;
 import com.chef.william.service.ingredient.IngredientSearchService;
 import com.chef.william.service.mapper.IngredientMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -33,6 +46,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,7 +66,14 @@ class IngredientServiceTest {
     private IngredientSearchService ingredientSearchService;
     @Mock
     private CurrentUserService currentUserService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private IngredientCatalogCache ingredientCatalogCache =
+            new IngredientCatalogCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), 100);
 
+    @Mock
+    private AllergenService allergenService;
 
     @InjectMocks
     private IngredientService ingredientService;
@@ -150,6 +174,105 @@ class IngredientServiceTest {
         assertEquals(2, result.getNutritionList().size());
     }
 
+    @Test
+    void conditionalUpdateComparesIfMatchWithTheLoadedVersion() {
+        User user = new User();
+        user.setUserName("editor");
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(3L);
+        ingredient.setName("Tomato");
+        ingredient.setRowVersion(5L);
+
+        IngredientDTO update = new IngredientDTO();
+        update.setName("Tomato");
+
+        when(ingredientRepository.findById(3L)).thenReturn(Optional.of(ingredient));
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> ingredientService.updateIngredient(3L, update, List.of("4")));
+        verify(ingredientRepository, never()).save(any(Ingredient.class));
+
+        when(ingredientRepository.save(any(Ingredient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ingredientRepository.findVersionById(3L)).thenReturn(Optional.of(6L));
+
+        Tagged<IngredientDTO> result = ingredientService.updateIngredient(3L, update, List.of("4", "5"));
+
+        assertEquals("6", result.tag());
+    }
+
+    @Test
+    void updateIngredientPublishesChangeWithPreviousAndNewName() {
+        User user = new User();
+        user.setUserName("editor");
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(3L);
+        ingredient.setName("Tomatoe");
+
+        IngredientDTO update = new IngredientDTO();
+        update.setName("Tomato");
+
+        when(ingredientRepository.findById(3L)).thenReturn(Optional.of(ingredient));
+        when(ingredientRepository.save(any(Ingredient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+        doAnswer(invocation -> {
+            ingredient.setName(update.getName());
+            return false;
+        }).when(ingredientMapper).updateEntityFromDto(update, ingredient);
+
+        ingredientService.updateIngredient(3L, update);
+
+        ArgumentCaptor<IngredientChangedEvent> captor = ArgumentCaptor.forClass(IngredientChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(IngredientChangedEvent.ChangeType.UPDATED, captor.getValue().type());
+        assertEquals(Set.of(3L), captor.getValue().ingredientIds());
+        assertEquals(Set.of("tomatoe", "tomato"), captor.getValue().affectedNames());
+    }
+
+    @Test
+    void getIngredientByIdServesRepeatedReadsFromCatalogCache() {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(9L);
+        ingredient.setRowVersion(2L);
+        IngredientDTO mapped = new IngredientDTO();
+        mapped.setId(9L);
+        mapped.setName("Basil");
+
+        when(ingredientRepository.findById(9L)).thenReturn(Optional.of(ingredient));
+        when(ingredientMapper.toDto(ingredient)).thenReturn(mapped);
+
+        ingredientService.getIngredientById(9L, "2");
+        Tagged<IngredientDTO> second = ingredientService.getIngredientById(9L, "2");
+
+        assertEquals("Basil", second.body().getName());
+        assertEquals("2", second.tag());
+        verify(ingredientRepository, times(1)).findById(9L);
+    }
+
+    @Test
+    void getIngredientByIdTagsTheBodyWithTheVersionItWasReadAt() {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(9L);
+        ingredient.setRowVersion(2L);
+        IngredientDTO mapped = new IngredientDTO();
+        mapped.setId(9L);
+        mapped.setName("Basil");
+        when(ingredientRepository.findById(9L)).thenReturn(Optional.of(ingredient));
+        when(ingredientMapper.toDto(ingredient)).thenReturn(mapped);
+        ingredientService.getIngredientById(9L, "2");
+
+        // Renamed on another instance: the version read moved, the cached copy is still at 2
+        ingredient.setRowVersion(3L);
+        IngredientDTO renamed = new IngredientDTO();
+        renamed.setId(9L);
+        renamed.setName("Thai Basil");
+        when(ingredientMapper.toDto(ingredient)).thenReturn(renamed);
+        Tagged<IngredientDTO> result = ingredientService.getIngredientById(9L, "3");
+
+        assertEquals("Thai Basil", result.body().getName());
+        assertEquals("3", result.tag());
+    }
+
     @Test
     void getIngredientByIdMapsServingUnitFromAbbreviation() {
         Ingredient ingredient = new Ingredient();
@@ -168,7 +291,7 @@ class IngredientServiceTest {
         mapped.setImageUrl("https://img.example/salt.jpg");
         when(ingredientMapper.toDto(ingredient)).thenReturn(mapped);
 
-        IngredientDTO dto = ingredientService.getIngredientById(5L);
+        IngredientDTO dto = ingredientService.getIngredientById(5L, "0").body();
 
         assertEquals(Unit.G, dto.getServingUnit());
         assertEquals("https://img.example/salt.jpg", dto.getImageUrl());
@@ -177,22 +300,28 @@ class IngredientServiceTest {
 
     @Test
     void getAllIngredientsShouldReturnMappedPage() {
-        Ingredient ingredient = new Ingredient();
-        ingredient.setId(7L);
-        ingredient.setName("Salt");
+        IngredientSummaryView salt = new IngredientSummaryView(7L, "Salt", null, null, null, "chef", null, null,
+                1.0, "g", null, 0L);
+        IngredientSummaryView water = new IngredientSummaryView(8L, "Water", null, null, null, "chef", null, null,
+                100.0, "ml", 1.0, 0L);
+        NutritionDTO sodium = new NutritionDTO(3L, Nutrients.SODIUM, 38758.0, "mg");
 
         IngredientDTO mapped = new IngredientDTO();
         mapped.setId(7L);
         mapped.setName("Salt");
 
-        when(ingredientRepository.findAll(PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<>(List.of(ingredient), PageRequest.of(0, 10), 1));
-        when(ingredientMapper.toDto(ingredient)).thenReturn(mapped);
+        when(ingredientRepository.findSummaries(PageRequest.of(0, 10)))
+                .thenReturn(new PageImpl<>(List.of(salt, water), PageRequest.of(0, 10), 2));
+        when(ingredientRepository.findNutritionRowsByIngredientIdIn(List.of(7L, 8L)))
+                .thenReturn(List.of(new NutritionRowView(7L, 3L, Nutrients.SODIUM, 38758.0, "mg")));
+        when(ingredientMapper.toDto(salt, List.of(sodium))).thenReturn(mapped);
+        when(ingredientMapper.toDto(water, List.of())).thenReturn(new IngredientDTO());
 
         Page<IngredientDTO> result = ingredientService.getAllIngredients(PageRequest.of(0, 10));
 
-        assertEquals(1, result.getTotalElements());
+        assertEquals(2, result.getTotalElements());
         assertEquals("Salt", result.getContent().getFirst().getName());
+        verify(ingredientRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
@@ -207,17 +336,17 @@ class IngredientServiceTest {
         when(ingredientMapper.toDto(ingredient))
                 .thenThrow(new BusinessException("Unsupported serving unit found in database: gramz"));
 
-        assertThrows(BusinessException.class, () -> ingredientService.getIngredientById(6L));
+        assertThrows(BusinessException.class, () -> ingredientService.getIngredientById(6L, "0"));
     }
 
 
     @Test
     void searchIngredientByNutrientThrowsForInvalidNutrient() {
-        when(ingredientSearchService.searchByNutrient(eq("INVALID"), eq(1.0)))
+        when(ingredientSearchService.searchByNutrient(eq("INVALID"), eq(1.0), isNull(), isNull(), isNull()))
                 .thenThrow(new BusinessException("Invalid nutrient"));
 
         assertThrows(BusinessException.class,
-                () -> ingredientService.searchIngredientByNutrient("INVALID", 1.0));
+                () -> ingredientService.searchIngredientByNutrient("INVALID", 1.0, null, null, null));
     }
 
     @Test
@@ -1,34 +1,67 @@
 package com.chef.william.service;
 
+import com.chef.william.dto.PantryMatchDTO;
 import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.RecipeMacrosDTO;
+import com.chef.william.dto.RecipeNutritionDTO;
+import com.chef.william.dto.RecipeSearchHitDTO;
+import com.chef.william.dto.InstructionDTO;
+import com.chef.william.dto.RecipeSliceDTO;
+import com.chef.william.dto.Tagged;
+import com.chef.william.exception.BusinessException;
 import com.chef.william.exception.DuplicateResourceException;
 import com.chef.william.exception.ResourceNotFoundException;
 import com.chef.william.model.Food;
 import com.chef.william.model.Recipe;
 import com.chef.william.model.User;
+import com.chef.william.model.enums.Allergen;
 import com.chef.william.repository.FoodRepository;
+import com.chef.william.repository.RecipeKeyView;
 import com.chef.william.repository.RecipeRepository;
+import com.chef.william.repository.RecipeSummaryView;
+import com.chef.william.repository.RecipeVersionView;
+import com.chef.william.service.allergen.AllergenService;
 import com.chef.william.service.auth.CurrentUserService;
 import com.chef.william.service.mapper.RecipeMapper;
+import com.chef.william.service.nutrition.RecipeNutritionCalculator;
+import com.chef.william.service.nutrition.RecipeNutritionSummaryService;
+import com.chef.william.service.patch.JsonMergePatch;
+import com.chef.william.service.recipe.PantryIndex;
+import com.chef.william.service.recipe.RecipeChangedEvent;
+import com.chef.william.service.recipe.RecipeChildPatcher;
+import com.chef.william.service.recipe.RecipeCursor;
 import com.chef.william.service.recipe.RecipeMergeService;
+import com.chef.william.service.search.RecipeSearchIndex;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,10 +77,33 @@ class RecipeServiceTest {
     @Mock
     private RecipeMergeService recipeMergeService;
 
+    @Mock
+    private RecipeChildPatcher recipeChildPatcher;
+
+    @Spy
+    private JsonMergePatch jsonMergePatch = new JsonMergePatch(JsonMapper.builder().build(),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
     @Mock
     private RecipeMapper recipeMapper;
     @Mock
     private CurrentUserService currentUserService;
+    @Mock
+    private RecipeNutritionCalculator recipeNutritionCalculator;
+    @Mock
+    private RecipeNutritionSummaryService recipeNutritionSummaryService;
+
+    @Mock
+    private AllergenService allergenService;
+
+    @Mock
+    private PantryIndex pantryIndex;
+
+    @Mock
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private RecipeService recipeService;
@@ -98,7 +154,11 @@ class RecipeServiceTest {
 
         when(recipeRepository.existsByVersion("v1")).thenReturn(false);
         when(foodRepository.findById(7L)).thenReturn(Optional.of(food));
-        when(recipeRepository.save(any(Recipe.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(recipeRepository.save(any(Recipe.class))).thenAnswer(invocation -> {
+            Recipe saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
         when(recipeMapper.toDto(any(Recipe.class))).thenReturn(new RecipeDTO());
         when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
 
@@ -106,6 +166,7 @@ class RecipeServiceTest {
 
         verify(recipeMergeService).mergeIngredients(any(Recipe.class), any(RecipeDTO.class));
         verify(recipeMergeService).mergeInstructions(any(Recipe.class), any(RecipeDTO.class));
+        verify(eventPublisher).publishEvent(new RecipeChangedEvent(Set.of(1L)));
     }
 
     @Test
@@ -121,6 +182,7 @@ class RecipeServiceTest {
         when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
         when(recipeRepository.save(any(Recipe.class))).thenAnswer(invocation -> {
             Recipe saved = invocation.getArgument(0);
+            saved.setId(3L);
             savedRef.set(saved);
             return saved;
         });
@@ -157,6 +219,38 @@ class RecipeServiceTest {
         verify(recipeRepository, never()).save(any());
     }
 
+    @Test
+    void patchRecipeMergesScalarsAndSkipsDerivedValuesWhenIngredientsAreUntouched() {
+        User user = new User();
+        user.setUserName("chef");
+        Recipe recipe = new Recipe();
+        recipe.setId(1L);
+        recipe.setVersion("v1");
+        recipe.setDescription("Soup");
+        recipe.setServings(2);
+        var patch = JsonMapper.builder().build().readTree("""
+                {"servings": 4, "description": null, "instructions": {"2": {"description": "Stir"}}}
+                """);
+
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.save(any(Recipe.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(recipeRepository.findVersionById(1L)).thenReturn(Optional.of(new RecipeVersionView(2L, null, 0L)));
+
+        Tagged<RecipeDTO> patched = recipeService.patchRecipe(1L, patch, null, false);
+
+        assertNull(patched.body());
+        assertEquals(new RecipeVersionView(2L, null, 0L).tag(), patched.tag());
+        assertEquals(4, recipe.getServings());
+        assertNull(recipe.getDescription());
+        assertEquals("v1", recipe.getVersion());
+        assertEquals("chef", recipe.getUpdatedBy());
+        verify(recipeChildPatcher).patchInstructions(recipe, patch);
+        verify(recipeMapper, never()).toDto(any(Recipe.class));
+        verify(recipeNutritionSummaryService, never()).recompute(any());
+        verify(eventPublisher).publishEvent(new RecipeChangedEvent(Set.of(1L)));
+    }
+
     @Test
     void getAllRecipesShouldReturnMappedPage() {
         Recipe recipe = new Recipe();
@@ -178,4 +272,253 @@ class RecipeServiceTest {
         assertEquals("v1", result.getContent().getFirst().getVersion());
     }
 
+    @Test
+    void getRecipesAfterReturnsSliceWithCursorWithoutCounting() {
+        Recipe first = new Recipe();
+        first.setId(1L);
+        first.setVersion("v1");
+        Recipe second = new Recipe();
+        second.setId(2L);
+        second.setVersion("v2");
+
+        when(recipeRepository.findFirstKeysOrderById(0L, PageRequest.of(0, 3))).thenReturn(List.of(
+                new RecipeKeyView(1L, null), new RecipeKeyView(2L, null), new RecipeKeyView(3L, null)));
+        when(recipeRepository.findDetailedByIdIn(List.of(1L, 2L))).thenReturn(List.of(second, first));
+        when(recipeMapper.toDto(any(Recipe.class))).thenAnswer(invocation -> {
+            Recipe source = invocation.getArgument(0);
+            RecipeDTO mapped = new RecipeDTO();
+            mapped.setId(source.getId());
+            return mapped;
+        });
+
+        RecipeSliceDTO slice = recipeService.getRecipesAfter("", null, 2);
+
+        assertEquals(List.of(1L, 2L), slice.getContent().stream().map(RecipeDTO::getId).toList());
+        assertTrue(slice.isHasNext());
+        RecipeCursor cursor = RecipeCursor.decode(slice.getNextCursor());
+        assertEquals(RecipeCursor.SortKey.ID, cursor.sortKey());
+        assertEquals(2L, cursor.id());
+        verify(recipeRepository, never()).findAllIds(any());
+    }
+
+    @Test
+    void getRecipesAfterSeeksPastCursorForUpdatedAtSort() {
+        LocalDateTime lastSeen = LocalDateTime.of(2025, 1, 10, 8, 30);
+        String token = new RecipeCursor(RecipeCursor.SortKey.UPDATED_AT, lastSeen, 40L).encode();
+        Recipe recipe = new Recipe();
+        recipe.setId(39L);
+        recipe.setUpdatedAt(lastSeen);
+
+        when(recipeRepository.findKeysAfterUpdatedAt(lastSeen, 40L, 0L, PageRequest.of(0, 21)))
+                .thenReturn(List.of(new RecipeKeyView(39L, lastSeen)));
+        when(recipeRepository.findDetailedByIdIn(List.of(39L))).thenReturn(List.of(recipe));
+        when(recipeMapper.toDto(recipe)).thenReturn(new RecipeDTO());
+
+        RecipeSliceDTO slice = recipeService.getRecipesAfter(token, null, 20);
+
+        assertEquals(1, slice.getSize());
+        assertFalse(slice.isHasNext());
+        assertNull(slice.getNextCursor());
+    }
+
+    @Test
+    void getRecipesAfterBuildsCursorFromSeekRowAndSkipsRecipesDeletedMeanwhile() {
+        LocalDateTime seekUpdatedAt = LocalDateTime.of(2025, 1, 10, 8, 30);
+        Recipe first = new Recipe();
+        first.setId(9L);
+        first.setUpdatedAt(seekUpdatedAt.plusDays(1));
+
+        when(recipeRepository.findFirstKeysOrderByUpdatedAtDesc(0L, PageRequest.of(0, 3))).thenReturn(List.of(
+                new RecipeKeyView(9L, seekUpdatedAt.plusDays(1)),
+                new RecipeKeyView(7L, seekUpdatedAt),
+                new RecipeKeyView(5L, seekUpdatedAt.minusDays(1))));
+        // Recipe 7 was deleted between the seek and the load
+        when(recipeRepository.findDetailedByIdIn(List.of(9L, 7L))).thenReturn(List.of(first));
+        when(recipeMapper.toDto(first)).thenReturn(RecipeDTO.builder().id(9L).build());
+
+        RecipeSliceDTO slice = recipeService.getRecipesAfter(null, "updatedAt", 2);
+
+        assertEquals(List.of(9L), slice.getContent().stream().map(RecipeDTO::getId).toList());
+        assertTrue(slice.isHasNext());
+        RecipeCursor cursor = RecipeCursor.decode(slice.getNextCursor());
+        assertEquals(7L, cursor.id());
+        assertEquals(seekUpdatedAt, cursor.updatedAt());
+    }
+
+    @Test
+    void getRecipesAfterRejectsCursorIssuedForDifferentSort() {
+        String token = new RecipeCursor(RecipeCursor.SortKey.ID, null, 5L).encode();
+
+        assertThrows(BusinessException.class, () -> recipeService.getRecipesAfter(token, "updatedAt", 20));
+        assertThrows(BusinessException.class, () -> recipeService.getRecipesAfter("not-a-cursor", null, 20));
+    }
+
+    @Test
+    void getAllRecipesAttachesNutritionOnlyWhenRequested() {
+        Recipe recipe = new Recipe();
+        recipe.setId(11L);
+        RecipeNutritionDTO nutrition = new RecipeNutritionDTO();
+        nutrition.setRecipeId(11L);
+
+        when(recipeRepository.findAllIds(PageRequest.of(0, 5)))
+                .thenReturn(new PageImpl<>(List.of(11L), PageRequest.of(0, 5), 1));
+        when(recipeRepository.findDetailedByIdIn(List.of(11L))).thenReturn(List.of(recipe));
+        when(recipeMapper.toDto(recipe)).thenAnswer(invocation -> RecipeDTO.builder().id(11L).build());
+        when(recipeNutritionCalculator.calculateAll(any())).thenReturn(Map.of(11L, nutrition));
+
+        assertNull(recipeService.getAllRecipes(PageRequest.of(0, 5)).getContent().getFirst().getNutrition());
+        assertEquals(nutrition, recipeService.getAllRecipes(PageRequest.of(0, 5), true).getContent().getFirst().getNutrition());
+    }
+
+    @Test
+    void getRecipeNutritionThrowsWhenRecipeMissing() {
+        when(recipeRepository.findDetailedById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> recipeService.getRecipeNutrition(99L));
+        verifyNoInteractions(recipeNutritionCalculator);
+    }
+
+    @Test
+    void getAllRecipesAttachesMaterializedMacros() {
+        Recipe recipe = new Recipe();
+        recipe.setId(11L);
+        RecipeMacrosDTO macros = new RecipeMacrosDTO(420.0, 12.0, 60.0, 9.5, 4.0, 6.0, true, LocalDateTime.now());
+
+        when(recipeRepository.findAllIds(PageRequest.of(0, 5)))
+                .thenReturn(new PageImpl<>(List.of(11L), PageRequest.of(0, 5), 1));
+        when(recipeRepository.findDetailedByIdIn(List.of(11L))).thenReturn(List.of(recipe));
+        when(recipeMapper.toDto(recipe)).thenAnswer(invocation -> RecipeDTO.builder().id(11L).build());
+        when(recipeNutritionSummaryService.findMacros(List.of(11L))).thenReturn(Map.of(11L, macros));
+
+        Page<RecipeDTO> result = recipeService.getAllRecipes(PageRequest.of(0, 5));
+
+        assertEquals(macros, result.getContent().getFirst().getMacros());
+        verifyNoInteractions(recipeNutritionCalculator);
+    }
+
+    @Test
+    void getAllRecipesSummaryModeReadsProjectionsInIdOrder() {
+        RecipeSummaryView first = new RecipeSummaryView(3L, "v3", null, null, null, "chef", null, null, 2, 0L);
+        RecipeSummaryView second = new RecipeSummaryView(8L, "v8", null, 5L, "Ramen", "chef", null, null, null, null);
+        RecipeMacrosDTO macros = new RecipeMacrosDTO(420.0, 12.0, 60.0, 9.5, 4.0, 6.0, true, LocalDateTime.now());
+
+        when(recipeRepository.findAllIds(PageRequest.of(0, 5)))
+                .thenReturn(new PageImpl<>(List.of(8L, 3L), PageRequest.of(0, 5), 2));
+        when(recipeRepository.findSummariesByIdIn(List.of(8L, 3L))).thenReturn(List.of(first, second));
+        when(recipeMapper.toSummaryDto(any(RecipeSummaryView.class)))
+                .thenAnswer(invocation -> RecipeDTO.builder().id(invocation.<RecipeSummaryView>getArgument(0).id()).build());
+        when(recipeNutritionSummaryService.findMacros(List.of(8L, 3L))).thenReturn(Map.of(3L, macros));
+
+        Page<RecipeDTO> result = recipeService.getAllRecipes(PageRequest.of(0, 5), false, false, true);
+
+        assertEquals(List.of(8L, 3L), result.getContent().stream().map(RecipeDTO::getId).toList());
+        assertEquals(macros, result.getContent().get(1).getMacros());
+        verify(recipeRepository, never()).findDetailedByIdIn(any());
+        assertThrows(BusinessException.class,
+                () -> recipeService.getAllRecipes(PageRequest.of(0, 5), true, false, true));
+    }
+
+    @Test
+    void getAllRecipesSkipsRecipesDeletedBetweenTheIdAndRowQueries() {
+        Recipe kept = new Recipe();
+        kept.setId(9L);
+        RecipeSummaryView keptView = new RecipeSummaryView(9L, "v9", null, null, null, "chef", null, null, null, null);
+        when(recipeRepository.findAllIds(PageRequest.of(0, 5)))
+                .thenReturn(new PageImpl<>(List.of(9L, 7L), PageRequest.of(0, 5), 2));
+        // Recipe 7 was deleted after its id was paged
+        when(recipeRepository.findDetailedByIdIn(List.of(9L, 7L))).thenReturn(List.of(kept));
+        when(recipeRepository.findSummariesByIdIn(List.of(9L, 7L))).thenReturn(List.of(keptView));
+        when(recipeMapper.toDto(kept)).thenReturn(RecipeDTO.builder().id(9L).build());
+        when(recipeMapper.toSummaryDto(keptView)).thenReturn(RecipeDTO.builder().id(9L).build());
+
+        Page<RecipeDTO> full = recipeService.getAllRecipes(PageRequest.of(0, 5));
+        Page<RecipeDTO> summaries = recipeService.getAllRecipes(PageRequest.of(0, 5), false, false, true);
+
+        assertEquals(List.of(9L), full.getContent().stream().map(RecipeDTO::getId).toList());
+        assertEquals(List.of(9L), summaries.getContent().stream().map(RecipeDTO::getId).toList());
+        verify(recipeNutritionSummaryService, times(2)).findMacros(List.of(9L));
+    }
+
+    @Test
+    void getAllRecipesPushesAllergenExclusionIntoTheIdQuery() {
+        long mask = Allergen.MILK.bit() | Allergen.GLUTEN.bit();
+        when(allergenService.currentUserMask()).thenReturn(mask);
+        when(recipeRepository.findAllIdsWithoutAllergens(mask, PageRequest.of(0, 5)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 5), 0));
+
+        Page<RecipeDTO> result = recipeService.getAllRecipes(PageRequest.of(0, 5), false, true);
+
+        assertTrue(result.isEmpty());
+        verify(recipeRepository, never()).findAllIds(any());
+    }
+
+    @Test
+    void getRecipesAfterPushesAllergenExclusionIntoTheSeekQuery() {
+        long mask = Allergen.PEANUTS.bit();
+        String token = new RecipeCursor(RecipeCursor.SortKey.ID, null, 5L).encode();
+        when(allergenService.currentUserMask()).thenReturn(mask);
+        when(recipeRepository.findKeysAfterId(5L, mask, PageRequest.of(0, 11))).thenReturn(List.of());
+
+        RecipeSliceDTO slice = recipeService.getRecipesAfter(token, null, 10, false, true);
+
+        assertEquals(0, slice.getSize());
+        assertFalse(slice.isHasNext());
+    }
+
+    @Test
+    void findRecipesForPantryKeepsIndexRankingAndSkipsVanishedRecipes() {
+        Recipe full = new Recipe();
+        full.setId(4L);
+        Recipe partial = new Recipe();
+        partial.setId(2L);
+        when(pantryIndex.isReady()).thenReturn(true);
+        when(pantryIndex.match(List.of(10L, 11L), 2, 20)).thenReturn(List.of(
+                new PantryIndex.Match(4L, 2, 2, List.of()),
+                new PantryIndex.Match(9L, 2, 3, List.of(12L)),
+                new PantryIndex.Match(2L, 1, 3, List.of(12L, 13L))));
+        when(recipeRepository.findDetailedByIdIn(List.of(4L, 9L, 2L))).thenReturn(List.of(partial, full));
+        when(recipeMapper.toDto(any(Recipe.class))).thenAnswer(invocation ->
+                RecipeDTO.builder().id(((Recipe) invocation.getArgument(0)).getId()).build());
+
+        List<PantryMatchDTO> result = recipeService.findRecipesForPantry(List.of(10L, 11L), 2, 20);
+
+        assertEquals(List.of(4L, 2L), result.stream().map(match -> match.recipe().getId()).toList());
+        assertEquals(List.of(12L, 13L), result.get(1).missingIngredientIds());
+        verify(pantryIndex, never()).build();
+    }
+
+    @Test
+    void findRecipesForPantryValidatesArguments() {
+        assertThrows(BusinessException.class, () -> recipeService.findRecipesForPantry(List.of(), 2, 20));
+        assertThrows(BusinessException.class, () -> recipeService.findRecipesForPantry(List.of(1L), 6, 20));
+        assertThrows(BusinessException.class, () -> recipeService.findRecipesForPantry(List.of(1L), 2, 0));
+        verifyNoInteractions(pantryIndex);
+    }
+
+    @Test
+    void searchRecipesReturnsRankedHitsWithSnippets() {
+        Recipe recipe = new Recipe();
+        recipe.setId(5L);
+        when(recipeSearchIndex.isReady()).thenReturn(true);
+        when(recipeSearchIndex.search("garlic", 10, 10)).thenReturn(new RecipeSearchIndex.Result(
+                List.of(new RecipeSearchIndex.Hit(5L, 2.5)), 11, Set.of("garlic")));
+        when(recipeRepository.findDetailedByIdIn(List.of(5L))).thenReturn(List.of(recipe));
+        when(recipeMapper.toDto(recipe)).thenReturn(RecipeDTO.builder()
+                .id(5L)
+                .description("Weeknight pasta")
+                .instructions(List.of(InstructionDTO.builder().step(1).description("Fry the garlic").build()))
+                .build());
+
+        Page<RecipeSearchHitDTO> result = recipeService.searchRecipes("garlic", PageRequest.of(1, 10));
+
+        assertEquals(11, result.getTotalElements());
+        assertEquals(5L, result.getContent().getFirst().recipe().getId());
+        assertEquals("Fry the <mark>garlic</mark>", result.getContent().getFirst().snippet());
+    }
+
+    @Test
+    void searchRecipesRejectsBlankQuery() {
+        assertThrows(BusinessException.class, () -> recipeService.searchRecipes(" ", PageRequest.of(0, 10)));
+        verifyNoInteractions(recipeSearchIndex);
+    }
 }
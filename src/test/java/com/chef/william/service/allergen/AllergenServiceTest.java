@@ -0,0 +1,72 @@
+package com.chef.william.service.allergen;
+
+import com.chef.william.model.Ingredient;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.RecipeIngredient;
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.auth.CurrentUserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AllergenServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AllergenService allergenService;
+
+    @Test
+    void recipeMaskOrsTheMasksOfTheIngredientRowsReadNow() {
+        Recipe recipe = recipeWith(1L, 2L, 3L);
+        when(ingredientRepository.findAllergenMasksByIdIn(Set.of(1L, 2L, 3L)))
+                .thenReturn(Arrays.asList(Allergen.MILK.bit(), Allergen.PEANUTS.bit(), null));
+
+        assertEquals(Allergen.MILK.bit() | Allergen.PEANUTS.bit(), allergenService.recipeMask(recipe));
+    }
+
+    @Test
+    void recipeWithoutIngredientsHasAnEmptyMaskWithoutQuerying() {
+        assertEquals(0L, allergenService.recipeMask(new Recipe()));
+
+        verify(ingredientRepository, never()).findAllergenMasksByIdIn(any());
+    }
+
+    private static Recipe recipeWith(Long... ingredientIds) {
+        Recipe recipe = new Recipe();
+        for (Long id : ingredientIds) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(id);
+            RecipeIngredient recipeIngredient = new RecipeIngredient();
+            recipeIngredient.setRecipe(recipe);
+            recipeIngredient.setIngredient(ingredient);
+            recipe.getRecipeIngredients().add(recipeIngredient);
+        }
+        return recipe;
+    }
+}
@@ -0,0 +1,43 @@
+package com.chef.william.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AuthHashingTest {
+
+    @Test
+    void sha256HexMatchesKnownDigest() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", AuthHashing.sha256Hex("abc"));
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", AuthHashing.sha256Hex(""));
+    }
+
+    @Test
+    void hmacSha256Base64MatchesRfc4231AndConcatenatesParts() {
+        // RFC 4231 test case 2
+        String expected = "W9zBRr9gdU5qBCQmCJV1x1oAPwidJzmDnexYuWTsOEM=";
+        assertEquals(expected, AuthHashing.hmacSha256Base64("Jefe", "what do ya want for nothing?"));
+        assertEquals(expected, AuthHashing.hmacSha256Base64("Jefe", "what do ya ", "want for nothing?"));
+    }
+
+    @Test
+    void pooledInstancesGiveStableResultsAcrossVirtualThreads() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = IntStream.range(0, 500)
+                    .mapToObj(i -> executor.submit(() -> AuthHashing.hmacSha256Base64("secret", "user" + (i % 5), "client")
+                            + AuthHashing.sha256Hex("user" + (i % 5))))
+                    .toList();
+            for (int i = 0; i < results.size(); i++) {
+                String user = "user" + (i % 5);
+                assertEquals(AuthHashing.hmacSha256Base64("secret", user, "client") + AuthHashing.sha256Hex(user),
+                        results.get(i).get());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.chef.william.service.auth;
+
+import com.chef.william.exception.auth.CognitoRegistrationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CognitoCallLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CognitoCallLimiter limiter = new CognitoCallLimiter(1, Duration.ofMillis(50), meterRegistry);
+
+    @Test
+    void callsPastTheLimitAreRejectedAfterTheAcquireTimeout() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> blocked = executor.submit(() -> limiter.call(() -> {
+                inFlight.countDown();
+                await(release);
+                return "done";
+            }));
+            inFlight.await();
+
+            assertEquals(1.0, meterRegistry.get("cognito.calls.active").gauge().value());
+            assertThrows(CognitoRegistrationException.class, () -> limiter.call(() -> "rejected"));
+            assertEquals(1.0, meterRegistry.get("cognito.calls.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("done", blocked.get());
+        }
+        assertEquals("next", limiter.call(() -> "next"));
+    }
+
+    @Test
+    void permitIsReleasedWhenTheCallFails() {
+        assertThrows(IllegalStateException.class, () -> limiter.call(() -> {
+            throw new IllegalStateException("cognito down");
+        }));
+
+        assertEquals("ok", limiter.call(() -> "ok"));
+        assertEquals(0.0, meterRegistry.get("cognito.calls.active").gauge().value());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
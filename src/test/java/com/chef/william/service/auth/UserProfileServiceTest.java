@@ -10,12 +10,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +30,9 @@ class UserProfileServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserProfileService userProfileService;
 
@@ -47,7 +53,10 @@ class UserProfileServiceTest {
         request.setProfileImageUrl("https://example.com/new.png");
         request.setAllergies(List.of("Seafood"));
 
-        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+        User resolved = new User();
+        resolved.setId(5L);
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(resolved);
+        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         UserProfileResponse response = userProfileService.updateMyProfile(request);
@@ -57,5 +66,6 @@ class UserProfileServiceTest {
         assertEquals(List.of("Seafood"), response.getAllergies());
         assertTrue(response.isEmailVerified());
         assertEquals(AccountStatus.ACTIVE, response.getAccountStatus());
+        verify(eventPublisher).publishEvent(new UserChangedEvent("sub-123"));
     }
 }
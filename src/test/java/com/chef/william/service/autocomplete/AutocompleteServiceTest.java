@@ -0,0 +1,127 @@
+package com.chef.william.service.autocomplete;
+
+import com.chef.william.dto.AutocompleteSuggestionDTO;
+import com.chef.william.exception.BusinessException;
+import com.chef.william.repository.FoodRepository;
+import com.chef.william.repository.IdNameProjection;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.food.FoodChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AutocompleteServiceTest {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AutocompleteService autocompleteService;
+
+    @BeforeEach
+    void setUp() {
+        autocompleteService = new AutocompleteService(ingredientRepository, foodRepository,
+                new TransactionTemplate(transactionManager));
+        when(ingredientRepository.findAllNames()).thenReturn(List.of(
+                row(1L, "Cherry Tomato"),
+                row(2L, "Tomato"),
+                row(3L, "Tomatillo"),
+                row(4L, "Basil")));
+        when(foodRepository.findAllNames()).thenReturn(List.of(
+                row(10L, "Tomato Soup"),
+                row(11L, "Pesto Pasta")));
+        autocompleteService.build();
+    }
+
+    @Test
+    void prefixMatchesNamesAndWordStartsShortestFirst() {
+        List<AutocompleteSuggestionDTO> result = autocompleteService.suggest(" TOM", null, null);
+
+        assertEquals(List.of("Tomato", "Tomatillo", "Tomato Soup", "Cherry Tomato"), names(result));
+        assertEquals(SuggestionType.FOOD, result.get(2).type());
+        assertEquals(10L, result.get(2).id());
+    }
+
+    @Test
+    void typeFilterAndLimitAreApplied() {
+        assertEquals(List.of("Tomato Soup"), names(autocompleteService.suggest("tom", 5, "food")));
+        assertEquals(List.of("Tomato", "Tomatillo"), names(autocompleteService.suggest("tom", 2, "INGREDIENT")));
+        assertEquals(List.of("Pesto Pasta"), names(autocompleteService.suggest("pa", null, null)));
+    }
+
+    @Test
+    void blankOrUnknownPrefixReturnsNothing() {
+        assertTrue(autocompleteService.suggest("  ", null, null).isEmpty());
+        assertTrue(autocompleteService.suggest("xyz", null, null).isEmpty());
+        assertTrue(autocompleteService.suggest("omato", null, null).isEmpty());
+    }
+
+    @Test
+    void invalidLimitOrTypeIsRejected() {
+        assertThrows(BusinessException.class, () -> autocompleteService.suggest("tom", 0, null));
+        assertThrows(BusinessException.class, () -> autocompleteService.suggest("tom", PrefixTrie.MAX_SUGGESTIONS + 1, null));
+        assertThrows(BusinessException.class, () -> autocompleteService.suggest("tom", null, "recipe"));
+    }
+
+    @Test
+    void catalogChangeSwapsInRebuiltSnapshot() {
+        when(foodRepository.findAllNames()).thenReturn(List.of(row(12L, "Tomato Bisque")));
+
+        autocompleteService.onFoodChanged(new FoodChangedEvent(Set.of(12L)));
+
+        assertEquals(List.of("Tomato Bisque"), names(autocompleteService.suggest("tomato b", null, null)));
+        assertTrue(autocompleteService.suggest("pesto", null, null).isEmpty());
+    }
+
+    @Test
+    void eachNodeKeepsOnlyTheBestRankedEntries() {
+        List<IdNameProjection> rows = new ArrayList<>();
+        for (long id = 100; id < 130; id++) {
+            rows.add(row(id, "Salt " + id));
+        }
+        when(ingredientRepository.findAllNames()).thenReturn(rows);
+        autocompleteService.build();
+
+        List<AutocompleteSuggestionDTO> result = autocompleteService.suggest("salt", PrefixTrie.MAX_SUGGESTIONS, null);
+        assertEquals(PrefixTrie.MAX_SUGGESTIONS, result.size());
+        assertEquals("Salt 100", result.getFirst().name());
+        assertEquals("Salt 109", result.getLast().name());
+    }
+
+    private static List<String> names(List<AutocompleteSuggestionDTO> suggestions) {
+        return suggestions.stream().map(AutocompleteSuggestionDTO::name).toList();
+    }
+
+    private static IdNameProjection row(Long id, String name) {
+        return new IdNameProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.chef.william.service.food;
+
+import com.chef.william.dto.FoodDTO;
+import com.chef.william.dto.InstructionDTO;
+import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.RecipeIngredientDTO;
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.model.enums.Unit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FoodDetailReaderTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private FoodDetailReader reader;
+
+    @BeforeEach
+    void setUp() {
+        // One connection throughout: H2 fails to evaluate CHECK constraints created by a session that has since closed
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;NON_KEYWORDS=VALUE", true);
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql"),
+                new ClassPathResource("db/migration/V5__recipe_nutrition_and_allergens.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        reader = new FoodDetailReader(jdbc);
+
+        jdbc.update("INSERT INTO food (id, name, category, created_by, updated_by, updated_at) "
+                + "VALUES (1, 'Pad Thai', 'Noodle', 'chef', 'sous', ?)", LocalDateTime.of(2026, 1, 2, 3, 4));
+        jdbc.update("INSERT INTO food (id, name, created_by) VALUES (2, 'Plain Rice', 'chef')");
+        ingredient(1, "Tamarind");
+        ingredient(2, "Peanut");
+        ingredient(3, "Egg");
+        recipe(10, "classic", Allergen.PEANUTS.bit() | Allergen.EGGS.bit());
+        recipe(11, "vegan", 0L);
+        recipeIngredient(100, 10, 2, 30, Unit.G, "crushed");
+        recipeIngredient(101, 10, 1, 1, Unit.TBSP, null);
+        recipeIngredient(102, 10, 3, 2, Unit.PIECE, null);
+        recipeIngredient(103, 11, 1, 2, Unit.TBSP, null);
+        jdbc.update("INSERT INTO instructions (id, recipe_id, step, description) VALUES "
+                + "(200, 10, 2, 'Fry'), (201, 10, 1, 'Soak'), (202, 11, 1, 'Toss')");
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void assemblesRecipesWithSortedIngredientsAndInstructions() {
+        FoodDTO food = reader.findById(1L, 0L).orElseThrow();
+
+        assertEquals("Pad Thai", food.getName());
+        assertEquals("sous", food.getUpdatedBy());
+        assertEquals(LocalDateTime.of(2026, 1, 2, 3, 4), food.getUpdatedAt());
+        assertEquals(2, food.getRecipeCount());
+        RecipeDTO classic = food.getRecipes().getFirst();
+        assertEquals("classic", classic.getVersion());
+        assertEquals("Pad Thai", classic.getFoodName());
+        assertEquals(Set.of(Allergen.PEANUTS, Allergen.EGGS), classic.getAllergens());
+        assertEquals(List.of("Egg", "Peanut", "Tamarind"),
+                classic.getIngredients().stream().map(RecipeIngredientDTO::getIngredientName).toList());
+        RecipeIngredientDTO peanut = classic.getIngredients().get(1);
+        assertEquals(30.0, peanut.getQuantity());
+        assertEquals(Unit.G, peanut.getUnit());
+        assertEquals("crushed", peanut.getNote());
+        assertEquals(List.of("Soak", "Fry"),
+                classic.getInstructions().stream().map(InstructionDTO::getDescription).toList());
+        assertEquals(1, food.getRecipes().get(1).getIngredients().size());
+    }
+
+    @Test
+    void leavesOutRecipesWithExcludedAllergens() {
+        FoodDTO food = reader.findById(1L, Allergen.PEANUTS.bit()).orElseThrow();
+
+        assertEquals(List.of(11L), food.getRecipes().stream().map(RecipeDTO::getId).toList());
+        assertEquals(1, food.getRecipeCount());
+        assertEquals(List.of("Toss"),
+                food.getRecipes().getFirst().getInstructions().stream().map(InstructionDTO::getDescription).toList());
+    }
+
+    @Test
+    void leavesOutRecipesWithoutDerivedMaskOnlyWhenFiltering() {
+        jdbc.update("INSERT INTO recipe (id, version, food_id, created_by) VALUES (12, 'pending', 1, 'chef')");
+
+        assertEquals(List.of(10L, 11L, 12L),
+                reader.findById(1L, 0L).orElseThrow().getRecipes().stream().map(RecipeDTO::getId).toList());
+        assertEquals(List.of(11L),
+                reader.findById(1L, Allergen.PEANUTS.bit()).orElseThrow().getRecipes().stream().map(RecipeDTO::getId).toList());
+    }
+
+    @Test
+    void foodWithoutRecipesAndMissingFood() {
+        FoodDTO food = reader.findById(2L, 0L).orElseThrow();
+
+        assertEquals(0, food.getRecipeCount());
+        assertTrue(food.getRecipes().isEmpty());
+        assertTrue(reader.findById(3L, 0L).isEmpty());
+    }
+
+    private void ingredient(long id, String name) {
+        jdbc.update("INSERT INTO ingredients (id, name, created_by, serving_amount, serving_unit) "
+                + "VALUES (?, ?, 'chef', 100, 'G')", id, name);
+    }
+
+    private void recipeIngredient(long id, long recipeId, long ingredientId, double quantity, Unit unit, String note) {
+        jdbc.update("INSERT INTO recipe_ingredients (id, recipe_id, ingredient_id, quantity, unit, note) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", id, recipeId, ingredientId, quantity, unit.name(), note);
+    }
+
+    private void recipe(long id, String version, long allergenMask) {
+        jdbc.update("INSERT INTO recipe (id, version, food_id, created_by, allergen_mask) VALUES (?, ?, 1, 'chef', ?)",
+                id, version, allergenMask);
+    }
+}
@@ -0,0 +1,149 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.Tagged;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngredientCatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IngredientCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new IngredientCatalogCache(meterRegistry, 100, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    void updateEvictsOnlyTheChangedIdAndNameQueriesItCouldAffect() {
+        cache.putAll(List.of(dto(1L, "Tomato"), dto(2L, "Basil")));
+        cache.getIdsByName("tom", query -> List.of(1L));
+        cache.getIdsByName("bas", query -> List.of(2L));
+
+        cache.onIngredientChanged(new IngredientChangedEvent(
+                IngredientChangedEvent.ChangeType.UPDATED, Set.of(1L), Set.of("tomato", "roma tomato")));
+
+        assertFalse(cache.contains(1L));
+        assertTrue(cache.contains(2L));
+        AtomicInteger reloads = new AtomicInteger();
+        cache.getIdsByName("tom", query -> {
+            reloads.incrementAndGet();
+            return List.of(1L);
+        });
+        cache.getIdsByName("bas", query -> {
+            reloads.incrementAndGet();
+            return List.of(2L);
+        });
+        assertEquals(1, reloads.get());
+    }
+
+    @Test
+    void createKeepsCachedDtosButDropsMatchingSearches() {
+        cache.putAll(List.of(dto(1L, "Tomato")));
+        cache.getIdsByName("", query -> List.of(1L));
+
+        cache.onIngredientChanged(new IngredientChangedEvent(
+                IngredientChangedEvent.ChangeType.CREATED, Set.of(2L), Set.of("cherry tomato")));
+
+        assertTrue(cache.contains(1L));
+        assertEquals(List.of(1L, 2L), cache.getIdsByName("", query -> List.of(1L, 2L)));
+    }
+
+    @Test
+    void getAllByIdLoadsMissesInOneCallAndReturnsCopiesInRequestedOrder() {
+        cache.putAll(List.of(dto(2L, "Basil")));
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        List<IngredientDTO> result = cache.getAllById(List.of(3L, 2L, 1L), missing -> {
+            loaderCalls.incrementAndGet();
+            assertEquals(Set.of(1L, 3L), missing);
+            return Map.of(1L, dto(1L, "Tomato"), 3L, dto(3L, "Garlic"));
+        });
+
+        assertEquals(List.of("Garlic", "Basil", "Tomato"), result.stream().map(IngredientDTO::getName).toList());
+        assertEquals(1, loaderCalls.get());
+        result.getFirst().setName("mutated");
+        assertNotSame(result.getFirst(), cache.getById(3L, id -> null));
+        assertEquals("Garlic", cache.getById(3L, id -> null).getName());
+    }
+
+    @Test
+    void hitAndMissCountsArePublishedAsMetrics() {
+        cache.getById(1L, id -> dto(1L, "Tomato"));
+        cache.getById(1L, id -> dto(1L, "Tomato"));
+
+        double hits = meterRegistry.get("cache.gets").tag("cache", "ingredientCatalog.byId").tag("result", "hit")
+                .functionCounter().count();
+        double misses = meterRegistry.get("cache.gets").tag("cache", "ingredientCatalog.byId").tag("result", "miss")
+                .functionCounter().count();
+        assertEquals(1.0, hits);
+        assertEquals(1.0, misses);
+    }
+
+    @Test
+    void taggedReadServesTheCachedCopyOnlyAtTheSameVersion() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getTagged(1L, "3", id -> {
+            loads.incrementAndGet();
+            return new Tagged<>(dto(1L, "Tomato"), "3");
+        });
+        Tagged<IngredientDTO> cached = cache.getTagged(1L, "3", id -> {
+            throw new AssertionError("served from cache");
+        });
+        // Written on another instance: the current version moved before any event reached this one
+        Tagged<IngredientDTO> reloaded = cache.getTagged(1L, "4", id -> {
+            loads.incrementAndGet();
+            return new Tagged<>(dto(1L, "Roma Tomato"), "4");
+        });
+
+        assertEquals(new Tagged<>(cached.body(), "3"), cached);
+        assertEquals("Roma Tomato", reloaded.body().getName());
+        assertEquals("4", reloaded.tag());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void entriesWithoutAVersionAreReloadedForTaggedReads() {
+        cache.putAll(List.of(dto(1L, "Tomato")));
+
+        Tagged<IngredientDTO> result = cache.getTagged(1L, "2", id -> new Tagged<>(dto(1L, "Roma Tomato"), "2"));
+
+        assertEquals("Roma Tomato", result.body().getName());
+    }
+
+    @Test
+    void ingredientVersionMovedElsewhereDropsEverything() {
+        cache.putAll(List.of(dto(1L, "Tomato")));
+        cache.getIdsByName("tom", query -> List.of(1L));
+
+        cache.onCacheRegionVersionChanged(new CacheRegionVersionChangedEvent(CacheRegionVersionChangedEvent.FOOD));
+        assertTrue(cache.contains(1L));
+
+        cache.onCacheRegionVersionChanged(new CacheRegionVersionChangedEvent(CacheRegionVersionChangedEvent.INGREDIENT));
+        assertFalse(cache.contains(1L));
+        assertEquals(List.of(), cache.getIdsByName("tom", query -> List.of()));
+    }
+
+    private IngredientDTO dto(Long id, String name) {
+        IngredientDTO dto = new IngredientDTO();
+        dto.setId(id);
+        dto.setName(name);
+        return dto;
+    }
+}
@@ -0,0 +1,106 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.exception.BusinessException;
+import com.chef.william.model.enums.Allergen;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.model.enums.Unit;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngredientImportParserTest {
+
+    private final IngredientImportParser parser = new IngredientImportParser(JsonMapper.builder().build());
+
+    @Test
+    void ndjsonReportsMalformedLinesAndSkipsBlankOnes() {
+        List<IngredientImportParser.Row> rows = parse("""
+                {"name":"Mint","servingAmount":10,"servingUnit":"G"}
+
+                {"name":
+                {"name":"Basil","nutritionList":[{"nutrient":"CALORIES","value":23,"unit":"kcal"}]}
+                """, IngredientImportParser.Format.NDJSON);
+
+        assertEquals(3, rows.size());
+        assertEquals(1, rows.get(0).line());
+        assertEquals("Mint", rows.get(0).ingredient().getName());
+        assertEquals(3, rows.get(1).line());
+        assertTrue(rows.get(1).error().startsWith("Malformed JSON"));
+        assertEquals(4, rows.get(2).line());
+        assertEquals(Nutrients.CALORIES, rows.get(2).ingredient().getNutritionList().getFirst().getNutrient());
+    }
+
+    @Test
+    void csvMapsColumnsAndNutrientHeaders() {
+        List<IngredientImportParser.Row> rows = parse("""
+                name,category,serving_amount,servingUnit,allergens,protein_g,calories_kcal
+                "Peanut Butter, smooth",Spread,100,g,peanuts;tree nuts,25,588
+                Mint,Herb,10,g,,,44
+                """, IngredientImportParser.Format.CSV);
+
+        assertEquals(2, rows.size());
+        IngredientImportParser.Row first = rows.get(0);
+        assertNull(first.error());
+        assertEquals(2, first.line());
+        assertEquals("Peanut Butter, smooth", first.ingredient().getName());
+        assertEquals(Unit.G, first.ingredient().getServingUnit());
+        assertEquals(Set.of(Allergen.PEANUTS, Allergen.TREE_NUTS), first.ingredient().getAllergens());
+        assertEquals(2, first.ingredient().getNutritionList().size());
+        assertEquals("g", first.ingredient().getNutritionList().getFirst().getUnit());
+
+        assertEquals(1, rows.get(1).ingredient().getNutritionList().size());
+        assertEquals(Nutrients.CALORIES, rows.get(1).ingredient().getNutritionList().getFirst().getNutrient());
+    }
+
+    @Test
+    void csvCellErrorsFailOnlyTheirRow() {
+        List<IngredientImportParser.Row> rows = parse("""
+                name,servingAmount
+                Mint,lots
+                "Basil,10
+                Sage,5
+                """, IngredientImportParser.Format.CSV);
+
+        assertEquals("Invalid number for servingAmount: lots", rows.get(0).error());
+        assertEquals("Unterminated quoted field", rows.get(1).error());
+        assertEquals("Sage", rows.get(2).ingredient().getName());
+        assertEquals(5.0, rows.get(2).ingredient().getServingAmount());
+    }
+
+    @Test
+    void csvRejectsUnknownColumnsAndMissingName() {
+        assertThrows(BusinessException.class, () -> parse("name,colour\nMint,green\n", IngredientImportParser.Format.CSV));
+        assertThrows(BusinessException.class, () -> parse("category\nHerb\n", IngredientImportParser.Format.CSV));
+    }
+
+    @Test
+    void splitCsvLineHandlesQuotesAndEmptyCells() {
+        assertEquals(List.of("a", "b \"c\", d", ""), IngredientImportParser.splitCsvLine("a,\"b \"\"c\"\", d\","));
+        assertNull(IngredientImportParser.splitCsvLine("\"open"));
+    }
+
+    @Test
+    void formatFollowsContentType() {
+        assertEquals(IngredientImportParser.Format.NDJSON,
+                IngredientImportParser.Format.fromContentType("application/x-ndjson"));
+        assertEquals(IngredientImportParser.Format.CSV,
+                IngredientImportParser.Format.fromContentType("text/csv; charset=UTF-8"));
+        assertThrows(BusinessException.class, () -> IngredientImportParser.Format.fromContentType("application/json"));
+    }
+
+    private List<IngredientImportParser.Row> parse(String body, IngredientImportParser.Format format) {
+        List<IngredientImportParser.Row> rows = new ArrayList<>();
+        parser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format).forEachRemaining(rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,191 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.dto.ImportRowErrorDTO;
+import com.chef.william.dto.IngredientImportResultDTO;
+import com.chef.william.model.User;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.auth.CurrentUserService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientImportServiceTest {
+
+    @Mock
+    private IngredientImportWriter ingredientImportWriter;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private IngredientImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IngredientImportService(new IngredientImportParser(JsonMapper.builder().build()),
+                ingredientImportWriter, ingredientRepository, currentUserService,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(transactionManager),
+                eventPublisher);
+        User user = new User();
+        user.setId(7L);
+        user.setUserName("importer");
+        when(currentUserService.getRequiredCurrentUser()).thenReturn(user);
+    }
+
+    @Test
+    void importReportsInvalidAndExistingRowsAndWritesTheRest() {
+        when(ingredientRepository.findExistingNormalizedNames(any())).thenReturn(Set.of("basil"));
+        when(ingredientImportWriter.write(anyList(), eq("importer"), eq(7L)))
+                .thenReturn(new IngredientImportWriter.Result(Map.of(100L, "Mint"), List.of()));
+
+        IngredientImportResultDTO result = service.importIngredients(body("""
+                name,servingAmount,calories_kcal
+                Mint,10,44
+                Basil,10,23
+                Sage,-1,
+                """), "text/csv");
+
+        assertEquals(3, result.received());
+        assertEquals(1, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals(4, result.errors().get(0).line());
+        assertTrue(result.errors().get(0).message().contains("Serving amount must be positive"));
+        assertEquals(3, result.errors().get(1).line());
+        assertEquals("Ingredient already exists: Basil", result.errors().get(1).message());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<IngredientImportParser.Row>> rows = ArgumentCaptor.forClass(List.class);
+        verify(ingredientImportWriter).write(rows.capture(), eq("importer"), eq(7L));
+        assertEquals(List.of("Mint"), rows.getValue().stream().map(row -> row.ingredient().getName()).toList());
+        ArgumentCaptor<IngredientChangedEvent> event = ArgumentCaptor.forClass(IngredientChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(100L), event.getValue().ingredientIds());
+        assertEquals(Set.of("mint"), event.getValue().affectedNames());
+    }
+
+    @Test
+    void repeatedNameStartsANewChunkSoTheSecondCopyIsRejected() {
+        when(ingredientRepository.findExistingNormalizedNames(any())).thenReturn(Set.of(), Set.of("mint"));
+        when(ingredientImportWriter.write(anyList(), any(), any()))
+                .thenReturn(new IngredientImportWriter.Result(Map.of(100L, "Mint"), List.of()));
+
+        IngredientImportResultDTO result = service.importIngredients(body("""
+                {"name":"Mint","servingAmount":10,"servingUnit":"G"}
+                {"name":" mint ","servingAmount":10,"servingUnit":"G"}
+                """), "application/x-ndjson");
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(2, result.errors().getFirst().line());
+        verify(ingredientImportWriter, times(1)).write(anyList(), any(), any());
+    }
+
+    @Test
+    void failedChunkIsRetriedRowByRowSoOnlyTheBadRowFails() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < IngredientImportService.CHUNK_SIZE + 1; i++) {
+            ndjson.append("{\"name\":\"Item ").append(i).append("\",\"servingAmount\":1,\"servingUnit\":\"G\"}\n");
+        }
+        when(ingredientRepository.findExistingNormalizedNames(any())).thenReturn(Set.of());
+        when(ingredientImportWriter.write(anyList(), any(), any())).thenAnswer(invocation -> {
+            List<IngredientImportParser.Row> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.ingredient().getName().equals("Item 3"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            Map<Long, String> inserted = new LinkedHashMap<>();
+            rows.forEach(row -> inserted.put(row.line(), row.ingredient().getName()));
+            return new IngredientImportWriter.Result(inserted, List.of());
+        });
+
+        IngredientImportResultDTO result = service.importIngredients(body(ndjson.toString()), "application/x-ndjson");
+
+        assertEquals(IngredientImportService.CHUNK_SIZE + 1, result.received());
+        assertEquals(IngredientImportService.CHUNK_SIZE, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(4, result.errors().getFirst().line());
+        assertTrue(result.errors().getFirst().message().startsWith("Could not be written"));
+        verify(eventPublisher, times(IngredientImportService.CHUNK_SIZE)).publishEvent(any(IngredientChangedEvent.class));
+    }
+
+    @Test
+    void rolledBackChunkIsNeitherCountedNorReportedTwice() {
+        when(ingredientRepository.findExistingNormalizedNames(any())).thenReturn(Set.of("basil"));
+        when(ingredientImportWriter.write(anyList(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("deadlock"))
+                .thenReturn(new IngredientImportWriter.Result(Map.of(100L, "Mint"), List.of()));
+
+        IngredientImportResultDTO result = service.importIngredients(body("""
+                {"name":"Mint","servingAmount":10,"servingUnit":"G"}
+                {"name":"Basil","servingAmount":10,"servingUnit":"G"}
+                """), "application/x-ndjson");
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(List.of(2L), result.errors().stream().map(ImportRowErrorDTO::line).toList());
+        assertEquals("Ingredient already exists: Basil", result.errors().getFirst().message());
+    }
+
+    @Test
+    void descriptionLongerThanTheColumnIsARowError() {
+        String description = "x".repeat(IngredientImportService.TEXT_COLUMN_LENGTH + 1);
+
+        IngredientImportResultDTO result = service.importIngredients(body("{\"name\":\"Mint\",\"servingAmount\":10,"
+                + "\"servingUnit\":\"G\",\"description\":\"" + description + "\"}\n"), "application/x-ndjson");
+
+        assertEquals(0, result.imported());
+        assertEquals("description: must not exceed 255 characters", result.errors().getFirst().message());
+        verify(ingredientImportWriter, never()).write(anyList(), any(), any());
+    }
+
+    @Test
+    void writerConflictsBecomeRowErrors() {
+        when(ingredientRepository.findExistingNormalizedNames(any())).thenReturn(Set.of());
+        when(ingredientImportWriter.write(anyList(), any(), any()))
+                .thenReturn(new IngredientImportWriter.Result(Map.of(), List.of(1L)));
+
+        IngredientImportResultDTO result = service.importIngredients(body("{\"name\":\"Mint\",\"servingAmount\":10,\"servingUnit\":\"G\"}\n"), "application/x-ndjson");
+
+        assertEquals(0, result.imported());
+        assertEquals("Ingredient already exists: Mint", result.errors().getFirst().message());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
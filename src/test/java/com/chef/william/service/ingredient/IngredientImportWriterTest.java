@@ -0,0 +1,75 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.model.enums.Allergen;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngredientImportWriterTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private IngredientImportWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        // One connection in one transaction, as the staging tables are dropped on commit
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;NON_KEYWORDS=VALUE", true);
+        dataSource.setAutoCommit(false);
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql"),
+                new ClassPathResource("db/migration/V3__optimistic_locking.sql"),
+                new ClassPathResource("db/migration/V5__recipe_nutrition_and_allergens.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SEQUENCE ingredients_seq START WITH 1 INCREMENT BY 50");
+        jdbc.execute("CREATE SEQUENCE nutrition_seq START WITH 1 INCREMENT BY 50");
+
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        when(sessionFactory.getJdbcServices().getDialect()).thenReturn(new H2Dialect());
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        writer = new IngredientImportWriter(jdbc, entityManagerFactory);
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void namesAreStoredTrimmedLikeTheDuplicateChecksCompareThem() {
+        jdbc.update("INSERT INTO ingredients (id, name, created_by, serving_amount, serving_unit) "
+                + "VALUES (900, 'Basil', 'chef', 100, 'g')");
+
+        IngredientImportWriter.Result result = writer.write(List.of(row(1, "  Peanut Sauce "), row(2, " basil ")),
+                "chef", null);
+
+        assertEquals(Map.of(1L, "Peanut Sauce"), result.inserted());
+        assertEquals(List.of(2L), result.conflictingLines());
+        assertEquals(Allergen.PEANUTS.bit(), jdbc.queryForObject(
+                "SELECT allergen_mask FROM ingredients WHERE name = 'Peanut Sauce'", Long.class));
+    }
+
+    private static IngredientImportParser.Row row(long line, String name) {
+        IngredientDTO dto = new IngredientDTO();
+        dto.setName(name);
+        return new IngredientImportParser.Row(line, dto, null);
+    }
+}
@@ -0,0 +1,116 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.repository.IdNameProjection;
+import com.chef.william.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientNameIndexTest {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    private IngredientNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IngredientNameIndex(ingredientRepository);
+        Map<Long, String> names = new LinkedHashMap<>();
+        names.put(1L, "Cherry Tomato");
+        names.put(2L, "Tomato");
+        names.put(3L, "Sun-dried tomato paste");
+        names.put(4L, "Tomatillo");
+        names.put(5L, "Basil");
+        index.rebuild(names);
+    }
+
+    @Test
+    void substringQueryRanksExactThenPrefixThenWordStart() {
+        assertEquals(List.of(2L, 4L, 1L, 3L), index.search("Toma", 10));
+        assertEquals(List.of(2L, 1L, 3L), index.search("tomato", 10));
+        verifyNoInteractions(ingredientRepository);
+    }
+
+    @Test
+    void limitKeepsOnlyBestMatches() {
+        assertEquals(List.of(2L, 4L), index.search("tom", 2));
+    }
+
+    @Test
+    void shortAndBlankQueriesAreServedByScanningNames() {
+        assertEquals(List.of(5L), index.search("ba", 10));
+        assertEquals(5, index.search("  ", 10).size());
+    }
+
+    @Test
+    void queryWithUnknownTrigramReturnsNothing() {
+        assertTrue(index.search("xyz", 10).isEmpty());
+        assertTrue(index.search("matob", 10).isEmpty());
+    }
+
+    @Test
+    void applyReplacesRenamedAndRemovesDeletedEntries() {
+        Map<Long, String> current = new HashMap<>();
+        current.put(5L, "Thai Basil");
+        current.put(6L, "Tomato Puree");
+
+        index.apply(Set.of(2L, 5L, 6L), current);
+
+        assertEquals(List.of(4L, 6L, 1L, 3L), index.search("tomat", 10));
+        assertEquals(List.of(5L), index.search("thai", 10));
+    }
+
+    @Test
+    void compactionKeepsLiveEntriesSearchable() {
+        Map<Long, String> bulk = new HashMap<>();
+        for (long id = 100; id < 2100; id++) {
+            bulk.put(id, "Spice " + id);
+        }
+        index.apply(bulk.keySet(), bulk);
+        index.apply(bulk.keySet(), Map.of());
+
+        assertEquals(List.of(2L, 4L, 1L, 3L), index.search("toma", 10));
+        assertTrue(index.search("spice", 10).isEmpty());
+    }
+
+    @Test
+    void ingredientVersionMovedByAnotherInstanceReloadsTheIndex() {
+        // Renamed on another instance, so no IngredientChangedEvent reached this one
+        when(ingredientRepository.findAllNames()).thenReturn(List.of(name(2L, "Roma Tomato"), name(5L, "Basil")));
+
+        index.onCacheRegionVersionChanged(new CacheRegionVersionChangedEvent(CacheRegionVersionChangedEvent.INGREDIENT));
+
+        assertEquals(List.of(2L), index.search("roma", 10));
+        assertTrue(index.search("tomatillo", 10).isEmpty());
+    }
+
+    private static IdNameProjection name(Long id, String name) {
+        return new IdNameProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.chef.william.service.ingredient;
+
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.repository.NutrientValueProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NutrientIndexTest {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    private NutrientIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NutrientIndex(ingredientRepository);
+        index.rebuild(List.of(
+                row(1L, Nutrients.PROTEIN, 25.0),
+                row(2L, Nutrients.PROTEIN, 3.5),
+                row(3L, Nutrients.PROTEIN, 12.0),
+                row(4L, Nutrients.PROTEIN, 12.0),
+                row(1L, Nutrients.FAT, 1.0),
+                row(3L, Nutrients.FAT, 20.0)));
+    }
+
+    @Test
+    void rangeIsMinExclusiveMaxInclusiveHighestFirst() {
+        assertArrayEquals(new long[]{1L, 4L, 3L, 2L}, index.range(Nutrients.PROTEIN, null, null));
+        assertArrayEquals(new long[]{4L, 3L}, index.range(Nutrients.PROTEIN, 3.5, 12.0));
+        assertArrayEquals(new long[]{1L}, index.range(Nutrients.PROTEIN, 12.0, null));
+        assertArrayEquals(new long[0], index.range(Nutrients.PROTEIN, 30.0, 40.0));
+        assertArrayEquals(new long[0], index.range(Nutrients.SODIUM, null, null));
+    }
+
+    @Test
+    void applyReplacesAllValuesOfChangedIngredients() {
+        index.apply(Set.of(3L, 2L), List.of(row(3L, Nutrients.PROTEIN, 30.0)));
+
+        assertArrayEquals(new long[]{3L, 1L, 4L}, index.range(Nutrients.PROTEIN, null, null));
+        assertArrayEquals(new long[]{1L}, index.range(Nutrients.FAT, null, null));
+    }
+
+    @Test
+    void deleteEventRemovesIngredientWithoutQuerying() {
+        index.onIngredientChanged(new IngredientChangedEvent(
+                IngredientChangedEvent.ChangeType.DELETED, Set.of(1L), Set.of("chicken")));
+
+        assertArrayEquals(new long[]{4L, 3L, 2L}, index.range(Nutrients.PROTEIN, null, null));
+        assertArrayEquals(new long[]{3L}, index.range(Nutrients.FAT, null, null));
+    }
+
+    @Test
+    void buildLoadsEveryNutrientRow() {
+        NutrientIndex fresh = new NutrientIndex(ingredientRepository);
+        assertFalse(fresh.isReady());
+        when(ingredientRepository.findAllNutrientValues()).thenReturn(List.of(row(9L, Nutrients.IRON, 2.0)));
+
+        fresh.build();
+
+        assertTrue(fresh.isReady());
+        assertArrayEquals(new long[]{9L}, fresh.range(Nutrients.IRON, 0.0, null));
+        verify(ingredientRepository).findAllNutrientValues();
+    }
+
+    private static NutrientValueProjection row(Long ingredientId, Nutrients nutrient, Double value) {
+        return new NutrientValueProjection() {
+            @Override
+            public Long getIngredientId() {
+                return ingredientId;
+            }
+
+            @Override
+            public Nutrients getNutrient() {
+                return nutrient;
+            }
+
+            @Override
+            public Double getValue() {
+                return value;
+            }
+        };
+    }
+}
@@ -15,7 +15,9 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class IngredientMapperTest {
 
@@ -84,4 +86,25 @@ class IngredientMapperTest {
         assertEquals("editor", dto.getUpdatedBy());
         assertEquals(LocalDateTime.of(2026, 4, 19, 14, 25), dto.getUpdatedAt());
     }
+
+    @Test
+    void updateEntityFromDtoReportsOnlyNutritionRelevantChanges() {
+        Ingredient entity = new Ingredient();
+        IngredientDTO dto = new IngredientDTO();
+        dto.setName("Milk");
+        dto.setServingAmount(100.0);
+        dto.setServingUnit(Unit.ML);
+        dto.setNutritionList(new ArrayList<>(List.of(new NutritionDTO(null, Nutrients.FAT, 3.5, "g"))));
+        assertTrue(ingredientMapper.updateEntityFromDto(dto, entity));
+
+        dto.setName("Whole milk");
+        dto.setDescription("Full fat");
+        assertFalse(ingredientMapper.updateEntityFromDto(dto, entity));
+
+        dto.getNutritionList().getFirst().setValue(3.25);
+        assertTrue(ingredientMapper.updateEntityFromDto(dto, entity));
+
+        dto.setDensity(1.03);
+        assertTrue(ingredientMapper.updateEntityFromDto(dto, entity));
+    }
 }
@@ -0,0 +1,135 @@
+package com.chef.william.service.nutrition;
+
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.NutrientAmountDTO;
+import com.chef.william.dto.NutritionDTO;
+import com.chef.william.dto.RecipeNutritionDTO;
+import com.chef.william.model.Ingredient;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.RecipeIngredient;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.model.enums.Unit;
+import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.ingredient.IngredientCatalogCache;
+import com.chef.william.service.mapper.IngredientMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeNutritionCalculatorTest {
+
+    @Mock
+    private IngredientCatalogCache ingredientCatalogCache;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private IngredientMapper ingredientMapper;
+
+    private RecipeNutritionCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new RecipeNutritionCalculator(ingredientCatalogCache, ingredientRepository, ingredientMapper);
+    }
+
+    @Test
+    void totalsScaleByServingAndConvertAcrossUnits() {
+        IngredientDTO flour = ingredient(1L, 100.0, Unit.G, null,
+                nutrition(Nutrients.CALORIES, 364.0, "kcal"), nutrition(Nutrients.PROTEIN, 10.0, "g"));
+        IngredientDTO milk = ingredient(2L, 100.0, Unit.ML, 1.03,
+                nutrition(Nutrients.CALORIES, 42.0, "kcal"), nutrition(Nutrients.PROTEIN, 3400.0, "mg"));
+        when(ingredientCatalogCache.getAllById(any(), any())).thenReturn(List.of(flour, milk));
+
+        Recipe recipe = recipe(7L, 4, line(1L, 0.5, Unit.KG), line(2L, 1.0, Unit.CUP));
+
+        RecipeNutritionDTO result = calculator.calculate(recipe);
+
+        // 500 g flour + 236.588 ml milk
+        assertEquals(1820.0 + 99.367, value(result.getTotal(), Nutrients.CALORIES), 0.001);
+        assertEquals(50.0 + 8.044, value(result.getTotal(), Nutrients.PROTEIN), 0.001);
+        assertEquals("g", unit(result.getTotal(), Nutrients.PROTEIN));
+        assertEquals(4, result.getServings());
+        assertEquals(479.842, value(result.getPerServing(), Nutrients.CALORIES), 0.001);
+        assertTrue(result.getUnresolvedIngredientIds().isEmpty());
+    }
+
+    @Test
+    void volumeToMassUsesDensityAndUnconvertibleLinesAreReported() {
+        IngredientDTO oil = ingredient(3L, 100.0, Unit.G, 0.92, nutrition(Nutrients.FAT, 100.0, "g"));
+        IngredientDTO garlic = ingredient(4L, 100.0, Unit.G, null, nutrition(Nutrients.CALORIES, 149.0, "kcal"));
+        when(ingredientCatalogCache.getAllById(any(), any())).thenReturn(List.of(oil, garlic));
+
+        Recipe recipe = recipe(8L, null, line(3L, 2.0, Unit.TBSP), line(4L, 3.0, Unit.CLOVE));
+
+        RecipeNutritionDTO result = calculator.calculate(recipe);
+
+        assertEquals(27.208, value(result.getTotal(), Nutrients.FAT), 0.001);
+        assertEquals(List.of(4L), result.getUnresolvedIngredientIds());
+        assertNull(result.getPerServing());
+    }
+
+    @Test
+    void conversionMatrixKeepsDimensionsApart() {
+        assertEquals(3.0, UnitConversionMatrix.factor(Unit.TBSP, Unit.TSP), 1e-9);
+        assertEquals(16.0, UnitConversionMatrix.factor(Unit.LB, Unit.OZ), 1e-9);
+        assertEquals(1.0, UnitConversionMatrix.factor(Unit.SLICE, Unit.SLICE));
+        assertTrue(Double.isNaN(UnitConversionMatrix.factor(Unit.SLICE, Unit.PIECE)));
+        assertTrue(Double.isNaN(UnitConversionMatrix.factor(Unit.G, Unit.ML)));
+        assertEquals(500.0, UnitConversionMatrix.convert(0.5, Unit.L, Unit.G, 1.0), 1e-9);
+        assertTrue(Double.isNaN(UnitConversionMatrix.convert(1.0, Unit.CUP, Unit.G, null)));
+    }
+
+    private static double value(List<NutrientAmountDTO> amounts, Nutrients nutrient) {
+        return amounts.stream().filter(a -> a.nutrient() == nutrient).findFirst().orElseThrow().value();
+    }
+
+    private static String unit(List<NutrientAmountDTO> amounts, Nutrients nutrient) {
+        return amounts.stream().filter(a -> a.nutrient() == nutrient).findFirst().orElseThrow().unit();
+    }
+
+    private static IngredientDTO ingredient(Long id, double servingAmount, Unit servingUnit, Double density,
+                                            NutritionDTO... nutrition) {
+        IngredientDTO dto = new IngredientDTO();
+        dto.setId(id);
+        dto.setServingAmount(servingAmount);
+        dto.setServingUnit(servingUnit);
+        dto.setDensity(density);
+        dto.setNutritionList(List.of(nutrition));
+        return dto;
+    }
+
+    private static NutritionDTO nutrition(Nutrients nutrient, double value, String unit) {
+        return new NutritionDTO(null, nutrient, value, unit);
+    }
+
+    private static Recipe recipe(Long id, Integer servings, RecipeIngredient... lines) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setServings(servings);
+        recipe.setRecipeIngredients(List.of(lines));
+        return recipe;
+    }
+
+    private static RecipeIngredient line(Long ingredientId, double quantity, Unit unit) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(ingredientId);
+        RecipeIngredient line = new RecipeIngredient();
+        line.setIngredient(ingredient);
+        line.setQuantity(quantity);
+        line.setUnit(unit);
+        return line;
+    }
+}
@@ -0,0 +1,121 @@
+package com.chef.william.service.nutrition;
+
+import com.chef.william.dto.NutrientAmountDTO;
+import com.chef.william.dto.RecipeMacrosDTO;
+import com.chef.william.dto.RecipeNutritionDTO;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.RecipeNutritionSummary;
+import com.chef.william.model.enums.Nutrients;
+import com.chef.william.repository.RecipeNutritionSummaryRepository;
+import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.ingredient.IngredientChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeNutritionSummaryServiceTest {
+
+    @Mock
+    private RecipeNutritionSummaryRepository summaryRepository;
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private RecipeNutritionCalculator recipeNutritionCalculator;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecipeNutritionSummaryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RecipeNutritionSummaryService(summaryRepository, recipeRepository, recipeNutritionCalculator,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void recomputeStoresMacrosInGrams() {
+        Recipe recipe = new Recipe();
+        recipe.setId(5L);
+        RecipeNutritionDTO nutrition = new RecipeNutritionDTO(5L, 2, List.of(
+                new NutrientAmountDTO(Nutrients.CALORIES, 640.0, "kcal"),
+                new NutrientAmountDTO(Nutrients.PROTEIN, 21500.0, "mg"),
+                new NutrientAmountDTO(Nutrients.FAT, 12.0, "g")), null, List.of(9L));
+        when(recipeNutritionCalculator.calculate(recipe)).thenReturn(nutrition);
+
+        service.recompute(recipe);
+
+        ArgumentCaptor<RecipeNutritionSummary> captor = ArgumentCaptor.forClass(RecipeNutritionSummary.class);
+        verify(summaryRepository).save(captor.capture());
+        RecipeNutritionSummary summary = captor.getValue();
+        assertEquals(5L, summary.getRecipeId());
+        assertEquals(640.0, summary.getCalories());
+        assertEquals(21.5, summary.getProtein(), 1e-9);
+        assertEquals(12.0, summary.getFat());
+        assertNull(summary.getSugars());
+        assertEquals(1, summary.getUnresolvedIngredients());
+    }
+
+    @Test
+    void ingredientNutritionChangeRecomputesReferencingRecipesInBatches() {
+        List<Long> recipeIds = new ArrayList<>(LongStream.rangeClosed(1, 250).boxed().toList());
+        when(recipeRepository.findIdsByIngredientIdIn(Set.of(3L))).thenReturn(recipeIds);
+        when(recipeRepository.findDetailedByIdIn(anyList())).thenReturn(List.of());
+        when(recipeNutritionCalculator.calculateAll(any())).thenReturn(new LinkedHashMap<>());
+
+        service.onIngredientChanged(new IngredientChangedEvent(
+                IngredientChangedEvent.ChangeType.UPDATED, Set.of(3L), Set.of("tomato"), true));
+
+        verify(recipeRepository).findDetailedByIdIn(recipeIds.subList(0, 100));
+        verify(recipeRepository).findDetailedByIdIn(recipeIds.subList(100, 200));
+        verify(recipeRepository).findDetailedByIdIn(recipeIds.subList(200, 250));
+        verify(summaryRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void changeWithoutNutritionImpactIsIgnored() {
+        service.onIngredientChanged(new IngredientChangedEvent(
+                IngredientChangedEvent.ChangeType.UPDATED, Set.of(3L), Set.of("tomato"), false));
+
+        verifyNoInteractions(recipeRepository, summaryRepository, recipeNutritionCalculator);
+    }
+
+    @Test
+    void findMacrosMarksIncompleteTotals() {
+        RecipeNutritionSummary summary = new RecipeNutritionSummary();
+        summary.setRecipeId(4L);
+        summary.setCalories(300.0);
+        summary.setUnresolvedIngredients(2);
+        when(summaryRepository.findAllById(List.of(4L))).thenReturn(List.of(summary));
+
+        Map<Long, RecipeMacrosDTO> macros = service.findMacros(List.of(4L));
+
+        assertEquals(300.0, macros.get(4L).calories());
+        assertFalse(macros.get(4L).complete());
+    }
+}
@@ -0,0 +1,80 @@
+package com.chef.william.service.patch;
+
+import com.chef.william.dto.IngredientDTO;
+import com.chef.william.dto.InstructionDTO;
+import com.chef.william.exception.BusinessException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonMergePatchTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final JsonMergePatch jsonMergePatch = new JsonMergePatch(jsonMapper,
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void applyMergesNamedMembersAndClearsNullOnes() {
+        IngredientDTO current = new IngredientDTO();
+        current.setName("Basil");
+        current.setCategory("Herb");
+        current.setDescription("Sweet basil");
+
+        IngredientDTO patched = jsonMergePatch.apply(current,
+                json("{\"category\": \"Fresh herb\", \"description\": null}"), IngredientDTO.class);
+
+        assertEquals("Basil", patched.getName());
+        assertEquals("Fresh herb", patched.getCategory());
+        assertNull(patched.getDescription());
+        assertEquals("Sweet basil", current.getDescription());
+    }
+
+    @Test
+    void applyOnlyValidatesTheMembersThePatchNames() {
+        IngredientDTO current = new IngredientDTO();
+        current.setName("x");
+
+        IngredientDTO patched = jsonMergePatch.apply(current, json("{\"category\": \"Spice\"}"), IngredientDTO.class);
+        assertEquals("Spice", patched.getCategory());
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> jsonMergePatch.apply(current, json("{\"servingAmount\": null}"), IngredientDTO.class));
+        assertEquals("Serving amount is required", ex.getMessage());
+    }
+
+    @Test
+    void applyAndValidateChecksTheWholeResult() {
+        InstructionDTO current = InstructionDTO.builder().step(3).build();
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> jsonMergePatch.applyAndValidate(current, json("{\"tutorialVideoUrl\": null}"), InstructionDTO.class));
+        assertEquals("Instruction description is required", ex.getMessage());
+    }
+
+    @Test
+    void keyedRejectsBadKeysAndNonObjectMembers() {
+        Map<Integer, JsonNode> entries = JsonMergePatch.keyed(json("{\"2\": {\"description\": \"Stir\"}, \"4\": null}"),
+                "instructions", Integer::valueOf);
+        assertEquals(List.of(2, 4), List.copyOf(entries.keySet()));
+        assertTrue(entries.containsKey(4) && entries.get(4) == null);
+
+        assertThrows(BusinessException.class,
+                () -> JsonMergePatch.keyed(json("{\"two\": {}}"), "instructions", Integer::valueOf));
+        assertThrows(BusinessException.class,
+                () -> JsonMergePatch.keyed(json("{\"2\": \"Stir\"}"), "instructions", Integer::valueOf));
+        assertThrows(BusinessException.class, () -> JsonMergePatch.requireObject(json("[]")));
+    }
+
+    private JsonNode json(String content) {
+        return jsonMapper.readTree(content);
+    }
+}
@@ -0,0 +1,116 @@
+package com.chef.william.service.recipe;
+
+import com.chef.william.config.cache.CacheRegionVersionChangedEvent;
+import com.chef.william.repository.RecipeIngredientPairProjection;
+import com.chef.william.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PantryIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    private PantryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PantryIndex(recipeRepository);
+        index.rebuild(List.of(
+                // 1: omelette = egg, butter
+                row(1L, 10L), row(1L, 11L),
+                // 2: pancakes = egg, flour, milk, butter
+                row(2L, 10L), row(2L, 12L), row(2L, 13L), row(2L, 11L),
+                // 3: bread = flour, yeast, salt, water
+                row(3L, 12L), row(3L, 14L), row(3L, 15L), row(3L, 16L),
+                // 4: scrambled eggs = egg, butter, milk
+                row(4L, 10L), row(4L, 11L), row(4L, 13L)));
+    }
+
+    @Test
+    void matchRanksFullMatchesFirstThenByMissingCount() {
+        List<PantryIndex.Match> matches = index.match(List.of(10L, 11L, 12L), 2, 10);
+
+        assertEquals(List.of(1L, 2L, 4L), matches.stream().map(PantryIndex.Match::recipeId).toList());
+        assertEquals(new PantryIndex.Match(1L, 2, 2, List.of()), matches.get(0));
+        assertEquals(new PantryIndex.Match(2L, 3, 4, List.of(13L)), matches.get(1));
+        assertEquals(new PantryIndex.Match(4L, 2, 3, List.of(13L)), matches.get(2));
+    }
+
+    @Test
+    void matchHonoursMaxMissingAndLimit() {
+        assertEquals(List.of(1L), index.match(List.of(10L, 11L), 0, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+        assertEquals(List.of(1L, 4L), index.match(List.of(10L, 11L), 2, 2).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+        assertTrue(index.match(List.of(99L), 2, 10).isEmpty());
+    }
+
+    @Test
+    void applyReplacesIngredientsOfChangedRecipesAndDropsDeletedOnes() {
+        index.apply(Set.of(1L, 3L, 5L), List.of(row(1L, 10L), row(5L, 17L)));
+
+        assertEquals(List.of(1L, 4L, 2L), index.match(List.of(10L, 11L), 2, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+        assertTrue(index.match(List.of(14L, 15L, 16L), 2, 10).isEmpty());
+        assertEquals(List.of(new PantryIndex.Match(5L, 1, 1, List.of())), index.match(List.of(17L), 0, 10));
+    }
+
+    @Test
+    void changeEventIsIgnoredUntilIndexIsBuilt() {
+        PantryIndex fresh = new PantryIndex(recipeRepository);
+        fresh.onRecipeChanged(new RecipeChangedEvent(Set.of(1L)));
+        assertFalse(fresh.isReady());
+
+        when(recipeRepository.findAllIngredientPairs()).thenReturn(List.of(row(7L, 10L)));
+        fresh.build();
+
+        assertTrue(fresh.isReady());
+        assertEquals(List.of(7L), fresh.match(List.of(10L), 0, 10).stream().map(PantryIndex.Match::recipeId).toList());
+    }
+
+    @Test
+    void recipeVersionMovedByAnotherInstanceReloadsTheIndex() {
+        // Recipe 8 was written elsewhere, so no RecipeChangedEvent reached this instance
+        when(recipeRepository.findAllIngredientPairs()).thenReturn(List.of(row(1L, 10L), row(1L, 11L), row(8L, 12L)));
+
+        index.onCacheRegionVersionChanged(new CacheRegionVersionChangedEvent(CacheRegionVersionChangedEvent.RECIPE));
+
+        assertEquals(List.of(new PantryIndex.Match(8L, 1, 1, List.of())), index.match(List.of(12L), 0, 10));
+        assertTrue(index.match(List.of(14L, 15L, 16L), 2, 10).isEmpty());
+    }
+
+    @Test
+    void otherGroupsDoNotReloadTheIndex() {
+        index.onCacheRegionVersionChanged(new CacheRegionVersionChangedEvent(CacheRegionVersionChangedEvent.FOOD));
+
+        verifyNoInteractions(recipeRepository);
+    }
+
+    private static RecipeIngredientPairProjection row(Long recipeId, Long ingredientId) {
+        return new RecipeIngredientPairProjection() {
+            @Override
+            public Long getRecipeId() {
+                return recipeId;
+            }
+
+            @Override
+            public Long getIngredientId() {
+                return ingredientId;
+            }
+        };
+    }
+}
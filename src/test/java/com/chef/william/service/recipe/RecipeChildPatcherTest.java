@@ -0,0 +1,152 @@
+package com.chef.william.service.recipe;
+
+import com.chef.william.dto.RecipeDTO;
+import com.chef.william.dto.RecipeIngredientDTO;
+import com.chef.william.exception.BusinessException;
+import com.chef.william.model.Ingredient;
+import com.chef.william.model.Instruction;
+import com.chef.william.model.Recipe;
+import com.chef.william.model.RecipeIngredient;
+import com.chef.william.model.enums.Unit;
+import com.chef.william.repository.InstructionRepository;
+import com.chef.william.service.patch.JsonMergePatch;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeChildPatcherTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Mock
+    private InstructionRepository instructionRepository;
+
+    @Mock
+    private RecipeMergeService recipeMergeService;
+
+    private RecipeChildPatcher patcher;
+
+    @BeforeEach
+    void setUp() {
+        JsonMergePatch jsonMergePatch = new JsonMergePatch(jsonMapper,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        patcher = new RecipeChildPatcher(jsonMergePatch, instructionRepository, recipeMergeService);
+    }
+
+    @Test
+    void keyedInstructionsTouchOnlyTheNamedSteps() {
+        Recipe recipe = recipe();
+        Instruction stepTwo = instruction(recipe, 2, "Slice");
+        Instruction stepThree = instruction(recipe, 3, "Serve");
+        when(instructionRepository.findByRecipeIdAndStepIn(7L, Set.of(2, 3, 9))).thenReturn(List.of(stepTwo, stepThree));
+        when(instructionRepository.countByRecipeId(7L)).thenReturn(4L);
+
+        patcher.patchInstructions(recipe, json("""
+                {"instructions": {"2": {"description": "Slice thin"}, "3": null, "9": {"description": "Eat"}}}
+                """));
+
+        assertEquals("Slice thin", stepTwo.getDescription());
+        verify(instructionRepository).delete(stepThree);
+        ArgumentCaptor<Instruction> created = ArgumentCaptor.forClass(Instruction.class);
+        verify(instructionRepository).save(created.capture());
+        assertEquals(9, created.getValue().getStep());
+        assertEquals("Eat", created.getValue().getDescription());
+        assertSame(recipe, created.getValue().getRecipe());
+        verifyNoInteractions(recipeMergeService);
+        assertTrue(recipe.getInstructions().isEmpty());
+    }
+
+    @Test
+    void keyedInstructionsRejectDeletingTheLastStepAndMismatchedKeys() {
+        Recipe recipe = recipe();
+        Instruction only = instruction(recipe, 1, "Boil");
+        when(instructionRepository.findByRecipeIdAndStepIn(7L, Set.of(1))).thenReturn(List.of(only));
+        when(instructionRepository.countByRecipeId(7L)).thenReturn(0L);
+
+        assertThrows(BusinessException.class,
+                () -> patcher.patchInstructions(recipe, json("{\"instructions\": {\"1\": null}}")));
+
+        when(instructionRepository.findByRecipeIdAndStepIn(7L, Set.of(5))).thenReturn(List.of());
+        assertThrows(BusinessException.class, () -> patcher.patchInstructions(recipe,
+                json("{\"instructions\": {\"5\": {\"step\": 6, \"description\": \"Rest\"}}}")));
+        verify(instructionRepository, never()).save(any());
+    }
+
+    @Test
+    void keyedIngredientsMergeIntoTheCurrentListBeforeTheFullMerge() {
+        Recipe recipe = recipe();
+        recipe.getRecipeIngredients().add(recipeIngredient(recipe, 1L, 200.0, "fresh"));
+        recipe.getRecipeIngredients().add(recipeIngredient(recipe, 2L, 5.0, null));
+
+        boolean changed = patcher.patchIngredients(recipe, json("""
+                {"ingredients": {"1": {"note": null}, "2": null, "3": {"quantity": 30, "unit": "G"}}}
+                """));
+
+        ArgumentCaptor<RecipeDTO> merged = ArgumentCaptor.forClass(RecipeDTO.class);
+        verify(recipeMergeService).mergeIngredients(any(Recipe.class), merged.capture());
+        assertTrue(changed);
+        assertEquals(List.of(
+                new RecipeIngredientDTO(null, 1L, null, 200.0, Unit.G, null),
+                new RecipeIngredientDTO(null, 3L, null, 30.0, Unit.G, null)), merged.getValue().getIngredients());
+    }
+
+    @Test
+    void ingredientArrayReplacesTheListAndIsValidatedLikePut() {
+        Recipe recipe = recipe();
+
+        assertThrows(BusinessException.class, () -> patcher.patchIngredients(recipe, json("{\"ingredients\": []}")));
+        assertFalse(patcher.patchIngredients(recipe, json("{\"servings\": 2}")));
+        verifyNoInteractions(recipeMergeService);
+    }
+
+    private JsonNode json(String content) {
+        return jsonMapper.readTree(content);
+    }
+
+    private static Recipe recipe() {
+        Recipe recipe = new Recipe();
+        recipe.setId(7L);
+        return recipe;
+    }
+
+    private static Instruction instruction(Recipe recipe, int step, String description) {
+        Instruction instruction = new Instruction();
+        instruction.setRecipe(recipe);
+        instruction.setStep(step);
+        instruction.setDescription(description);
+        return instruction;
+    }
+
+    private static RecipeIngredient recipeIngredient(Recipe recipe, Long ingredientId, double quantity, String note) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(ingredientId);
+        RecipeIngredient ri = new RecipeIngredient();
+        ri.setRecipe(recipe);
+        ri.setIngredient(ingredient);
+        ri.setQuantity(quantity);
+        ri.setUnit(Unit.G);
+        ri.setNote(note);
+        return ri;
+    }
+}
@@ -10,6 +10,7 @@ import com.chef.william.model.Recipe;
 import com.chef.william.model.RecipeIngredient;
 import com.chef.william.model.enums.Unit;
 import com.chef.william.repository.IngredientRepository;
+import com.chef.william.service.ingredient.IngredientCatalogCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -20,6 +21,9 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +32,9 @@ class RecipeMergeServiceTest {
     @Mock
     private IngredientRepository ingredientRepository;
 
+    @Mock
+    private IngredientCatalogCache ingredientCatalogCache;
+
     @InjectMocks
     private RecipeMergeService recipeMergeService;
 
@@ -100,4 +107,22 @@ class RecipeMergeServiceTest {
         assertEquals(2, recipe.getInstructions().size());
         assertEquals("Updated step", existingIns.getDescription());
     }
+
+    @Test
+    void mergeIngredientsLinksCachedIngredientsWithoutLoadingThem() {
+        Ingredient basil = new Ingredient();
+        basil.setId(5L);
+
+        RecipeDTO dto = new RecipeDTO();
+        dto.setIngredients(List.of(new RecipeIngredientDTO(null, 5L, null, 1.0, Unit.G, null)));
+
+        when(ingredientCatalogCache.contains(5L)).thenReturn(true);
+        when(ingredientRepository.getReferenceById(5L)).thenReturn(basil);
+
+        Recipe recipe = new Recipe();
+        recipeMergeService.mergeIngredients(recipe, dto);
+
+        assertEquals(basil, recipe.getRecipeIngredients().getFirst().getIngredient());
+        verify(ingredientRepository, never()).findAllById(any());
+    }
 }
@@ -0,0 +1,78 @@
+package com.chef.william.service.search;
+
+import com.chef.william.repository.RecipeRepository;
+import com.chef.william.service.recipe.RecipeChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeSearchIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    private RecipeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeSearchIndex(recipeRepository);
+        index.rebuild(Map.of(
+                1L, new RecipeSearchIndex.RecipeText("Garlic butter prawns",
+                        List.of("Melt the butter", "Add garlic and prawns", "Cook for 3 minutes")),
+                2L, new RecipeSearchIndex.RecipeText("Tomato soup",
+                        List.of("Roast the tomatoes with garlic", "Blend until smooth")),
+                3L, new RecipeSearchIndex.RecipeText("Plain rice",
+                        List.of("Rinse the rice", "Simmer for 12 minutes"))));
+    }
+
+    @Test
+    void searchRanksByBm25AndFoldsPlurals() {
+        RecipeSearchIndex.Result result = index.search("garlic prawn", 0, 10);
+
+        assertEquals(List.of(1L, 2L), recipeIds(result));
+        assertEquals(2, result.totalHits());
+        assertEquals(Set.of("garlic", "prawn"), result.terms());
+        assertTrue(result.hits().get(0).score() > result.hits().get(1).score());
+        assertEquals(List.of(2L), recipeIds(index.search("Tomato", 0, 10)));
+    }
+
+    @Test
+    void searchPagesThroughHitsAndIgnoresStopWords() {
+        // Same term frequency, so the shorter recipe wins
+        assertEquals(List.of(3L), recipeIds(index.search("minutes", 0, 1)));
+        assertEquals(List.of(1L), recipeIds(index.search("minutes", 1, 1)));
+        assertEquals(2, index.search("minutes", 1, 1).totalHits());
+        assertTrue(index.search("the and", 0, 10).hits().isEmpty());
+        assertTrue(index.search("minutes", 5, 10).hits().isEmpty());
+    }
+
+    @Test
+    void applyReplacesChangedRecipesAndDropsDeletedOnes() {
+        index.apply(List.of(2L, 3L), Map.of(3L, new RecipeSearchIndex.RecipeText("Garlic rice", List.of())));
+
+        assertEquals(List.of(3L, 1L), recipeIds(index.search("garlic", 0, 10)));
+        assertTrue(index.search("tomato", 0, 10).hits().isEmpty());
+    }
+
+    @Test
+    void changeEventIsIgnoredUntilIndexIsBuilt() {
+        RecipeSearchIndex fresh = new RecipeSearchIndex(recipeRepository);
+        fresh.onRecipeChanged(new RecipeChangedEvent(Set.of(1L)));
+        verifyNoInteractions(recipeRepository);
+    }
+
+    private static List<Long> recipeIds(RecipeSearchIndex.Result result) {
+        return result.hits().stream().map(RecipeSearchIndex.Hit::recipeId).toList();
+    }
+}
@@ -0,0 +1,41 @@
+package com.chef.william.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnippetHighlighterTest {
+
+    @Test
+    void snippetMarksHitsInTheBestSegmentAndEscapesHtml() {
+        String snippet = SnippetHighlighter.snippet(Set.of("garlic", "tomato"),
+                List.of("A <quick> soup", "Roast tomatoes & garlic", "Add garlic"));
+
+        assertEquals("Roast <mark>tomatoes</mark> &amp; <mark>garlic</mark>", snippet);
+    }
+
+    @Test
+    void snippetWindowsLongSegmentsAroundTheFirstHit() {
+        String filler = "stir gently ".repeat(30);
+        String snippet = SnippetHighlighter.snippet(Set.of("saffron"), List.of(filler + "add saffron " + filler));
+
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.endsWith("…"));
+        assertTrue(snippet.contains("add <mark>saffron</mark>"));
+        assertTrue(snippet.length() <= SnippetHighlighter.MAX_LENGTH + 2 + "<mark></mark>".length());
+    }
+
+    @Test
+    void snippetIsNullWithoutHitsAndStemmerFoldsPlurals() {
+        assertNull(SnippetHighlighter.snippet(Set.of("saffron"), List.of("Boil water")));
+        assertEquals("berry", SearchTokenizer.stem("berries"));
+        assertEquals("potato", SearchTokenizer.stem("potatoes"));
+        assertEquals("slice", SearchTokenizer.stem("slices"));
+        assertEquals("glass", SearchTokenizer.stem("glass"));
+    }
+}